@@ -0,0 +1,125 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Error-heavy traffic benchmark for a running msProduct service.
+ *
+ * Sends REQUESTS requests ROUNDS times per variant, keeping CONCURRENCY in flight, and reports
+ * wall time, requests per second and latency percentiles:
+ *   - found    GET /product/{id} of stored products (200), the baseline
+ *   - missing  GET /product/{id} of ids that were never stored, each one different (404)
+ *   - invalid  GET /product/search with a non-numeric page (400)
+ * Requests answered with another status are counted as errors. Compare missing and invalid
+ * against found, and across builds, to see what the error path costs.
+ *
+ * Usage: java benchmark/ErrorPathBenchmark.java [REQUESTS] [ROUNDS]   (run from backend/msProduct)
+ * Environment: BASE_URL (http://localhost:8080), CONCURRENCY (32). Use a rate limit above
+ * REQUESTS so 429s do not skew results.
+ */
+public class ErrorPathBenchmark {
+    private static final String BASE_URL = System.getenv().getOrDefault("BASE_URL", "http://localhost:8080");
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int concurrency = Integer.parseInt(System.getenv().getOrDefault("CONCURRENCY", "32"));
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        List<String> ids = productIds(client);
+        List<URI> found = new ArrayList<>(requests);
+        List<URI> invalid = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            found.add(URI.create(BASE_URL + "/product/" + ids.get(i % ids.size())));
+            invalid.add(URI.create(BASE_URL + "/product/search?page=p" + i));
+        }
+        System.out.printf("%n%-8s %-6s %-10s %-10s %-10s %-10s %-8s%n",
+            "variant", "round", "wall (ms)", "req/s", "p50 (ms)", "p99 (ms)", "errors");
+        run("found", client, concurrency, 200, rounds, round -> found);
+        // New ids every round, so no round is answered from what an earlier one looked up
+        run("missing", client, concurrency, 404, rounds, round -> {
+            List<URI> missing = new ArrayList<>(requests);
+            for (int i = 0; i < requests; i++) {
+                missing.add(URI.create(BASE_URL + "/product/missing-" + round + "-" + i));
+            }
+            return missing;
+        });
+        run("invalid", client, concurrency, 400, rounds, round -> invalid);
+    }
+
+    private interface Uris {
+        List<URI> forRound(int round);
+    }
+
+    private static void run(String name, HttpClient client, int inFlight, int expectedStatus, int rounds, Uris uris)
+            throws Exception {
+        // Warm up the JIT on both sides and open the connections before measuring
+        measure(client, inFlight, expectedStatus, uris.forRound(0));
+        long total = 0;
+        long sent = 0;
+        for (int round = 1; round <= rounds; round++) {
+            List<URI> roundUris = uris.forRound(round);
+            Round result = measure(client, inFlight, expectedStatus, roundUris);
+            total += result.wallMillis();
+            sent += roundUris.size();
+            System.out.printf("%-8s %-6d %-10d %-10d %-10.2f %-10.2f %-8d%n", name, round, result.wallMillis(),
+                roundUris.size() * 1000L / Math.max(1, result.wallMillis()), result.percentile(50),
+                result.percentile(99), result.errors());
+        }
+        System.out.printf("%-8s %-6s %-10d %-10d%n%n", name, "avg", total / rounds, sent * 1000L / Math.max(1, total));
+    }
+
+    private record Round(long wallMillis, long[] latencyNanos, int errors) {
+        double percentile(int percentile) {
+            long[] sorted = latencyNanos.clone();
+            Arrays.sort(sorted);
+            int index = Math.max(0, (int) Math.ceil(percentile / 100.0 * sorted.length) - 1);
+            return sorted[index] / 1_000_000.0;
+        }
+    }
+
+    private static Round measure(HttpClient client, int inFlight, int expectedStatus, List<URI> uris) throws Exception {
+        Semaphore permits = new Semaphore(inFlight);
+        long[] latencies = new long[uris.size()];
+        AtomicInteger errors = new AtomicInteger();
+        List<CompletableFuture<?>> pending = new ArrayList<>(uris.size());
+        long start = System.nanoTime();
+        for (int i = 0; i < uris.size(); i++) {
+            int index = i;
+            permits.acquire();
+            long sent = System.nanoTime();
+            pending.add(client.sendAsync(HttpRequest.newBuilder(uris.get(i)).build(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    latencies[index] = System.nanoTime() - sent;
+                    if (error != null || response.statusCode() != expectedStatus) {
+                        errors.incrementAndGet();
+                    }
+                    permits.release();
+                }));
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).exceptionally(error -> null).join();
+        return new Round((System.nanoTime() - start) / 1_000_000, latencies, errors.get());
+    }
+
+    // Ids of stored products, from the CSV export
+    private static List<String> productIds(HttpClient client) throws Exception {
+        HttpResponse<java.util.stream.Stream<String>> export = client.send(
+            HttpRequest.newBuilder(URI.create(BASE_URL + "/product/export?format=csv")).build(),
+            HttpResponse.BodyHandlers.ofLines());
+        List<String> ids = export.body().skip(1)
+            .map(line -> line.split(",", 2)[0].replace("\"", ""))
+            .filter(id -> !id.isEmpty())
+            .toList();
+        if (export.statusCode() != 200 || ids.isEmpty()) {
+            throw new IllegalStateException("No products at " + BASE_URL + " (status " + export.statusCode() + ")");
+        }
+        return ids;
+    }
+}
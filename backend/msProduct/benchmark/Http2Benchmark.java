@@ -0,0 +1,125 @@
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP/2 benchmark for a running msProduct service.
+ *
+ * Fetches REQUESTS product details (GET /product/{id}, ids taken from the CSV export) ROUNDS
+ * times per variant and reports wall time, requests per second and latency percentiles:
+ *   - http1.1  HTTP/1.1 keeping POOL_SIZE requests in flight, one pooled keep-alive connection
+ *              each (browsers open 6 per host)
+ *   - h2       HTTP/2 keeping STREAMS requests in flight, multiplexed on one connection: h2c
+ *              (Upgrade) for http, h2 (ALPN) for https
+ *
+ * Usage: java benchmark/Http2Benchmark.java [REQUESTS] [ROUNDS]   (run from backend/msProduct)
+ * Environment: BASE_URL (http://localhost:8080), POOL_SIZE (6), STREAMS (100), INSECURE=true to
+ * accept a self-signed certificate. Use a rate limit above REQUESTS so 429s do not skew results.
+ */
+public class Http2Benchmark {
+    private static final String BASE_URL = System.getenv().getOrDefault("BASE_URL", "http://localhost:8080");
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int poolSize = Integer.parseInt(System.getenv().getOrDefault("POOL_SIZE", "6"));
+        int streams = Integer.parseInt(System.getenv().getOrDefault("STREAMS", "100"));
+
+        List<URI> uris = productUris(requests);
+        System.out.printf("%n%-8s %-6s %-10s %-10s %-10s %-10s %-8s%n",
+            "variant", "round", "wall (ms)", "req/s", "p50 (ms)", "p99 (ms)", "errors");
+        run("http1.1", client(HttpClient.Version.HTTP_1_1), poolSize, uris, rounds);
+        run("h2", client(HttpClient.Version.HTTP_2), streams, uris, rounds);
+    }
+
+    private static void run(String name, HttpClient client, int inFlight, List<URI> uris, int rounds) throws Exception {
+        // Warm up the JIT on both sides and open the connections before measuring
+        measure(client, inFlight, uris);
+        long total = 0;
+        for (int round = 1; round <= rounds; round++) {
+            Round result = measure(client, inFlight, uris);
+            total += result.wallMillis();
+            System.out.printf("%-8s %-6d %-10d %-10d %-10.2f %-10.2f %-8d%n", name, round, result.wallMillis(),
+                uris.size() * 1000L / Math.max(1, result.wallMillis()), result.percentile(50), result.percentile(99),
+                result.errors());
+        }
+        System.out.printf("%-8s %-6s %-10d %-10d%n%n", name, "avg", total / rounds,
+            uris.size() * rounds * 1000L / Math.max(1, total));
+    }
+
+    private record Round(long wallMillis, long[] latencyNanos, int errors) {
+        double percentile(int percentile) {
+            long[] sorted = latencyNanos.clone();
+            Arrays.sort(sorted);
+            int index = Math.max(0, (int) Math.ceil(percentile / 100.0 * sorted.length) - 1);
+            return sorted[index] / 1_000_000.0;
+        }
+    }
+
+    private static Round measure(HttpClient client, int inFlight, List<URI> uris) throws Exception {
+        Semaphore permits = new Semaphore(inFlight);
+        long[] latencies = new long[uris.size()];
+        AtomicInteger errors = new AtomicInteger();
+        List<CompletableFuture<?>> pending = new ArrayList<>(uris.size());
+        long start = System.nanoTime();
+        for (int i = 0; i < uris.size(); i++) {
+            int index = i;
+            permits.acquire();
+            long sent = System.nanoTime();
+            pending.add(client.sendAsync(HttpRequest.newBuilder(uris.get(i)).build(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    latencies[index] = System.nanoTime() - sent;
+                    if (error != null || response.statusCode() / 100 != 2) {
+                        errors.incrementAndGet();
+                    }
+                    permits.release();
+                }));
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).exceptionally(error -> null).join();
+        return new Round((System.nanoTime() - start) / 1_000_000, latencies, errors.get());
+    }
+
+    // One product detail URI per request, cycling through the catalog
+    private static List<URI> productUris(int requests) throws Exception {
+        HttpResponse<java.util.stream.Stream<String>> export = client(HttpClient.Version.HTTP_1_1).send(
+            HttpRequest.newBuilder(URI.create(BASE_URL + "/product/export?format=csv")).build(),
+            HttpResponse.BodyHandlers.ofLines());
+        List<String> ids = export.body().skip(1)
+            .map(line -> line.split(",", 2)[0].replace("\"", ""))
+            .filter(id -> !id.isEmpty())
+            .toList();
+        if (export.statusCode() != 200 || ids.isEmpty()) {
+            throw new IllegalStateException("No products at " + BASE_URL + " (status " + export.statusCode() + ")");
+        }
+        List<URI> uris = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            uris.add(URI.create(BASE_URL + "/product/" + ids.get(i % ids.size())));
+        }
+        return uris;
+    }
+
+    private static HttpClient client(HttpClient.Version version) throws Exception {
+        HttpClient.Builder builder = HttpClient.newBuilder().version(version);
+        if (Boolean.parseBoolean(System.getenv("INSECURE"))) {
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(null, new TrustManager[] {new X509TrustManager() {
+                public void checkClientTrusted(X509Certificate[] chain, String authType) { }
+                public void checkServerTrusted(X509Certificate[] chain, String authType) { }
+                public X509Certificate[] getAcceptedIssuers() { return new X509Certificate[0]; }
+            }}, null);
+            builder.sslContext(context);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,73 @@
+#!/bin/bash
+#
+# Startup benchmark for the msProduct images.
+#
+# Builds the JVM and native images, starts each variant RUNS times and reports:
+#   - time from `docker run` until the first successful GET /product
+#   - resident memory of the container right after that first response
+#
+# Usage: ./benchmark/startup-benchmark.sh [RUNS]   (run from backend/msProduct)
+
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+TIMEOUT_SECONDS=${TIMEOUT_SECONDS:-120}
+
+# variant name | image tag | extra docker run arguments
+VARIANTS=(
+    "jvm|jvm|-e CDS_OPTS="
+    "jvm-cds-aot|jvm|"
+    "native|native|"
+)
+
+build_images() {
+    echo "Building marketplace-backend:jvm ..."
+    docker build -q -t marketplace-backend:jvm . > /dev/null
+    echo "Building marketplace-backend:native ..."
+    docker build -q --target native -t marketplace-backend:native . > /dev/null
+}
+
+now_ms() {
+    date +%s%3N
+}
+
+# Prints "<startup ms> <rss MiB>" for one cold start of the given image.
+measure_once() {
+    local image=$1 run_args=$2 container="msproduct-bench-$$"
+    local start end deadline
+
+    start=$(now_ms)
+    # shellcheck disable=SC2086 # run_args is intentionally word-split
+    docker run -d --rm --name "$container" -p "$PORT:8080" $run_args "$image" > /dev/null
+    deadline=$((start + TIMEOUT_SECONDS * 1000))
+
+    until curl -sf -o /dev/null "http://localhost:$PORT/product"; do
+        if [ "$(now_ms)" -gt "$deadline" ]; then
+            docker rm -f "$container" > /dev/null
+            echo "timeout" >&2
+            return 1
+        fi
+        sleep 0.02
+    done
+    end=$(now_ms)
+
+    local rss
+    rss=$(docker stats --no-stream --format '{{.MemUsage}}' "$container" | awk '{print $1}')
+    docker rm -f "$container" > /dev/null
+    echo "$((end - start)) $rss"
+}
+
+build_images
+
+printf '\n%-12s %-6s %-16s %-12s\n' "variant" "run" "first GET (ms)" "memory"
+for variant in "${VARIANTS[@]}"; do
+    IFS='|' read -r name tag run_args <<< "$variant"
+    total=0
+    for run in $(seq 1 "$RUNS"); do
+        read -r millis rss < <(measure_once "marketplace-backend:$tag" "$run_args")
+        total=$((total + millis))
+        printf '%-12s %-6s %-16s %-12s\n' "$name" "$run" "$millis" "$rss"
+    done
+    printf '%-12s %-6s %-16s\n\n' "$name" "avg" "$((total / RUNS))"
+done
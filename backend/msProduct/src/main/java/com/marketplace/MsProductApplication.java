@@ -1,11 +1,14 @@
 package com.marketplace;
 
+import com.marketplace.infrastructure.config.ProductRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(ProductRuntimeHints.class)
 public class MsProductApplication {
     public static void main(String[] args) {
         SpringApplication.run(MsProductApplication.class, args);
     }
-} 
\ No newline at end of file
+}
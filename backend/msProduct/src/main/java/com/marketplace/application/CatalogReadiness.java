@@ -0,0 +1,14 @@
+package com.marketplace.application;
+
+/**
+ * Whether the catalog is ready to serve traffic, for readiness probes.
+ */
+public interface CatalogReadiness {
+
+    /**
+     * True once the catalog and its indexes were built ahead of the first request. While the
+     * last attempt failed, asking starts another one in the background, at most once per retry
+     * interval, so an instance whose store was briefly unavailable becomes ready on its own.
+     */
+    boolean isWarmedUp();
+}
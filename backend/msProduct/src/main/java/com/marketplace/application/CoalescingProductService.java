@@ -0,0 +1,133 @@
+package com.marketplace.application;
+
+import com.marketplace.domain.Product;
+import com.marketplace.domain.ProductChanges;
+import com.marketplace.domain.ProductFilter;
+import com.marketplace.domain.ProductPage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * ProductService in front of {@link ProductServiceImpl} that coalesces concurrent identical reads.
+ *
+ * Requests for the whole catalog or for one product that arrive while the same read is in flight
+ * share its result, so a burst after a restart or a write costs one read instead of one per
+ * request. Flights are keyed by a write generation: a read that starts after a write has
+ * completed never joins a flight that started before it, so clients still read their own writes.
+ * Shared results are handed to several callers and must be treated as read-only.
+ */
+@Service
+@Primary
+public class CoalescingProductService implements ProductService {
+    private final ProductService delegate;
+    private final SingleFlight<String, List<Product>> catalogReads = new SingleFlight<>();
+    private final SingleFlight<String, Product> productReads = new SingleFlight<>();
+    private final AtomicLong writeGeneration = new AtomicLong();
+
+    @Autowired
+    public CoalescingProductService(ProductServiceImpl delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public List<Product> getAllProducts() {
+        return catalogReads.execute(String.valueOf(writeGeneration.get()), delegate::getAllProducts);
+    }
+
+    @Override
+    public Product getProductById(String id) {
+        return productReads.execute(writeGeneration.get() + ":" + id, () -> delegate.getProductById(id));
+    }
+
+    @Override
+    public void exportProducts(Consumer<? super Product> consumer) {
+        delegate.exportProducts(consumer);
+    }
+
+    @Override
+    public ProductChanges getChanges(long since, int limit) {
+        return delegate.getChanges(since, limit);
+    }
+
+    @Override
+    public ProductPage getProductsBySeller(String sellerId, int page, int size) {
+        return delegate.getProductsBySeller(sellerId, page, size);
+    }
+
+    @Override
+    public ProductPage searchProducts(ProductFilter filter, int page, int size) {
+        return delegate.searchProducts(filter, page, size);
+    }
+
+    @Override
+    public Product createProduct(Product product) {
+        return write(() -> delegate.createProduct(product));
+    }
+
+    @Override
+    public Product updateProduct(String id, Product product) {
+        return write(() -> delegate.updateProduct(id, product));
+    }
+
+    @Override
+    public void deleteProduct(String id) {
+        write(() -> {
+            delegate.deleteProduct(id);
+            return null;
+        });
+    }
+
+    @Override
+    public Product updateProduct(String id, Product product, Long expectedVersion) {
+        return write(() -> delegate.updateProduct(id, product, expectedVersion));
+    }
+
+    @Override
+    public Product patchProduct(String id, Product patch, Long expectedVersion) {
+        return write(() -> delegate.patchProduct(id, patch, expectedVersion));
+    }
+
+    @Override
+    public void deleteProduct(String id, Long expectedVersion) {
+        write(() -> {
+            delegate.deleteProduct(id, expectedVersion);
+            return null;
+        });
+    }
+
+    @Override
+    public List<Product> importProducts(List<Product> products) {
+        return write(() -> delegate.importProducts(products));
+    }
+
+    @Override
+    public void finishImport() {
+        delegate.finishImport();
+    }
+
+    @Override
+    public void applyReplicatedChanges(List<Product> upserts, List<String> deleted) {
+        write(() -> {
+            delegate.applyReplicatedChanges(upserts, deleted);
+            return null;
+        });
+    }
+
+    public long coalescedReads() {
+        return catalogReads.sharedCalls() + productReads.sharedCalls();
+    }
+
+    private <T> T write(Supplier<T> work) {
+        try {
+            return work.get();
+        } finally {
+            writeGeneration.incrementAndGet();
+        }
+    }
+}
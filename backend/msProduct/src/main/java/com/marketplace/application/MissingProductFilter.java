@@ -0,0 +1,255 @@
+package com.marketplace.application;
+
+import com.marketplace.domain.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Answers lookups of product ids that are not stored without reaching the repository.
+ *
+ * A Bloom filter holds every stored id: it is filled from the catalog on first use and ids are
+ * added before they are written, so it never rules out a stored product. When the repository
+ * loads another catalog, seen as a new catalog generation, the ids of that catalog are added and
+ * cached misses are dropped. Deleted ids and the ids of earlier catalogs stay in it until
+ * restart, as bits are never cleared while lookups run. Ids it cannot rule out that were just
+ * looked up and missing are kept in a small negative cache for a while. A miss is only cached
+ * when no write finished during its lookup, and writes evict their id, so a cached miss never
+ * hides a product written since.
+ */
+@Component
+public class MissingProductFilter {
+    private static final Logger logger = LoggerFactory.getLogger(MissingProductFilter.class);
+
+    private final boolean enabled;
+    private final int expectedIds;
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicLong addedIds = new AtomicLong();
+    private volatile boolean built;
+    private volatile long builtGeneration;
+    private final int negativeCacheSize;
+    private final long negativeTtlNanos;
+    private final LinkedHashMap<String, Long> missing;
+    // Bumped after every write, so a lookup can tell whether a write finished while it ran
+    private final AtomicLong writeStamp = new AtomicLong();
+    private final AtomicLong filterRejections = new AtomicLong();
+    private final AtomicLong cacheRejections = new AtomicLong();
+
+    /**
+     * @param expectedIds       ids the Bloom filter is sized for; beyond them false positives grow
+     * @param falsePositiveRate share of missing ids the Bloom filter lets through at {@code expectedIds}
+     */
+    @Autowired
+    public MissingProductFilter(@Value("${app.missing-products.enabled:true}") boolean enabled,
+                                @Value("${app.missing-products.expected-ids:1000000}") int expectedIds,
+                                @Value("${app.missing-products.false-positive-rate:0.01}") double falsePositiveRate,
+                                @Value("${app.missing-products.negative-cache-size:10000}") int negativeCacheSize,
+                                @Value("${app.missing-products.negative-cache-ttl-ms:30000}") long negativeTtlMillis) {
+        if (expectedIds < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1 || negativeCacheSize < 0
+                || negativeTtlMillis < 0) {
+            throw new IllegalArgumentException("Expected ids must be positive, the false positive rate between 0 and 1"
+                + " and the negative cache size and TTL must not be negative");
+        }
+        this.enabled = enabled;
+        this.expectedIds = expectedIds;
+        // Optimal size and hash count for the expected ids and false positive rate
+        long optimalBits = (long) Math.ceil(-expectedIds * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (optimalBits + 63) / 64);
+        this.bits = new AtomicLongArray(enabled ? words : 1);
+        this.bitCount = (long) bits.length() * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedIds * Math.log(2)));
+        this.negativeCacheSize = negativeCacheSize;
+        this.negativeTtlNanos = negativeTtlMillis * 1_000_000;
+        this.missing = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > MissingProductFilter.this.negativeCacheSize;
+            }
+        };
+    }
+
+    /**
+     * True when the product is certainly not stored. The Bloom filter is filled from
+     * {@code catalog} on first use and whenever {@code generation} differs from the last one.
+     */
+    public boolean isKnownMissing(String id, long generation, Consumer<Consumer<? super Product>> catalog) {
+        if (!enabled || id == null) {
+            return false;
+        }
+        buildIfNeeded(generation, catalog);
+        if (!mightContain(id)) {
+            filterRejections.incrementAndGet();
+            return true;
+        }
+        synchronized (missing) {
+            Long expiresAt = missing.get(id);
+            if (expiresAt == null) {
+                return false;
+            }
+            if (expiresAt - System.nanoTime() <= 0) {
+                missing.remove(id);
+                return false;
+            }
+        }
+        cacheRejections.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Taken before a repository lookup and handed to {@link #recordMissing} when it misses.
+     */
+    public long writeStamp() {
+        return writeStamp.get();
+    }
+
+    public void recordMissing(String id, long stampBeforeLookup) {
+        if (!enabled || id == null || negativeCacheSize == 0) {
+            return;
+        }
+        synchronized (missing) {
+            if (stampBeforeLookup == writeStamp.get()) {
+                missing.put(id, System.nanoTime() + negativeTtlNanos);
+            }
+        }
+    }
+
+    /**
+     * Called before a product is stored under {@code id}, so lookups racing with the write reach
+     * the repository.
+     */
+    public void beforeWrite(String id) {
+        if (enabled && id != null) {
+            add(id);
+        }
+    }
+
+    /**
+     * Called once a write of {@code id} is done, whether it succeeded or not.
+     */
+    public void afterWrite(String id) {
+        if (!enabled || id == null) {
+            return;
+        }
+        writeStamp.incrementAndGet();
+        synchronized (missing) {
+            missing.remove(id);
+        }
+    }
+
+    /**
+     * Fills the Bloom filter from {@code catalog} now instead of on the first lookup.
+     */
+    public void warmUp(long generation, Consumer<Consumer<? super Product>> catalog) {
+        if (enabled) {
+            buildIfNeeded(generation, catalog);
+        }
+    }
+
+    /**
+     * Lookups answered as missing without reaching the repository, by the Bloom filter and by the
+     * negative cache.
+     */
+    public long filterRejections() {
+        return filterRejections.get();
+    }
+
+    public long cacheRejections() {
+        return cacheRejections.get();
+    }
+
+    // Writes racing with the build set their bits directly, and bits are never cleared, so none is lost
+    private void buildIfNeeded(long generation, Consumer<Consumer<? super Product>> catalog) {
+        if (built && builtGeneration == generation) {
+            return;
+        }
+        synchronized (this) {
+            if (built && builtGeneration == generation) {
+                return;
+            }
+            if (built) {
+                // Misses seen in the earlier catalog may be stored now, so lookups still running
+                // must not cache theirs
+                writeStamp.incrementAndGet();
+                synchronized (missing) {
+                    missing.clear();
+                }
+            }
+            long start = System.nanoTime();
+            catalog.accept(product -> {
+                if (product.getId() != null) {
+                    add(product.getId());
+                }
+            });
+            builtGeneration = generation;
+            built = true;
+            logger.info("Indexed {} product ids for missing-product lookups in {} ms ({} bits, {} hashes)",
+                addedIds.get(), (System.nanoTime() - start) / 1_000_000, bitCount, hashCount);
+        }
+    }
+
+    private void add(String id) {
+        long hash = hash(id);
+        long h1 = mix(hash);
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        boolean added = false;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = bits.get(word);
+            while ((current & mask) == 0) {
+                if (bits.weakCompareAndSetVolatile(word, current, current | mask)) {
+                    added = true;
+                    break;
+                }
+                current = bits.get(word);
+            }
+        }
+        // Ids setting no new bit are most likely indexed already, so they are not counted again
+        if (added && addedIds.incrementAndGet() == expectedIds + 1L) {
+            logger.warn("More than {} product ids are indexed, raise app.missing-products.expected-ids to keep "
+                + "missing lookups cheap", expectedIds);
+        }
+    }
+
+    private boolean mightContain(String id) {
+        long hash = hash(id);
+        long h1 = mix(hash);
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 64-bit FNV-1a over the id's characters, so distinct ids rarely share both derived hashes
+    private static long hash(String id) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            hash = (hash ^ id.charAt(i)) * 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    // Final mix of MurmurHash3
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+}
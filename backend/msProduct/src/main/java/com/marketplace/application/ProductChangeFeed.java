@@ -0,0 +1,318 @@
+package com.marketplace.application;
+
+import com.marketplace.domain.Product;
+import com.marketplace.domain.ProductChange;
+import com.marketplace.domain.SellerReferences;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes product changes to live subscribers, such as Server-Sent Event streams.
+ *
+ * Every change gets the next sequence number and is kept in a bounded history, so a subscriber
+ * that reconnects with the last sequence it saw receives what it missed. Each subscriber has a
+ * bounded queue drained on its own virtual thread; publishing never waits for a subscriber, and
+ * one whose queue overflows is dropped and has to reconnect. A subscriber that is too far behind
+ * for the history gets a reset instead of a replay and must reload the catalog.
+ *
+ * Writes publish their changes after the store committed them, so two writes to one product can
+ * reach the feed in the opposite order. A change carrying a version no newer than the one last
+ * published for its product is therefore dropped, and subscribers always end on the latest version.
+ */
+@Component
+public class ProductChangeFeed {
+    private static final Logger logger = LoggerFactory.getLogger(ProductChangeFeed.class);
+    // Products whose last published version is remembered, at least; racing writes publish far closer together
+    private static final int MIN_TRACKED_VERSIONS = 1024;
+
+    private final int historySize;
+    private final int subscriberBuffer;
+    private final AtomicLong sequence = new AtomicLong();
+    private final ArrayDeque<ProductChange> history = new ArrayDeque<>();
+    // Last published version by product id, most recently published last; guarded by the history
+    private final LinkedHashMap<String, Long> publishedVersions;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final ExecutorService deliveries = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeats;
+
+    /**
+     * Receives the changes of one subscription, one call at a time.
+     */
+    public interface Listener {
+        void onChange(ProductChange change) throws Exception;
+
+        /**
+         * Called instead of a replay when changes after the requested sequence are no longer
+         * known. {@code currentSequence} is the sequence of the latest change.
+         */
+        void onReset(long currentSequence) throws Exception;
+
+        /**
+         * Called periodically while there is nothing to deliver, so dead connections are noticed.
+         */
+        default void onIdle() throws Exception {
+        }
+
+        /**
+         * Called once when the subscription is dropped because the subscriber fell behind or failed.
+         */
+        default void onDropped() {
+        }
+    }
+
+    /**
+     * Selects changes by product id and seller id; null matches any.
+     */
+    public record Filter(String productId, String sellerId) {
+        public static final Filter ALL = new Filter(null, null);
+
+        boolean matches(ProductChange change) {
+            return (productId == null || productId.equals(change.productId()))
+                && (sellerId == null || sellerId.equals(change.sellerId()));
+        }
+    }
+
+    @Autowired
+    public ProductChangeFeed(@Value("${app.changes.history-size:10000}") int historySize,
+                             @Value("${app.changes.subscriber-buffer:256}") int subscriberBuffer,
+                             @Value("${app.changes.heartbeat-seconds:15}") int heartbeatSeconds) {
+        if (historySize < 0 || subscriberBuffer < 1 || heartbeatSeconds < 1) {
+            throw new IllegalArgumentException("Change history must not be negative, buffer and heartbeat must be positive");
+        }
+        this.historySize = historySize;
+        this.subscriberBuffer = subscriberBuffer;
+        int trackedVersions = Math.max(historySize, MIN_TRACKED_VERSIONS);
+        this.publishedVersions = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > trackedVersions;
+            }
+        };
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+            .name("product-change-heartbeat").daemon().factory());
+        heartbeats.scheduleAtFixedRate(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Records a change and hands it to the matching subscribers. {@code product} is null for deletions.
+     *
+     * @return the change, or null when a newer version of the product was published already
+     */
+    public ProductChange publish(ProductChange.Type type, String productId, String sellerId, Product product) {
+        ProductChange change;
+        synchronized (history) {
+            if (isStale(productId, product)) {
+                return null;
+            }
+            change = new ProductChange(sequence.incrementAndGet(), type, productId, sellerId,
+                product == null ? null : product.getVersion(), Instant.now(), product);
+            if (historySize > 0) {
+                if (history.size() == historySize) {
+                    history.removeFirst();
+                }
+                history.addLast(change);
+            }
+            // Handed over while holding the history, so subscribers get changes in sequence order and one
+            // subscribing meanwhile either replays the change or is offered it, never both. Offering only
+            // queues the change for the subscriber's own drain, so no listener runs under the lock.
+            for (Subscription subscription : subscriptions) {
+                if (subscription.filter.matches(change)) {
+                    subscription.offer(change);
+                }
+            }
+        }
+        return change;
+    }
+
+    // Called with the history locked. A deletion forgets the version, so a product created again starts over
+    private boolean isStale(String productId, Product product) {
+        Long published = publishedVersions.remove(productId);
+        if (product == null || product.getVersion() == null) {
+            return false;
+        }
+        if (published != null && published >= product.getVersion()) {
+            publishedVersions.put(productId, published);
+            return true;
+        }
+        publishedVersions.put(productId, product.getVersion());
+        return false;
+    }
+
+    public ProductChange publish(ProductChange.Type type, Product product) {
+        return publish(type, product.getId(), SellerReferences.idOf(product.getSellerInformation()), product);
+    }
+
+    /**
+     * Subscribes to changes after {@code lastSequence}, or to new changes only when it is null.
+     */
+    public Subscription subscribe(Filter filter, Long lastSequence, Listener listener) {
+        Subscription subscription = new Subscription(filter, listener);
+        synchronized (history) {
+            if (lastSequence != null) {
+                subscription.replay(lastSequence);
+            }
+            // Registered while holding the history, so no change is missed or delivered twice
+            subscriptions.add(subscription);
+        }
+        return subscription;
+    }
+
+    public long currentSequence() {
+        return sequence.get();
+    }
+
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        deliveries.shutdownNow();
+    }
+
+    private void heartbeat() {
+        for (Subscription subscription : subscriptions) {
+            subscription.offerIdle();
+        }
+    }
+
+    public final class Subscription {
+        private final Filter filter;
+        private final Listener listener;
+        // Changes and Reset, Idle or Dropped markers, delivered in order by one drain at a time
+        private final ArrayDeque<Object> queue = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closing;
+        private volatile boolean cancelled;
+
+        private Subscription(Filter filter, Listener listener) {
+            this.filter = filter;
+            this.listener = listener;
+        }
+
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        // Called with the history locked
+        private void replay(long lastSequence) {
+            long oldest = history.isEmpty() ? sequence.get() + 1 : history.peekFirst().sequence();
+            if (lastSequence > sequence.get() || lastSequence < oldest - 1) {
+                enqueue(Marker.RESET);
+                return;
+            }
+            List<ProductChange> missed = new ArrayList<>();
+            for (ProductChange change : history) {
+                if (change.sequence() > lastSequence && filter.matches(change)) {
+                    missed.add(change);
+                }
+            }
+            if (missed.size() > subscriberBuffer) {
+                enqueue(Marker.RESET);
+                return;
+            }
+            missed.forEach(this::enqueue);
+        }
+
+        private void offer(ProductChange change) {
+            enqueue(change);
+        }
+
+        private void offerIdle() {
+            synchronized (queue) {
+                if (!queue.isEmpty() || draining) {
+                    return;
+                }
+            }
+            enqueue(Marker.IDLE);
+        }
+
+        private void enqueue(Object delivery) {
+            boolean startDrain;
+            synchronized (queue) {
+                if (cancelled || closing) {
+                    return;
+                }
+                if (queue.size() >= subscriberBuffer) {
+                    // Too far behind: discard what is queued and let the drain close the subscription
+                    queue.clear();
+                    queue.addLast(Marker.DROPPED);
+                    closing = true;
+                } else {
+                    queue.addLast(delivery);
+                }
+                startDrain = !draining;
+                draining = true;
+            }
+            if (startDrain) {
+                try {
+                    deliveries.execute(this::drain);
+                } catch (RuntimeException e) {
+                    // Rejected once the feed is shut down
+                    cancel();
+                }
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Object delivery;
+                synchronized (queue) {
+                    delivery = queue.pollFirst();
+                    if (delivery == null || cancelled) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    if (delivery instanceof ProductChange change) {
+                        listener.onChange(change);
+                    } else if (delivery == Marker.RESET) {
+                        listener.onReset(sequence.get());
+                    } else if (delivery == Marker.IDLE) {
+                        listener.onIdle();
+                    } else {
+                        logger.debug("Dropping change subscriber that fell {} changes behind", subscriberBuffer);
+                        drop();
+                        return;
+                    }
+                } catch (Exception e) {
+                    logger.debug("Dropping change subscriber after a failed delivery: {}", e.getMessage());
+                    drop();
+                    return;
+                }
+            }
+        }
+
+        private void drop() {
+            cancel();
+            listener.onDropped();
+        }
+    }
+
+    private enum Marker { RESET, IDLE, DROPPED }
+}
@@ -0,0 +1,346 @@
+package com.marketplace.application;
+
+import com.marketplace.domain.AdditionalDetails;
+import com.marketplace.domain.Prices;
+import com.marketplace.domain.Product;
+import com.marketplace.domain.SellerInformation;
+import com.marketplace.domain.SellerReferences;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Facet counts over the catalog, maintained incrementally as products are written.
+ *
+ * Every product gets a dense ordinal in catalog order and every facet value a bitset of the
+ * ordinals carrying it, next to a running count. Unfiltered counts are read straight from the
+ * counters; a filtered search ANDs the value bitsets and counts each value's intersection with
+ * the result. Reputation belongs to the seller, so it is derived at query time from per-seller
+ * bitsets and the sellers' current levels, and seller updates never touch this index.
+ */
+@Component
+public class ProductFacetIndex {
+    public static final String PAYMENT_METHOD = "paymentMethod";
+    public static final String PRICE_BUCKET = "priceBucket";
+    public static final String REPUTATION_LEVEL = "reputationLevel";
+    public static final String STOCK = "stock";
+    public static final String SELLER_ID = "sellerId";
+    public static final String IN_STOCK = "inStock";
+    public static final String OUT_OF_STOCK = "outOfStock";
+
+    private static final List<String> STORED_FACETS = List.of(PAYMENT_METHOD, PRICE_BUCKET, STOCK, SELLER_ID);
+    // Ordinals of deleted products are reclaimed once there are this many and more than live ones.
+    private static final int MIN_COMPACTION = 1024;
+
+    private final BigDecimal[] priceBounds;
+    private final List<String> priceLabels;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final List<String> idsByOrdinal = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private final Map<String, Map<String, FacetValue>> facets = new HashMap<>();
+    // Reputation levels of sellers still embedded in products, used when the seller store has none
+    private final Map<String, String> embeddedLevels = new HashMap<>();
+    private int deleted;
+    private boolean built;
+    private long builtGeneration;
+
+    private static final class FacetValue {
+        final BitSet members = new BitSet();
+        int count;
+    }
+
+    private record Entry(int ordinal, long version, Map<String, Set<String>> values) {}
+
+    public record Result(List<String> productIds, int total, Map<String, Map<String, Integer>> facets) {}
+
+    public ProductFacetIndex(@Value("${app.facets.price-buckets:100000,500000,1000000,2000000,5000000}") String priceBuckets) {
+        this.priceBounds = Arrays.stream(priceBuckets.split(","))
+            .map(String::trim)
+            .map(BigDecimal::new)
+            .sorted()
+            .toArray(BigDecimal[]::new);
+        List<String> labels = new ArrayList<>();
+        BigDecimal lower = BigDecimal.ZERO;
+        for (BigDecimal bound : priceBounds) {
+            labels.add(lower.toPlainString() + "-" + bound.toPlainString());
+            lower = bound;
+        }
+        labels.add(lower.toPlainString() + "+");
+        this.priceLabels = Collections.unmodifiableList(labels);
+    }
+
+    public List<String> priceBuckets() {
+        return priceLabels;
+    }
+
+    /**
+     * Indexes the whole catalog on first use, and again whenever the repository reports another
+     * {@link com.marketplace.domain.ProductRepository#catalogGeneration() catalog generation}, as
+     * products it loaded that way never went through {@link #put}. Writes that finish while the
+     * catalog is read wait on this index and are applied afterwards, so none of them is lost.
+     */
+    public synchronized void buildIfNeeded(long generation, Supplier<? extends Collection<Product>> catalog) {
+        if (built && builtGeneration == generation) {
+            return;
+        }
+        if (built) {
+            clear();
+        }
+        for (Product product : catalog.get()) {
+            put(product);
+        }
+        built = true;
+        builtGeneration = generation;
+    }
+
+    /**
+     * Adds or replaces the product. Products older than the indexed version are ignored, so
+     * concurrent writes to one product can be applied in any order.
+     */
+    public synchronized void put(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        long version = product.getVersion() == null ? 0L : product.getVersion();
+        Entry previous = entries.get(product.getId());
+        if (previous != null && previous.version() > version) {
+            return;
+        }
+        int ordinal;
+        if (previous != null) {
+            unlink(previous);
+            ordinal = previous.ordinal();
+        } else {
+            ordinal = idsByOrdinal.size();
+            idsByOrdinal.add(product.getId());
+            live.set(ordinal);
+        }
+        Entry entry = new Entry(ordinal, version, valuesOf(product));
+        link(entry);
+        entries.put(product.getId(), entry);
+        rememberEmbeddedLevel(product.getSellerInformation());
+    }
+
+    public synchronized void remove(String productId) {
+        Entry entry = entries.remove(productId);
+        if (entry == null) {
+            return;
+        }
+        unlink(entry);
+        live.clear(entry.ordinal());
+        idsByOrdinal.set(entry.ordinal(), null);
+        deleted++;
+        if (deleted >= MIN_COMPACTION && deleted > entries.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * Returns a page of the products matching every filter (facet name to value), in catalog
+     * order, with facet counts over all matches.
+     *
+     * @param sellerLevels current reputation level by seller id
+     */
+    public synchronized Result search(Map<String, String> filters, Map<String, String> sellerLevels, int offset, int limit) {
+        Function<String, String> levelOf = sellerId -> {
+            String level = sellerLevels.get(sellerId);
+            return level != null ? level : embeddedLevels.get(sellerId);
+        };
+        BitSet matches = null;
+        for (Map.Entry<String, String> filter : filters.entrySet()) {
+            BitSet members = members(filter.getKey(), filter.getValue(), levelOf);
+            if (matches == null) {
+                matches = (BitSet) members.clone();
+            } else {
+                matches.and(members);
+            }
+        }
+        BitSet source = matches == null ? live : matches;
+        int total = matches == null ? entries.size() : matches.cardinality();
+        List<String> page = new ArrayList<>(Math.max(0, Math.min(limit, total - offset)));
+        int skipped = 0;
+        for (int ordinal = source.nextSetBit(0); ordinal >= 0 && page.size() < limit; ordinal = source.nextSetBit(ordinal + 1)) {
+            if (skipped++ >= offset) {
+                page.add(idsByOrdinal.get(ordinal));
+            }
+        }
+        return new Result(page, total, counts(matches, levelOf));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private BitSet members(String facet, String value, Function<String, String> levelOf) {
+        if (REPUTATION_LEVEL.equals(facet)) {
+            BitSet members = new BitSet();
+            facets.getOrDefault(SELLER_ID, Map.of()).forEach((sellerId, sellerProducts) -> {
+                if (value.equals(levelOf.apply(sellerId))) {
+                    members.or(sellerProducts.members);
+                }
+            });
+            return members;
+        }
+        if (!STORED_FACETS.contains(facet)) {
+            throw new IllegalArgumentException("Unknown facet: " + facet);
+        }
+        FacetValue facetValue = facets.getOrDefault(facet, Map.of()).get(value);
+        return facetValue == null ? new BitSet() : facetValue.members;
+    }
+
+    private Map<String, Map<String, Integer>> counts(BitSet matches, Function<String, String> levelOf) {
+        Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+        counts.put(PAYMENT_METHOD, byCount(countValues(PAYMENT_METHOD, matches)));
+        Map<String, Integer> prices = countValues(PRICE_BUCKET, matches);
+        Map<String, Integer> pricesInOrder = new LinkedHashMap<>();
+        for (String label : priceLabels) {
+            if (prices.containsKey(label)) {
+                pricesInOrder.put(label, prices.get(label));
+            }
+        }
+        counts.put(PRICE_BUCKET, pricesInOrder);
+        Map<String, Integer> levels = new HashMap<>();
+        countValues(SELLER_ID, matches).forEach((sellerId, count) -> {
+            String level = levelOf.apply(sellerId);
+            if (level != null) {
+                levels.merge(level, count, Integer::sum);
+            }
+        });
+        counts.put(REPUTATION_LEVEL, byCount(levels));
+        counts.put(STOCK, byCount(countValues(STOCK, matches)));
+        return counts;
+    }
+
+    private Map<String, Integer> countValues(String facet, BitSet matches) {
+        Map<String, Integer> counts = new HashMap<>();
+        facets.getOrDefault(facet, Map.of()).forEach((value, facetValue) -> {
+            int count;
+            if (matches == null) {
+                count = facetValue.count;
+            } else {
+                BitSet intersection = (BitSet) facetValue.members.clone();
+                intersection.and(matches);
+                count = intersection.cardinality();
+            }
+            if (count > 0) {
+                counts.put(value, count);
+            }
+        });
+        return counts;
+    }
+
+    private static Map<String, Integer> byCount(Map<String, Integer> counts) {
+        Map<String, Integer> sorted = new LinkedHashMap<>();
+        counts.entrySet().stream()
+            .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+            .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+
+    private Map<String, Set<String>> valuesOf(Product product) {
+        Map<String, Set<String>> values = new HashMap<>();
+        if (product.getPaymentMethods() != null) {
+            Set<String> methods = new LinkedHashSet<>(product.getPaymentMethods());
+            methods.remove(null);
+            values.put(PAYMENT_METHOD, methods);
+        }
+        BigDecimal amount = Prices.amountOf(product.getPrice());
+        if (amount != null) {
+            values.put(PRICE_BUCKET, Set.of(priceLabels.get(bucketOf(amount))));
+        }
+        AdditionalDetails details = product.getAdditionalDetails();
+        if (details != null && details.getAvailableStock() != null) {
+            BigDecimal stock = Prices.amountOf(details.getAvailableStock());
+            values.put(STOCK, Set.of(stock != null && stock.signum() > 0 ? IN_STOCK : OUT_OF_STOCK));
+        }
+        String sellerId = SellerReferences.idOf(product.getSellerInformation());
+        if (sellerId != null) {
+            values.put(SELLER_ID, Set.of(sellerId));
+        }
+        return values;
+    }
+
+    private int bucketOf(BigDecimal amount) {
+        int bucket = 0;
+        while (bucket < priceBounds.length && amount.compareTo(priceBounds[bucket]) >= 0) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private void rememberEmbeddedLevel(SellerInformation seller) {
+        String sellerId = SellerReferences.idOf(seller);
+        if (sellerId != null && seller.getReputation() != null && seller.getReputation().getLevel() != null) {
+            embeddedLevels.put(sellerId, seller.getReputation().getLevel());
+        }
+    }
+
+    private void link(Entry entry) {
+        entry.values().forEach((facet, values) -> {
+            Map<String, FacetValue> byValue = facets.computeIfAbsent(facet, key -> new HashMap<>());
+            for (String value : values) {
+                FacetValue facetValue = byValue.computeIfAbsent(value, key -> new FacetValue());
+                facetValue.members.set(entry.ordinal());
+                facetValue.count++;
+            }
+        });
+    }
+
+    private void unlink(Entry entry) {
+        entry.values().forEach((facet, values) -> {
+            Map<String, FacetValue> byValue = facets.get(facet);
+            for (String value : values) {
+                FacetValue facetValue = byValue.get(value);
+                facetValue.members.clear(entry.ordinal());
+                if (--facetValue.count == 0) {
+                    byValue.remove(value);
+                }
+            }
+        });
+    }
+
+    private void clear() {
+        entries.clear();
+        idsByOrdinal.clear();
+        live.clear();
+        facets.clear();
+        embeddedLevels.clear();
+        deleted = 0;
+    }
+
+    // Renumbers the live products densely, keeping their order.
+    private void compact() {
+        List<String> ids = new ArrayList<>(entries.size());
+        for (String id : idsByOrdinal) {
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        idsByOrdinal.clear();
+        live.clear();
+        facets.clear();
+        for (String id : ids) {
+            Entry previous = entries.get(id);
+            Entry entry = new Entry(idsByOrdinal.size(), previous.version(), previous.values());
+            idsByOrdinal.add(id);
+            live.set(entry.ordinal());
+            link(entry);
+            entries.put(id, entry);
+        }
+        deleted = 0;
+    }
+}
@@ -1,12 +1,75 @@
 package com.marketplace.application;
 
 import com.marketplace.domain.Product;
+import com.marketplace.domain.ProductChanges;
+import com.marketplace.domain.ProductFilter;
+import com.marketplace.domain.ProductPage;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ProductService {
     List<Product> getAllProducts();
     Product getProductById(String id);
+
+    /**
+     * Passes every product, joined with its seller, to {@code consumer} in catalog order, from
+     * one consistent snapshot and without materializing the catalog.
+     */
+    void exportProducts(Consumer<? super Product> consumer);
     Product createProduct(Product product);
     Product updateProduct(String id, Product product);
     void deleteProduct(String id);
-} 
\ No newline at end of file
+
+    /**
+     * Replaces a product. When {@code expectedVersion} is not null the write only succeeds
+     * if the stored product is still at that version.
+     */
+    Product updateProduct(String id, Product product, Long expectedVersion);
+
+    /**
+     * Applies the non-null top-level fields of {@code patch} to the stored product.
+     * When {@code expectedVersion} is not null the write only succeeds if the stored
+     * product is still at that version.
+     */
+    Product patchProduct(String id, Product patch, Long expectedVersion);
+
+    /**
+     * Deletes a product. When {@code expectedVersion} is not null the delete only succeeds
+     * if the stored product is still at that version.
+     */
+    void deleteProduct(String id, Long expectedVersion);
+
+    /**
+     * Stores a batch of imported products in one repository write, replacing products that
+     * already exist. Returns the stored products.
+     */
+    List<Product> importProducts(List<Product> products);
+
+    /**
+     * Ends a bulk import: makes every batch stored by {@link #importProducts(List)} durable.
+     */
+    void finishImport();
+
+    /**
+     * Returns up to {@code limit} products written and ids deleted after change sequence
+     * {@code since}, or a full-sync marker when that position can no longer be served.
+     */
+    ProductChanges getChanges(long since, int limit);
+
+    /**
+     * Applies products and deletions replicated from the leader instance, keeping the leader's
+     * versions, and publishes them to change subscribers like local writes.
+     */
+    void applyReplicatedChanges(List<Product> upserts, List<String> deleted);
+
+    /**
+     * Returns one page of a seller's products, served from the seller index rather than a catalog scan.
+     */
+    ProductPage getProductsBySeller(String sellerId, int page, int size);
+
+    /**
+     * Returns one page of the products matching every non-null filter field, in catalog order,
+     * with facet counts (payment method, price bucket, reputation level, stock) over all matches.
+     */
+    ProductPage searchProducts(ProductFilter filter, int page, int size);
+}
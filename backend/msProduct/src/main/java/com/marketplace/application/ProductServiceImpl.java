@@ -1,43 +1,537 @@
 package com.marketplace.application;
 
 import com.marketplace.domain.Product;
+import com.marketplace.domain.ProductChange;
+import com.marketplace.domain.ProductChanges;
+import com.marketplace.domain.ProductFilter;
+import com.marketplace.domain.ProductPage;
 import com.marketplace.domain.ProductRepository;
+import com.marketplace.domain.SellerInformation;
+import com.marketplace.domain.SellerReferences;
+import com.marketplace.domain.SellerRepository;
+import com.marketplace.domain.exceptions.ProductNotFoundException;
+import com.marketplace.domain.exceptions.VersionConflictException;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Service
-public class ProductServiceImpl implements ProductService {
+public class ProductServiceImpl implements ProductService, CatalogReadiness {
+    private static final Logger logger = LoggerFactory.getLogger(ProductServiceImpl.class);
+
+    // Unconditional PATCH requests re-read and retry when they race with another writer.
+    private static final int MAX_PATCH_ATTEMPTS = 5;
+    static final int MAX_PAGE_SIZE = 100;
+    static final int MAX_CHANGES = 1000;
+
     private final ProductRepository productRepository;
+    private final SellerRepository sellerRepository;
+    private final ProductFacetIndex facetIndex;
+    private final ProductChangeFeed changeFeed;
+    private final MissingProductFilter missingProducts;
+    private final SellerReputationCache sellerLevels;
+    private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
+    private volatile boolean warmedUp;
+    private final AtomicBoolean warmingUp = new AtomicBoolean();
+    private volatile long warmUpRetryNanos = 5_000_000_000L;
+    // When a failed warm-up may be tried again, by System.nanoTime(); meaningless until one failed
+    private volatile long nextWarmUpAt;
+    private volatile boolean warmUpFailed;
 
     @Autowired
-    public ProductServiceImpl(ProductRepository productRepository) {
+    public ProductServiceImpl(ProductRepository productRepository, SellerRepository sellerRepository,
+                              ProductFacetIndex facetIndex, ProductChangeFeed changeFeed,
+                              MissingProductFilter missingProducts, SellerReputationCache sellerLevels) {
         this.productRepository = productRepository;
+        this.sellerRepository = sellerRepository;
+        this.facetIndex = facetIndex;
+        this.changeFeed = changeFeed;
+        this.missingProducts = missingProducts;
+        this.sellerLevels = sellerLevels;
+    }
+
+    /**
+     * Traces every service call as a span (and times it) once a registry is available;
+     * without one the calls are not observed.
+     */
+    @Autowired(required = false)
+    public void setObservationRegistry(ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Autowired
+    public void setWarmUpRetryMillis(@Value("${app.warm-up.retry-ms:5000}") long retryMillis) {
+        if (retryMillis < 0) {
+            throw new IllegalArgumentException("Warm-up retry interval must not be negative");
+        }
+        this.warmUpRetryNanos = retryMillis * 1_000_000;
+    }
+
+    /**
+     * Loads the catalog and builds the facet index and missing-product filter once the application
+     * has started, so the first requests do not pay for them. Spring only reports the application
+     * ready after this listener returns. A failure is logged and leaves the service not warmed up
+     * until {@link #isWarmedUp()} retries it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.nanoTime();
+        try {
+            observation("warmUp").observe(() -> {
+                facetIndex.buildIfNeeded(productRepository.catalogGeneration(), productRepository::findAll);
+                missingProducts.warmUp(productRepository.catalogGeneration(), productRepository::streamAll);
+            });
+            warmedUp = true;
+            warmUpFailed = false;
+            logger.info("Warmed up the catalog and its indexes in {} ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            nextWarmUpAt = System.nanoTime() + warmUpRetryNanos;
+            warmUpFailed = true;
+            logger.error("Failed to warm up the catalog, retrying once asked again after {} ms",
+                warmUpRetryNanos / 1_000_000, e);
+        }
+    }
+
+    // Retried off the caller's thread, so a readiness probe never waits for the catalog to load
+    @Override
+    public boolean isWarmedUp() {
+        if (warmedUp) {
+            return true;
+        }
+        if (warmUpFailed && System.nanoTime() - nextWarmUpAt >= 0 && warmingUp.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("catalog-warm-up").start(() -> {
+                try {
+                    if (!warmedUp) {
+                        warmUp();
+                    }
+                } finally {
+                    warmingUp.set(false);
+                }
+            });
+        }
+        return false;
     }
 
     @Override
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        Observation observation = observation("getAllProducts");
+        return observation.observe(() -> {
+            List<Product> products = productRepository.findAll();
+            List<Product> joined = new ArrayList<>(products.size());
+            for (Product product : products) {
+                joined.add(attachSeller(product));
+            }
+            observation.highCardinalityKeyValue("product.count", String.valueOf(joined.size()));
+            return joined;
+        });
     }
 
     @Override
     public Product getProductById(String id) {
-        return productRepository.findById(id);
+        return observation("getProductById", id).observe(() -> {
+            if (missingProducts.isKnownMissing(id, productRepository.catalogGeneration(), productRepository::streamAll)) {
+                throw new ProductNotFoundException(id);
+            }
+            long stamp = missingProducts.writeStamp();
+            try {
+                return attachSeller(productRepository.findById(id));
+            } catch (ProductNotFoundException e) {
+                missingProducts.recordMissing(id, stamp);
+                throw e;
+            }
+        });
+    }
+
+    @Override
+    public void exportProducts(Consumer<? super Product> consumer) {
+        observation("exportProducts").observe(() -> {
+            // Sellers are far fewer than products, so each one is looked up once per export
+            Map<String, Optional<SellerInformation>> sellers = new HashMap<>();
+            productRepository.streamAll(product ->
+                consumer.accept(attachSeller(product, sellerId -> sellers.computeIfAbsent(sellerId, sellerRepository::findById))));
+        });
+    }
+
+    @Override
+    public ProductChanges getChanges(long since, int limit) {
+        if (limit < 1 || limit > MAX_CHANGES) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_CHANGES);
+        }
+        return observation("getChanges").observe(() -> {
+            ProductChanges changes = productRepository.changesSince(since, limit);
+            if (changes.isFullSync()) {
+                return changes;
+            }
+            Map<String, Optional<SellerInformation>> sellers = new HashMap<>();
+            List<Product> upserts = new ArrayList<>(changes.getUpserts().size());
+            for (Product product : changes.getUpserts()) {
+                upserts.add(attachSeller(product, sellerId -> sellers.computeIfAbsent(sellerId, sellerRepository::findById)));
+            }
+            return new ProductChanges(changes.getSequence(), changes.isHasMore(), upserts, changes.getDeleted());
+        });
+    }
+
+    @Override
+    public ProductPage getProductsBySeller(String sellerId, int page, int size) {
+        if (sellerId == null || sellerId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Seller ID cannot be null or empty");
+        }
+        validatePage(page, size);
+        return observation("getProductsBySeller").observe(() -> {
+            ProductPage found = productRepository.findBySellerId(sellerId, page, size);
+            List<Product> items = new ArrayList<>(found.getItems().size());
+            for (Product product : found.getItems()) {
+                items.add(attachSeller(product));
+            }
+            ProductFacetIndex.Result facets = searchFacets(Map.of(ProductFacetIndex.SELLER_ID, sellerId), 0, 0);
+            return new ProductPage(items, found.getPage(), found.getSize(), found.getTotalItems(), facets.facets());
+        });
+    }
+
+    @Override
+    public ProductPage searchProducts(ProductFilter filter, int page, int size) {
+        validatePage(page, size);
+        Observation observation = observation("searchProducts");
+        return observation.observe(() -> {
+            Map<String, String> filters = new LinkedHashMap<>();
+            putFilter(filters, ProductFacetIndex.PAYMENT_METHOD, filter.getPaymentMethod());
+            putFilter(filters, ProductFacetIndex.PRICE_BUCKET, filter.getPriceBucket());
+            putFilter(filters, ProductFacetIndex.REPUTATION_LEVEL, filter.getReputationLevel());
+            putFilter(filters, ProductFacetIndex.STOCK, filter.getStock());
+            putFilter(filters, ProductFacetIndex.SELLER_ID, filter.getSellerId());
+            ProductFacetIndex.Result result = searchFacets(filters, page * size, size);
+            List<Product> items = new ArrayList<>(result.productIds().size());
+            for (String id : result.productIds()) {
+                try {
+                    items.add(attachSeller(productRepository.findById(id)));
+                } catch (ProductNotFoundException e) {
+                    // deleted after the index was read
+                }
+            }
+            observation.highCardinalityKeyValue("product.count", String.valueOf(result.total()));
+            return new ProductPage(items, page, size, result.total(), result.facets());
+        });
     }
 
     @Override
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        return observation("createProduct", product.getId()).observe(() -> {
+            Product created = attachSeller(indexed(product.getId(),
+                writing(List.of(product), () -> productRepository.save(detachSeller(product)))));
+            return published(ProductChange.Type.CREATED, product.getId(), created);
+        });
     }
 
     @Override
     public Product updateProduct(String id, Product product) {
-        return productRepository.update(id, product);
+        return observation("updateProduct", id).observe(() -> published(ProductChange.Type.UPDATED, id,
+            attachSeller(indexed(id, writing(List.of(product), () -> productRepository.update(id, detachSeller(product)))))));
     }
 
     @Override
     public void deleteProduct(String id) {
-        productRepository.delete(id);
+        observation("deleteProduct", id).observe(() -> {
+            Product existing = findQuietly(id);
+            productRepository.delete(id);
+            facetIndex.remove(id);
+            publishDeleted(id, existing);
+        });
+    }
+
+    @Override
+    public Product updateProduct(String id, Product product, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return updateProduct(id, product);
+        }
+        return observation("updateProduct", id).observe(() -> published(ProductChange.Type.UPDATED, id, attachSeller(indexed(id,
+            writing(List.of(product), () -> productRepository.compareAndSet(id, expectedVersion, detachSeller(product)))))));
+    }
+
+    @Override
+    public Product patchProduct(String id, Product patch, Long expectedVersion) {
+        Observation observation = observation("patchProduct", id);
+        return observation.observe(() -> {
+            for (int attempt = 1; ; attempt++) {
+                Product current = productRepository.findById(id);
+                long currentVersion = current.getVersion() == null ? 0L : current.getVersion();
+                if (expectedVersion != null && expectedVersion != currentVersion) {
+                    throw new VersionConflictException(id, expectedVersion, currentVersion);
+                }
+                try {
+                    Product merged = detachSeller(merge(current, patch));
+                    Product patched = published(ProductChange.Type.UPDATED, id,
+                        attachSeller(indexed(id, productRepository.compareAndSet(id, currentVersion, merged))));
+                    observation.highCardinalityKeyValue("product.attempts", String.valueOf(attempt));
+                    return patched;
+                } catch (VersionConflictException e) {
+                    if (expectedVersion != null || attempt >= MAX_PATCH_ATTEMPTS) {
+                        throw e;
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public void deleteProduct(String id, Long expectedVersion) {
+        if (expectedVersion == null) {
+            deleteProduct(id);
+            return;
+        }
+        observation("deleteProduct", id).observe(() -> {
+            Product existing = findQuietly(id);
+            productRepository.deleteIfVersion(id, expectedVersion);
+            facetIndex.remove(id);
+            publishDeleted(id, existing);
+        });
+    }
+
+    @Override
+    public List<Product> importProducts(List<Product> products) {
+        Observation observation = observation("importProducts")
+            .highCardinalityKeyValue("product.count", String.valueOf(products.size()));
+        return observation.observe(() -> {
+            // Imports are the catalog's source of truth, so their sellers replace the stored ones
+            List<Product> detached = new ArrayList<>(products.size());
+            Map<String, SellerInformation> sellers = new LinkedHashMap<>();
+            for (Product product : products) {
+                detached.add(detachSeller(product, sellers));
+            }
+            storeSellers(sellers, true);
+            List<Product> stored = writing(detached, () -> productRepository.importBatch(detached));
+            for (Product product : stored) {
+                facetIndex.put(product);
+                ProductChange.Type type = Long.valueOf(1L).equals(product.getVersion())
+                    ? ProductChange.Type.CREATED : ProductChange.Type.UPDATED;
+                changeFeed.publish(type, attachSeller(product));
+            }
+            return stored;
+        });
+    }
+
+    @Override
+    public void finishImport() {
+        observation("finishImport").observe(productRepository::flushImported);
+    }
+
+    @Override
+    public void applyReplicatedChanges(List<Product> upserts, List<String> deleted) {
+        observation("applyReplicatedChanges")
+            .highCardinalityKeyValue("product.count", String.valueOf(upserts.size() + deleted.size()))
+            .observe(() -> {
+                List<Product> detached = new ArrayList<>(upserts.size());
+                Map<String, SellerInformation> sellers = new LinkedHashMap<>();
+                Map<String, Product> existing = new HashMap<>();
+                for (Product product : upserts) {
+                    detached.add(detachSeller(product, sellers));
+                    existing.put(product.getId(), findQuietly(product.getId()));
+                }
+                // The leader sends its stored sellers, so they replace the ones held here
+                storeSellers(sellers, true);
+                for (String id : deleted) {
+                    existing.put(id, findQuietly(id));
+                }
+                writing(detached, () -> {
+                    productRepository.replicate(detached, deleted);
+                    return null;
+                });
+                for (Product product : detached) {
+                    facetIndex.put(product);
+                    ProductChange.Type type = existing.get(product.getId()) == null
+                        ? ProductChange.Type.CREATED : ProductChange.Type.UPDATED;
+                    changeFeed.publish(type, attachSeller(product));
+                }
+                for (String id : deleted) {
+                    facetIndex.remove(id);
+                    publishDeleted(id, existing.get(id));
+                }
+            });
+    }
+
+    // The method is a low-cardinality tag, so it can also name a timer; product ids only go on the span
+    private Observation observation(String method) {
+        return Observation.createNotStarted("product.service", observationRegistry)
+            .contextualName("ProductService." + method)
+            .lowCardinalityKeyValue("method", method);
+    }
+
+    private Observation observation(String method, String productId) {
+        return observation(method).highCardinalityKeyValue("product.id", String.valueOf(productId));
+    }
+
+    private ProductFacetIndex.Result searchFacets(Map<String, String> filters, int offset, int limit) {
+        facetIndex.buildIfNeeded(productRepository.catalogGeneration(), productRepository::findAll);
+        return facetIndex.search(filters, sellerLevels.levels(), offset, limit);
+    }
+
+    // Marks the ids as stored before the write, so a concurrent lookup is never answered as missing
+    private <T> T writing(List<Product> products, Supplier<T> write) {
+        for (Product product : products) {
+            missingProducts.beforeWrite(product.getId());
+        }
+        try {
+            return write.get();
+        } finally {
+            for (Product product : products) {
+                missingProducts.afterWrite(product.getId());
+            }
+        }
+    }
+
+    // Keeps the facet counts in step with the stored product, including a PUT that changed the product's id.
+    private Product indexed(String id, Product stored) {
+        if (stored != null) {
+            if (id != null && !id.equals(stored.getId())) {
+                facetIndex.remove(id);
+            }
+            facetIndex.put(stored);
+        }
+        return stored;
+    }
+
+    // Publishes a write to change subscribers, including the removal of the old id when a PUT changed it.
+    private Product published(ProductChange.Type type, String id, Product stored) {
+        if (stored != null) {
+            if (id != null && !id.equals(stored.getId())) {
+                changeFeed.publish(ProductChange.Type.DELETED, id, SellerReferences.idOf(stored.getSellerInformation()), null);
+            }
+            changeFeed.publish(type, stored);
+        }
+        return stored;
+    }
+
+    // Deletions carry the seller of the deleted product, read before the delete, so they can be filtered by seller.
+    private void publishDeleted(String id, Product existing) {
+        if (existing != null) {
+            changeFeed.publish(ProductChange.Type.DELETED, id, SellerReferences.idOf(existing.getSellerInformation()), null);
+        }
+    }
+
+    private Product findQuietly(String id) {
+        try {
+            return productRepository.findById(id);
+        } catch (ProductNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static void putFilter(Map<String, String> filters, String facet, String value) {
+        if (value != null && !value.isBlank()) {
+            filters.put(facet, value);
+        }
+    }
+
+    private static void validatePage(int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if ((long) page * size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Page is out of range");
+        }
+    }
+
+    /**
+     * Stores the product's seller when the seller store does not have it yet and returns a copy of
+     * the product that only references it, so seller data is kept once instead of in every product.
+     * An older copy of a stored seller embedded in a product leaves the stored seller untouched;
+     * sellers are changed through the seller API.
+     */
+    private Product detachSeller(Product product) {
+        Map<String, SellerInformation> sellers = new LinkedHashMap<>();
+        Product detached = detachSeller(product, sellers);
+        storeSellers(sellers, false);
+        return detached;
+    }
+
+    private Product detachSeller(Product product, Map<String, SellerInformation> sellers) {
+        SellerInformation seller = product.getSellerInformation();
+        String sellerId = SellerReferences.idOf(seller);
+        if (sellerId == null) {
+            return product;
+        }
+        if (!SellerReferences.isReference(seller)) {
+            seller.setId(sellerId);
+            sellers.put(sellerId, seller);
+        }
+        return withSeller(product, SellerReferences.reference(sellerId));
+    }
+
+    /**
+     * Writes the sellers missing from the seller store, and with {@code replace} also those stored
+     * with different data, in one write. Sellers equal to the stored ones are not written again.
+     */
+    private void storeSellers(Map<String, SellerInformation> sellers, boolean replace) {
+        List<SellerInformation> changed = new ArrayList<>();
+        for (SellerInformation seller : sellers.values()) {
+            Optional<SellerInformation> stored = sellerRepository.findById(seller.getId());
+            if (stored.isEmpty() || (replace && !stored.get().equals(seller))) {
+                changed.add(seller);
+            }
+        }
+        if (!changed.isEmpty()) {
+            sellerRepository.saveAll(changed);
+            sellerLevels.invalidate();
+        }
+    }
+
+    /**
+     * Replaces the product's seller reference with the stored seller. Sellers still embedded in
+     * older products are matched by their derived id so seller updates reach them too.
+     */
+    private Product attachSeller(Product product) {
+        return attachSeller(product, sellerRepository::findById);
+    }
+
+    private Product attachSeller(Product product, Function<String, Optional<SellerInformation>> sellers) {
+        String sellerId = product == null ? null : SellerReferences.idOf(product.getSellerInformation());
+        if (sellerId == null) {
+            return product;
+        }
+        Optional<SellerInformation> stored = sellers.apply(sellerId);
+        if (stored.isEmpty() || stored.get() == product.getSellerInformation()) {
+            return product;
+        }
+        return withSeller(product, stored.get());
+    }
+
+    // Repositories may hand out shared instances, so joins copy instead of mutating.
+    private static Product withSeller(Product product, SellerInformation seller) {
+        Product copy = new Product(product.getId(), product.getImages(), product.getTitle(), product.getDescription(),
+            product.getPrice(), product.getPaymentMethods(), seller, product.getAdditionalDetails());
+        copy.setVersion(product.getVersion());
+        return copy;
+    }
+
+    private static Product merge(Product current, Product patch) {
+        return new Product(
+            current.getId(),
+            patch.getImages() != null ? patch.getImages() : current.getImages(),
+            patch.getTitle() != null ? patch.getTitle() : current.getTitle(),
+            patch.getDescription() != null ? patch.getDescription() : current.getDescription(),
+            patch.getPrice() != null ? patch.getPrice() : current.getPrice(),
+            patch.getPaymentMethods() != null ? patch.getPaymentMethods() : current.getPaymentMethods(),
+            patch.getSellerInformation() != null ? patch.getSellerInformation() : current.getSellerInformation(),
+            patch.getAdditionalDetails() != null ? patch.getAdditionalDetails() : current.getAdditionalDetails()
+        );
     }
-} 
\ No newline at end of file
+}
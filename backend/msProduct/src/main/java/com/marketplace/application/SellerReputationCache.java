@@ -0,0 +1,63 @@
+package com.marketplace.application;
+
+import com.marketplace.domain.SellerInformation;
+import com.marketplace.domain.SellerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reputation levels of the stored sellers by seller id, for the reputation facet.
+ *
+ * Searches read the levels from here instead of loading every seller. Seller writes made through
+ * the services invalidate them, and they are reloaded at least every {@code ttlMillis} to pick up
+ * writes other instances made to a shared seller store.
+ */
+@Component
+public class SellerReputationCache {
+    private final SellerRepository sellerRepository;
+    private final long ttlNanos;
+    // Bumped by every invalidation, so levels loaded while a seller was written are not kept
+    private final AtomicLong stamp = new AtomicLong();
+    private volatile Levels levels;
+
+    private record Levels(Map<String, String> bySellerId, long stamp, long expiresAt) {}
+
+    @Autowired
+    public SellerReputationCache(SellerRepository sellerRepository,
+                                 @Value("${app.facets.seller-levels-ttl-ms:5000}") long ttlMillis) {
+        if (ttlMillis < 0) {
+            throw new IllegalArgumentException("Seller levels TTL must not be negative");
+        }
+        this.sellerRepository = sellerRepository;
+        this.ttlNanos = ttlMillis * 1_000_000;
+    }
+
+    public Map<String, String> levels() {
+        Levels current = levels;
+        if (current != null && current.stamp() == stamp.get() && current.expiresAt() - System.nanoTime() > 0) {
+            return current.bySellerId();
+        }
+        long loadStamp = stamp.get();
+        Map<String, String> bySellerId = new HashMap<>();
+        for (SellerInformation seller : sellerRepository.findAll()) {
+            if (seller.getReputation() != null && seller.getReputation().getLevel() != null) {
+                bySellerId.put(seller.getId(), seller.getReputation().getLevel());
+            }
+        }
+        Map<String, String> loaded = Map.copyOf(bySellerId);
+        levels = new Levels(loaded, loadStamp, System.nanoTime() + ttlNanos);
+        return loaded;
+    }
+
+    /**
+     * Called after sellers were written, so the next search sees their new levels.
+     */
+    public void invalidate() {
+        stamp.incrementAndGet();
+    }
+}
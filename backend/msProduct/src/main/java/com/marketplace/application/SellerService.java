@@ -0,0 +1,8 @@
+package com.marketplace.application;
+
+import com.marketplace.domain.SellerInformation;
+
+public interface SellerService {
+    SellerInformation getSellerById(String id);
+    SellerInformation updateSeller(String id, SellerInformation seller);
+}
@@ -0,0 +1,87 @@
+package com.marketplace.application;
+
+import com.marketplace.domain.Product;
+import com.marketplace.domain.ProductRepository;
+import com.marketplace.domain.SellerInformation;
+import com.marketplace.domain.SellerReferences;
+import com.marketplace.domain.SellerRepository;
+import com.marketplace.domain.exceptions.SellerNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+public class SellerServiceImpl implements SellerService {
+    private static final Logger logger = LoggerFactory.getLogger(SellerServiceImpl.class);
+
+    private final SellerRepository sellerRepository;
+    private final ProductRepository productRepository;
+    private final SellerReputationCache sellerLevels;
+    private final boolean seedOnStartup;
+
+    @Autowired
+    public SellerServiceImpl(SellerRepository sellerRepository, ProductRepository productRepository,
+                             SellerReputationCache sellerLevels,
+                             @Value("${app.sellers.seed-on-startup:false}") boolean seedOnStartup) {
+        this.sellerRepository = sellerRepository;
+        this.productRepository = productRepository;
+        this.sellerLevels = sellerLevels;
+        this.seedOnStartup = seedOnStartup;
+    }
+
+    @Override
+    public SellerInformation getSellerById(String id) {
+        return sellerRepository.findById(id).orElseThrow(() -> new SellerNotFoundException(id));
+    }
+
+    @Override
+    public SellerInformation updateSeller(String id, SellerInformation seller) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("Seller ID cannot be null or empty");
+        }
+        seller.setId(id);
+        SellerInformation saved = sellerRepository.save(seller);
+        sellerLevels.invalidate();
+        return saved;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedOnStartup() {
+        if (seedOnStartup) {
+            seedFromProducts();
+        }
+    }
+
+    /**
+     * Copies sellers still embedded in products into the seller store, without rewriting the products.
+     * Products are reduced to a seller reference the next time they are written.
+     */
+    public int seedFromProducts() {
+        Map<String, SellerInformation> missing = new LinkedHashMap<>();
+        for (Product product : productRepository.findAll()) {
+            SellerInformation seller = product.getSellerInformation();
+            String sellerId = SellerReferences.idOf(seller);
+            if (sellerId == null || SellerReferences.isReference(seller) || missing.containsKey(sellerId)
+                    || sellerRepository.findById(sellerId).isPresent()) {
+                continue;
+            }
+            SellerInformation copy = new SellerInformation(seller.getName(), seller.getProductsCount(),
+                seller.getReputation(), seller.getMetrics(), seller.getPurchaseOptions());
+            copy.setId(sellerId);
+            missing.put(sellerId, copy);
+        }
+        if (!missing.isEmpty()) {
+            sellerRepository.saveAll(missing.values());
+            sellerLevels.invalidate();
+            logger.info("Seeded {} sellers from embedded product data", missing.size());
+        }
+        return missing.size();
+    }
+}
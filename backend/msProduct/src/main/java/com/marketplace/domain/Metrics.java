@@ -1,5 +1,7 @@
 package com.marketplace.domain;
 
+import java.util.Objects;
+
 public class Metrics {
     private String sales;
     private String service;
@@ -21,4 +23,19 @@ public class Metrics {
 
     public String getDelivery() { return delivery; }
     public void setDelivery(String delivery) { this.delivery = delivery; }
-} 
\ No newline at end of file
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Metrics other)) {
+            return false;
+        }
+        return this == o || Objects.equals(sales, other.sales)
+            && Objects.equals(service, other.service)
+            && Objects.equals(delivery, other.delivery);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sales, service, delivery);
+    }
+}
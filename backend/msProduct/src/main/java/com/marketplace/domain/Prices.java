@@ -0,0 +1,30 @@
+package com.marketplace.domain;
+
+import java.math.BigDecimal;
+
+/**
+ * Prices are free-form strings in the catalog (for example {@code "1853861"} or {@code "$ 1853861"});
+ * this extracts their numeric amount for indexing.
+ */
+public final class Prices {
+
+    private Prices() {}
+
+    /**
+     * Returns the numeric amount of the price, or null when it has none.
+     */
+    public static BigDecimal amountOf(String price) {
+        if (price == null) {
+            return null;
+        }
+        String digits = price.replaceAll("[^0-9.]", "");
+        if (digits.isEmpty()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(digits);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -14,6 +14,7 @@ public class Product {
     private List<String> paymentMethods;
     private SellerInformation sellerInformation;
     private AdditionalDetails additionalDetails;
+    private Long version;
 
     public Product() {}
 
@@ -51,4 +52,7 @@ public class Product {
 
     public AdditionalDetails getAdditionalDetails() { return additionalDetails; }
     public void setAdditionalDetails(AdditionalDetails additionalDetails) { this.additionalDetails = additionalDetails; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 } 
\ No newline at end of file
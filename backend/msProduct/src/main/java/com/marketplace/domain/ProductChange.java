@@ -0,0 +1,17 @@
+package com.marketplace.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+/**
+ * One write to the catalog, numbered by a sequence that only grows.
+ *
+ * {@code product} is the product as stored by the write and is null for deletions;
+ * {@code sellerId} is kept for deletions too, so subscribers can filter them by seller.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProductChange(long sequence, Type type, String productId, String sellerId, Long version,
+                            Instant changedAt, Product product) {
+    public enum Type { CREATED, UPDATED, DELETED }
+}
@@ -0,0 +1,50 @@
+package com.marketplace.domain;
+
+import java.util.List;
+
+/**
+ * The catalog changes after a client's last sync position, for delta sync.
+ *
+ * {@code upserts} are the current state of products created or updated since then and
+ * {@code deleted} the ids of products deleted since then; an id appears in at most one of them.
+ * Clients store {@code sequence} and pass it as the next {@code since}. When {@code fullSync}
+ * is set the position is too old (or unknown) for a delta: the client reloads the whole
+ * catalog and then continues from {@code sequence}.
+ */
+public class ProductChanges {
+    private final long sequence;
+    private final boolean fullSync;
+    private final boolean hasMore;
+    private final List<Product> upserts;
+    private final List<String> deleted;
+
+    public ProductChanges(long sequence, boolean hasMore, List<Product> upserts, List<String> deleted) {
+        this(sequence, false, hasMore, upserts, deleted);
+    }
+
+    private ProductChanges(long sequence, boolean fullSync, boolean hasMore, List<Product> upserts, List<String> deleted) {
+        this.sequence = sequence;
+        this.fullSync = fullSync;
+        this.hasMore = hasMore;
+        this.upserts = upserts;
+        this.deleted = deleted;
+    }
+
+    /**
+     * Tells the client to reload the catalog. {@code sequence} is read before the reload, so
+     * changes made while the client reloads are delivered again by the next delta.
+     */
+    public static ProductChanges fullSync(long sequence) {
+        return new ProductChanges(sequence, true, false, List.of(), List.of());
+    }
+
+    public long getSequence() { return sequence; }
+    public boolean isFullSync() { return fullSync; }
+
+    /**
+     * True when the delta was cut at the requested limit; the client asks again from {@code sequence}.
+     */
+    public boolean isHasMore() { return hasMore; }
+    public List<Product> getUpserts() { return upserts; }
+    public List<String> getDeleted() { return deleted; }
+}
@@ -0,0 +1,37 @@
+package com.marketplace.domain;
+
+/**
+ * Facet values a product search is restricted to; null fields do not filter.
+ */
+public class ProductFilter {
+    private String paymentMethod;
+    private String priceBucket;
+    private String reputationLevel;
+    private String stock;
+    private String sellerId;
+
+    public ProductFilter() {}
+
+    public ProductFilter(String paymentMethod, String priceBucket, String reputationLevel, String stock, String sellerId) {
+        this.paymentMethod = paymentMethod;
+        this.priceBucket = priceBucket;
+        this.reputationLevel = reputationLevel;
+        this.stock = stock;
+        this.sellerId = sellerId;
+    }
+
+    public String getPaymentMethod() { return paymentMethod; }
+    public void setPaymentMethod(String paymentMethod) { this.paymentMethod = paymentMethod; }
+
+    public String getPriceBucket() { return priceBucket; }
+    public void setPriceBucket(String priceBucket) { this.priceBucket = priceBucket; }
+
+    public String getReputationLevel() { return reputationLevel; }
+    public void setReputationLevel(String reputationLevel) { this.reputationLevel = reputationLevel; }
+
+    public String getStock() { return stock; }
+    public void setStock(String stock) { this.stock = stock; }
+
+    public String getSellerId() { return sellerId; }
+    public void setSellerId(String sellerId) { this.sellerId = sellerId; }
+}
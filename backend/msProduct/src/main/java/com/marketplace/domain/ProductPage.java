@@ -0,0 +1,39 @@
+package com.marketplace.domain;
+
+import java.util.List;
+import java.util.Map;
+
+public class ProductPage {
+    private final List<Product> items;
+    private final int page;
+    private final int size;
+    private final long totalItems;
+    private final Map<String, Map<String, Integer>> facets;
+
+    public ProductPage(List<Product> items, int page, int size, long totalItems) {
+        this(items, page, size, totalItems, null);
+    }
+
+    public ProductPage(List<Product> items, int page, int size, long totalItems,
+                       Map<String, Map<String, Integer>> facets) {
+        this.items = items;
+        this.page = page;
+        this.size = size;
+        this.totalItems = totalItems;
+        this.facets = facets;
+    }
+
+    public List<Product> getItems() { return items; }
+    public int getPage() { return page; }
+    public int getSize() { return size; }
+    public long getTotalItems() { return totalItems; }
+
+    /**
+     * Product counts per facet value (facet name to value to count) for the products matching the query.
+     */
+    public Map<String, Map<String, Integer>> getFacets() { return facets; }
+
+    public long getTotalPages() {
+        return size == 0 ? 0 : (totalItems + size - 1) / size;
+    }
+}
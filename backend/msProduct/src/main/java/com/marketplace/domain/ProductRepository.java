@@ -1,11 +1,89 @@
 package com.marketplace.domain;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ProductRepository {
     List<Product> findAll();
+
+    /**
+     * Passes every product to {@code consumer} in catalog order. All products come from one
+     * consistent snapshot, so writes made while the catalog is walked are not seen. Unlike
+     * {@link #findAll()} the decoded catalog is never held in memory at once.
+     */
+    void streamAll(Consumer<? super Product> consumer);
     Product findById(String id);
     Product save(Product product);
     Product update(String id, Product product);
     void delete(String id);
-} 
\ No newline at end of file
+
+    /**
+     * Stores a batch of products in one write, replacing products whose id is already stored
+     * and adding the rest. Replaced products get their stored version incremented, new ones
+     * start at version 1. Products repeated within the batch are applied in order.
+     */
+    List<Product> saveAll(List<Product> products);
+
+    /**
+     * Stores one batch of a bulk import like {@link #saveAll(List)}. Stores that rewrite their
+     * whole data file on every write may keep the batch in memory only, until
+     * {@link #flushImported()} writes the file once for the whole import.
+     */
+    default List<Product> importBatch(List<Product> products) {
+        return saveAll(products);
+    }
+
+    /**
+     * Writes the batches {@link #importBatch(List)} kept in memory only.
+     */
+    default void flushImported() {
+    }
+
+    /**
+     * Replaces the product only if its stored version still equals {@code expectedVersion}.
+     * The stored version is incremented on success.
+     *
+     * @throws com.marketplace.domain.exceptions.ProductNotFoundException if no product has the given id
+     * @throws com.marketplace.domain.exceptions.VersionConflictException if the stored version differs
+     */
+    Product compareAndSet(String id, long expectedVersion, Product product);
+
+    /**
+     * Deletes the product only if its stored version still equals {@code expectedVersion}.
+     *
+     * @throws com.marketplace.domain.exceptions.ProductNotFoundException if no product has the given id
+     * @throws com.marketplace.domain.exceptions.VersionConflictException if the stored version differs
+     */
+    void deleteIfVersion(String id, long expectedVersion);
+
+    /**
+     * Returns one page of the seller's products, in catalog order. Sellers are matched by
+     * {@link SellerReferences#idOf(SellerInformation)}, so products embedding a seller
+     * without an id are found by the id derived from its name.
+     */
+    ProductPage findBySellerId(String sellerId, int page, int size);
+
+    /**
+     * Returns up to {@code limit} changes recorded after the change sequence {@code since}.
+     * Every write takes the next sequence number; deletions leave a tombstone. Positions the
+     * repository can no longer serve as a delta yield {@link ProductChanges#fullSync(long)}.
+     */
+    ProductChanges changesSince(long since, int limit);
+
+    /**
+     * Applies changes replicated from another instance in one write: stores {@code upserts} as
+     * they are, keeping their versions, and deletes the products with the {@code deleted} ids
+     * that are stored. Both are recorded in the change sequence like any other write, and
+     * applying the same changes twice leaves the catalog as applying them once.
+     */
+    void replicate(List<Product> upserts, List<String> deleted);
+
+    /**
+     * Identifies the catalog being served. It changes whenever the repository replaces products
+     * other than through the writes above, such as reloading a data file changed on disk, so
+     * indexes built from the whole catalog know to rebuild. Stores that never do stay at 0.
+     */
+    default long catalogGeneration() {
+        return 0L;
+    }
+}
@@ -1,5 +1,7 @@
 package com.marketplace.domain;
 
+import java.util.Objects;
+
 public class PurchaseOptions {
     private Long price;
 
@@ -11,4 +13,17 @@ public class PurchaseOptions {
 
     public Long getPrice() { return price; }
     public void setPrice(Long price) { this.price = price; }
-} 
\ No newline at end of file
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof PurchaseOptions other)) {
+            return false;
+        }
+        return this == o || Objects.equals(price, other.price);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(price);
+    }
+}
@@ -1,5 +1,7 @@
 package com.marketplace.domain;
 
+import java.util.Objects;
+
 public class Reputation {
     private String level;
     private String description;
@@ -16,4 +18,17 @@ public class Reputation {
 
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
-} 
\ No newline at end of file
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Reputation other)) {
+            return false;
+        }
+        return this == o || Objects.equals(level, other.level) && Objects.equals(description, other.description);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(level, description);
+    }
+}
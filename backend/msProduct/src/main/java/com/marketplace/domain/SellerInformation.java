@@ -1,6 +1,9 @@
 package com.marketplace.domain;
 
+import java.util.Objects;
+
 public class SellerInformation {
+    private String id;
     private String name;
     private String productsCount;
     private Reputation reputation;
@@ -17,6 +20,9 @@ public class SellerInformation {
         this.purchaseOptions = purchaseOptions;
     }
 
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
 
@@ -31,4 +37,22 @@ public class SellerInformation {
 
     public PurchaseOptions getPurchaseOptions() { return purchaseOptions; }
     public void setPurchaseOptions(PurchaseOptions purchaseOptions) { this.purchaseOptions = purchaseOptions; }
-} 
\ No newline at end of file
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SellerInformation other)) {
+            return false;
+        }
+        return this == o || Objects.equals(id, other.id)
+            && Objects.equals(name, other.name)
+            && Objects.equals(productsCount, other.productsCount)
+            && Objects.equals(reputation, other.reputation)
+            && Objects.equals(metrics, other.metrics)
+            && Objects.equals(purchaseOptions, other.purchaseOptions);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, productsCount, reputation, metrics, purchaseOptions);
+    }
+}
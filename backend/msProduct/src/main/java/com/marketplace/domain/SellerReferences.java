@@ -0,0 +1,51 @@
+package com.marketplace.domain;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Helpers for the seller references stored inside products.
+ *
+ * Products keep only {@code {"id": ...}} for their seller; the full seller lives in the
+ * SellerRepository. Sellers written before ids existed get one derived from their name.
+ */
+public final class SellerReferences {
+
+    private SellerReferences() {}
+
+    /**
+     * Returns the seller's id, deriving a slug from its name when it has none, or null for no seller.
+     */
+    public static String idOf(SellerInformation seller) {
+        if (seller == null) {
+            return null;
+        }
+        if (seller.getId() != null && !seller.getId().isBlank()) {
+            return seller.getId();
+        }
+        if (seller.getName() == null) {
+            return null;
+        }
+        String slug = Normalizer.normalize(seller.getName(), Normalizer.Form.NFD)
+            .replaceAll("\\p{M}", "")
+            .toLowerCase(Locale.ROOT)
+            .replaceAll("[^a-z0-9]+", "-")
+            .replaceAll("(^-+|-+$)", "");
+        return slug.isEmpty() ? null : slug;
+    }
+
+    public static SellerInformation reference(String sellerId) {
+        SellerInformation reference = new SellerInformation();
+        reference.setId(sellerId);
+        return reference;
+    }
+
+    /**
+     * True when the seller carries nothing but its id.
+     */
+    public static boolean isReference(SellerInformation seller) {
+        return seller != null && seller.getId() != null && seller.getName() == null
+            && seller.getProductsCount() == null && seller.getReputation() == null
+            && seller.getMetrics() == null && seller.getPurchaseOptions() == null;
+    }
+}
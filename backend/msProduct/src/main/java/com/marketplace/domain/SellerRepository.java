@@ -0,0 +1,20 @@
+package com.marketplace.domain;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface SellerRepository {
+    List<SellerInformation> findAll();
+    Optional<SellerInformation> findById(String id);
+
+    /**
+     * Inserts or replaces the seller stored under {@link SellerInformation#getId()}.
+     */
+    SellerInformation save(SellerInformation seller);
+
+    /**
+     * Inserts or replaces several sellers with a single write.
+     */
+    void saveAll(Collection<SellerInformation> sellers);
+}
@@ -0,0 +1,10 @@
+package com.marketplace.domain.exceptions;
+
+/**
+ * Expected while an import runs, so it records no stack trace.
+ */
+public class ImportInProgressException extends RuntimeException {
+    public ImportInProgressException() {
+        super("Another product import is in progress", null, false, false);
+    }
+}
@@ -1,19 +1,29 @@
 package com.marketplace.domain.exceptions;
 
+/**
+ * Expected on every lookup of an unknown id, so it records no stack trace and builds its
+ * message only when asked.
+ */
 public class ProductNotFoundException extends RuntimeException {
     private final String productId;
 
     public ProductNotFoundException(String productId) {
-        super(String.format("Product with ID '%s' not found", productId));
+        super(null, null, false, false);
         this.productId = productId;
     }
 
     public ProductNotFoundException(String productId, String message) {
-        super(message);
+        super(message, null, false, false);
         this.productId = productId;
     }
 
+    @Override
+    public String getMessage() {
+        String message = super.getMessage();
+        return message != null ? message : "Product with ID '" + productId + "' not found";
+    }
+
     public String getProductId() {
         return productId;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,17 @@
+package com.marketplace.domain.exceptions;
+
+/**
+ * Expected on lookups of unknown sellers, so it records no stack trace.
+ */
+public class SellerNotFoundException extends RuntimeException {
+    private final String sellerId;
+
+    public SellerNotFoundException(String sellerId) {
+        super(String.format("Seller with ID '%s' not found", sellerId), null, false, false);
+        this.sellerId = sellerId;
+    }
+
+    public String getSellerId() {
+        return sellerId;
+    }
+}
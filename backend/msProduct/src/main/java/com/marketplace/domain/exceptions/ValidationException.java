@@ -2,16 +2,19 @@ package com.marketplace.domain.exceptions;
 
 import java.util.List;
 
+/**
+ * Expected on bad client input, so it records no stack trace.
+ */
 public class ValidationException extends RuntimeException {
     private final List<String> validationErrors;
 
     public ValidationException(String message) {
-        super(message);
+        super(message, null, false, false);
         this.validationErrors = null;
     }
 
     public ValidationException(String message, List<String> validationErrors) {
-        super(message);
+        super(message, null, false, false);
         this.validationErrors = validationErrors;
     }
 
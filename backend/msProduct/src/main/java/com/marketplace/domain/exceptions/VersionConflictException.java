@@ -0,0 +1,30 @@
+package com.marketplace.domain.exceptions;
+
+/**
+ * Expected when clients race on a product, so it records no stack trace.
+ */
+public class VersionConflictException extends RuntimeException {
+    private final String productId;
+    private final long expectedVersion;
+    private final long actualVersion;
+
+    public VersionConflictException(String productId, long expectedVersion, long actualVersion) {
+        super(String.format("Product with ID '%s' is at version %d, expected version %d",
+            productId, actualVersion, expectedVersion), null, false, false);
+        this.productId = productId;
+        this.expectedVersion = expectedVersion;
+        this.actualVersion = actualVersion;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public long getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    public long getActualVersion() {
+        return actualVersion;
+    }
+}
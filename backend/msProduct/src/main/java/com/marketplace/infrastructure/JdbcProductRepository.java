@@ -0,0 +1,512 @@
+package com.marketplace.infrastructure;
+
+import com.marketplace.domain.AdditionalDetails;
+import com.marketplace.domain.Prices;
+import com.marketplace.domain.Product;
+import com.marketplace.domain.ProductChanges;
+import com.marketplace.domain.ProductPage;
+import com.marketplace.domain.ProductRepository;
+import com.marketplace.domain.SellerInformation;
+import com.marketplace.domain.exceptions.DataAccessException;
+import com.marketplace.domain.exceptions.ProductNotFoundException;
+import com.marketplace.domain.exceptions.ValidationException;
+import com.marketplace.domain.exceptions.VersionConflictException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * ProductRepository over an embedded SQL database, selected with {@code app.repository.type=sql}.
+ *
+ * Sellers, images and payment methods live in their own tables (see db/catalog-schema.sql).
+ * On first start the catalog is imported once from the JSON data file. Each write stamps the
+ * product with the next change sequence, and deletions leave a tombstone, for delta sync.
+ */
+@Repository
+@ConditionalOnProperty(name = "app.repository.type", havingValue = "sql")
+public class JdbcProductRepository implements ProductRepository {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcProductRepository.class);
+    private static final String JSON_MIGRATION = "import-products-json";
+    // Products read per query when the catalog is streamed
+    private static final int STREAM_PAGE_SIZE = 500;
+
+    private static final String SELECT_PRODUCT =
+        "SELECT p.id, p.title, p.description, p.price, p.ratings, p.reviews, p.available_stock, p.version, p.position, p.change_seq, " +
+        "s.id AS seller_id, s.external_id, s.name, s.products_count, s.reputation_level, s.reputation_description, " +
+        "s.metrics_sales, s.metrics_service, s.metrics_delivery, s.purchase_price " +
+        "FROM product p LEFT JOIN seller s ON s.id = p.seller_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate snapshotTemplate;
+    private final JdbcSellerRepository sellerRepository;
+    private final String dataFile;
+
+    public JdbcProductRepository(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                 JdbcSellerRepository sellerRepository,
+                                 @Value("${app.data.file:products.json}") String dataFile) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.snapshotTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTemplate.setReadOnly(true);
+        this.sellerRepository = sellerRepository;
+        this.dataFile = dataFile;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        new ResourceDatabasePopulator(new ClassPathResource("db/catalog-schema.sql"))
+            .execute(jdbcTemplate.getDataSource());
+        inTransaction(() -> {
+            Integer applied = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM catalog_migration WHERE name = ?", Integer.class, JSON_MIGRATION);
+            if (applied != null && applied > 0) {
+                return null;
+            }
+            List<Product> products = new JsonProductRepository(dataFile).findAll();
+            for (Product product : products) {
+                insert(product, product.getVersion() == null ? 1L : product.getVersion());
+            }
+            jdbcTemplate.update("INSERT INTO catalog_migration (name, applied_at) VALUES (?, ?)",
+                JSON_MIGRATION, Timestamp.from(Instant.now()));
+            logger.info("Imported {} products from {} into the catalog database", products.size(), dataFile);
+            return null;
+        });
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return inTransaction(() -> {
+            List<Product> products = jdbcTemplate.query(SELECT_PRODUCT + " ORDER BY p.position", this::mapProduct);
+            Map<String, List<String>> images = groupByProduct(
+                "SELECT product_id, url FROM product_image ORDER BY product_id, position");
+            Map<String, List<String>> paymentMethods = groupByProduct(
+                "SELECT product_id, method FROM product_payment_method ORDER BY product_id, position");
+            for (Product product : products) {
+                product.setImages(images.getOrDefault(product.getId(), new ArrayList<>()));
+                product.setPaymentMethods(paymentMethods.getOrDefault(product.getId(), new ArrayList<>()));
+            }
+            return products;
+        });
+    }
+
+    /**
+     * Pages through the catalog by position inside one repeatable-read transaction, so every
+     * page comes from the same snapshot while only one page is held in memory.
+     */
+    @Override
+    public void streamAll(Consumer<? super Product> consumer) {
+        inSnapshot(() -> {
+            long after = Long.MIN_VALUE;
+            while (true) {
+                long[] last = {after};
+                List<Product> page = jdbcTemplate.query(
+                    SELECT_PRODUCT + " WHERE p.position > ? ORDER BY p.position LIMIT ?", (rs, rowNum) -> {
+                        last[0] = rs.getLong("position");
+                        return mapProduct(rs, rowNum);
+                    }, after, STREAM_PAGE_SIZE);
+                loadChildren(page);
+                page.forEach(consumer);
+                if (page.size() < STREAM_PAGE_SIZE) {
+                    return null;
+                }
+                after = last[0];
+            }
+        });
+    }
+
+    /**
+     * Merges the products stamped and the tombstones left after {@code since}, in sequence order,
+     * inside one repeatable-read transaction so the last sequence matches what is read.
+     */
+    @Override
+    public ProductChanges changesSince(long since, int limit) {
+        return inSnapshot(() -> {
+            Long last = jdbcTemplate.queryForObject(
+                "SELECT last_sequence FROM product_change_state WHERE id = 1", Long.class);
+            long lastSequence = last == null ? 0L : last;
+            // Products imported before delta sync have sequence 0, so a delta always starts after it
+            if (since < 1 || since > lastSequence) {
+                return ProductChanges.fullSync(lastSequence);
+            }
+            List<Product> changed = new ArrayList<>();
+            List<Long> changedSequences = new ArrayList<>();
+            jdbcTemplate.query(SELECT_PRODUCT + " WHERE p.change_seq > ? ORDER BY p.change_seq LIMIT ?", (ResultSet rs) -> {
+                changed.add(mapProduct(rs, 0));
+                changedSequences.add(rs.getLong("change_seq"));
+            }, since, limit + 1);
+            List<String> tombstones = new ArrayList<>();
+            List<Long> tombstoneSequences = new ArrayList<>();
+            jdbcTemplate.query("SELECT id, change_seq FROM product_tombstone WHERE change_seq > ? ORDER BY change_seq LIMIT ?",
+                (ResultSet rs) -> {
+                    tombstones.add(rs.getString("id"));
+                    tombstoneSequences.add(rs.getLong("change_seq"));
+                }, since, limit + 1);
+
+            List<Product> upserts = new ArrayList<>();
+            List<String> deleted = new ArrayList<>();
+            int nextChanged = 0;
+            int nextTombstone = 0;
+            long sequence = since;
+            while (upserts.size() + deleted.size() < limit
+                    && (nextChanged < changed.size() || nextTombstone < tombstones.size())) {
+                boolean takeChanged = nextTombstone == tombstones.size() || (nextChanged < changed.size()
+                    && changedSequences.get(nextChanged) < tombstoneSequences.get(nextTombstone));
+                if (takeChanged) {
+                    sequence = changedSequences.get(nextChanged);
+                    upserts.add(changed.get(nextChanged++));
+                } else {
+                    sequence = tombstoneSequences.get(nextTombstone);
+                    deleted.add(tombstones.get(nextTombstone++));
+                }
+            }
+            boolean hasMore = nextChanged < changed.size() || nextTombstone < tombstones.size();
+            loadChildren(upserts);
+            return new ProductChanges(hasMore ? sequence : lastSequence, hasMore, upserts, deleted);
+        });
+    }
+
+    @Override
+    public Product findById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("Product ID cannot be null or empty");
+        }
+        Product product = inTransaction(() -> {
+            List<Product> rows = jdbcTemplate.query(SELECT_PRODUCT + " WHERE p.id = ?", this::mapProduct, id);
+            if (rows.isEmpty()) {
+                return null;
+            }
+            Product found = rows.get(0);
+            found.setImages(jdbcTemplate.queryForList(
+                "SELECT url FROM product_image WHERE product_id = ? ORDER BY position", String.class, id));
+            found.setPaymentMethods(jdbcTemplate.queryForList(
+                "SELECT method FROM product_payment_method WHERE product_id = ? ORDER BY position", String.class, id));
+            return found;
+        });
+        if (product == null) {
+            throw new ProductNotFoundException(id);
+        }
+        return product;
+    }
+
+    // Served from idx_product_seller; sellers imported before they had an id are matched once seeded.
+    @Override
+    public ProductPage findBySellerId(String sellerId, int page, int size) {
+        return inTransaction(() -> {
+            Long total = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM product p JOIN seller s ON s.id = p.seller_id WHERE s.external_id = ?",
+                Long.class, sellerId);
+            List<Product> items = jdbcTemplate.query(
+                SELECT_PRODUCT + " WHERE s.external_id = ? ORDER BY p.position LIMIT ? OFFSET ?",
+                this::mapProduct, sellerId, size, (long) page * size);
+            loadChildren(items);
+            return new ProductPage(items, page, size, total == null ? 0 : total);
+        });
+    }
+
+    @Override
+    public Product save(Product product) {
+        return inTransaction(() -> {
+            insert(product, 1L);
+            product.setVersion(1L);
+            stamp(product.getId());
+            return product;
+        });
+    }
+
+    @Override
+    public List<Product> saveAll(List<Product> products) {
+        return inTransaction(() -> {
+            for (Product product : products) {
+                if (overwrite(product.getId(), product) == null) {
+                    insert(product, 1L);
+                    product.setVersion(1L);
+                    stamp(product.getId());
+                }
+            }
+            return products;
+        });
+    }
+
+    @Override
+    public Product update(String id, Product product) {
+        return inTransaction(() -> overwrite(id, product));
+    }
+
+    @Override
+    public void delete(String id) {
+        inTransaction(() -> {
+            if (jdbcTemplate.update("DELETE FROM product WHERE id = ?", id) > 0) {
+                tombstone(id);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public Product compareAndSet(String id, long expectedVersion, Product product) {
+        return inTransaction(() -> replace(id, expectedVersion, product));
+    }
+
+    @Override
+    public void deleteIfVersion(String id, long expectedVersion) {
+        inTransaction(() -> {
+            int deleted = jdbcTemplate.update("DELETE FROM product WHERE id = ? AND version = ?", id, expectedVersion);
+            if (deleted == 0) {
+                throw conflictOrNotFound(id, expectedVersion);
+            }
+            tombstone(id);
+            return null;
+        });
+    }
+
+    @Override
+    public void replicate(List<Product> upserts, List<String> deleted) {
+        inTransaction(() -> {
+            for (String id : deleted) {
+                if (jdbcTemplate.update("DELETE FROM product WHERE id = ?", id) > 0) {
+                    tombstone(id);
+                }
+            }
+            for (Product product : upserts) {
+                long version = product.getVersion() == null ? 0L : product.getVersion();
+                Long current = currentVersion(product.getId());
+                if (current == null) {
+                    insert(product, version);
+                    product.setVersion(version);
+                    stamp(product.getId());
+                } else {
+                    replace(product.getId(), current, version, product);
+                }
+            }
+            return null;
+        });
+    }
+
+    private Product replace(String id, long expectedVersion, Product product) {
+        return replace(id, expectedVersion, expectedVersion + 1, product);
+    }
+
+    // Row-level compare-and-set: the UPDATE only matches while the stored version is unchanged.
+    private Product replace(String id, long expectedVersion, long newVersion, Product product) {
+        if (updateRow(id, product, "version = ?", "id = ? AND version = ?", newVersion, id, expectedVersion) == 0) {
+            throw conflictOrNotFound(id, expectedVersion);
+        }
+        product.setVersion(newVersion);
+        return replaced(id, product);
+    }
+
+    // Unconditional update: the row's own version is incremented, so concurrent updates queue on the
+    // row lock instead of conflicting. Returns null when there is no such product.
+    private Product overwrite(String id, Product product) {
+        if (updateRow(id, product, "version = version + 1", "id = ?", id) == 0) {
+            return null;
+        }
+        product.setVersion(currentVersion(rowId(id, product)));
+        return replaced(id, product);
+    }
+
+    // The UPDATE takes the row lock before the child rows are touched. A product carrying another id
+    // renames the row once its child rows are gone; a rename onto a stored id fails on the primary key.
+    private int updateRow(String id, Product product, String version, String condition, Object... conditionArgs) {
+        List<Object> args = new ArrayList<>(Arrays.asList(product.getTitle(), product.getDescription(),
+            product.getPrice(), parsePrice(product.getPrice()), upsertSeller(product.getSellerInformation()),
+            details(product, AdditionalDetails::getRatings), details(product, AdditionalDetails::getReviews),
+            details(product, AdditionalDetails::getAvailableStock)));
+        args.addAll(Arrays.asList(conditionArgs));
+        int updated = jdbcTemplate.update(
+            "UPDATE product SET title = ?, description = ?, price = ?, price_amount = ?, seller_id = ?, " +
+            "ratings = ?, reviews = ?, available_stock = ?, " + version + " WHERE " + condition,
+            args.toArray());
+        if (updated > 0) {
+            jdbcTemplate.update("DELETE FROM product_image WHERE product_id = ?", id);
+            jdbcTemplate.update("DELETE FROM product_payment_method WHERE product_id = ?", id);
+            if (!rowId(id, product).equals(id)) {
+                jdbcTemplate.update("UPDATE product SET id = ? WHERE id = ?", rowId(id, product), id);
+            }
+        }
+        return updated;
+    }
+
+    private Product replaced(String id, Product product) {
+        String rowId = rowId(id, product);
+        insertChildren(rowId, product);
+        stamp(rowId);
+        if (!rowId.equals(id)) {
+            tombstone(id);
+        }
+        return product;
+    }
+
+    private static String rowId(String id, Product product) {
+        return product.getId() == null ? id : product.getId();
+    }
+
+    private void insert(Product product, long version) {
+        jdbcTemplate.update(
+            "INSERT INTO product (id, title, description, price, price_amount, seller_id, " +
+            "ratings, reviews, available_stock, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+            product.getId(), product.getTitle(), product.getDescription(), product.getPrice(),
+            parsePrice(product.getPrice()), upsertSeller(product.getSellerInformation()),
+            details(product, AdditionalDetails::getRatings), details(product, AdditionalDetails::getReviews),
+            details(product, AdditionalDetails::getAvailableStock), version);
+        insertChildren(product.getId(), product);
+    }
+
+    private void stamp(String id) {
+        jdbcTemplate.update("UPDATE product SET change_seq = ? WHERE id = ?", nextSequence(), id);
+        jdbcTemplate.update("DELETE FROM product_tombstone WHERE id = ?", id);
+    }
+
+    private void tombstone(String id) {
+        jdbcTemplate.update("MERGE INTO product_tombstone (id, change_seq) KEY (id) VALUES (?, ?)", id, nextSequence());
+    }
+
+    /**
+     * Takes the next change sequence. The counter row stays locked until the write commits, so
+     * sequences are handed out in commit order and a delta never skips a write committed late.
+     * Writers call it last, to keep that lock short.
+     */
+    private long nextSequence() {
+        jdbcTemplate.update("UPDATE product_change_state SET last_sequence = last_sequence + 1 WHERE id = 1");
+        Long sequence = jdbcTemplate.queryForObject(
+            "SELECT last_sequence FROM product_change_state WHERE id = 1", Long.class);
+        return sequence == null ? 0L : sequence;
+    }
+
+    private void insertChildren(String id, Product product) {
+        insertList("INSERT INTO product_image (product_id, position, url) VALUES (?, ?, ?)",
+            id, product.getImages());
+        insertList("INSERT INTO product_payment_method (product_id, position, method) VALUES (?, ?, ?)",
+            id, product.getPaymentMethods());
+    }
+
+    private void insertList(String sql, String id, List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(values.size());
+        for (int i = 0; i < values.size(); i++) {
+            rows.add(new Object[] { id, i, values.get(i) });
+        }
+        jdbcTemplate.batchUpdate(sql, rows);
+    }
+
+    private Long upsertSeller(SellerInformation seller) {
+        return sellerRepository.upsertRow(seller);
+    }
+
+    private RuntimeException conflictOrNotFound(String id, long expectedVersion) {
+        Long actual = currentVersion(id);
+        if (actual == null) {
+            return new ProductNotFoundException(id);
+        }
+        return new VersionConflictException(id, expectedVersion, actual);
+    }
+
+    private Long currentVersion(String id) {
+        List<Long> versions = jdbcTemplate.queryForList("SELECT version FROM product WHERE id = ?", Long.class, id);
+        return versions.isEmpty() ? null : versions.get(0);
+    }
+
+    // Loads the images and payment methods of a page of products with one query each.
+    private void loadChildren(List<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        List<String> ids = products.stream().map(Product::getId).collect(Collectors.toList());
+        String in = ids.stream().map(id -> "?").collect(Collectors.joining(", ", "(", ")"));
+        Map<String, List<String>> images = groupByProduct(
+            "SELECT product_id, url FROM product_image WHERE product_id IN " + in + " ORDER BY product_id, position",
+            ids.toArray());
+        Map<String, List<String>> paymentMethods = groupByProduct(
+            "SELECT product_id, method FROM product_payment_method WHERE product_id IN " + in +
+            " ORDER BY product_id, position", ids.toArray());
+        for (Product product : products) {
+            product.setImages(images.getOrDefault(product.getId(), new ArrayList<>()));
+            product.setPaymentMethods(paymentMethods.getOrDefault(product.getId(), new ArrayList<>()));
+        }
+    }
+
+    private Map<String, List<String>> groupByProduct(String sql, Object... args) {
+        Map<String, List<String>> grouped = new HashMap<>();
+        jdbcTemplate.query(sql, (ResultSet rs) -> {
+            grouped.computeIfAbsent(rs.getString(1), key -> new ArrayList<>()).add(rs.getString(2));
+        }, args);
+        return grouped;
+    }
+
+    private Product mapProduct(ResultSet rs, int rowNum) throws SQLException {
+        Product product = new Product();
+        product.setId(rs.getString("id"));
+        product.setTitle(rs.getString("title"));
+        product.setDescription(rs.getString("description"));
+        product.setPrice(rs.getString("price"));
+        product.setVersion(rs.getLong("version"));
+
+        String ratings = rs.getString("ratings");
+        String reviews = rs.getString("reviews");
+        String availableStock = rs.getString("available_stock");
+        if (ratings != null || reviews != null || availableStock != null) {
+            product.setAdditionalDetails(new AdditionalDetails(ratings, reviews, availableStock));
+        }
+
+        rs.getLong("seller_id");
+        if (!rs.wasNull()) {
+            product.setSellerInformation(JdbcSellerRepository.mapSeller(rs));
+        }
+        return product;
+    }
+
+    private static String details(Product product, Function<AdditionalDetails, String> getter) {
+        return product.getAdditionalDetails() == null ? null : getter.apply(product.getAdditionalDetails());
+    }
+
+    // Keep a numeric copy of the free-form price for the price index.
+    static BigDecimal parsePrice(String price) {
+        return Prices.amountOf(price);
+    }
+
+    private <T> T inSnapshot(Supplier<T> work) {
+        try {
+            return snapshotTemplate.execute(status -> work.get());
+        } catch (org.springframework.dao.DataAccessException e) {
+            throw new DataAccessException("Failed to access the catalog database", e);
+        }
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        try {
+            return transactionTemplate.execute(status -> work.get());
+        } catch (DuplicateKeyException e) {
+            throw new ValidationException("A product with the same ID already exists");
+        } catch (org.springframework.dao.DataAccessException e) {
+            throw new DataAccessException("Failed to access the catalog database", e);
+        }
+    }
+}
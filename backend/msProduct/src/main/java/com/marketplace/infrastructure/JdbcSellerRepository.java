@@ -0,0 +1,185 @@
+package com.marketplace.infrastructure;
+
+import com.marketplace.domain.Metrics;
+import com.marketplace.domain.PurchaseOptions;
+import com.marketplace.domain.Reputation;
+import com.marketplace.domain.SellerInformation;
+import com.marketplace.domain.SellerRepository;
+import com.marketplace.domain.exceptions.DataAccessException;
+import com.marketplace.domain.exceptions.ValidationException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * SellerRepository over the seller table of the catalog database ({@code app.repository.type=sql}).
+ *
+ * The API id is kept in {@code external_id}; rows imported before it existed are matched by name.
+ * The schema is created by JdbcProductRepository.
+ */
+@Repository
+@ConditionalOnProperty(name = "app.repository.type", havingValue = "sql")
+public class JdbcSellerRepository implements SellerRepository {
+    private static final String SELECT_SELLER =
+        "SELECT s.external_id, s.name, s.products_count, s.reputation_level, s.reputation_description, " +
+        "s.metrics_sales, s.metrics_service, s.metrics_delivery, s.purchase_price FROM seller s";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public JdbcSellerRepository(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public List<SellerInformation> findAll() {
+        return inTransaction(() -> jdbcTemplate.query(
+            SELECT_SELLER + " WHERE s.external_id IS NOT NULL ORDER BY s.id", (rs, rowNum) -> mapSeller(rs)));
+    }
+
+    @Override
+    public Optional<SellerInformation> findById(String id) {
+        List<SellerInformation> rows = inTransaction(() -> jdbcTemplate.query(
+            SELECT_SELLER + " WHERE s.external_id = ?", (rs, rowNum) -> mapSeller(rs), id));
+        return rows.stream().findFirst();
+    }
+
+    @Override
+    public SellerInformation save(SellerInformation seller) {
+        if (seller.getId() == null || seller.getId().trim().isEmpty()) {
+            throw new IllegalArgumentException("Seller ID cannot be null or empty");
+        }
+        inTransaction(() -> upsertRow(seller));
+        return seller;
+    }
+
+    @Override
+    public void saveAll(Collection<SellerInformation> sellers) {
+        inTransaction(() -> {
+            sellers.forEach(this::upsertRow);
+            return null;
+        });
+    }
+
+    /**
+     * Inserts or updates the seller row and returns its primary key, or null for no seller.
+     * A seller carrying only its id is resolved without touching the stored data.
+     */
+    Long upsertRow(SellerInformation seller) {
+        if (seller == null) {
+            return null;
+        }
+        if (seller.getId() != null) {
+            List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM seller WHERE external_id = ?", Long.class, seller.getId());
+            if (!ids.isEmpty() && seller.getName() == null) {
+                return ids.get(0);
+            }
+            if (ids.isEmpty() && seller.getName() != null) {
+                ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM seller WHERE external_id IS NULL AND name = ?", Long.class, seller.getName());
+            }
+            if (!ids.isEmpty()) {
+                update(ids.get(0), seller);
+                return ids.get(0);
+            }
+            return insert(seller);
+        }
+        // Sellers without an id are shared by name, so products of the same seller point at one row.
+        if (seller.getName() != null) {
+            List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM seller WHERE name = ?", Long.class, seller.getName());
+            if (!ids.isEmpty()) {
+                update(ids.get(0), seller);
+                return ids.get(0);
+            }
+        }
+        return insert(seller);
+    }
+
+    private void update(long rowId, SellerInformation seller) {
+        Object[] columns = columns(seller);
+        Object[] values = new Object[columns.length + 1];
+        System.arraycopy(columns, 0, values, 0, columns.length);
+        values[columns.length] = rowId;
+        jdbcTemplate.update(
+            "UPDATE seller SET products_count = ?, reputation_level = ?, reputation_description = ?, " +
+            "metrics_sales = ?, metrics_service = ?, metrics_delivery = ?, purchase_price = ?, name = ?, " +
+            "external_id = COALESCE(?, external_id) WHERE id = ?",
+            values);
+    }
+
+    private Long insert(SellerInformation seller) {
+        Object[] values = columns(seller);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO seller (products_count, reputation_level, reputation_description, " +
+                "metrics_sales, metrics_service, metrics_delivery, purchase_price, name, external_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", new String[] { "id" });
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(i + 1, values[i]);
+            }
+            return statement;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    private static Object[] columns(SellerInformation seller) {
+        Reputation reputation = seller.getReputation();
+        Metrics metrics = seller.getMetrics();
+        PurchaseOptions purchaseOptions = seller.getPurchaseOptions();
+        return new Object[] {
+            seller.getProductsCount(),
+            reputation == null ? null : reputation.getLevel(),
+            reputation == null ? null : reputation.getDescription(),
+            metrics == null ? null : metrics.getSales(),
+            metrics == null ? null : metrics.getService(),
+            metrics == null ? null : metrics.getDelivery(),
+            purchaseOptions == null ? null : purchaseOptions.getPrice(),
+            seller.getName(),
+            seller.getId()
+        };
+    }
+
+    static SellerInformation mapSeller(ResultSet rs) throws SQLException {
+        String level = rs.getString("reputation_level");
+        String reputationDescription = rs.getString("reputation_description");
+        String sales = rs.getString("metrics_sales");
+        String service = rs.getString("metrics_service");
+        String delivery = rs.getString("metrics_delivery");
+        long purchasePrice = rs.getLong("purchase_price");
+        boolean hasPurchasePrice = !rs.wasNull();
+        SellerInformation seller = new SellerInformation(
+            rs.getString("name"),
+            rs.getString("products_count"),
+            level == null && reputationDescription == null ? null : new Reputation(level, reputationDescription),
+            sales == null && service == null && delivery == null ? null : new Metrics(sales, service, delivery),
+            hasPurchasePrice ? new PurchaseOptions(purchasePrice) : null
+        );
+        seller.setId(rs.getString("external_id"));
+        return seller;
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        try {
+            return transactionTemplate.execute(status -> work.get());
+        } catch (DuplicateKeyException e) {
+            throw new ValidationException("A seller with the same name already exists");
+        } catch (org.springframework.dao.DataAccessException e) {
+            throw new DataAccessException("Failed to access the catalog database", e);
+        }
+    }
+}
@@ -1,42 +1,254 @@
 package com.marketplace.infrastructure;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.marketplace.domain.Product;
+import com.marketplace.domain.ProductChanges;
+import com.marketplace.domain.ProductPage;
 import com.marketplace.domain.ProductRepository;
+import com.marketplace.domain.SellerReferences;
 import com.marketplace.domain.exceptions.DataAccessException;
 import com.marketplace.domain.exceptions.ProductNotFoundException;
+import com.marketplace.domain.exceptions.VersionConflictException;
+import com.marketplace.infrastructure.index.ProductChangeLog;
+import com.marketplace.infrastructure.index.SellerProductIndex;
+import com.marketplace.infrastructure.interning.ProductInterner;
+import com.marketplace.infrastructure.jfr.ProductCacheEvent;
+import com.marketplace.infrastructure.jfr.ProductStoreEvent;
+import com.marketplace.infrastructure.pipeline.SingleWriterPipeline;
+import com.marketplace.infrastructure.dto.StoreHealth;
+import com.marketplace.infrastructure.dto.WriteStats;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
+/**
+ * ProductRepository over a JSON data file.
+ *
+ * The parsed catalog is kept as an immutable snapshot and reused until the file's size or
+ * modification time changes. Repeated values in the snapshot are dictionary-encoded by a
+ * {@link ProductInterner}, both when the file is loaded and when products are written.
+ * Each snapshot carries an id map for lookups and a {@link SellerProductIndex} that writes
+ * update in place instead of rebuilding it. Writes are numbered by a {@link ProductChangeLog}
+ * for delta sync; it starts over whenever the file is loaded.
+ *
+ * All writes go through a {@link SingleWriterPipeline}: request threads queue them without
+ * locking, one writer thread applies whatever is queued to a copy of the catalog, writes the
+ * file once for the whole batch and then releases the callers.
+ *
+ * With a write-behind window the writer publishes each batch in memory only, so readers see it
+ * at once, and writes the file when the window after the first unwritten write ends. Writes to
+ * a product already waiting for that file write are coalesced into it. Unwritten batches are lost
+ * if the process dies, or if the data file is replaced by hand before they are written. Import
+ * batches are published the same way and written by {@link #flushImported()}, or by the next
+ * write that writes the file, so a bulk import writes the file once rather than once per batch.
+ *
+ * Every operation, file read and file write is a {@link ProductStoreEvent} and every snapshot
+ * lookup a {@link ProductCacheEvent}, so Flight Recorder recordings show them next to GC and I/O.
+ */
 @Repository
+@ConditionalOnProperty(name = "app.repository.type", havingValue = "json", matchIfMissing = true)
 public class JsonProductRepository implements ProductRepository {
+    private static final Logger logger = LoggerFactory.getLogger(JsonProductRepository.class);
+
     private final String dataFile;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String name;
+    private final boolean bundledFallback;
+    // Nulls are left out so a product's seller reference is stored as just {"id": ...}.
+    private final ObjectMapper objectMapper = new ObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    private final ObjectWriter fileWriter = objectMapper.writerWithDefaultPrettyPrinter()
+        .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    private final SingleWriterPipeline<Batch> writer;
+    private final long writeBehindMillis;
+    private final ScheduledExecutorService flusher;
+    // Products written in memory but not yet to the file; touched by the writer thread only
+    private final Set<String> unwritten = new HashSet<>();
+    // Set while a file write is scheduled or being retried, and cleared once one succeeded; writer thread only
+    private boolean flushScheduled;
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong coalescedWrites = new AtomicLong();
+    private final AtomicLong persistedWrites = new AtomicLong();
+    private final AtomicLong fileWrites = new AtomicLong();
+    private volatile int pendingWrites;
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+    private volatile Instant lastLoadAt;
+    private volatile ProductInterner interner = new ProductInterner();
+    private volatile ProductChangeLog changeLog;
+    // The partitioned store's log, which its segments record into instead of starting their own
+    private final ProductChangeLog sharedChangeLog;
+    private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
 
-    public JsonProductRepository(@Value("${app.data.file:products.json}") String dataFile) {
-        this.dataFile = dataFile;
+    // The generation counts loads from the file, so writes keep it and reloads move it on
+    private record Snapshot(String path, long lastModified, long length, List<Product> products,
+                            Map<String, Product> byId, SellerProductIndex sellerIndex, long generation) {
+        boolean isCurrent(File file) {
+            return path.equals(file.getPath()) && lastModified == file.lastModified() && length == file.length();
+        }
     }
 
-    @Override
-    public List<Product> findAll() {
-        try {
+    // Copy of the catalog the writes of one group commit are applied to, in order. Indexes and the
+    // change log are updated once it is committed: on disk, or with write-behind published in memory.
+    // A batch whose commit fails leaves no trace in them.
+    private static final class Batch {
+        final List<Product> products;
+        final List<String> written = new ArrayList<>();
+        final List<Runnable> afterCommit = new ArrayList<>();
+        // Set by every write except import batches; without write-behind such a batch writes the file
+        boolean durable;
+        boolean flush;
 
-            File file = new File(this.dataFile);
-            if (!file.exists() || file.length() == 0) {
-                file = new File("./src/main/resources/products.json");
+        Batch(List<Product> products) {
+            this.products = products;
+        }
+
+        // Applies the action once the batch is committed, for the write of the given product
+        void afterCommit(String productId, Runnable action) {
+            written.add(productId);
+            afterCommit.add(action);
+        }
+
+        void afterCommit(List<Product> products, Runnable action) {
+            for (Product product : products) {
+                written.add(product.getId());
             }
+            afterCommit.add(action);
+        }
+    }
 
-            if (!file.exists() || file.length() == 0) return new ArrayList<>();
-            return objectMapper.readValue(file, new TypeReference<List<Product>>() {});
-        } catch (IOException e) {
-            throw new DataAccessException("Failed to read products from file: " + dataFile, e);
+    public JsonProductRepository(String dataFile) {
+        this(dataFile, 1024, 256, 0);
+    }
+
+    /**
+     * @param writeBehindMillis how long writes stay in memory only before the file is written;
+     *                          0 writes the file before each caller is released
+     */
+    @Autowired
+    public JsonProductRepository(@Value("${app.data.file:products.json}") String dataFile,
+                                 @Value("${app.write-pipeline.ring-size:1024}") int ringSize,
+                                 @Value("${app.write-pipeline.max-batch:256}") int maxBatch,
+                                 @Value("${app.write-behind.window-ms:0}") long writeBehindMillis) {
+        this(dataFile, ringSize, maxBatch, writeBehindMillis, "product-store", true, null);
+    }
+
+    private JsonProductRepository(String dataFile, int ringSize, int maxBatch, long writeBehindMillis,
+                                  String name, boolean bundledFallback, ProductChangeLog sharedChangeLog) {
+        if (writeBehindMillis < 0) {
+            throw new IllegalArgumentException("Write-behind window must not be negative");
         }
+        this.dataFile = dataFile;
+        this.name = name;
+        this.bundledFallback = bundledFallback;
+        this.sharedChangeLog = sharedChangeLog;
+        this.changeLog = sharedChangeLog == null ? new ProductChangeLog() : sharedChangeLog;
+        this.writeBehindMillis = writeBehindMillis;
+        this.flusher = writeBehindMillis == 0 ? null : Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name(name + "-flush").daemon().factory());
+        this.writer = new SingleWriterPipeline<>(name, new SingleWriterPipeline.Journal<>() {
+            @Override
+            public Batch begin() {
+                return new Batch(new ArrayList<>(currentSnapshot().products()));
+            }
+
+            @Override
+            public void commit(Batch batch) {
+                // Once closing, nothing is left to write the file later
+                if (batch.flush || (batch.durable && writeBehindMillis == 0) || (flusher != null && flusher.isShutdown())) {
+                    persist(batch);
+                } else if (!batch.afterCommit.isEmpty()) {
+                    publish(batch.products);
+                    batch.afterCommit.forEach(Runnable::run);
+                    deferWrite(batch.written);
+                }
+            }
+        }, ringSize, maxBatch);
+    }
+
+    /**
+     * Opens one segment of a partitioned catalog. A missing segment file is an empty segment,
+     * not a reason to fall back to the bundled catalog. Writes are recorded in {@code changeLog}
+     * as each batch commits, so the shared log holds a segment's writes in the order they commit.
+     */
+    static JsonProductRepository segment(String segmentFile, String name, int ringSize, int maxBatch,
+                                         long writeBehindMillis, ProductChangeLog changeLog) {
+        return new JsonProductRepository(segmentFile, ringSize, maxBatch, writeBehindMillis, name, false, changeLog);
+    }
+
+    /**
+     * Traces file reads and writes as spans once a registry is available. Writes run on the
+     * writer thread for a whole batch, so their spans are not children of any one request.
+     */
+    @Autowired(required = false)
+    public void setObservationRegistry(ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    public long commits() {
+        return writer.batches();
+    }
+
+    public WriteStats writeStats() {
+        return new WriteStats(writeBehindMillis, writes.get(), coalescedWrites.get(), persistedWrites.get(),
+            pendingWrites, fileWrites.get());
+    }
+
+    /**
+     * Whether the catalog is loaded and how many writes are waiting, without reading the file.
+     */
+    public StoreHealth health() {
+        Snapshot current = snapshot;
+        return new StoreHealth(current != null, lastLoadAt, current == null ? 0 : current.products().size(),
+            writer.queued(), pendingWrites);
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return recorded("findAll", null, () -> new ArrayList<>(currentSnapshot().products()));
+    }
+
+    // Snapshots are immutable, so walking one is already consistent
+    @Override
+    public void streamAll(Consumer<? super Product> consumer) {
+        recorded("streamAll", null, () -> {
+            currentSnapshot().products().forEach(consumer);
+            return null;
+        });
     }
 
     @Override
@@ -45,11 +257,8 @@ public class JsonProductRepository implements ProductRepository {
             throw new IllegalArgumentException("Product ID cannot be null or empty");
         }
         
-        Product product = findAll().stream()
-            .filter(p -> p.getId().equals(id))
-            .findFirst()
-            .orElse(null);
-            
+        Product product = recorded("findById", id, () -> currentSnapshot().byId().get(id));
+
         if (product == null) {
             throw new ProductNotFoundException(id);
         }
@@ -57,39 +266,488 @@ public class JsonProductRepository implements ProductRepository {
         return product;
     }
 
+    @Override
+    public ProductPage findBySellerId(String sellerId, int page, int size) {
+        return recorded("findBySellerId", null, () -> sellerPage(sellerId, page, size));
+    }
+
+    private ProductPage sellerPage(String sellerId, int page, int size) {
+        Snapshot current = currentSnapshot();
+        SellerProductIndex.Slice slice = current.sellerIndex().slice(sellerId, page * size, size);
+        List<Product> items = new ArrayList<>(slice.productIds().size());
+        for (String productId : slice.productIds()) {
+            Product product = current.byId().get(productId);
+            // The index is shared with newer snapshots, so skip entries a concurrent write has moved on
+            if (product != null && sellerId.equals(SellerReferences.idOf(product.getSellerInformation()))) {
+                items.add(product);
+            }
+        }
+        return new ProductPage(items, page, size, slice.total());
+    }
+
+    @Override
+    public ProductChanges changesSince(long since, int limit) {
+        return recorded("changesSince", null, () -> changes(since, limit));
+    }
+
+    private ProductChanges changes(long since, int limit) {
+        currentSnapshot();
+        ProductChangeLog log = changeLog;
+        ProductChangeLog.Delta delta = log.since(since, limit);
+        if (delta == null) {
+            return ProductChanges.fullSync(log.lastSequence());
+        }
+        // Read after the log, so the snapshot holds every write the delta lists; products
+        // deleted since then are skipped and their tombstones come with the next delta
+        Map<String, Product> byId = snapshot.byId();
+        List<Product> upserts = new ArrayList<>(delta.upserted().size());
+        for (String id : delta.upserted()) {
+            Product product = byId.get(id);
+            if (product != null) {
+                upserts.add(product);
+            }
+        }
+        return new ProductChanges(delta.sequence(), delta.hasMore(), upserts, delta.deleted());
+    }
+
     @Override
     public Product save(Product product) {
-        List<Product> products = findAll();
-        products.add(product);
-        writeProducts(products);
-        return product;
+        return write("save", product.getId(), batch -> {
+            product.setVersion(1L);
+            batch.products.add(interner.intern(product));
+            batch.afterCommit(product.getId(), () -> {
+                snapshot.sellerIndex().put(product);
+                changeLog.recordUpsert(product.getId());
+            });
+            return product;
+        });
+    }
+
+    @Override
+    public List<Product> saveAll(List<Product> products) {
+        return write("saveAll", null, batch -> storeAll(batch, products));
+    }
+
+    @Override
+    public List<Product> importBatch(List<Product> products) {
+        return recorded("importBatch", null, () -> writer.execute(batch -> storeAll(batch, products)));
+    }
+
+    private List<Product> storeAll(Batch batch, List<Product> products) {
+        Map<String, Integer> positions = new HashMap<>(batch.products.size() * 2);
+        for (int i = 0; i < batch.products.size(); i++) {
+            positions.putIfAbsent(batch.products.get(i).getId(), i);
+        }
+        for (Product product : products) {
+            Integer index = positions.get(product.getId());
+            if (index == null) {
+                product.setVersion(1L);
+                positions.put(product.getId(), batch.products.size());
+                batch.products.add(interner.intern(product));
+            } else {
+                product.setVersion(versionOf(batch.products.get(index)) + 1);
+                batch.products.set(index, interner.intern(product));
+            }
+        }
+        batch.afterCommit(products, () -> {
+            snapshot.sellerIndex().putAll(products);
+            for (Product product : products) {
+                changeLog.recordUpsert(product.getId());
+            }
+        });
+        return products;
     }
 
     @Override
     public Product update(String id, Product product) {
-        List<Product> products = findAll();
+        return write("update", id, batch -> {
+            int index = indexOf(batch.products, id);
+            if (index < 0) {
+                return null;
+            }
+            product.setVersion(versionOf(batch.products.get(index)) + 1);
+            batch.products.set(index, interner.intern(product));
+            batch.afterCommit(id, () -> reindex(id, product));
+            return product;
+        });
+    }
+
+    @Override
+    public void delete(String id) {
+        write("delete", id, batch -> {
+            if (batch.products.removeIf(p -> p.getId().equals(id))) {
+                batch.afterCommit(id, () -> {
+                    snapshot.sellerIndex().remove(id);
+                    changeLog.recordDelete(id);
+                });
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public Product compareAndSet(String id, long expectedVersion, Product product) {
+        return write("compareAndSet", id, batch -> {
+            int index = indexOfVersion(batch.products, id, expectedVersion);
+            product.setVersion(expectedVersion + 1);
+            batch.products.set(index, interner.intern(product));
+            batch.afterCommit(id, () -> reindex(id, product));
+            return product;
+        });
+    }
+
+    @Override
+    public void deleteIfVersion(String id, long expectedVersion) {
+        write("deleteIfVersion", id, batch -> {
+            batch.products.remove(indexOfVersion(batch.products, id, expectedVersion));
+            batch.afterCommit(id, () -> {
+                snapshot.sellerIndex().remove(id);
+                changeLog.recordDelete(id);
+            });
+            return null;
+        });
+    }
+
+    @Override
+    public void replicate(List<Product> upserts, List<String> deleted) {
+        write("replicate", null, batch -> {
+            Set<String> gone = new HashSet<>(deleted);
+            List<String> removed = new ArrayList<>();
+            batch.products.removeIf(product -> gone.contains(product.getId()) && removed.add(product.getId()));
+            Map<String, Integer> positions = new HashMap<>(batch.products.size() * 2);
+            for (int i = 0; i < batch.products.size(); i++) {
+                positions.putIfAbsent(batch.products.get(i).getId(), i);
+            }
+            for (Product product : upserts) {
+                Integer index = positions.get(product.getId());
+                if (index == null) {
+                    positions.put(product.getId(), batch.products.size());
+                    batch.products.add(interner.intern(product));
+                } else {
+                    batch.products.set(index, interner.intern(product));
+                }
+            }
+            batch.afterCommit(upserts, () -> {
+                snapshot.sellerIndex().putAll(upserts);
+                for (Product product : upserts) {
+                    changeLog.recordUpsert(product.getId());
+                }
+            });
+            for (String id : removed) {
+                batch.afterCommit(id, () -> {
+                    snapshot.sellerIndex().remove(id);
+                    changeLog.recordDelete(id);
+                });
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Moves on each time the data file is loaded, including when it was changed on disk.
+     */
+    @Override
+    public long catalogGeneration() {
+        return currentSnapshot().generation();
+    }
+
+    @Override
+    public void flushImported() {
+        flush();
+    }
+
+    /**
+     * Writes the file if write-behind batches are still in memory only.
+     */
+    public void flush() {
+        writer.execute(batch -> {
+            batch.flush = true;
+            return null;
+        });
+    }
+
+    /**
+     * Commits the writes still queued, writes the file if needed and stops the writer thread.
+     */
+    @PreDestroy
+    public void close() {
+        if (pendingWrites > 0) {
+            flush();
+        }
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        writer.close();
+    }
+
+    private void persist(Batch batch) {
+        if (batch.afterCommit.isEmpty() && unwritten.isEmpty()) {
+            flushScheduled = false;
+            return;
+        }
+        writeProducts(batch.products);
+        flushScheduled = false;
+        batch.afterCommit.forEach(Runnable::run);
+        writes.addAndGet(batch.written.size());
+        for (String productId : batch.written) {
+            if (!unwritten.add(productId)) {
+                coalescedWrites.incrementAndGet();
+            }
+        }
+        persistedWrites.addAndGet(unwritten.size());
+        fileWrites.incrementAndGet();
+        unwritten.clear();
+        pendingWrites = 0;
+    }
+
+    // Counts the writes of a batch published in memory and makes sure a file write follows
+    private void deferWrite(List<String> productIds) {
+        writes.addAndGet(productIds.size());
+        for (String productId : productIds) {
+            if (!unwritten.add(productId)) {
+                coalescedWrites.incrementAndGet();
+            }
+        }
+        pendingWrites = unwritten.size();
+        if (flusher != null && !flushScheduled) {
+            flushScheduled = true;
+            flusher.schedule(this::flushBehind, writeBehindMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flushBehind() {
+        writer.submit(batch -> {
+            batch.flush = true;
+            return null;
+        }).whenComplete((result, error) -> {
+            // The writes stay in memory and no other file write is scheduled until one succeeds.
+            // Once closing, close() has written them already.
+            if (error != null && !flusher.isShutdown()) {
+                logger.error("Failed to write {} pending product writes, retrying in {} ms",
+                    pendingWrites, writeBehindMillis, error);
+                flusher.schedule(this::flushBehind, writeBehindMillis, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    private int indexOfVersion(List<Product> products, String id, long expectedVersion) {
+        int index = indexOf(products, id);
+        if (index < 0) {
+            throw new ProductNotFoundException(id);
+        }
+        long actualVersion = versionOf(products.get(index));
+        if (actualVersion != expectedVersion) {
+            throw new VersionConflictException(id, expectedVersion, actualVersion);
+        }
+        return index;
+    }
+
+    private static int indexOf(List<Product> products, String id) {
         for (int i = 0; i < products.size(); i++) {
             if (products.get(i).getId().equals(id)) {
-                products.set(i, product);
-                writeProducts(products);
-                return product;
+                return i;
             }
         }
-        return null;
+        return -1;
     }
 
-    @Override
-    public void delete(String id) {
-        List<Product> products = findAll();
-        products.removeIf(p -> p.getId().equals(id));
-        writeProducts(products);
+    // Products written before versioning was introduced have no version and count as version 0.
+    private static long versionOf(Product product) {
+        return product.getVersion() == null ? 0L : product.getVersion();
     }
 
+    private Snapshot currentSnapshot() {
+        File file = catalogFile();
+        Snapshot current = snapshot;
+        if (current != null && current.isCurrent(file)) {
+            ProductCacheEvent.hit(name, file.getPath());
+            return current;
+        }
+        ProductCacheEvent miss = new ProductCacheEvent();
+        miss.begin();
+        // Readers that find the snapshot stale wait for a single reload instead of each parsing the file
+        reloadLock.lock();
+        try {
+            // Resolved again, as a data file seen empty mid-write is complete once the writer lets go of the lock
+            file = catalogFile();
+            current = snapshot;
+            if (current != null && current.isCurrent(file)) {
+                ProductCacheEvent.hit(name, file.getPath());
+                return current;
+            }
+            List<Product> products = new ArrayList<>();
+            long lastModified = file.lastModified();
+            long length = file.length();
+            if (file.exists() && length > 0) {
+                File source = file;
+                Observation read = fileObservation("read", source, length);
+                ProductStoreEvent event = new ProductStoreEvent();
+                event.begin();
+                products = read.observeChecked(() -> {
+                    List<Product> parsed = objectMapper.readValue(source, new TypeReference<List<Product>>() {});
+                    read.highCardinalityKeyValue("catalog.size", String.valueOf(parsed.size()));
+                    return parsed;
+                });
+                event.commit(name, "file.read", null, length, products.size());
+            }
+            // A fresh dictionary per load, so values from a replaced catalog are released
+            ProductInterner loadInterner = new ProductInterner();
+            loadInterner.internAll(products);
+            interner = loadInterner;
+            // The file may have been replaced, so earlier sequences say nothing about this catalog
+            if (sharedChangeLog == null) {
+                changeLog = new ProductChangeLog();
+            }
+            SellerProductIndex sellerIndex = new SellerProductIndex();
+            sellerIndex.putAll(products);
+            Snapshot loaded = new Snapshot(file.getPath(), lastModified, length, Collections.unmodifiableList(products),
+                byId(products), sellerIndex, current == null ? 1 : current.generation() + 1);
+            snapshot = loaded;
+            lastLoadAt = Instant.now();
+            miss.commitMiss(name, file.getPath());
+            return loaded;
+        } catch (IOException e) {
+            throw new DataAccessException("Failed to read products from file: " + dataFile, e);
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private File catalogFile() {
+        File file = new File(this.dataFile);
+        if (bundledFallback && (!file.exists() || file.length() == 0)) {
+            file = new File("./src/main/resources/products.json");
+        }
+        return file;
+    }
+
+    // Replaces the snapshot without touching the file; it keeps the file's attributes, so it stays current
+    private void publish(List<Product> products) {
+        Snapshot current = snapshot;
+        snapshot = new Snapshot(current.path(), current.lastModified(), current.length(),
+            Collections.unmodifiableList(products), byId(products), current.sellerIndex(), current.generation());
+    }
+
+    // Holds the reload lock, so readers that see the file change mid-write wait for the new
+    // snapshot instead of reloading a half-written file and resetting the change log
     private void writeProducts(List<Product> products) {
+        reloadLock.lock();
         try {
-            objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File(dataFile), products);
+            File file = new File(dataFile);
+            Observation write = fileObservation("write", file, null)
+                .highCardinalityKeyValue("catalog.size", String.valueOf(products.size()));
+            ProductStoreEvent event = new ProductStoreEvent();
+            event.begin();
+            write.observeChecked(() -> {
+                replaceFile(file, products);
+                write.highCardinalityKeyValue("file.bytes", String.valueOf(file.length()));
+                return null;
+            });
+            event.commit(name, "file.write", null, file.length(), products.size());
+            Snapshot current = snapshot;
+            snapshot = new Snapshot(file.getPath(), file.lastModified(), file.length(), Collections.unmodifiableList(products),
+                byId(products), current.sellerIndex(), current.generation());
         } catch (IOException e) {
             throw new DataAccessException("Failed to write products to file: " + dataFile, e);
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    // Written to a file next to the data file and moved over it, so a crash leaves either the old or the
+    // new catalog in place, never a truncated one. Synced once per batch, so callers are only released
+    // once their writes survive a crash.
+    private void replaceFile(File file, List<Product> products) throws IOException {
+        replaceFile(file, fileWriter, products);
+    }
+
+    static void replaceFile(File file, ObjectWriter writer, Object value) throws IOException {
+        replaceFile(file, out -> writer.writeValue(out, value));
+    }
+
+    /**
+     * Writes whatever {@code content} streams into {@code file}, through a synced file next to it
+     * that is then moved over it.
+     */
+    interface FileContent {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    static void replaceFile(File file, FileContent content) throws IOException {
+        Path target = file.toPath().toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), file.getName() + ".", ".tmp");
+        try {
+            // Temporary files are private to their owner, so the replacement keeps the data file's permissions
+            if (Files.exists(target) && Files.getFileStore(target).supportsFileAttributeView(PosixFileAttributeView.class)) {
+                Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(target));
+            }
+            try (FileOutputStream out = new FileOutputStream(temp.toFile())) {
+                content.writeTo(out);
+                out.getFD().sync();
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        syncDirectory(target.getParent());
+    }
+
+    // Makes the rename itself durable; not every platform can open a directory for this
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            logger.debug("Could not sync directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    // Records the call as a Flight Recorder event, even when it throws
+    private <T> T recorded(String operation, String productId, Supplier<T> call) {
+        ProductStoreEvent event = new ProductStoreEvent();
+        event.begin();
+        try {
+            return call.get();
+        } finally {
+            Snapshot current = snapshot;
+            event.commit(name, operation, productId, 0, current == null ? 0 : current.products().size());
+        }
+    }
+
+    // Writers wait for their batch to be committed, so the event spans queueing and the file write
+    private <R> R write(String operation, String productId, SingleWriterPipeline.Mutation<Batch, R> mutation) {
+        return recorded(operation, productId, () -> writer.execute(batch -> {
+            batch.durable = true;
+            return mutation.apply(batch);
+        }));
+    }
+
+    // The store (catalog or segment name) is low-cardinality, so it can also tag the timers
+    private Observation fileObservation(String operation, File file, Long bytes) {
+        Observation observation = Observation.createNotStarted("product.store." + operation, observationRegistry)
+            .contextualName("JsonProductRepository." + operation)
+            .lowCardinalityKeyValue("store", name)
+            .highCardinalityKeyValue("file.path", file.getPath());
+        return bytes == null ? observation : observation.highCardinalityKeyValue("file.bytes", String.valueOf(bytes));
+    }
+
+    // Updates the seller index and change log after a product was replaced, possibly under a new id.
+    private void reindex(String id, Product product) {
+        SellerProductIndex sellerIndex = snapshot.sellerIndex();
+        if (!id.equals(product.getId())) {
+            sellerIndex.remove(id);
+            changeLog.recordDelete(id);
+        }
+        if (product.getId() != null) {
+            sellerIndex.put(product);
+            changeLog.recordUpsert(product.getId());
+        }
+    }
+
+    private static Map<String, Product> byId(List<Product> products) {
+        Map<String, Product> byId = new HashMap<>(products.size() * 2);
+        for (Product product : products) {
+            byId.putIfAbsent(product.getId(), product);
         }
+        return byId;
     }
-} 
\ No newline at end of file
+}
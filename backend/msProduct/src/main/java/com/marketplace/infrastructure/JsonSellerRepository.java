@@ -0,0 +1,122 @@
+package com.marketplace.infrastructure;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.marketplace.domain.SellerInformation;
+import com.marketplace.domain.SellerRepository;
+import com.marketplace.domain.exceptions.DataAccessException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Repository;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * SellerRepository over a JSON file, used with the json and offheap product stores.
+ *
+ * Sellers are loaded once into a map keyed by seller id, so joining a seller into a product
+ * is a single lookup. The file defaults to sellers.json next to the product data file.
+ */
+@Repository
+@ConditionalOnExpression("'${app.repository.type:json}' != 'sql'")
+public class JsonSellerRepository implements SellerRepository {
+    private final String sellersFile;
+    private final ObjectMapper objectMapper = new ObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    private final ObjectWriter fileWriter = objectMapper.writerWithDefaultPrettyPrinter()
+        .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Map<String, SellerInformation> sellers;
+
+    public JsonSellerRepository(@Value("${app.data.sellers-file:}") String sellersFile,
+                                @Value("${app.data.file:products.json}") String dataFile) {
+        this.sellersFile = sellersFile.isBlank() ? defaultSellersFile(dataFile) : sellersFile;
+    }
+
+    @Override
+    public List<SellerInformation> findAll() {
+        return new ArrayList<>(sellers().values());
+    }
+
+    @Override
+    public Optional<SellerInformation> findById(String id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(sellers().get(id));
+    }
+
+    @Override
+    public SellerInformation save(SellerInformation seller) {
+        if (seller.getId() == null || seller.getId().trim().isEmpty()) {
+            throw new IllegalArgumentException("Seller ID cannot be null or empty");
+        }
+        saveAll(List.of(seller));
+        return seller;
+    }
+
+    @Override
+    public void saveAll(Collection<SellerInformation> updates) {
+        writeLock.lock();
+        try {
+            // Written from a copy and swapped in afterwards, so a failed write leaves memory matching the file
+            Map<String, SellerInformation> updated = new ConcurrentHashMap<>(sellers());
+            for (SellerInformation seller : updates) {
+                updated.put(seller.getId(), seller);
+            }
+            JsonProductRepository.replaceFile(new File(sellersFile), fileWriter, new ArrayList<>(updated.values()));
+            sellers = updated;
+        } catch (IOException e) {
+            throw new DataAccessException("Failed to write sellers to file: " + sellersFile, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Map<String, SellerInformation> sellers() {
+        Map<String, SellerInformation> loaded = sellers;
+        if (loaded != null) {
+            return loaded;
+        }
+        writeLock.lock();
+        try {
+            if (sellers == null) {
+                sellers = load();
+            }
+            return sellers;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Map<String, SellerInformation> load() {
+        Map<String, SellerInformation> loaded = new ConcurrentHashMap<>();
+        File file = new File(sellersFile);
+        if (!file.exists()) {
+            return loaded;
+        }
+        try {
+            List<SellerInformation> stored = objectMapper.readValue(file, new TypeReference<List<SellerInformation>>() {});
+            for (SellerInformation seller : stored) {
+                if (seller.getId() != null) {
+                    loaded.put(seller.getId(), seller);
+                }
+            }
+            return loaded;
+        } catch (IOException e) {
+            throw new DataAccessException("Failed to read sellers from file: " + sellersFile, e);
+        }
+    }
+
+    private static String defaultSellersFile(String dataFile) {
+        File parent = new File(dataFile).getAbsoluteFile().getParentFile();
+        return new File(parent, "sellers.json").getPath();
+    }
+}
@@ -0,0 +1,445 @@
+package com.marketplace.infrastructure;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.marketplace.domain.Product;
+import com.marketplace.domain.ProductChanges;
+import com.marketplace.domain.ProductPage;
+import com.marketplace.domain.ProductRepository;
+import com.marketplace.domain.exceptions.DataAccessException;
+import com.marketplace.domain.exceptions.ProductNotFoundException;
+import com.marketplace.domain.exceptions.VersionConflictException;
+import com.marketplace.infrastructure.index.ProductChangeLog;
+import com.marketplace.infrastructure.index.SellerProductIndex;
+import com.marketplace.infrastructure.offheap.OffHeapRecordStore;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * ProductRepository that keeps encoded products in off-heap memory, selected with
+ * {@code app.repository.type=offheap}.
+ *
+ * Only the id-to-address index and the seller index live on the heap; each product is stored as its JSON
+ * encoding in an {@link OffHeapRecordStore} and decoded on access. The data file is
+ * loaded as a stream at startup and rewritten from the off-heap records after each
+ * write, so the full catalog is never materialized on the heap outside of findAll. Import
+ * batches are only written by {@link #flushImported()} or the next write, once per import.
+ * Direct memory is capped by {@code -XX:MaxDirectMemorySize}, which defaults to the heap size.
+ * Writes are recorded in a {@link ProductChangeLog} for delta sync; it starts over on each load.
+ */
+@Repository
+@ConditionalOnProperty(name = "app.repository.type", havingValue = "offheap")
+public class OffHeapProductRepository implements ProductRepository {
+    private static final Logger logger = LoggerFactory.getLogger(OffHeapProductRepository.class);
+
+    private final String dataFile;
+    private final int slabSize;
+    // Nulls are left out so a product's seller reference is stored as just {"id": ...}.
+    private final ObjectMapper objectMapper = new ObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Insertion-ordered so findAll and the data file keep the catalog order
+    private final Map<String, Slot> index = new LinkedHashMap<>();
+    private final SellerProductIndex sellerIndex = new SellerProductIndex();
+    private ProductChangeLog changeLog = new ProductChangeLog();
+    private OffHeapRecordStore store;
+    // Import batches are in the records but not yet in the data file
+    private boolean unpersisted;
+
+    private record Slot(long address, int length, long version) {}
+
+    public OffHeapProductRepository(@Value("${app.data.file:products.json}") String dataFile,
+                                    @Value("${app.offheap.slab-size-mb:64}") int slabSizeMb) {
+        this.dataFile = dataFile;
+        this.slabSize = slabSizeMb * 1024 * 1024;
+        this.store = new OffHeapRecordStore(slabSize);
+    }
+
+    @PostConstruct
+    public void load() {
+        File file = new File(dataFile);
+        if (!file.exists() || file.length() == 0) {
+            file = new File("./src/main/resources/products.json");
+        }
+        lock.writeLock().lock();
+        try {
+            index.clear();
+            sellerIndex.clear();
+            changeLog = new ProductChangeLog();
+            store = new OffHeapRecordStore(slabSize);
+            unpersisted = false;
+            if (!file.exists() || file.length() == 0) {
+                return;
+            }
+            try (JsonParser parser = objectMapper.getFactory().createParser(file)) {
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new DataAccessException("Expected a JSON array of products in file: " + file);
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    Product product = objectMapper.readValue(parser, Product.class);
+                    put(product, product.getVersion() == null ? 0L : product.getVersion());
+                }
+            }
+            logger.info("Loaded {} products ({} bytes off-heap) from {}", index.size(), store.liveBytes(), file);
+        } catch (IOException e) {
+            throw new DataAccessException("Failed to read products from file: " + file, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Product> findAll() {
+        lock.readLock().lock();
+        try {
+            List<Product> products = new ArrayList<>(index.size());
+            for (Slot slot : index.values()) {
+                products.add(decode(slot));
+            }
+            return products;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copies the addresses of the current records under the read lock, then decodes them one by
+     * one without it, so writers are only held up while the address list is copied.
+     */
+    @Override
+    public void streamAll(Consumer<? super Product> consumer) {
+        List<Slot> slots;
+        OffHeapRecordStore.RecordReader records;
+        lock.readLock().lock();
+        try {
+            slots = new ArrayList<>(index.values());
+            records = store.reader();
+        } finally {
+            lock.readLock().unlock();
+        }
+        for (Slot slot : slots) {
+            consumer.accept(decode(records.read(slot.address(), slot.length())));
+        }
+    }
+
+    @Override
+    public Product findById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("Product ID cannot be null or empty");
+        }
+        lock.readLock().lock();
+        try {
+            Slot slot = index.get(id);
+            if (slot == null) {
+                throw new ProductNotFoundException(id);
+            }
+            return decode(slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public ProductPage findBySellerId(String sellerId, int page, int size) {
+        lock.readLock().lock();
+        try {
+            SellerProductIndex.Slice slice = sellerIndex.slice(sellerId, page * size, size);
+            List<Product> items = new ArrayList<>(slice.productIds().size());
+            for (String productId : slice.productIds()) {
+                items.add(decode(index.get(productId)));
+            }
+            return new ProductPage(items, page, size, slice.total());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Product save(Product product) {
+        lock.writeLock().lock();
+        try {
+            put(product, 1L);
+            persist();
+            changeLog.recordUpsert(product.getId());
+            return product;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Product> saveAll(List<Product> products) {
+        lock.writeLock().lock();
+        try {
+            storeAll(products);
+            persist();
+            return products;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Product> importBatch(List<Product> products) {
+        lock.writeLock().lock();
+        try {
+            storeAll(products);
+            unpersisted = true;
+            return products;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void flushImported() {
+        lock.writeLock().lock();
+        try {
+            if (unpersisted) {
+                persist();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Product update(String id, Product product) {
+        lock.writeLock().lock();
+        try {
+            Slot slot = index.get(id);
+            if (slot == null) {
+                return null;
+            }
+            return replace(id, slot, product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete(String id) {
+        lock.writeLock().lock();
+        try {
+            Slot removed = index.remove(id);
+            if (removed != null) {
+                sellerIndex.remove(id);
+                store.release(removed.length());
+                persist();
+                changeLog.recordDelete(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Product compareAndSet(String id, long expectedVersion, Product product) {
+        lock.writeLock().lock();
+        try {
+            return replace(id, slotAtVersion(id, expectedVersion), product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteIfVersion(String id, long expectedVersion) {
+        lock.writeLock().lock();
+        try {
+            // Checked before removing, so a conflicting delete leaves the product where it is in the catalog
+            Slot removed = slotAtVersion(id, expectedVersion);
+            index.remove(id);
+            sellerIndex.remove(id);
+            store.release(removed.length());
+            persist();
+            changeLog.recordDelete(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void replicate(List<Product> upserts, List<String> deleted) {
+        lock.writeLock().lock();
+        try {
+            for (String id : deleted) {
+                Slot removed = index.remove(id);
+                if (removed != null) {
+                    sellerIndex.remove(id);
+                    store.release(removed.length());
+                    changeLog.recordDelete(id);
+                }
+            }
+            for (Product product : upserts) {
+                put(product, product.getVersion() == null ? 0L : product.getVersion());
+                changeLog.recordUpsert(product.getId());
+            }
+            persist();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public ProductChanges changesSince(long since, int limit) {
+        lock.readLock().lock();
+        try {
+            ProductChangeLog.Delta delta = changeLog.since(since, limit);
+            if (delta == null) {
+                return ProductChanges.fullSync(changeLog.lastSequence());
+            }
+            List<Product> upserts = new ArrayList<>(delta.upserted().size());
+            for (String id : delta.upserted()) {
+                upserts.add(decode(index.get(id)));
+            }
+            return new ProductChanges(delta.sequence(), delta.hasMore(), upserts, delta.deleted());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long offHeapBytes() {
+        lock.readLock().lock();
+        try {
+            return store.capacityBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void storeAll(List<Product> products) {
+        for (Product product : products) {
+            Slot previous = index.get(product.getId());
+            put(product, previous == null ? 1L : previous.version() + 1);
+            changeLog.recordUpsert(product.getId());
+        }
+    }
+
+    private Slot slotAtVersion(String id, long expectedVersion) {
+        Slot slot = index.get(id);
+        if (slot == null) {
+            throw new ProductNotFoundException(id);
+        }
+        if (slot.version() != expectedVersion) {
+            throw new VersionConflictException(id, expectedVersion, slot.version());
+        }
+        return slot;
+    }
+
+    private Product replace(String id, Slot previous, Product product) {
+        store.release(previous.length());
+        // Re-inserting under the same key keeps the product's position in the LinkedHashMap
+        index.put(id, encode(product, previous.version() + 1));
+        sellerIndex.put(id, product);
+        compactIfNeeded();
+        persist();
+        changeLog.recordUpsert(id);
+        return product;
+    }
+
+    private void put(Product product, long version) {
+        Slot previous = index.get(product.getId());
+        if (previous != null) {
+            store.release(previous.length());
+        }
+        index.put(product.getId(), encode(product, version));
+        sellerIndex.put(product);
+        compactIfNeeded();
+    }
+
+    private Slot encode(Product product, long version) {
+        product.setVersion(version);
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+            objectMapper.writeValue(bytes, product);
+            byte[] record = bytes.toByteArray();
+            return new Slot(store.append(record), record.length, version);
+        } catch (IOException e) {
+            throw new DataAccessException("Failed to encode product: " + product.getId(), e);
+        }
+    }
+
+    private Product decode(Slot slot) {
+        return decode(store.read(slot.address(), slot.length()));
+    }
+
+    private Product decode(ByteBuffer record) {
+        try {
+            return objectMapper.readValue(new ByteBufferBackedInputStream(record), Product.class);
+        } catch (IOException e) {
+            throw new DataAccessException("Failed to decode product record", e);
+        }
+    }
+
+    // Once dead records outweigh live ones, copy the live records into fresh slabs.
+    private void compactIfNeeded() {
+        if (store.deadBytes() < slabSize || store.deadBytes() < store.liveBytes()) {
+            return;
+        }
+        OffHeapRecordStore compacted = new OffHeapRecordStore(slabSize);
+        for (Map.Entry<String, Slot> entry : index.entrySet()) {
+            Slot slot = entry.getValue();
+            ByteBuffer record = store.read(slot.address(), slot.length());
+            byte[] bytes = new byte[slot.length()];
+            record.get(bytes);
+            entry.setValue(new Slot(compacted.append(bytes), slot.length(), slot.version()));
+        }
+        store = compacted;
+    }
+
+    // Streams the off-heap records straight into a file next to the data file as a JSON array, then
+    // moves it over the data file, so a failed write leaves the previous catalog in place.
+    private void persist() {
+        try {
+            JsonProductRepository.replaceFile(new File(dataFile), this::writeRecords);
+        } catch (IOException e) {
+            throw new DataAccessException("Failed to write products to file: " + dataFile, e);
+        }
+        unpersisted = false;
+    }
+
+    private void writeRecords(OutputStream target) throws IOException {
+        OutputStream out = new BufferedOutputStream(target);
+        WritableByteChannel channel = Channels.newChannel(out);
+        out.write('[');
+        boolean first = true;
+        for (Slot slot : index.values()) {
+            out.write(first ? "\n  ".getBytes() : ",\n  ".getBytes());
+            first = false;
+            channel.write(store.read(slot.address(), slot.length()));
+        }
+        out.write("\n]".getBytes());
+        out.flush();
+    }
+}
@@ -0,0 +1,507 @@
+package com.marketplace.infrastructure;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.marketplace.domain.Product;
+import com.marketplace.domain.ProductChanges;
+import com.marketplace.domain.ProductPage;
+import com.marketplace.domain.ProductRepository;
+import com.marketplace.domain.exceptions.DataAccessException;
+import com.marketplace.domain.exceptions.ProductNotFoundException;
+import com.marketplace.domain.exceptions.ValidationException;
+import com.marketplace.infrastructure.dto.StoreHealth;
+import com.marketplace.infrastructure.dto.WriteStats;
+import com.marketplace.infrastructure.index.ProductChangeLog;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * ProductRepository that spreads the catalog over N JSON segment files by product id hash,
+ * selected with {@code app.repository.type=partitioned}.
+ *
+ * Each segment is a {@link JsonProductRepository} over its own file, with its own writer,
+ * snapshot and seller index, so writes to different segments run in parallel and each rewrites
+ * only its segment, about 1/N of the catalog. Segments are loaded in parallel at startup. A
+ * manifest in the partition directory records the count whose segment files hold the catalog.
+ * When it differs from the configured count, the segments are created from the segment files of
+ * that count, or from the data file before any were written, and the old segment files are
+ * deleted once the manifest names the new count. Listings return one segment after another, so
+ * catalog order holds within a segment, and a scan is consistent per segment only. Writes are
+ * numbered for delta sync by one change log across segments, which each segment records into
+ * when its batch commits, so a product's writes are logged in the order they were applied.
+ */
+@Repository
+@ConditionalOnProperty(name = "app.repository.type", havingValue = "partitioned")
+public class PartitionedProductRepository implements ProductRepository {
+    private static final Logger logger = LoggerFactory.getLogger(PartitionedProductRepository.class);
+    private static final Pattern SEGMENT_FILE = Pattern.compile("products-(\\d+)-of-(\\d+)\\.json");
+    private static final String MANIFEST_FILE = "partitions.json";
+
+    private final String dataFile;
+    private final File directory;
+    private final JsonProductRepository[] segments;
+    private final ObjectMapper objectMapper = new ObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    private final ObjectWriter fileWriter = objectMapper.writerWithDefaultPrettyPrinter()
+        .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    private final ProductChangeLog changeLog = new ProductChangeLog();
+    private final ExecutorService parallel = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * @param directory where the segment files are kept; a {@code partitions} directory next to
+     *                  the data file when empty
+     */
+    @Autowired
+    public PartitionedProductRepository(@Value("${app.data.file:products.json}") String dataFile,
+                                        @Value("${app.partitions.count:8}") int partitions,
+                                        @Value("${app.partitions.directory:}") String directory,
+                                        @Value("${app.write-pipeline.ring-size:1024}") int ringSize,
+                                        @Value("${app.write-pipeline.max-batch:256}") int maxBatch,
+                                        @Value("${app.write-behind.window-ms:0}") long writeBehindMillis) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("Partition count must be positive");
+        }
+        this.dataFile = dataFile;
+        this.directory = directory.isBlank()
+            ? new File(new File(dataFile).getAbsoluteFile().getParentFile(), "partitions")
+            : new File(directory);
+        this.segments = new JsonProductRepository[partitions];
+        for (int i = 0; i < partitions; i++) {
+            segments[i] = JsonProductRepository.segment(segmentFile(i, partitions).getPath(), "product-segment-" + i,
+                ringSize, maxBatch, writeBehindMillis, changeLog);
+        }
+    }
+
+    // Set before load(), so the segments trace their first reads too
+    @Autowired(required = false)
+    public void setObservationRegistry(ObservationRegistry observationRegistry) {
+        for (JsonProductRepository segment : segments) {
+            segment.setObservationRegistry(observationRegistry);
+        }
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new DataAccessException("Failed to create partition directory: " + directory, null);
+        }
+        int active = readManifest();
+        if (active < 0) {
+            // Segments written before there was a manifest: the newest count holds the catalog
+            active = newestSegmentCount();
+            writeManifest(active);
+        }
+        if (active != segments.length) {
+            split(readCatalog(active));
+            writeManifest(segments.length);
+        }
+        deleteStaleSegments();
+        long start = System.nanoTime();
+        // Each segment parses its own file, so they are read in parallel
+        int products = inParallel(segments.length, i -> segments[i].findAll().size()).stream().mapToInt(Integer::intValue).sum();
+        logger.info("Loaded {} products from {} partitions in {} ms", products, segments.length,
+            (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public int partitionCount() {
+        return segments.length;
+    }
+
+    public int partitionOf(String productId) {
+        if (productId == null) {
+            return 0;
+        }
+        int hash = productId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), segments.length);
+    }
+
+    @Override
+    public List<Product> findAll() {
+        List<Product> products = new ArrayList<>();
+        for (JsonProductRepository segment : segments) {
+            segment.streamAll(products::add);
+        }
+        return products;
+    }
+
+    @Override
+    public void streamAll(Consumer<? super Product> consumer) {
+        for (JsonProductRepository segment : segments) {
+            segment.streamAll(consumer);
+        }
+    }
+
+    @Override
+    public Product findById(String id) {
+        return segmentOf(id).findById(id);
+    }
+
+    @Override
+    public ProductPage findBySellerId(String sellerId, int page, int size) {
+        long offset = (long) page * size;
+        long total = 0;
+        List<Product> items = new ArrayList<>();
+        for (JsonProductRepository segment : segments) {
+            long inSegment = segment.findBySellerId(sellerId, 0, 1).getTotalItems();
+            long from = offset - total;
+            if (items.size() < size && from < inSegment) {
+                // Segments only page from their start, so read up to the end of the wanted range
+                int needed = (int) Math.min(inSegment, Math.max(0, from) + size - items.size());
+                List<Product> head = segment.findBySellerId(sellerId, 0, needed).getItems();
+                items.addAll(head.subList((int) Math.min(Math.max(0, from), head.size()), head.size()));
+            }
+            total += inSegment;
+        }
+        return new ProductPage(items, page, size, total);
+    }
+
+    @Override
+    public ProductChanges changesSince(long since, int limit) {
+        ProductChangeLog.Delta delta = changeLog.since(since, limit);
+        if (delta == null) {
+            return ProductChanges.fullSync(changeLog.lastSequence());
+        }
+        // Changes are logged once visible, so products missing now were deleted after the delta was read
+        List<Product> upserts = new ArrayList<>(delta.upserted().size());
+        for (String id : delta.upserted()) {
+            Product product = findQuietly(id);
+            if (product != null) {
+                upserts.add(product);
+            }
+        }
+        return new ProductChanges(delta.sequence(), delta.hasMore(), upserts, delta.deleted());
+    }
+
+    @Override
+    public Product save(Product product) {
+        return segmentOf(product.getId()).save(product);
+    }
+
+    @Override
+    public List<Product> saveAll(List<Product> batch) {
+        return storeAll(batch, JsonProductRepository::saveAll);
+    }
+
+    // Each segment keeps its part of the batch in memory until flushImported
+    @Override
+    public List<Product> importBatch(List<Product> batch) {
+        return storeAll(batch, JsonProductRepository::importBatch);
+    }
+
+    @Override
+    public void flushImported() {
+        inParallel(segments.length, i -> {
+            segments[i].flushImported();
+            return null;
+        });
+    }
+
+    private List<Product> storeAll(List<Product> batch, BiFunction<JsonProductRepository, List<Product>, List<Product>> store) {
+        List<List<Product>> byPartition = new ArrayList<>(segments.length);
+        for (int i = 0; i < segments.length; i++) {
+            byPartition.add(new ArrayList<>());
+        }
+        for (Product product : batch) {
+            byPartition.get(partitionOf(product.getId())).add(product);
+        }
+        inParallel(segments.length, i -> byPartition.get(i).isEmpty() ? null : store.apply(segments[i], byPartition.get(i)));
+        return batch;
+    }
+
+    @Override
+    public Product update(String id, Product product) {
+        if (movesPartition(id, product)) {
+            Product current = findQuietly(id);
+            if (current == null) {
+                return null;
+            }
+            return move(id, versionOf(current), product, () -> segmentOf(id).delete(id));
+        }
+        return segmentOf(id).update(id, product);
+    }
+
+    @Override
+    public void delete(String id) {
+        segmentOf(id).delete(id);
+    }
+
+    @Override
+    public Product compareAndSet(String id, long expectedVersion, Product product) {
+        if (movesPartition(id, product)) {
+            return move(id, expectedVersion, product, () -> segmentOf(id).deleteIfVersion(id, expectedVersion));
+        }
+        return segmentOf(id).compareAndSet(id, expectedVersion, product);
+    }
+
+    @Override
+    public void deleteIfVersion(String id, long expectedVersion) {
+        segmentOf(id).deleteIfVersion(id, expectedVersion);
+    }
+
+    @Override
+    public void replicate(List<Product> upserts, List<String> deleted) {
+        List<List<Product>> upsertsByPartition = new ArrayList<>(segments.length);
+        List<List<String>> deletedByPartition = new ArrayList<>(segments.length);
+        for (int i = 0; i < segments.length; i++) {
+            upsertsByPartition.add(new ArrayList<>());
+            deletedByPartition.add(new ArrayList<>());
+        }
+        for (Product product : upserts) {
+            upsertsByPartition.get(partitionOf(product.getId())).add(product);
+        }
+        for (String id : deleted) {
+            deletedByPartition.get(partitionOf(id)).add(id);
+        }
+        inParallel(segments.length, i -> {
+            if (!upsertsByPartition.get(i).isEmpty() || !deletedByPartition.get(i).isEmpty()) {
+                segments[i].replicate(upsertsByPartition.get(i), deletedByPartition.get(i));
+            }
+            return null;
+        });
+    }
+
+    // Segment generations only grow, so their sum moves on whenever any segment is reloaded
+    @Override
+    public long catalogGeneration() {
+        long generation = 0;
+        for (JsonProductRepository segment : segments) {
+            generation += segment.catalogGeneration();
+        }
+        return generation;
+    }
+
+    public WriteStats writeStats() {
+        long window = 0, writes = 0, coalesced = 0, persisted = 0, pending = 0, fileWrites = 0;
+        for (JsonProductRepository segment : segments) {
+            WriteStats stats = segment.writeStats();
+            window = stats.windowMillis();
+            writes += stats.writes();
+            coalesced += stats.coalesced();
+            persisted += stats.persisted();
+            pending += stats.pending();
+            fileWrites += stats.fileWrites();
+        }
+        return new WriteStats(window, writes, coalesced, persisted, pending, fileWrites);
+    }
+
+    /**
+     * Loaded once every segment is, as of the segment read last.
+     */
+    public StoreHealth health() {
+        boolean loaded = true;
+        Instant lastLoadAt = null;
+        int products = 0;
+        long queued = 0, pending = 0;
+        for (JsonProductRepository segment : segments) {
+            StoreHealth health = segment.health();
+            loaded &= health.loaded();
+            if (health.lastLoadAt() != null && (lastLoadAt == null || health.lastLoadAt().isAfter(lastLoadAt))) {
+                lastLoadAt = health.lastLoadAt();
+            }
+            products += health.products();
+            queued += health.queuedWrites();
+            pending += health.pendingWrites();
+        }
+        return new StoreHealth(loaded, lastLoadAt, products, queued, pending);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (parallel.isShutdown()) {
+            return;
+        }
+        inParallel(segments.length, i -> {
+            segments[i].close();
+            return null;
+        });
+        parallel.shutdown();
+    }
+
+    private JsonProductRepository segmentOf(String productId) {
+        return segments[partitionOf(productId)];
+    }
+
+    private File segmentFile(int partition, int partitions) {
+        return new File(directory, String.format("products-%02d-of-%02d.json", partition, partitions));
+    }
+
+    private boolean movesPartition(String id, Product product) {
+        return product.getId() != null && partitionOf(id) != partitionOf(product.getId());
+    }
+
+    // A product renamed into another partition is removed here, which checks the expected version,
+    // and then stored there with the next version, as an update in place would be. Renaming onto
+    // a stored id is rejected, as the other stores do. The writes are not atomic, so a failure in
+    // between loses the product, and a product created with the new id meanwhile is replaced.
+    private Product move(String id, long version, Product product, Runnable removeOld) {
+        if (findQuietly(product.getId()) != null) {
+            throw new ValidationException("A product with the same ID already exists");
+        }
+        removeOld.run();
+        product.setVersion(version + 1);
+        segmentOf(product.getId()).replicate(List.of(product), List.of());
+        return product;
+    }
+
+
+    // Products written before versioning was introduced have no version and count as version 0
+    private static long versionOf(Product product) {
+        return product.getVersion() == null ? 0L : product.getVersion();
+    }
+
+    private Product findQuietly(String id) {
+        if (id == null || id.isBlank()) {
+            return null;
+        }
+        try {
+            return findById(id);
+        } catch (ProductNotFoundException e) {
+            return null;
+        }
+    }
+
+    private <T> List<T> inParallel(int count, Function<Integer, T> work) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int partition = i;
+            futures.add(CompletableFuture.supplyAsync(() -> work.apply(partition), parallel));
+        }
+        try {
+            return futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // The partition count whose segments hold the catalog, 0 for the data file, or -1 without a manifest
+    private int readManifest() {
+        File manifest = new File(directory, MANIFEST_FILE);
+        if (!manifest.exists()) {
+            return -1;
+        }
+        try {
+            return objectMapper.readTree(manifest).path("partitions").asInt(0);
+        } catch (IOException e) {
+            throw new DataAccessException("Failed to read partition manifest: " + manifest, e);
+        }
+    }
+
+    private void writeManifest(int partitions) {
+        File manifest = new File(directory, MANIFEST_FILE);
+        try {
+            JsonProductRepository.replaceFile(manifest, fileWriter, Map.of("partitions", partitions));
+        } catch (IOException e) {
+            throw new DataAccessException("Failed to write partition manifest: " + manifest, e);
+        }
+    }
+
+    private Map<Integer, List<File>> segmentFilesByCount() {
+        Map<Integer, List<File>> byCount = new TreeMap<>();
+        File[] files = directory.listFiles();
+        for (File file : files == null ? new File[0] : files) {
+            Matcher matcher = SEGMENT_FILE.matcher(file.getName());
+            if (matcher.matches()) {
+                byCount.computeIfAbsent(Integer.parseInt(matcher.group(2)), count -> new ArrayList<>()).add(file);
+            }
+        }
+        return byCount;
+    }
+
+    private int newestSegmentCount() {
+        Map.Entry<Integer, List<File>> newest = null;
+        for (Map.Entry<Integer, List<File>> entry : segmentFilesByCount().entrySet()) {
+            if (newest == null || lastModified(entry.getValue()) > lastModified(newest.getValue())) {
+                newest = entry;
+            }
+        }
+        return newest == null ? 0 : newest.getKey();
+    }
+
+    private static long lastModified(List<File> files) {
+        return files.stream().mapToLong(File::lastModified).max().orElse(0L);
+    }
+
+    // The segments of the given partition count, or the data file for 0
+    private List<Product> readCatalog(int partitions) {
+        if (partitions == 0) {
+            List<Product> products = new JsonProductRepository(dataFile).findAll();
+            logger.info("Partitioning {} products from {} into {} segments", products.size(), dataFile, segments.length);
+            return products;
+        }
+        List<Product> products = new ArrayList<>();
+        for (File file : segmentFilesByCount().getOrDefault(partitions, List.of())) {
+            try {
+                products.addAll(objectMapper.readValue(file, new TypeReference<List<Product>>() {}));
+            } catch (IOException e) {
+                throw new DataAccessException("Failed to read products from segment: " + file, e);
+            }
+        }
+        logger.info("Repartitioning {} products from {} into {} segments", products.size(), partitions, segments.length);
+        return products;
+    }
+
+    // Written directly rather than through the segments, so stored versions are kept. Each file is
+    // replaced atomically, and the manifest only names the new count once all of them are written.
+    private void split(List<Product> products) {
+        List<List<Product>> byPartition = new ArrayList<>(segments.length);
+        for (int i = 0; i < segments.length; i++) {
+            byPartition.add(new ArrayList<>());
+        }
+        for (Product product : products) {
+            byPartition.get(partitionOf(product.getId())).add(product);
+        }
+        inParallel(segments.length, i -> {
+            File file = segmentFile(i, segments.length);
+            try {
+                JsonProductRepository.replaceFile(file, fileWriter, byPartition.get(i));
+            } catch (IOException e) {
+                throw new DataAccessException("Failed to write products to segment: " + file, e);
+            }
+            return null;
+        });
+    }
+
+    // Segments of other counts are out of date once the manifest names this one, and would be
+    // loaded again if the count were changed back
+    private void deleteStaleSegments() {
+        for (Map.Entry<Integer, List<File>> entry : segmentFilesByCount().entrySet()) {
+            if (entry.getKey() == segments.length) {
+                continue;
+            }
+            for (File file : entry.getValue()) {
+                if (!file.delete()) {
+                    logger.warn("Could not delete stale segment file {}", file);
+                }
+            }
+        }
+    }
+}
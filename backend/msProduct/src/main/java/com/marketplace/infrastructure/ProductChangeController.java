@@ -0,0 +1,103 @@
+package com.marketplace.infrastructure;
+
+import com.marketplace.application.ProductChangeFeed;
+import com.marketplace.application.ProductService;
+import com.marketplace.domain.ProductChange;
+import com.marketplace.domain.ProductChanges;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Locale;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/product/changes")
+public class ProductChangeController {
+    private final ProductService productService;
+    private final ProductChangeFeed changeFeed;
+    private final long streamTimeoutMillis;
+
+    @Autowired
+    public ProductChangeController(ProductService productService, ProductChangeFeed changeFeed,
+                                   @Value("${app.changes.stream-timeout-ms:1800000}") long streamTimeoutMillis) {
+        this.productService = productService;
+        this.changeFeed = changeFeed;
+        this.streamTimeoutMillis = streamTimeoutMillis;
+    }
+
+    /**
+     * Returns what changed after {@code since}, the {@code sequence} of a previous response.
+     * Without {@code since} (or when it is too old) the response asks for a full sync instead.
+     */
+    @GetMapping
+    public ResponseEntity<ProductChanges> getChanges(@RequestParam(required = false) Long since,
+                                                     @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(productService.getChanges(since == null ? 0L : since, limit));
+    }
+
+    /**
+     * Streams product changes as Server-Sent Events named created, updated or deleted, with the
+     * change sequence as event id. Reconnecting clients resume after {@code Last-Event-ID} (or the
+     * {@code lastEventId} parameter); a {@code reset} event means changes were missed and the
+     * catalog must be reloaded. Slow clients are disconnected and resume the same way.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) String productId,
+                                    @RequestParam(required = false) String sellerId,
+                                    @RequestParam(value = "lastEventId", required = false) String lastEventIdParam,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        Long lastSequence = parseSequence(lastEventId != null ? lastEventId : lastEventIdParam);
+        ProductChangeFeed.Filter filter = new ProductChangeFeed.Filter(blankToNull(productId), blankToNull(sellerId));
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        ProductChangeFeed.Subscription subscription = changeFeed.subscribe(filter, lastSequence, new ProductChangeFeed.Listener() {
+            @Override
+            public void onChange(ProductChange change) throws Exception {
+                emitter.send(SseEmitter.event()
+                    .id(String.valueOf(change.sequence()))
+                    .name(change.type().name().toLowerCase(Locale.ROOT))
+                    .data(change, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void onReset(long currentSequence) throws Exception {
+                emitter.send(SseEmitter.event()
+                    .id(String.valueOf(currentSequence))
+                    .name("reset")
+                    .data(Map.of("sequence", currentSequence), MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void onIdle() throws Exception {
+                emitter.send(SseEmitter.event().comment("keepalive"));
+            }
+
+            @Override
+            public void onDropped() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(error -> subscription.cancel());
+        return emitter;
+    }
+
+    private static Long parseSequence(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid last event id: " + value);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
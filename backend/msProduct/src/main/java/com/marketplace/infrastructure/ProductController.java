@@ -2,43 +2,118 @@ package com.marketplace.infrastructure;
 
 import com.marketplace.application.ProductService;
 import com.marketplace.domain.Product;
+import com.marketplace.domain.ProductFilter;
+import com.marketplace.domain.ProductPage;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/product")
 public class ProductController {
     private final ProductService productService;
+    private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
 
     @Autowired
     public ProductController(ProductService productService) {
         this.productService = productService;
     }
 
+    /**
+     * Traces each handler as a span inside the HTTP request's span. The time between the two is
+     * spent reading and writing the body and in the servlet stack.
+     */
+    @Autowired(required = false)
+    public void setObservationRegistry(ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
     @GetMapping
     public List<Product> getAllProducts() {
-        return productService.getAllProducts();
+        return observed("getAllProducts", productService::getAllProducts);
+    }
+
+    @GetMapping("/search")
+    public ProductPage searchProducts(@RequestParam(required = false) String paymentMethod,
+                                      @RequestParam(required = false) String priceBucket,
+                                      @RequestParam(required = false) String reputationLevel,
+                                      @RequestParam(required = false) String stock,
+                                      @RequestParam(required = false) String sellerId,
+                                      @RequestParam(defaultValue = "0") int page,
+                                      @RequestParam(defaultValue = "20") int size) {
+        ProductFilter filter = new ProductFilter(paymentMethod, priceBucket, reputationLevel, stock, sellerId);
+        return observed("searchProducts", () -> productService.searchProducts(filter, page, size));
     }
 
     @GetMapping("/{id}")
-    public Product getProductById(@PathVariable String id) {
-        return productService.getProductById(id);
+    public ResponseEntity<Product> getProductById(@PathVariable String id) {
+        return observed("getProductById", () -> withETag(productService.getProductById(id)));
     }
 
     @PostMapping
-    public Product createProduct(@RequestBody Product product) {
-        return productService.createProduct(product);
+    public ResponseEntity<Product> createProduct(@RequestBody Product product) {
+        return observed("createProduct", () -> withETag(productService.createProduct(product)));
     }
 
     @PutMapping("/{id}")
-    public Product updateProduct(@PathVariable String id, @RequestBody Product product) {
-        return productService.updateProduct(id, product);
+    public ResponseEntity<Product> updateProduct(@PathVariable String id, @RequestBody Product product,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return observed("updateProduct", () -> withETag(productService.updateProduct(id, product, parseIfMatch(ifMatch))));
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<Product> patchProduct(@PathVariable String id, @RequestBody Product patch,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return observed("patchProduct", () -> withETag(productService.patchProduct(id, patch, parseIfMatch(ifMatch))));
     }
 
     @DeleteMapping("/{id}")
-    public void deleteProduct(@PathVariable String id) {
-        productService.deleteProduct(id);
+    public void deleteProduct(@PathVariable String id,
+                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        observed("deleteProduct", () -> {
+            productService.deleteProduct(id, parseIfMatch(ifMatch));
+            return null;
+        });
+    }
+
+    private <T> T observed(String handler, Supplier<T> call) {
+        return Observation.createNotStarted("product.controller", observationRegistry)
+            .contextualName("ProductController." + handler)
+            .lowCardinalityKeyValue("handler", handler)
+            .observe(call);
+    }
+
+    private static ResponseEntity<Product> withETag(Product product) {
+        if (product == null || product.getVersion() == null) {
+            return ResponseEntity.ok(product);
+        }
+        return ResponseEntity.ok().eTag(String.valueOf(product.getVersion())).body(product);
+    }
+
+    /**
+     * Returns the version named by an If-Match header, or null when the header is absent or "*".
+     */
+    private static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid If-Match header: " + ifMatch);
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,65 @@
+package com.marketplace.infrastructure;
+
+import com.marketplace.infrastructure.exporter.ProductExporter;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/product/export")
+public class ProductExportController {
+    private final ProductExporter exporter;
+
+    @Autowired
+    public ProductExportController(ProductExporter exporter) {
+        this.exporter = exporter;
+    }
+
+    /**
+     * Streams the whole catalog as NDJSON or CSV with chunked transfer encoding, gzip-compressed
+     * when the client accepts it.
+     */
+    @GetMapping
+    public void exportProducts(@RequestParam(defaultValue = "ndjson") String format,
+                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                               HttpServletResponse response) throws IOException {
+        ProductExporter.Format exportFormat = ProductExporter.Format.of(format);
+        boolean gzip = acceptsGzip(acceptEncoding);
+        response.setContentType(exportFormat.contentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products." + exportFormat.extension() + "\"");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!gzip) {
+            exporter.export(exportFormat, response.getOutputStream());
+            return;
+        }
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        GZIPOutputStream out = new GZIPOutputStream(response.getOutputStream(), 64 * 1024);
+        exporter.export(exportFormat, out);
+        out.finish();
+    }
+
+    // True when gzip is listed in Accept-Encoding without q=0.
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim().replace(" ", "");
+                if (param.startsWith("q=") && param.substring(2).matches("0(\\.0*)?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,37 @@
+package com.marketplace.infrastructure;
+
+import com.marketplace.infrastructure.dto.ImportReport;
+import com.marketplace.infrastructure.importer.NdjsonProductImporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/product/import")
+public class ProductImportController {
+    private final NdjsonProductImporter importer;
+
+    @Autowired
+    public ProductImportController(NdjsonProductImporter importer) {
+        this.importer = importer;
+    }
+
+    /**
+     * Imports an NDJSON body (one product per line), creating new products and replacing
+     * existing ones. The body is streamed, never buffered whole.
+     */
+    @PostMapping
+    public ImportReport importProducts(InputStream body) {
+        return importer.importProducts(body);
+    }
+
+    /**
+     * Returns the progress of the running import, or the report of the last one.
+     */
+    @GetMapping
+    public ResponseEntity<ImportReport> latestImport() {
+        return importer.latest().map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.noContent().build());
+    }
+}
@@ -0,0 +1,27 @@
+package com.marketplace.infrastructure;
+
+import com.marketplace.infrastructure.dto.ReplicationStatus;
+import com.marketplace.infrastructure.replication.ReplicationFollower;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/product/replication")
+public class ProductReplicationController {
+    private final ReplicationFollower follower;
+
+    @Autowired
+    public ProductReplicationController(ReplicationFollower follower) {
+        this.follower = follower;
+    }
+
+    /**
+     * Returns how far this follower has replicated the leader's catalog, or no content when
+     * this instance is the leader.
+     */
+    @GetMapping
+    public ResponseEntity<ReplicationStatus> replicationStatus() {
+        return follower.isFollower() ? ResponseEntity.ok(follower.status()) : ResponseEntity.noContent().build();
+    }
+}
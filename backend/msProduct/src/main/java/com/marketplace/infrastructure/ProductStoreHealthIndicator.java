@@ -0,0 +1,59 @@
+package com.marketplace.infrastructure;
+
+import com.marketplace.application.CatalogReadiness;
+import com.marketplace.infrastructure.dto.StoreHealth;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code productStore} health contributor: UP once the catalog is loaded and its indexes
+ * are built, OUT_OF_SERVICE before. It is part of the readiness group, so
+ * {@code /actuator/health/readiness} keeps an instance out of traffic while it is still cold.
+ * Answers from state already in memory, without reading or parsing the catalog.
+ */
+@Component
+public class ProductStoreHealthIndicator implements HealthIndicator {
+    private final CatalogReadiness catalog;
+    private final ObjectProvider<JsonProductRepository> jsonRepository;
+    private final ObjectProvider<PartitionedProductRepository> partitionedRepository;
+
+    @Autowired
+    public ProductStoreHealthIndicator(CatalogReadiness catalog,
+                                       ObjectProvider<JsonProductRepository> jsonRepository,
+                                       ObjectProvider<PartitionedProductRepository> partitionedRepository) {
+        this.catalog = catalog;
+        this.jsonRepository = jsonRepository;
+        this.partitionedRepository = partitionedRepository;
+    }
+
+    @Override
+    public Health health() {
+        StoreHealth store = storeHealth();
+        boolean warmedUp = catalog.isWarmedUp();
+        Health.Builder health = warmedUp && (store == null || store.loaded()) ? Health.up() : Health.outOfService();
+        health.withDetail("warmedUp", warmedUp);
+        if (store != null) {
+            health.withDetail("loaded", store.loaded())
+                .withDetail("products", store.products())
+                .withDetail("queuedWrites", store.queuedWrites())
+                .withDetail("pendingWrites", store.pendingWrites());
+            if (store.lastLoadAt() != null) {
+                health.withDetail("lastLoadAt", store.lastLoadAt());
+            }
+        }
+        return health.build();
+    }
+
+    // Only the JSON stores keep a snapshot to report on; the SQL and off-heap stores load at startup
+    private StoreHealth storeHealth() {
+        JsonProductRepository repository = jsonRepository.getIfAvailable();
+        if (repository != null) {
+            return repository.health();
+        }
+        PartitionedProductRepository partitioned = partitionedRepository.getIfAvailable();
+        return partitioned == null ? null : partitioned.health();
+    }
+}
@@ -0,0 +1,35 @@
+package com.marketplace.infrastructure;
+
+import com.marketplace.infrastructure.dto.WriteStats;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/product/writes")
+public class ProductWriteStatsController {
+    private final ObjectProvider<JsonProductRepository> jsonRepository;
+    private final ObjectProvider<PartitionedProductRepository> partitionedRepository;
+
+    @Autowired
+    public ProductWriteStatsController(ObjectProvider<JsonProductRepository> jsonRepository,
+                                       ObjectProvider<PartitionedProductRepository> partitionedRepository) {
+        this.jsonRepository = jsonRepository;
+        this.partitionedRepository = partitionedRepository;
+    }
+
+    /**
+     * Returns how many product writes were coalesced and persisted by the JSON store, summed
+     * over the segments of a partitioned one, or no content when another store is configured.
+     */
+    @GetMapping
+    public ResponseEntity<WriteStats> writeStats() {
+        JsonProductRepository repository = jsonRepository.getIfAvailable();
+        if (repository != null) {
+            return ResponseEntity.ok(repository.writeStats());
+        }
+        PartitionedProductRepository partitioned = partitionedRepository.getIfAvailable();
+        return partitioned == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(partitioned.writeStats());
+    }
+}
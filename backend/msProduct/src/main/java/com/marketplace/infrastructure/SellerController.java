@@ -0,0 +1,38 @@
+package com.marketplace.infrastructure;
+
+import com.marketplace.application.ProductService;
+import com.marketplace.application.SellerService;
+import com.marketplace.domain.ProductPage;
+import com.marketplace.domain.SellerInformation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/seller")
+public class SellerController {
+    private final SellerService sellerService;
+    private final ProductService productService;
+
+    @Autowired
+    public SellerController(SellerService sellerService, ProductService productService) {
+        this.sellerService = sellerService;
+        this.productService = productService;
+    }
+
+    @GetMapping("/{id}")
+    public SellerInformation getSellerById(@PathVariable String id) {
+        return sellerService.getSellerById(id);
+    }
+
+    @GetMapping("/{id}/products")
+    public ProductPage getSellerProducts(@PathVariable String id,
+                                         @RequestParam(defaultValue = "0") int page,
+                                         @RequestParam(defaultValue = "20") int size) {
+        return productService.getProductsBySeller(id, page, size);
+    }
+
+    @PutMapping("/{id}")
+    public SellerInformation updateSeller(@PathVariable String id, @RequestBody SellerInformation seller) {
+        return sellerService.updateSeller(id, seller);
+    }
+}
@@ -44,6 +44,11 @@ public class CorsConfig {
         List<String> headers = Arrays.asList(allowedHeaders.split(","));
         corsConfiguration.setAllowedHeaders(headers);
         
+        // Let browser clients read the product version for If-Match requests and the rate limit state
+        corsConfiguration.addExposedHeader("ETag");
+        corsConfiguration.addExposedHeader("Retry-After");
+        corsConfiguration.addExposedHeader("X-RateLimit-Remaining");
+        
         // Set credentials and max age from properties
         corsConfiguration.setAllowCredentials(allowCredentials);
         corsConfiguration.setMaxAge(maxAge);
@@ -0,0 +1,35 @@
+package com.marketplace.infrastructure.config;
+
+import org.apache.coyote.UpgradeProtocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Stream limits of the embedded Tomcat's HTTP/2 connector, which Spring Boot adds when
+ * {@code server.http2.enabled=true}: h2 over TLS when {@code server.ssl} is configured, otherwise
+ * cleartext h2c (prior knowledge or Upgrade) next to HTTP/1.1 on the same port.
+ *
+ * Tomcat processes only 20 streams of a connection at once by default, so a page fetching more
+ * product details in parallel would queue on its single connection.
+ */
+@Configuration
+public class Http2Config {
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> http2StreamLimits(
+            @Value("${app.http2.max-concurrent-streams:100}") int maxConcurrentStreams,
+            @Value("${app.http2.max-concurrent-stream-execution:50}") int maxConcurrentStreamExecution) {
+        return factory -> factory.addConnectorCustomizers(connector -> {
+            for (UpgradeProtocol protocol : connector.findUpgradeProtocols()) {
+                if (protocol instanceof Http2Protocol http2) {
+                    http2.setMaxConcurrentStreams(maxConcurrentStreams);
+                    http2.setMaxConcurrentStreamExecution(maxConcurrentStreamExecution);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,51 @@
+package com.marketplace.infrastructure.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * The JSON converter for request and response bodies, with a span around each body Jackson
+ * reads or writes, so a trace shows serialization apart from the handler and the servlet stack.
+ * Replaces the converter Spring Boot would register, with the same object mapper.
+ */
+@Component
+public class ObservedJacksonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+    private final ObservationRegistry observationRegistry;
+
+    @Autowired
+    public ObservedJacksonHttpMessageConverter(ObjectMapper objectMapper, ObjectProvider<ObservationRegistry> observationRegistry) {
+        super(objectMapper);
+        this.observationRegistry = observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return observation("read", type).observeChecked(() -> super.read(type, contextClass, inputMessage));
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        observation("write", type != null ? type : object.getClass()).observeChecked(() -> {
+            super.writeInternal(object, type, outputMessage);
+            return null;
+        });
+    }
+
+    // Body types are the controllers' parameter and return types, so they stay low-cardinality
+    private Observation observation(String operation, Type type) {
+        String typeName = type instanceof Class<?> clazz ? clazz.getSimpleName() : type.getTypeName();
+        return Observation.createNotStarted("product.json." + operation, observationRegistry)
+            .contextualName("Jackson." + operation)
+            .lowCardinalityKeyValue("type", typeName);
+    }
+}
@@ -0,0 +1,28 @@
+package com.marketplace.infrastructure.config;
+
+import com.marketplace.domain.Product;
+import com.marketplace.domain.ProductChange;
+import com.marketplace.domain.ProductChanges;
+import com.marketplace.infrastructure.dto.ErrorResponse;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reachability metadata for the GraalVM native image.
+ *
+ * JsonProductRepository binds the catalog through its own ObjectMapper, which Spring AOT
+ * cannot see, so the domain types (and every type nested in them) are registered for
+ * Jackson binding here, together with the bundled catalog file and database schema.
+ * Change events are written to Server-Sent Event streams, which AOT does not inspect either.
+ */
+public class ProductRuntimeHints implements RuntimeHintsRegistrar {
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        bindingRegistrar.registerReflectionHints(hints.reflection(), Product.class, ProductChange.class, ProductChanges.class, ErrorResponse.class);
+        hints.resources().registerPattern("products.json");
+        hints.resources().registerPattern("db/catalog-schema.sql");
+    }
+}
@@ -0,0 +1,76 @@
+package com.marketplace.infrastructure.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Progress of a bulk product import, either while it runs or once it has finished.
+ * Only the first errors are kept, so {@code failed} can exceed the number of listed errors.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportReport {
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    private final Status status;
+    private final long linesRead;
+    private final long imported;
+    private final long failed;
+    private final int batches;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    private final LocalDateTime startedAt;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    private final LocalDateTime finishedAt;
+
+    private final List<LineError> errors;
+
+    public ImportReport(Status status, long linesRead, long imported, long failed, int batches,
+                        LocalDateTime startedAt, LocalDateTime finishedAt, List<LineError> errors) {
+        this.status = status;
+        this.linesRead = linesRead;
+        this.imported = imported;
+        this.failed = failed;
+        this.batches = batches;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.errors = errors;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getLinesRead() {
+        return linesRead;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public int getBatches() {
+        return batches;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public List<LineError> getErrors() {
+        return errors;
+    }
+
+    public record LineError(long line, String message) {}
+}
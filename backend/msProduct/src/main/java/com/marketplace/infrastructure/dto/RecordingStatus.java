@@ -0,0 +1,16 @@
+package com.marketplace.infrastructure.dto;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * The Flight Recorder recording started on demand.
+ *
+ * @param state     {@code RUNNING}, or {@code STOPPED} once its duration is over
+ * @param settings  JDK recording settings it was started with
+ * @param duration  how long it runs, null when it runs until stopped
+ * @param maxAge    how far back a dump reaches
+ * @param sizeBytes bytes recorded so far
+ */
+public record RecordingStatus(long id, String state, String settings, Instant startTime, Duration duration,
+                              Duration maxAge, long sizeBytes) {}
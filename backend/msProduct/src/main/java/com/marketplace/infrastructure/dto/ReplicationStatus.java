@@ -0,0 +1,15 @@
+package com.marketplace.infrastructure.dto;
+
+import java.time.Instant;
+
+/**
+ * Progress of a follower replicating the leader's catalog.
+ *
+ * @param sequence       leader change sequence applied last
+ * @param appliedChanges products stored and deleted from deltas since startup, full syncs excluded
+ * @param fullSyncs      times the catalog was reloaded from a leader snapshot
+ * @param lastSyncAt     when the follower last caught up with the leader, null before the first sync
+ * @param lastError      why the last poll failed, null once a poll succeeds
+ */
+public record ReplicationStatus(String leaderUrl, long sequence, long appliedChanges, long fullSyncs,
+                                Instant lastSyncAt, String lastError) {}
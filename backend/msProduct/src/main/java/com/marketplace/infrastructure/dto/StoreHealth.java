@@ -0,0 +1,14 @@
+package com.marketplace.infrastructure.dto;
+
+import java.time.Instant;
+
+/**
+ * State of the JSON product store, read without touching the data file.
+ *
+ * @param loaded        whether the catalog has been read from the data file (from every segment when partitioned)
+ * @param lastLoadAt    when the data file was last read, null before the first read
+ * @param products      products in the in-memory catalog
+ * @param queuedWrites  writes waiting for the writer thread
+ * @param pendingWrites products written in memory only, waiting for the write-behind file write
+ */
+public record StoreHealth(boolean loaded, Instant lastLoadAt, int products, long queuedWrites, long pendingWrites) {}
@@ -0,0 +1,12 @@
+package com.marketplace.infrastructure.dto;
+
+/**
+ * Write counters of the JSON product store since startup. Every product write is either
+ * {@code coalesced} into a later write of the same product, {@code persisted}, or still
+ * {@code pending} in memory, so {@code writes = coalesced + persisted + pending}.
+ *
+ * @param windowMillis the write-behind window, 0 when every write reaches the file before returning
+ * @param fileWrites   times the data file was written
+ */
+public record WriteStats(long windowMillis, long writes, long coalesced, long persisted, long pending,
+                         long fileWrites) {}
@@ -0,0 +1,67 @@
+package com.marketplace.infrastructure.exception;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logs a sample of each kind of expected error: the first {@code samplesPerInterval} of each
+ * interval, then nothing until the next interval, which starts with a count of what was skipped.
+ * Floods of the same error then cost a counter increment instead of a log line.
+ */
+public class ErrorLogSampler {
+    private final int samplesPerInterval;
+    private final long intervalNanos;
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+
+    public ErrorLogSampler(int samplesPerInterval, long intervalMillis) {
+        if (samplesPerInterval < 0 || intervalMillis < 1) {
+            throw new IllegalArgumentException("Samples per interval must not be negative and the interval must be positive");
+        }
+        this.samplesPerInterval = samplesPerInterval;
+        this.intervalNanos = intervalMillis * 1_000_000;
+    }
+
+    /**
+     * Logs {@code format} at WARN under {@code kind} unless this interval's samples of it are used up.
+     */
+    public void warn(Logger logger, String kind, String format, Object argument) {
+        if (!logger.isWarnEnabled()) {
+            return;
+        }
+        Window window = windows.computeIfAbsent(kind, key -> new Window(System.nanoTime()));
+        long now = System.nanoTime();
+        long start = window.start.get();
+        if (now - start >= intervalNanos && window.start.compareAndSet(start, now)) {
+            long skipped = window.skipped.getAndSet(0);
+            window.logged.set(0);
+            if (skipped > 0) {
+                logger.warn("{}: {} more skipped in the last {} ms", kind, skipped, (now - start) / 1_000_000);
+            }
+        }
+        if (window.logged.incrementAndGet() <= samplesPerInterval) {
+            logger.warn(format, argument);
+        } else {
+            window.skipped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Errors of {@code kind} not logged since the current interval started.
+     */
+    public long skipped(String kind) {
+        Window window = windows.get(kind);
+        return window == null ? 0 : window.skipped.get();
+    }
+
+    private static final class Window {
+        final AtomicLong start;
+        final AtomicLong logged = new AtomicLong();
+        final AtomicLong skipped = new AtomicLong();
+
+        Window(long start) {
+            this.start = new AtomicLong(start);
+        }
+    }
+}
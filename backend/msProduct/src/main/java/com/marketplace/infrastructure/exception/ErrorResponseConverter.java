@@ -0,0 +1,132 @@
+package com.marketplace.infrastructure.exception;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.infrastructure.dto.ErrorResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes error bodies from pre-serialized fragments instead of running them through Jackson.
+ *
+ * The error code and status of each kind of error are serialized once, the timestamp once per
+ * second, and only the message and path are escaped per response. The output is the same JSON
+ * Jackson writes for {@link ErrorResponse}; bodies with validation errors, missing fields or
+ * characters outside the BMP (which Jackson escapes) are still written by Jackson. Spring picks
+ * the converter up ahead of the Jackson one.
+ */
+@Component
+public class ErrorResponseConverter extends AbstractHttpMessageConverter<ErrorResponse> {
+    // Same pattern as ErrorResponse.timestamp
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final JsonStringEncoder ENCODER = JsonStringEncoder.getInstance();
+    private static final byte[] PATH = bytes("\",\"path\":\"");
+    private static final byte[] END = bytes("\"}");
+    // Error codes come from the code, so this only guards against callers passing free text
+    private static final int MAX_CACHED_CODES = 64;
+
+    private final ObjectMapper objectMapper;
+    private final ConcurrentHashMap<String, Fragments> fragments = new ConcurrentHashMap<>();
+    private volatile Second second = new Second(Long.MIN_VALUE, null);
+
+    @Autowired
+    public ErrorResponseConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ErrorResponse.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected ErrorResponse readInternal(Class<? extends ErrorResponse> clazz, HttpInputMessage input) {
+        throw new HttpMessageNotReadableException("Error responses are never read", input);
+    }
+
+    @Override
+    protected void writeInternal(ErrorResponse response, HttpOutputMessage output) throws IOException {
+        write(response, output.getBody());
+    }
+
+    public void write(ErrorResponse response, OutputStream out) throws IOException {
+        if (response.getError() == null || response.getMessage() == null || response.getPath() == null
+                || response.getTimestamp() == null || response.getValidationErrors() != null
+                || hasSurrogates(response.getMessage()) || hasSurrogates(response.getPath())) {
+            objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(out, response);
+            return;
+        }
+        Fragments cached = fragments(response.getError(), response.getStatus());
+        out.write(cached.head());
+        out.write(ENCODER.quoteAsUTF8(response.getMessage()));
+        out.write(PATH);
+        out.write(ENCODER.quoteAsUTF8(response.getPath()));
+        out.write(cached.tail());
+        out.write(timestamp(response.getTimestamp()));
+        out.write(END);
+    }
+
+    private Fragments fragments(String error, int status) {
+        Fragments cached = fragments.get(error);
+        if (cached != null && cached.status() == status) {
+            return cached;
+        }
+        Fragments serialized = new Fragments(status,
+            bytes("{\"error\":\"" + new String(ENCODER.quoteAsString(error)) + "\",\"message\":\""),
+            bytes("\",\"status\":" + status + ",\"timestamp\":\""));
+        if (cached == null && fragments.size() < MAX_CACHED_CODES) {
+            fragments.putIfAbsent(error, serialized);
+        }
+        return serialized;
+    }
+
+    private byte[] timestamp(LocalDateTime timestamp) {
+        // Local seconds, so no time zone lookup; the offset only has to be the same every time
+        long epochSecond = timestamp.toEpochSecond(ZoneOffset.UTC);
+        Second cached = second;
+        if (cached.epochSecond() != epochSecond) {
+            cached = new Second(epochSecond, bytes(TIMESTAMP.format(timestamp)));
+            second = cached;
+        }
+        return cached.bytes();
+    }
+
+    private static boolean hasSurrogates(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.isSurrogate(value.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private record Fragments(int status, byte[] head, byte[] tail) {
+    }
+
+    private record Second(long epochSecond, byte[] bytes) {
+    }
+}
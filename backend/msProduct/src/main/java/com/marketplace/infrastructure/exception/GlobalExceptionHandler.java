@@ -1,11 +1,16 @@
 package com.marketplace.infrastructure.exception;
 
 import com.marketplace.domain.exceptions.DataAccessException;
+import com.marketplace.domain.exceptions.ImportInProgressException;
 import com.marketplace.domain.exceptions.ProductNotFoundException;
+import com.marketplace.domain.exceptions.SellerNotFoundException;
 import com.marketplace.domain.exceptions.ValidationException;
+import com.marketplace.domain.exceptions.VersionConflictException;
 import com.marketplace.infrastructure.dto.ErrorResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -13,38 +18,99 @@ import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Maps exceptions to error responses.
+ *
+ * Expected errors (unknown ids, conflicts, bad input) are cheap to raise and may arrive in
+ * floods, so only a sample of each kind is logged per interval; unexpected errors are always
+ * logged with their stack trace.
+ */
 @ControllerAdvice
 public class GlobalExceptionHandler {
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    private final ErrorLogSampler sampler;
+
+    /**
+     * @param samplesPerInterval expected errors of each kind logged per interval
+     */
+    @Autowired
+    public GlobalExceptionHandler(@Value("${app.error-log.samples-per-interval:10}") int samplesPerInterval,
+                                  @Value("${app.error-log.interval-ms:60000}") long intervalMillis) {
+        this.sampler = new ErrorLogSampler(samplesPerInterval, intervalMillis);
+    }
+
     @ExceptionHandler(ProductNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleProductNotFound(ProductNotFoundException ex, WebRequest request) {
-        logger.warn("Product not found: {}", ex.getMessage());
+        sampler.warn(logger, "PRODUCT_NOT_FOUND", "Product not found: {}", ex.getProductId());
         
         ErrorResponse errorResponse = new ErrorResponse(
             "PRODUCT_NOT_FOUND",
             ex.getMessage(),
-            request.getDescription(false).replace("uri=", ""),
+            path(request),
             HttpStatus.NOT_FOUND.value()
         );
         
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
     }
 
+    @ExceptionHandler(SellerNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleSellerNotFound(SellerNotFoundException ex, WebRequest request) {
+        sampler.warn(logger, "SELLER_NOT_FOUND", "Seller not found: {}", ex.getSellerId());
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+            "SELLER_NOT_FOUND",
+            ex.getMessage(),
+            path(request),
+            HttpStatus.NOT_FOUND.value()
+        );
+        
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+    }
+
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<ErrorResponse> handleVersionConflict(VersionConflictException ex, WebRequest request) {
+        sampler.warn(logger, "VERSION_CONFLICT", "Version conflict: {}", ex.getMessage());
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+            "VERSION_CONFLICT",
+            ex.getMessage(),
+            path(request),
+            HttpStatus.PRECONDITION_FAILED.value()
+        );
+        
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(errorResponse);
+    }
+
+    @ExceptionHandler(ImportInProgressException.class)
+    public ResponseEntity<ErrorResponse> handleImportInProgress(ImportInProgressException ex, WebRequest request) {
+        sampler.warn(logger, "IMPORT_IN_PROGRESS", "Import rejected: {}", ex.getMessage());
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+            "IMPORT_IN_PROGRESS",
+            ex.getMessage(),
+            path(request),
+            HttpStatus.CONFLICT.value()
+        );
+        
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+
     @ExceptionHandler(ValidationException.class)
     public ResponseEntity<ErrorResponse> handleValidation(ValidationException ex, WebRequest request) {
-        logger.warn("Validation error: {}", ex.getMessage());
+        sampler.warn(logger, "VALIDATION_ERROR", "Validation error: {}", ex.getMessage());
         
         ErrorResponse errorResponse = new ErrorResponse(
             "VALIDATION_ERROR",
             ex.getMessage(),
-            request.getDescription(false).replace("uri=", ""),
+            path(request),
             HttpStatus.BAD_REQUEST.value()
         );
         
@@ -53,12 +119,12 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleMethodArgumentNotValid(MethodArgumentNotValidException ex, WebRequest request) {
-        logger.warn("Method argument validation failed: {}", ex.getMessage());
+        sampler.warn(logger, "VALIDATION_ERROR", "Method argument validation failed: {}", ex.getMessage());
         
         ErrorResponse errorResponse = new ErrorResponse(
             "VALIDATION_ERROR",
             "Request validation failed",
-            request.getDescription(false).replace("uri=", ""),
+            path(request),
             HttpStatus.BAD_REQUEST.value()
         );
         
@@ -77,7 +143,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
     public ResponseEntity<ErrorResponse> handleMethodArgumentTypeMismatch(MethodArgumentTypeMismatchException ex, WebRequest request) {
-        logger.warn("Method argument type mismatch: {}", ex.getMessage());
+        sampler.warn(logger, "INVALID_PARAMETER", "Method argument type mismatch: {}", ex.getMessage());
         
         String message = String.format("Invalid value '%s' for parameter '%s'. Expected type: %s",
             ex.getValue(), ex.getName(), ex.getRequiredType().getSimpleName());
@@ -85,7 +151,7 @@ public class GlobalExceptionHandler {
         ErrorResponse errorResponse = new ErrorResponse(
             "INVALID_PARAMETER",
             message,
-            request.getDescription(false).replace("uri=", ""),
+            path(request),
             HttpStatus.BAD_REQUEST.value()
         );
         
@@ -94,12 +160,12 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public ResponseEntity<ErrorResponse> handleHttpMessageNotReadable(HttpMessageNotReadableException ex, WebRequest request) {
-        logger.warn("HTTP message not readable: {}", ex.getMessage());
+        sampler.warn(logger, "MALFORMED_REQUEST", "HTTP message not readable: {}", ex.getMessage());
         
         ErrorResponse errorResponse = new ErrorResponse(
             "MALFORMED_REQUEST",
             "Request body is malformed or missing required fields",
-            request.getDescription(false).replace("uri=", ""),
+            path(request),
             HttpStatus.BAD_REQUEST.value()
         );
         
@@ -113,7 +179,7 @@ public class GlobalExceptionHandler {
         ErrorResponse errorResponse = new ErrorResponse(
             "DATA_ACCESS_ERROR",
             "An error occurred while accessing data",
-            request.getDescription(false).replace("uri=", ""),
+            path(request),
             HttpStatus.INTERNAL_SERVER_ERROR.value()
         );
         
@@ -122,12 +188,12 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorResponse> handleIllegalArgument(IllegalArgumentException ex, WebRequest request) {
-        logger.warn("Illegal argument: {}", ex.getMessage());
+        sampler.warn(logger, "INVALID_ARGUMENT", "Illegal argument: {}", ex.getMessage());
         
         ErrorResponse errorResponse = new ErrorResponse(
             "INVALID_ARGUMENT",
             ex.getMessage(),
-            request.getDescription(false).replace("uri=", ""),
+            path(request),
             HttpStatus.BAD_REQUEST.value()
         );
         
@@ -141,10 +207,19 @@ public class GlobalExceptionHandler {
         ErrorResponse errorResponse = new ErrorResponse(
             "INTERNAL_SERVER_ERROR",
             "An unexpected error occurred",
-            request.getDescription(false).replace("uri=", ""),
+            path(request),
             HttpStatus.INTERNAL_SERVER_ERROR.value()
         );
         
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
     }
-} 
\ No newline at end of file
+
+    // The request URI is what getDescription(false) reports after "uri="
+    private static String path(WebRequest request) {
+        if (request instanceof ServletWebRequest servletRequest) {
+            return servletRequest.getRequest().getRequestURI();
+        }
+        String description = request.getDescription(false);
+        return description.startsWith("uri=") ? description.substring(4) : description;
+    }
+}
@@ -0,0 +1,168 @@
+package com.marketplace.infrastructure.exporter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.marketplace.application.ProductService;
+import com.marketplace.domain.AdditionalDetails;
+import com.marketplace.domain.Product;
+import com.marketplace.domain.SellerInformation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes the catalog to a stream as NDJSON or CSV, one product at a time.
+ *
+ * Products come from {@link ProductService#exportProducts}, so the export reads one consistent
+ * snapshot and neither the catalog nor the output is ever held in memory as a whole.
+ */
+@Component
+public class ProductExporter {
+    private static final List<String> CSV_COLUMNS = List.of("id", "title", "description", "price", "paymentMethods",
+        "images", "sellerId", "sellerName", "reputationLevel", "ratings", "reviews", "availableStock", "version");
+    // Separates the values of list columns inside one CSV field
+    private static final String LIST_SEPARATOR = "|";
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv;charset=UTF-8", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static Format of(String name) {
+            for (Format format : values()) {
+                if (format.extension.equals(name == null ? null : name.trim().toLowerCase(Locale.ROOT))) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + name + " (expected ndjson or csv)");
+        }
+    }
+
+    private final ProductService productService;
+    private final ObjectWriter productWriter;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public ProductExporter(ProductService productService, ObjectMapper objectMapper) {
+        this.productService = productService;
+        this.objectMapper = objectMapper;
+        // Flushing after every product would turn each one into its own response chunk
+        this.productWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Writes the whole catalog to {@code out} and flushes it; {@code out} is left open.
+     *
+     * @throws IOException if writing to {@code out} fails
+     */
+    public void export(Format format, OutputStream out) throws IOException {
+        try {
+            if (format == Format.NDJSON) {
+                writeNdjson(out);
+            } else {
+                writeCsv(out);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeNdjson(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        productService.exportProducts(product -> {
+            try {
+                productWriter.writeValue(generator, product);
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generator.close();
+    }
+
+    private void writeCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writeCsvRow(writer, CSV_COLUMNS.toArray(new String[0]));
+        productService.exportProducts(product -> {
+            try {
+                writeCsvRow(writer, csvValues(product));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private static String[] csvValues(Product product) {
+        SellerInformation seller = product.getSellerInformation();
+        AdditionalDetails details = product.getAdditionalDetails();
+        return new String[] {
+            product.getId(),
+            product.getTitle(),
+            product.getDescription(),
+            product.getPrice(),
+            join(product.getPaymentMethods()),
+            join(product.getImages()),
+            seller == null ? null : seller.getId(),
+            seller == null ? null : seller.getName(),
+            seller == null || seller.getReputation() == null ? null : seller.getReputation().getLevel(),
+            details == null ? null : details.getRatings(),
+            details == null ? null : details.getReviews(),
+            details == null ? null : details.getAvailableStock(),
+            product.getVersion() == null ? null : product.getVersion().toString()
+        };
+    }
+
+    private static String join(List<String> values) {
+        return values == null ? null : String.join(LIST_SEPARATOR, values);
+    }
+
+    // RFC 4180: fields holding a separator, quote or line break are quoted, quotes doubled.
+    private static void writeCsvRow(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String value = values[i];
+            if (value == null) {
+                continue;
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write("\r\n");
+    }
+}
@@ -0,0 +1,256 @@
+package com.marketplace.infrastructure.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.application.ProductService;
+import com.marketplace.domain.Product;
+import com.marketplace.domain.exceptions.DataAccessException;
+import com.marketplace.domain.exceptions.ImportInProgressException;
+import com.marketplace.infrastructure.dto.ImportReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Imports products from an NDJSON stream, one product per line.
+ *
+ * The stream is read in chunks and parsed line by line; valid products are written in batches
+ * through {@link ProductService#importProducts}, so the import itself only buffers one batch
+ * and one line no matter how large the stream is. The json and offheap stores still hold the
+ * whole catalog, and keep the batches in memory until {@link ProductService#finishImport}
+ * writes their data file once at the end. The next chunk is only read once the previous batch
+ * is stored, which lets TCP flow control slow the client down to the repository's pace.
+ * Invalid lines are counted and reported without stopping the import.
+ * One import runs at a time; its progress can be read while it runs.
+ */
+@Component
+public class NdjsonProductImporter {
+    private static final Logger logger = LoggerFactory.getLogger(NdjsonProductImporter.class);
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxLineBytes;
+    private final int maxErrors;
+    private final ReentrantLock running = new ReentrantLock();
+    private volatile Progress latest;
+
+    @Autowired
+    public NdjsonProductImporter(ProductService productService, ObjectMapper objectMapper,
+                                 @Value("${app.import.batch-size:500}") int batchSize,
+                                 @Value("${app.import.max-line-bytes:1048576}") int maxLineBytes,
+                                 @Value("${app.import.max-errors:100}") int maxErrors) {
+        if (batchSize < 1 || maxLineBytes < 1 || maxErrors < 0) {
+            throw new IllegalArgumentException("Import batch size and line limit must be positive");
+        }
+        this.productService = productService;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxLineBytes = maxLineBytes;
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Reads the stream to its end and returns the final report.
+     *
+     * @throws ImportInProgressException if another import is running
+     * @throws DataAccessException if the stream cannot be read; batches stored before the failure are kept
+     */
+    public ImportReport importProducts(InputStream body) {
+        if (!running.tryLock()) {
+            throw new ImportInProgressException();
+        }
+        Progress progress = new Progress();
+        latest = progress;
+        try {
+            try {
+                read(body, progress);
+            } finally {
+                // Batches stored before a failure are kept, so they are written as well
+                productService.finishImport();
+            }
+            progress.finish(ImportReport.Status.COMPLETED);
+        } catch (IOException e) {
+            progress.finish(ImportReport.Status.FAILED);
+            throw new DataAccessException("Failed to read the import stream after line " + progress.linesRead, e);
+        } catch (RuntimeException e) {
+            progress.finish(ImportReport.Status.FAILED);
+            throw e;
+        } finally {
+            running.unlock();
+            logger.info("Product import {}: {} lines, {} imported, {} failed", progress.status,
+                progress.linesRead, progress.imported, progress.failed);
+        }
+        return progress.report();
+    }
+
+    /**
+     * Returns the progress of the running import, or the report of the last one.
+     */
+    public Optional<ImportReport> latest() {
+        Progress progress = latest;
+        return progress == null ? Optional.empty() : Optional.of(progress.report());
+    }
+
+    private void read(InputStream body, Progress progress) throws IOException {
+        byte[] chunk = new byte[CHUNK_SIZE];
+        LineBuffer line = new LineBuffer();
+        List<Product> batch = new ArrayList<>(batchSize);
+        int read;
+        while ((read = body.read(chunk)) != -1) {
+            int start = 0;
+            for (int i = 0; i < read; i++) {
+                if (chunk[i] == '\n') {
+                    line.append(chunk, start, i - start);
+                    batch = accept(line, batch, progress);
+                    start = i + 1;
+                }
+            }
+            line.append(chunk, start, read - start);
+        }
+        if (line.length > 0 || line.overflow) {
+            batch = accept(line, batch, progress);
+        }
+        flush(batch, progress);
+    }
+
+    // Parses one complete line into the batch and writes the batch once it is full.
+    private List<Product> accept(LineBuffer line, List<Product> batch, Progress progress) {
+        long lineNumber = ++progress.linesRead;
+        try {
+            if (line.overflow) {
+                progress.reject(lineNumber, "Line exceeds " + maxLineBytes + " bytes");
+                return batch;
+            }
+            int length = line.trimmedLength();
+            if (length == 0) {
+                return batch;
+            }
+            Product product = parse(line.bytes, length, lineNumber, progress);
+            if (product == null) {
+                return batch;
+            }
+            batch.add(product);
+            if (batch.size() < batchSize) {
+                return batch;
+            }
+            flush(batch, progress);
+            return new ArrayList<>(batchSize);
+        } finally {
+            line.reset();
+        }
+    }
+
+    private Product parse(byte[] bytes, int length, long lineNumber, Progress progress) {
+        Product product;
+        try {
+            product = objectMapper.readValue(bytes, 0, length, Product.class);
+        } catch (JsonProcessingException e) {
+            progress.reject(lineNumber, "Malformed product: " + e.getOriginalMessage());
+            return null;
+        } catch (IOException e) {
+            progress.reject(lineNumber, "Malformed product: " + e.getMessage());
+            return null;
+        }
+        if (product == null) {
+            progress.reject(lineNumber, "Line is not a product");
+            return null;
+        }
+        if (product.getId() == null || product.getId().trim().isEmpty()) {
+            progress.reject(lineNumber, "Product ID cannot be null or empty");
+            return null;
+        }
+        return product;
+    }
+
+    private void flush(List<Product> batch, Progress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        productService.importProducts(batch);
+        progress.imported += batch.size();
+        progress.batches++;
+        logger.debug("Product import stored batch {} ({} products so far)", progress.batches, progress.imported);
+    }
+
+    // Bytes of the current line, growing up to the line limit; longer lines are only flagged.
+    private final class LineBuffer {
+        private byte[] bytes = new byte[Math.min(maxLineBytes, 8 * 1024)];
+        private int length;
+        private boolean overflow;
+
+        void append(byte[] source, int offset, int count) {
+            if (overflow || count == 0) {
+                return;
+            }
+            if (length + count > maxLineBytes) {
+                overflow = true;
+                return;
+            }
+            if (length + count > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.min(maxLineBytes, Math.max(bytes.length * 2, length + count)));
+            }
+            System.arraycopy(source, offset, bytes, length, count);
+            length += count;
+        }
+
+        int trimmedLength() {
+            int end = length;
+            while (end > 0 && (bytes[end - 1] == '\r' || bytes[end - 1] == ' ' || bytes[end - 1] == '\t')) {
+                end--;
+            }
+            return end;
+        }
+
+        void reset() {
+            length = 0;
+            overflow = false;
+        }
+    }
+
+    // Written by the importing thread only; read concurrently for progress reports.
+    private final class Progress {
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final List<ImportReport.LineError> errors = new ArrayList<>();
+        private volatile ImportReport.Status status = ImportReport.Status.RUNNING;
+        private volatile LocalDateTime finishedAt;
+        private volatile long linesRead;
+        private volatile long imported;
+        private volatile long failed;
+        private volatile int batches;
+
+        void reject(long lineNumber, String message) {
+            failed++;
+            synchronized (errors) {
+                if (errors.size() < maxErrors) {
+                    errors.add(new ImportReport.LineError(lineNumber, message));
+                }
+            }
+        }
+
+        void finish(ImportReport.Status finalStatus) {
+            finishedAt = LocalDateTime.now();
+            status = finalStatus;
+        }
+
+        ImportReport report() {
+            List<ImportReport.LineError> errorsSoFar;
+            synchronized (errors) {
+                errorsSoFar = List.copyOf(errors);
+            }
+            return new ImportReport(status, linesRead, imported, failed, batches, startedAt, finishedAt, errorsSoFar);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.marketplace.infrastructure.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Change sequence of an in-memory catalog, for delta sync.
+ *
+ * Every write takes the next sequence number; the log keeps, per product written since it was
+ * created, the sequence of its latest write and whether that write deleted it. Sequences are
+ * seeded from the clock (milliseconds times 1000), so they keep growing across restarts
+ * without being persisted. Products loaded at startup carry no sequence, so positions older
+ * than the log cannot be served as a delta; neither can positions whose tombstones were
+ * evicted once more than the retention limit had piled up. All methods are thread-safe.
+ */
+public class ProductChangeLog {
+    public static final int DEFAULT_TOMBSTONE_RETENTION = 100_000;
+
+    private final int tombstoneRetention;
+    private final LongSupplier clockMillis;
+    private final TreeMap<Long, Entry> bySequence = new TreeMap<>();
+    private final Map<String, Long> sequenceById = new HashMap<>();
+    private final TreeMap<Long, String> tombstones = new TreeMap<>();
+    private long horizon;
+    private long lastSequence;
+
+    private record Entry(String productId, boolean deleted) {}
+
+    /**
+     * @param upserted ids of products created or updated, in sequence order
+     * @param deleted ids of products deleted, in sequence order
+     * @param sequence the position to continue from
+     */
+    public record Delta(List<String> upserted, List<String> deleted, long sequence, boolean hasMore) {}
+
+    public ProductChangeLog() {
+        this(DEFAULT_TOMBSTONE_RETENTION, System::currentTimeMillis);
+    }
+
+    public ProductChangeLog(int tombstoneRetention, LongSupplier clockMillis) {
+        this.tombstoneRetention = tombstoneRetention;
+        this.clockMillis = clockMillis;
+        this.lastSequence = clockMillis.getAsLong() * 1000;
+        this.horizon = lastSequence;
+    }
+
+    public synchronized long recordUpsert(String productId) {
+        return record(productId, false);
+    }
+
+    public synchronized long recordDelete(String productId) {
+        return record(productId, true);
+    }
+
+    public synchronized long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Returns up to {@code limit} changes after {@code since} in sequence order, or null when
+     * {@code since} is older than the log or newer than its last change.
+     */
+    public synchronized Delta since(long since, int limit) {
+        if (since < horizon || since > lastSequence) {
+            return null;
+        }
+        List<String> upserted = new ArrayList<>();
+        List<String> deleted = new ArrayList<>();
+        long sequence = since;
+        int count = 0;
+        for (Map.Entry<Long, Entry> change : bySequence.tailMap(since, false).entrySet()) {
+            if (count == limit) {
+                return new Delta(upserted, deleted, sequence, true);
+            }
+            (change.getValue().deleted() ? deleted : upserted).add(change.getValue().productId());
+            sequence = change.getKey();
+            count++;
+        }
+        return new Delta(upserted, deleted, lastSequence, false);
+    }
+
+    private long record(String productId, boolean deleted) {
+        lastSequence = Math.max(lastSequence + 1, clockMillis.getAsLong() * 1000);
+        Long previous = sequenceById.put(productId, lastSequence);
+        if (previous != null) {
+            bySequence.remove(previous);
+            tombstones.remove(previous);
+        }
+        bySequence.put(lastSequence, new Entry(productId, deleted));
+        if (deleted) {
+            tombstones.put(lastSequence, productId);
+            if (tombstones.size() > tombstoneRetention) {
+                // Clients behind the evicted tombstone would miss the deletion, so they fall back to a full sync
+                Map.Entry<Long, String> evicted = tombstones.pollFirstEntry();
+                bySequence.remove(evicted.getKey());
+                sequenceById.remove(evicted.getValue());
+                horizon = Math.max(horizon, evicted.getKey());
+            }
+        }
+        return lastSequence;
+    }
+}
@@ -0,0 +1,93 @@
+package com.marketplace.infrastructure.index;
+
+import com.marketplace.domain.Product;
+import com.marketplace.domain.SellerReferences;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Secondary index from seller id to the ids of that seller's products, in insertion order.
+ *
+ * Repositories update it on every write, so a seller's page is read without scanning the
+ * catalog. Moving a product to another seller appends it to the new seller's list; updates
+ * that keep the seller leave its position unchanged. All methods are thread-safe.
+ */
+public class SellerProductIndex {
+    private final Map<String, LinkedHashSet<String>> productsBySeller = new HashMap<>();
+    private final Map<String, String> sellerByProduct = new HashMap<>();
+
+    public record Slice(List<String> productIds, int total) {}
+
+    public synchronized void put(Product product) {
+        put(product.getId(), product);
+    }
+
+    /**
+     * Indexes the product under {@code productId}, for stores that key products by the id they were written with.
+     */
+    public synchronized void put(String productId, Product product) {
+        if (productId == null) {
+            return;
+        }
+        String sellerId = SellerReferences.idOf(product.getSellerInformation());
+        String previous = sellerByProduct.get(productId);
+        if (previous != null && previous.equals(sellerId)) {
+            return;
+        }
+        remove(productId);
+        if (sellerId != null) {
+            sellerByProduct.put(productId, sellerId);
+            productsBySeller.computeIfAbsent(sellerId, key -> new LinkedHashSet<>()).add(productId);
+        }
+    }
+
+    public synchronized void putAll(Collection<Product> products) {
+        for (Product product : products) {
+            put(product);
+        }
+    }
+
+    public synchronized void remove(String productId) {
+        String sellerId = sellerByProduct.remove(productId);
+        if (sellerId == null) {
+            return;
+        }
+        LinkedHashSet<String> productIds = productsBySeller.get(sellerId);
+        productIds.remove(productId);
+        if (productIds.isEmpty()) {
+            productsBySeller.remove(sellerId);
+        }
+    }
+
+    public synchronized void clear() {
+        productsBySeller.clear();
+        sellerByProduct.clear();
+    }
+
+    public synchronized Slice slice(String sellerId, int offset, int limit) {
+        LinkedHashSet<String> productIds = productsBySeller.get(sellerId);
+        if (productIds == null || offset >= productIds.size()) {
+            return new Slice(Collections.emptyList(), productIds == null ? 0 : productIds.size());
+        }
+        List<String> page = new ArrayList<>(Math.min(limit, productIds.size() - offset));
+        Iterator<String> iterator = productIds.iterator();
+        for (int skipped = 0; skipped < offset; skipped++) {
+            iterator.next();
+        }
+        while (iterator.hasNext() && page.size() < limit) {
+            page.add(iterator.next());
+        }
+        return new Slice(page, productIds.size());
+    }
+
+    public synchronized int sellerCount() {
+        return productsBySeller.size();
+    }
+}
@@ -0,0 +1,56 @@
+package com.marketplace.infrastructure.interning;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Unmodifiable list of strings stored as (prefix code, suffix) pairs.
+ *
+ * Catalog image URLs share a handful of prefixes such as {@code https://http2.mlstatic.com/};
+ * each prefix is kept once in a shared {@link StringDictionary} and every element only holds
+ * its suffix, the file name, which is nearly always unique. Elements are rebuilt on access.
+ */
+public class PrefixCompressedStringList extends AbstractList<String> implements RandomAccess {
+    private final StringDictionary prefixes;
+    private final int[] prefixCodes;
+    private final String[] suffixes;
+
+    private PrefixCompressedStringList(StringDictionary prefixes, int[] prefixCodes, String[] suffixes) {
+        this.prefixes = prefixes;
+        this.prefixCodes = prefixCodes;
+        this.suffixes = suffixes;
+    }
+
+    /**
+     * Splits each value after its last '/' and canonicalizes the prefix. Null elements are kept.
+     */
+    public static PrefixCompressedStringList of(List<String> values, StringDictionary prefixes) {
+        int[] prefixCodes = new int[values.size()];
+        String[] fileNames = new String[values.size()];
+        for (int i = 0; i < prefixCodes.length; i++) {
+            String value = values.get(i);
+            if (value == null) {
+                prefixCodes[i] = -1;
+                continue;
+            }
+            int split = value.lastIndexOf('/') + 1;
+            prefixCodes[i] = prefixes.code(value.substring(0, split));
+            fileNames[i] = value.substring(split);
+        }
+        return new PrefixCompressedStringList(prefixes, prefixCodes, fileNames);
+    }
+
+    @Override
+    public String get(int index) {
+        if (prefixCodes[index] < 0) {
+            return null;
+        }
+        return prefixes.value(prefixCodes[index]).concat(suffixes[index]);
+    }
+
+    @Override
+    public int size() {
+        return prefixCodes.length;
+    }
+}
@@ -0,0 +1,68 @@
+package com.marketplace.infrastructure.interning;
+
+import com.marketplace.domain.Metrics;
+import com.marketplace.domain.Product;
+import com.marketplace.domain.Reputation;
+import com.marketplace.domain.SellerInformation;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Dictionary-encodes the values that repeat across a catalog, in place.
+ *
+ * Only values drawn from a small set are dictionary-encoded: payment methods, seller ids and
+ * names, reputation levels and descriptions, service and delivery labels, and image URL prefixes.
+ * Identical payment method lists are shared. Counts such as stock, ratings, reviews and sales,
+ * image file names and free text such as ids, titles, descriptions and prices are left alone,
+ * as nearly every product has its own and the dictionary would only grow with them.
+ */
+public class ProductInterner {
+    private final StringDictionary values = new StringDictionary();
+    private final StringDictionary urlPrefixes = new StringDictionary();
+    private final ConcurrentMap<List<String>, List<String>> paymentMethodLists = new ConcurrentHashMap<>();
+
+    public Product intern(Product product) {
+        if (product == null) {
+            return null;
+        }
+        if (product.getImages() != null && !(product.getImages() instanceof PrefixCompressedStringList)) {
+            product.setImages(PrefixCompressedStringList.of(product.getImages(), urlPrefixes));
+        }
+        if (product.getPaymentMethods() != null) {
+            List<String> canonical = values.canonicalList(product.getPaymentMethods());
+            product.setPaymentMethods(paymentMethodLists.computeIfAbsent(canonical, key -> key));
+        }
+        intern(product.getSellerInformation());
+        return product;
+    }
+
+    public void internAll(List<Product> products) {
+        for (Product product : products) {
+            intern(product);
+        }
+    }
+
+    public int distinctValues() {
+        return values.size() + urlPrefixes.size();
+    }
+
+    private void intern(SellerInformation seller) {
+        if (seller == null) {
+            return;
+        }
+        seller.setId(values.canonical(seller.getId()));
+        seller.setName(values.canonical(seller.getName()));
+        Reputation reputation = seller.getReputation();
+        if (reputation != null) {
+            reputation.setLevel(values.canonical(reputation.getLevel()));
+            reputation.setDescription(values.canonical(reputation.getDescription()));
+        }
+        Metrics metrics = seller.getMetrics();
+        if (metrics != null) {
+            metrics.setService(values.canonical(metrics.getService()));
+            metrics.setDelivery(values.canonical(metrics.getDelivery()));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.marketplace.infrastructure.interning;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Maps equal strings to one canonical instance and gives each distinct value an int code.
+ *
+ * Unlike {@link String#intern()} the dictionary is owned by its user, so dropping the
+ * dictionary releases every value it holds. Entries are never removed individually.
+ */
+public class StringDictionary {
+    private final ConcurrentMap<String, Integer> codes = new ConcurrentHashMap<>();
+    // Values indexed by code; replaced by a larger copy when full, so readers never need the lock
+    private volatile String[] values = new String[16];
+    private int size;
+
+    public String canonical(String value) {
+        if (value == null) {
+            return null;
+        }
+        return value(code(value));
+    }
+
+    public int code(String value) {
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        synchronized (this) {
+            code = codes.get(value);
+            if (code == null) {
+                String[] table = values;
+                if (size == table.length) {
+                    table = Arrays.copyOf(table, table.length * 2);
+                }
+                code = size;
+                table[code] = value;
+                values = table;
+                size++;
+                codes.put(value, code);
+            }
+            return code;
+        }
+    }
+
+    public String value(int code) {
+        return values[code];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns an unmodifiable list whose elements are all canonical instances.
+     */
+    public List<String> canonicalList(List<String> list) {
+        if (list == null) {
+            return null;
+        }
+        String[] canonical = new String[list.size()];
+        for (int i = 0; i < canonical.length; i++) {
+            canonical[i] = canonical(list.get(i));
+        }
+        return Collections.unmodifiableList(Arrays.asList(canonical));
+    }
+}
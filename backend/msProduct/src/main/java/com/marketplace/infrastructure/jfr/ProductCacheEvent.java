@@ -0,0 +1,51 @@
+package com.marketplace.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A lookup in an in-memory copy of stored data. Hits are instant events; a miss spans the load
+ * that replaced the copy.
+ */
+@Name("com.marketplace.ProductCache")
+@Label("Product Cache Lookup")
+@Category({"Marketplace", "Product Store"})
+@Description("A hit or miss of the in-memory catalog snapshot")
+@StackTrace(false)
+public class ProductCacheEvent extends Event {
+    @Label("Cache")
+    String cache;
+
+    @Label("Key")
+    String key;
+
+    @Label("Hit")
+    boolean hit;
+
+    public static void hit(String cache, String key) {
+        ProductCacheEvent event = new ProductCacheEvent();
+        if (event.shouldCommit()) {
+            event.cache = cache;
+            event.key = key;
+            event.hit = true;
+            event.commit();
+        }
+    }
+
+    /**
+     * Ends the event begun before the load and commits it as a miss.
+     */
+    public void commitMiss(String cache, String key) {
+        end();
+        if (shouldCommit()) {
+            this.cache = cache;
+            this.key = key;
+            this.hit = false;
+            commit();
+        }
+    }
+}
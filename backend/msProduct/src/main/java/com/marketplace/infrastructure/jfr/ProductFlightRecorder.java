@@ -0,0 +1,146 @@
+package com.marketplace.infrastructure.jfr;
+
+import com.marketplace.infrastructure.dto.RecordingStatus;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Starts a Flight Recorder recording on demand and dumps it while it runs. One recording runs
+ * at a time; it uses the JDK settings named by {@code app.jfr.settings} with the product store
+ * events enabled, and keeps the last {@code app.jfr.max-age-seconds} of data on disk, up to
+ * {@code app.jfr.max-size-mb}. A finished recording can still be dumped until the next one starts.
+ *
+ * The JDK settings also record the environment variables, system properties and JVM arguments
+ * of the process, which hold credentials such as the datasource password, and the command lines
+ * of the other processes on the host. Those events are disabled on top of the named settings,
+ * so a dump can be handed around without them.
+ */
+@Component
+public class ProductFlightRecorder {
+    private static final Logger logger = LoggerFactory.getLogger(ProductFlightRecorder.class);
+    private static final List<String> EXCLUDED_EVENTS = List.of("jdk.InitialEnvironmentVariable",
+        "jdk.InitialSystemProperty", "jdk.InitialSecurityProperty", "jdk.JVMInformation", "jdk.SystemProcess");
+
+    private final String settings;
+    private final Configuration configuration;
+    private final Duration maxAge;
+    private final long maxSizeBytes;
+    private Recording recording;
+
+    /**
+     * @param settings JDK recording settings, {@code default} (about 1% overhead) or {@code profile} (about 2%)
+     */
+    @Autowired
+    public ProductFlightRecorder(@Value("${app.jfr.settings:profile}") String settings,
+                                 @Value("${app.jfr.max-age-seconds:900}") long maxAgeSeconds,
+                                 @Value("${app.jfr.max-size-mb:250}") long maxSizeMegabytes) {
+        if (maxAgeSeconds < 1 || maxSizeMegabytes < 1) {
+            throw new IllegalArgumentException("Recording max age and max size must be positive");
+        }
+        try {
+            this.configuration = Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown recording settings: " + settings, e);
+        }
+        this.settings = settings;
+        this.maxAge = Duration.ofSeconds(maxAgeSeconds);
+        this.maxSizeBytes = maxSizeMegabytes * 1024 * 1024;
+    }
+
+    /**
+     * Starts a recording that stops by itself after {@code duration}, or runs until stopped when
+     * it is null. Returns false when a recording is already running.
+     */
+    public synchronized boolean start(Duration duration) {
+        if (recording != null && isRunning(recording)) {
+            return false;
+        }
+        closeRecording();
+        Recording started = new Recording(configuration);
+        started.setName("msProduct");
+        started.enable(ProductStoreEvent.class);
+        started.enable(ProductCacheEvent.class);
+        for (String event : EXCLUDED_EVENTS) {
+            started.disable(event);
+        }
+        started.setToDisk(true);
+        started.setMaxAge(maxAge);
+        started.setMaxSize(maxSizeBytes);
+        if (duration != null) {
+            started.setDuration(duration);
+        }
+        started.start();
+        recording = started;
+        logger.info("Started Flight Recorder recording {} with {} settings{}", started.getId(), settings,
+            duration == null ? "" : " for " + duration.toSeconds() + " s");
+        return true;
+    }
+
+    /**
+     * Writes what the recording holds so far to a new temporary file and returns it, or null when
+     * there is no recording. The recording keeps running; the caller deletes the file.
+     */
+    public synchronized Path dump() throws IOException {
+        if (recording == null) {
+            return null;
+        }
+        Path file = Files.createTempFile("msProduct-", ".jfr");
+        try {
+            recording.dump(file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    /**
+     * Stops and discards the recording. Returns false when there was none.
+     */
+    public synchronized boolean stop() {
+        if (recording == null) {
+            return false;
+        }
+        closeRecording();
+        return true;
+    }
+
+    public synchronized RecordingStatus status() {
+        if (recording == null) {
+            return null;
+        }
+        return new RecordingStatus(recording.getId(), recording.getState().name(), settings, recording.getStartTime(),
+            recording.getDuration(), recording.getMaxAge(), recording.getSize());
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        closeRecording();
+    }
+
+    private static boolean isRunning(Recording recording) {
+        return recording.getState() == RecordingState.NEW || recording.getState() == RecordingState.DELAYED
+            || recording.getState() == RecordingState.RUNNING;
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
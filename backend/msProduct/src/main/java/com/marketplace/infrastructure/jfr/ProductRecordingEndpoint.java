@@ -0,0 +1,87 @@
+package com.marketplace.infrastructure.jfr;
+
+import com.marketplace.infrastructure.dto.RecordingStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+/**
+ * Flight Recorder recordings of this instance as the {@code recording} actuator endpoint, served
+ * at {@code /actuator/recording} once {@code management.endpoints.web.exposure.include} lists it.
+ * A recording holds stack traces and timings of the whole JVM, so it is only exposed where the
+ * management endpoints are not reachable by API clients.
+ */
+@Component
+@Endpoint(id = "recording")
+public class ProductRecordingEndpoint {
+    private static final String DUMP = "dump";
+
+    private final ProductFlightRecorder recorder;
+
+    @Autowired
+    public ProductRecordingEndpoint(ProductFlightRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Starts a recording, for {@code durationSeconds} or until it is stopped. Answers 409 Conflict
+     * with the running recording when there already is one.
+     */
+    @WriteOperation
+    public WebEndpointResponse<RecordingStatus> startRecording(@Nullable Long durationSeconds) {
+        if (durationSeconds != null && durationSeconds < 1) {
+            throw new InvalidEndpointRequestException("Recording duration must be positive", "durationSeconds < 1");
+        }
+        boolean started = recorder.start(durationSeconds == null ? null : Duration.ofSeconds(durationSeconds));
+        return new WebEndpointResponse<>(recorder.status(), started ? HttpStatus.CREATED.value() : HttpStatus.CONFLICT.value());
+    }
+
+    /**
+     * Returns the recording started last, or no content when there is none.
+     */
+    @ReadOperation
+    public WebEndpointResponse<RecordingStatus> recordingStatus() {
+        RecordingStatus status = recorder.status();
+        return status == null ? new WebEndpointResponse<>(WebEndpointResponse.STATUS_NO_CONTENT) : new WebEndpointResponse<>(status);
+    }
+
+    /**
+     * Streams what the recording holds so far from {@code /actuator/recording/dump} as a
+     * {@code .jfr} file for JDK Mission Control or the {@code jfr} tool, without stopping it.
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> dumpRecording(@Selector String part) throws IOException {
+        if (!DUMP.equals(part)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        Path dump = recorder.dump();
+        if (dump == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NO_CONTENT);
+        }
+        // The file is deleted once the response has been written and the stream closed
+        InputStream content = Files.newInputStream(dump, StandardOpenOption.DELETE_ON_CLOSE);
+        return new WebEndpointResponse<>(new InputStreamResource(content));
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<Void> stopRecording() {
+        return new WebEndpointResponse<>(recorder.stop() ? WebEndpointResponse.STATUS_NO_CONTENT : WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+}
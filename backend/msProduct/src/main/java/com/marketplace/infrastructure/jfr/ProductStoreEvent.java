@@ -0,0 +1,56 @@
+package com.marketplace.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One product store operation, or one read or write of its file, in a Flight Recorder recording.
+ * The event spans the whole call, so GC pauses and file I/O recorded at the same time can be
+ * matched to the operation they stalled.
+ */
+@Name("com.marketplace.ProductStore")
+@Label("Product Store Operation")
+@Category({"Marketplace", "Product Store"})
+@Description("A product repository call, or a read or write of the catalog file")
+@StackTrace(false)
+public class ProductStoreEvent extends Event {
+    @Label("Store")
+    String store;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Product Id")
+    String productId;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Catalog Size")
+    @Description("Products in the store once the operation is done")
+    int catalogSize;
+
+    /**
+     * Ends the event and commits it when the recording asks for it.
+     *
+     * @param productId the product operated on, null for operations on many products
+     * @param bytes     bytes read from or written to the file, 0 for operations in memory
+     */
+    public void commit(String store, String operation, String productId, long bytes, int catalogSize) {
+        end();
+        if (shouldCommit()) {
+            this.store = store;
+            this.operation = operation;
+            this.productId = productId;
+            this.bytes = bytes;
+            this.catalogSize = catalogSize;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.marketplace.infrastructure.offheap;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only byte records in direct (off-heap) memory.
+ *
+ * Records are packed into fixed-size slabs allocated with {@link ByteBuffer#allocateDirect},
+ * so their contents never count against the Java heap or get scanned by the garbage collector.
+ * A record is addressed by a single {@code long}: slab index in the high 32 bits, offset in
+ * the low 32 bits. Overwritten and deleted records are only accounted as dead bytes; callers
+ * reclaim them by copying the live records into a fresh store and dropping this one.
+ *
+ * Not thread-safe: callers serialize writes and must not read while a write is in progress.
+ */
+public class OffHeapRecordStore {
+    private final int slabSize;
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private ByteBuffer current;
+    private long liveBytes;
+    private long deadBytes;
+
+    public OffHeapRecordStore(int slabSize) {
+        if (slabSize <= 0) {
+            throw new IllegalArgumentException("Slab size must be positive");
+        }
+        this.slabSize = slabSize;
+    }
+
+    /**
+     * Copies the record into off-heap memory and returns its address.
+     */
+    public long append(byte[] record) {
+        if (current == null || current.remaining() < record.length) {
+            // Records larger than a slab get a dedicated slab of their own size
+            current = ByteBuffer.allocateDirect(Math.max(slabSize, record.length));
+            slabs.add(current);
+        }
+        int offset = current.position();
+        current.put(record);
+        liveBytes += record.length;
+        return ((long) (slabs.size() - 1) << 32) | offset;
+    }
+
+    /**
+     * Returns a read-only view of a record. The view stays valid even after this store is replaced.
+     */
+    public ByteBuffer read(long address, int length) {
+        ByteBuffer slab = slabs.get((int) (address >>> 32));
+        return slab.slice((int) address, length).asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns a reader over the records appended so far. Records are never overwritten, so the
+     * reader can be used without holding the caller's lock while writes continue.
+     */
+    public RecordReader reader() {
+        List<ByteBuffer> appended = new ArrayList<>(slabs.size());
+        for (ByteBuffer slab : slabs) {
+            appended.add(slab.duplicate());
+        }
+        return (address, length) -> appended.get((int) (address >>> 32)).slice((int) address, length).asReadOnlyBuffer();
+    }
+
+    @FunctionalInterface
+    public interface RecordReader {
+        ByteBuffer read(long address, int length);
+    }
+
+    /**
+     * Marks a record as no longer referenced.
+     */
+    public void release(int length) {
+        liveBytes -= length;
+        deadBytes += length;
+    }
+
+    public long liveBytes() {
+        return liveBytes;
+    }
+
+    public long deadBytes() {
+        return deadBytes;
+    }
+
+    public long capacityBytes() {
+        long capacity = 0;
+        for (ByteBuffer slab : slabs) {
+            capacity += slab.capacity();
+        }
+        return capacity;
+    }
+}
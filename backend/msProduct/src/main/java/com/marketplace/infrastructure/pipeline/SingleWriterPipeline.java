@@ -0,0 +1,271 @@
+package com.marketplace.infrastructure.pipeline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Applies mutations of a store on one writer thread, in submission order, with group commit.
+ *
+ * Callers claim a slot of a preallocated ring buffer with one atomic increment and publish their
+ * mutation into it; there is no lock between callers. The writer takes every published mutation
+ * (up to {@code maxBatch}), applies them one after another to a batch obtained from the
+ * {@link Journal}, commits the batch once and only then completes the callers' futures. A
+ * mutation that throws fails alone; a failed commit fails every mutation of its batch. Callers
+ * wait for a free slot while the ring is full, so the ring size bounds the queued writes.
+ *
+ * @param <B> the batch mutations are applied to, only ever touched by the writer thread
+ */
+public final class SingleWriterPipeline<B> implements AutoCloseable {
+    private static final long FULL_RING_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final Journal<B> journal;
+    private final String name;
+    private final int maxBatch;
+    private final Slot[] slots;
+    private final int mask;
+    // Last sequence claimed by a caller and last sequence taken off the ring by the writer
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private volatile long consumed = -1;
+    private volatile boolean writerParked;
+    private volatile boolean closed;
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong committed = new AtomicLong();
+    private volatile Thread writer;
+
+    /**
+     * Starts and commits the batches of a pipeline; called on the writer thread only.
+     */
+    public interface Journal<B> {
+        B begin();
+
+        /**
+         * Makes the batch durable. An exception fails every mutation applied to it, so the
+         * journal must leave the store as it was before {@link #begin()}.
+         */
+        void commit(B batch);
+    }
+
+    @FunctionalInterface
+    public interface Mutation<B, R> {
+        R apply(B batch);
+    }
+
+    private static final class Slot {
+        volatile long published = -1;
+        Pending<?, ?> pending;
+    }
+
+    private static final class Pending<B, R> {
+        final Mutation<B, R> mutation;
+        final CompletableFuture<R> future = new CompletableFuture<>();
+        R result;
+        RuntimeException failure;
+
+        Pending(Mutation<B, R> mutation) {
+            this.mutation = mutation;
+        }
+
+        void apply(B batch) {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                result = mutation.apply(batch);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+
+        void complete(RuntimeException commitFailure) {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else if (commitFailure != null) {
+                future.completeExceptionally(commitFailure);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+
+    /**
+     * @param ringSize slots of the ring buffer, rounded up to a power of two
+     * @param maxBatch most mutations committed together
+     */
+    public SingleWriterPipeline(String name, Journal<B> journal, int ringSize, int maxBatch) {
+        if (ringSize < 1 || maxBatch < 1) {
+            throw new IllegalArgumentException("Ring size and batch size must be positive");
+        }
+        int capacity = Integer.highestOneBit(Math.max(1, ringSize - 1)) << 1;
+        this.name = name;
+        this.journal = journal;
+        this.maxBatch = maxBatch;
+        this.slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Applies the mutation and waits until its batch is committed. Exceptions thrown by the
+     * mutation or the commit are rethrown as they are.
+     */
+    public <R> R execute(Mutation<B, R> mutation) {
+        try {
+            return submit(mutation).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public <R> CompletableFuture<R> submit(Mutation<B, R> mutation) {
+        Thread running = writer != null ? writer : startWriter();
+        Pending<B, R> pending = new Pending<>(mutation);
+        long sequence = claimed.incrementAndGet();
+        if (closed) {
+            // The writer may still be waiting for this sequence, so it is published already failed
+            pending.future.completeExceptionally(closedException());
+        }
+        // The slot is free once the writer has taken the mutation published a full ring earlier
+        while (sequence - slots.length > consumed) {
+            if (!running.isAlive()) {
+                pending.future.completeExceptionally(closedException());
+                return pending.future;
+            }
+            LockSupport.parkNanos(FULL_RING_PARK_NANOS);
+        }
+        Slot slot = slots[(int) sequence & mask];
+        slot.pending = pending;
+        slot.published = sequence;
+        if (writerParked) {
+            LockSupport.unpark(running);
+        }
+        return pending.future;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    public long batches() {
+        return batches.get();
+    }
+
+    public long committed() {
+        return committed.get();
+    }
+
+    /**
+     * Mutations submitted but not yet taken off the ring by the writer, so not counting the
+     * batch being committed. Read without locking, so it may be off by the writes in flight.
+     */
+    public long queued() {
+        return Math.max(0, claimed.get() - consumed);
+    }
+
+    /**
+     * Stops the writer once the mutations already submitted are committed.
+     */
+    @Override
+    public void close() {
+        Thread running;
+        synchronized (this) {
+            closed = true;
+            running = writer;
+        }
+        if (running == null) {
+            return;
+        }
+        LockSupport.unpark(running);
+        try {
+            running.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // The writer starts with the first mutation, so a store that is only read never starts one
+    private synchronized Thread startWriter() {
+        if (writer == null) {
+            if (closed) {
+                throw closedException();
+            }
+            writer = Thread.ofPlatform().name(name + "-writer").daemon().start(this::run);
+        }
+        return writer;
+    }
+
+    private IllegalStateException closedException() {
+        return new IllegalStateException("Write pipeline " + name + " is closed");
+    }
+
+    private void run() {
+        List<Pending<B, ?>> batch = new ArrayList<>(Math.min(maxBatch, slots.length));
+        while (true) {
+            takeBatch(batch);
+            if (batch.isEmpty()) {
+                if (closed && consumed == claimed.get()) {
+                    return;
+                }
+                awaitPublished();
+                continue;
+            }
+            commit(batch);
+            batch.clear();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void takeBatch(List<Pending<B, ?>> batch) {
+        long next = consumed + 1;
+        while (batch.size() < maxBatch) {
+            Slot slot = slots[(int) next & mask];
+            if (slot.published != next) {
+                break;
+            }
+            batch.add((Pending<B, ?>) slot.pending);
+            slot.pending = null;
+            next++;
+        }
+        // Frees the slots for callers waiting on a full ring while this batch is committed
+        consumed = next - 1;
+    }
+
+    private void awaitPublished() {
+        writerParked = true;
+        // Checked again after announcing the park, so a mutation published meanwhile is not missed
+        Slot slot = slots[(int) (consumed + 1) & mask];
+        if (slot.published != consumed + 1 && !(closed && consumed == claimed.get())) {
+            LockSupport.park(this);
+        }
+        writerParked = false;
+    }
+
+    private void commit(List<Pending<B, ?>> pendings) {
+        RuntimeException commitFailure = null;
+        try {
+            B batch = journal.begin();
+            for (Pending<B, ?> pending : pendings) {
+                pending.apply(batch);
+            }
+            journal.commit(batch);
+        } catch (RuntimeException e) {
+            commitFailure = e;
+        }
+        batches.incrementAndGet();
+        if (commitFailure == null) {
+            committed.addAndGet(pendings.stream().filter(pending -> pending.failure == null).count());
+        }
+        for (Pending<B, ?> pending : pendings) {
+            pending.complete(commitFailure);
+        }
+    }
+}
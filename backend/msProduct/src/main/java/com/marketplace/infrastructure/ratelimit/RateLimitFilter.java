@@ -0,0 +1,115 @@
+package com.marketplace.infrastructure.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.infrastructure.dto.ErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Rejects requests with 429 Too Many Requests once a client has used up its token bucket.
+ *
+ * Clients are identified by their API key header when it holds one of the configured keys, or
+ * else by their address, so made-up keys cannot buy a fresh budget. Reads (GET, HEAD)
+ * and writes draw from separate budgets, so a client polling the catalog cannot starve its own
+ * updates. CORS preflight requests are never limited.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    private final boolean enabled;
+    private final RateLimiter reads;
+    private final RateLimiter writes;
+    private final String apiKeyHeader;
+    private final Set<String> apiKeys;
+    private final boolean trustForwardedFor;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(@Value("${app.rate-limit.enabled:false}") boolean enabled,
+                           @Value("${app.rate-limit.read.capacity:200}") long readCapacity,
+                           @Value("${app.rate-limit.read.refill-per-second:100}") double readRefillPerSecond,
+                           @Value("${app.rate-limit.write.capacity:20}") long writeCapacity,
+                           @Value("${app.rate-limit.write.refill-per-second:5}") double writeRefillPerSecond,
+                           @Value("${app.rate-limit.idle-expiry-seconds:600}") long idleExpirySeconds,
+                           @Value("${app.rate-limit.max-clients:100000}") int maxClients,
+                           @Value("${app.rate-limit.api-key-header:X-API-Key}") String apiKeyHeader,
+                           @Value("${app.rate-limit.api-keys:}") String apiKeys,
+                           @Value("${app.rate-limit.trust-forwarded-for:false}") boolean trustForwardedFor,
+                           ObjectMapper objectMapper) {
+        this.enabled = enabled;
+        this.reads = new RateLimiter(readCapacity, readRefillPerSecond, idleExpirySeconds, maxClients, System::nanoTime);
+        this.writes = new RateLimiter(writeCapacity, writeRefillPerSecond, idleExpirySeconds, maxClients, System::nanoTime);
+        this.apiKeyHeader = apiKeyHeader;
+        this.apiKeys = Arrays.stream(apiKeys.split(","))
+            .map(String::trim)
+            .filter(key -> !key.isEmpty())
+            .collect(Collectors.toUnmodifiableSet());
+        this.trustForwardedFor = trustForwardedFor;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Health probes come from the platform, and a throttled probe would take the instance out of service
+        return !enabled || "OPTIONS".equals(request.getMethod()) || request.getRequestURI().startsWith("/actuator/health");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String method = request.getMethod();
+        boolean read = "GET".equals(method) || "HEAD".equals(method);
+        TokenBucket.Decision decision = (read ? reads : writes).tryAcquire(clientKey(request));
+        if (decision.allowed()) {
+            response.setHeader(REMAINING_HEADER, String.valueOf(decision.remaining()));
+            chain.doFilter(request, response);
+            return;
+        }
+        long retryAfterSeconds = Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(decision.retryAfterNanos() + 999_999_999L));
+        // Logged at debug, as a client over its budget can produce one of these per request
+        logger.debug("Rate limit exceeded for {} on {} {}", clientKey(request), method, request.getRequestURI());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+            "RATE_LIMITED",
+            "Too many " + (read ? "read" : "write") + " requests, retry after " + retryAfterSeconds + " s",
+            request.getRequestURI(),
+            HttpStatus.TOO_MANY_REQUESTS.value()
+        );
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setHeader(REMAINING_HEADER, "0");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        String apiKey = request.getHeader(apiKeyHeader);
+        if (apiKey != null && apiKeys.contains(apiKey)) {
+            return "key:" + apiKey;
+        }
+        if (trustForwardedFor) {
+            String forwardedFor = request.getHeader("X-Forwarded-For");
+            if (forwardedFor != null && !forwardedFor.isBlank()) {
+                return "ip:" + forwardedFor.split(",")[0].trim();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
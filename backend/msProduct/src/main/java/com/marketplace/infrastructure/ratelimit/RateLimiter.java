@@ -0,0 +1,79 @@
+package com.marketplace.infrastructure.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client token buckets in a concurrent map.
+ *
+ * Buckets idle for longer than the expiry are swept by whichever request first notices the
+ * sweep is due; the expiry is never shorter than a full refill, so an evicted bucket would have
+ * been full anyway and eviction does not change any client's budget.
+ *
+ * At most {@code maxClients} buckets are tracked. Once that many are, sweeps come every full refill
+ * instead of every expiry and also drop buckets that have refilled. New clients share one overflow
+ * bucket until a sweep makes room, so a flood of new client keys neither grows the map, nor adds
+ * to the budget, nor scans the map on every request.
+ */
+public class RateLimiter {
+    private final long capacity;
+    private final double refillPerSecond;
+    private final long idleNanos;
+    private final long refillNanos;
+    private final LongSupplier clock;
+    private final int maxClients;
+    private final TokenBucket overflow;
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep;
+
+    public RateLimiter(long capacity, double refillPerSecond, long idleExpirySeconds) {
+        this(capacity, refillPerSecond, idleExpirySeconds, System::nanoTime);
+    }
+
+    public RateLimiter(long capacity, double refillPerSecond, long idleExpirySeconds, LongSupplier clock) {
+        this(capacity, refillPerSecond, idleExpirySeconds, Integer.MAX_VALUE, clock);
+    }
+
+    public RateLimiter(long capacity, double refillPerSecond, long idleExpirySeconds, int maxClients, LongSupplier clock) {
+        if (maxClients < 1) {
+            throw new IllegalArgumentException("Rate limiter must track at least one client");
+        }
+        this.capacity = capacity;
+        this.refillPerSecond = refillPerSecond;
+        this.refillNanos = (long) Math.ceil(capacity / refillPerSecond * 1_000_000_000d);
+        this.idleNanos = Math.max(TimeUnit.SECONDS.toNanos(idleExpirySeconds), refillNanos);
+        this.clock = clock;
+        this.maxClients = maxClients;
+        this.overflow = new TokenBucket(capacity, refillPerSecond, clock.getAsLong());
+        this.lastSweep = new AtomicLong(clock.getAsLong());
+    }
+
+    public TokenBucket.Decision tryAcquire(String clientKey) {
+        long now = clock.getAsLong();
+        sweepIfDue(now);
+        TokenBucket bucket = buckets.get(clientKey);
+        if (bucket == null) {
+            bucket = buckets.size() >= maxClients
+                ? overflow
+                : buckets.computeIfAbsent(clientKey, key -> new TokenBucket(capacity, refillPerSecond, now));
+        }
+        return bucket.tryAcquire(now);
+    }
+
+    public int trackedClients() {
+        return buckets.size();
+    }
+
+    // Only the caller that wins the compare-and-set sweeps, so the map is scanned at most once per interval
+    private void sweepIfDue(long now) {
+        long last = lastSweep.get();
+        boolean crowded = buckets.size() >= maxClients;
+        if (now - last < (crowded ? refillNanos : idleNanos) || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        buckets.values().removeIf(bucket -> now - bucket.lastAccessNanos() > idleNanos || (crowded && bucket.isFull(now)));
+    }
+}
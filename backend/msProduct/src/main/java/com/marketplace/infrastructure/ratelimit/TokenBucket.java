@@ -0,0 +1,62 @@
+package com.marketplace.infrastructure.ratelimit;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free token bucket: up to {@code capacity} tokens, refilled continuously at a fixed rate.
+ *
+ * The token count and refill time are swapped together with a compare-and-set, so concurrent
+ * requests from one client never block each other.
+ */
+public final class TokenBucket {
+    private final double capacity;
+    private final double tokensPerNano;
+    private final AtomicReference<State> state;
+    private volatile long lastAccessNanos;
+
+    private record State(double tokens, long refilledAt) {}
+
+    /**
+     * Outcome of an acquisition; {@code retryAfterNanos} is how long until a token is available when refused.
+     */
+    public record Decision(boolean allowed, long remaining, long retryAfterNanos) {}
+
+    public TokenBucket(long capacity, double refillPerSecond, long nowNanos) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Token bucket needs a positive capacity and refill rate");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerSecond / 1_000_000_000d;
+        this.state = new AtomicReference<>(new State(capacity, nowNanos));
+        this.lastAccessNanos = nowNanos;
+    }
+
+    public Decision tryAcquire(long nowNanos) {
+        lastAccessNanos = nowNanos;
+        while (true) {
+            State current = state.get();
+            long elapsed = Math.max(0L, nowNanos - current.refilledAt());
+            double tokens = Math.min(capacity, current.tokens() + elapsed * tokensPerNano);
+            if (tokens < 1d) {
+                return new Decision(false, 0L, (long) Math.ceil((1d - tokens) / tokensPerNano));
+            }
+            State next = new State(tokens - 1d, Math.max(nowNanos, current.refilledAt()));
+            if (state.compareAndSet(current, next)) {
+                return new Decision(true, (long) next.tokens(), 0L);
+            }
+        }
+    }
+
+    /**
+     * Whether the bucket has refilled to capacity, so dropping it changes nothing for its client.
+     */
+    public boolean isFull(long nowNanos) {
+        State current = state.get();
+        long elapsed = Math.max(0L, nowNanos - current.refilledAt());
+        return current.tokens() + elapsed * tokensPerNano >= capacity;
+    }
+
+    public long lastAccessNanos() {
+        return lastAccessNanos;
+    }
+}
@@ -0,0 +1,68 @@
+package com.marketplace.infrastructure.replication;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.infrastructure.dto.ErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Sends writes that reach a follower to the leader with 307 Temporary Redirect, so clients
+ * behind a load balancer repeat them there with the same method and body. Only the leader
+ * writes, and followers see the write once they have replicated it. Registered on every
+ * instance and reads the role when it is created, as {@link ReplicationFollower} does, so it
+ * passes every request through on the leader.
+ */
+@Component
+public class FollowerWriteFilter extends OncePerRequestFilter {
+    private final boolean follower;
+    private final String leaderUrl;
+    private final String managementPath;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public FollowerWriteFilter(@Value("${app.replication.role:leader}") String role,
+                               @Value("${app.replication.leader-url:}") String leaderUrl,
+                               @Value("${management.endpoints.web.base-path:/actuator}") String managementPath,
+                               ObjectMapper objectMapper) {
+        this.follower = "follower".equals(role);
+        this.leaderUrl = leaderUrl.endsWith("/") ? leaderUrl.substring(0, leaderUrl.length() - 1) : leaderUrl;
+        this.managementPath = managementPath + "/";
+        this.objectMapper = objectMapper;
+    }
+
+    // Management endpoints act on this instance only, so their writes are not catalog writes
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !follower || "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method)
+            || request.getRequestURI().startsWith(managementPath);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String location = leaderUrl + request.getRequestURI()
+            + (request.getQueryString() == null ? "" : "?" + request.getQueryString());
+        ErrorResponse errorResponse = new ErrorResponse(
+            "READ_ONLY_REPLICA",
+            "This instance is a read-only follower, send writes to " + leaderUrl,
+            request.getRequestURI(),
+            HttpStatus.TEMPORARY_REDIRECT.value()
+        );
+        response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+        response.setHeader(HttpHeaders.LOCATION, location);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+}
@@ -0,0 +1,234 @@
+package com.marketplace.infrastructure.replication;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.application.ProductService;
+import com.marketplace.domain.Product;
+import com.marketplace.domain.exceptions.DataAccessException;
+import com.marketplace.infrastructure.dto.ReplicationStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps this instance's catalog a copy of the leader's when {@code app.replication.role=follower}.
+ *
+ * The follower polls the leader's ordered change log ({@code GET /product/changes}) from the
+ * last sequence it applied and applies each delta in one write, keeping the leader's versions.
+ * When the leader cannot serve a delta from that position (a new follower, or a leader that
+ * restarted or evicted the tombstones) the follower catches up from a snapshot instead: it
+ * streams the leader's NDJSON export, stores every product, deletes local products the leader
+ * no longer has and continues from the sequence the leader returned before the export. Changes
+ * made during the export are then applied a second time, which leaves the same catalog.
+ * Seller changes reach followers with the next write of one of the seller's products.
+ *
+ * The bean exists on every instance and reads the role when it is created, instead of being
+ * registered by a bean condition, because runs with Spring AOT fix bean conditions at build time.
+ * On the leader it does nothing.
+ */
+@Component
+public class ReplicationFollower {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicationFollower.class);
+    private static final int MAX_CHANGES = 1000;
+
+    private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    private final boolean follower;
+    private final String leaderUrl;
+    private final long pollIntervalMillis;
+    private final int batchSize;
+    private final HttpClient client;
+    private final ScheduledExecutorService poller;
+    // Leader change sequence applied last; 0 asks the leader for a full sync
+    private volatile long sequence;
+    private volatile Instant lastSyncAt;
+    private volatile String lastError;
+    private final AtomicLong appliedChanges = new AtomicLong();
+    private final AtomicLong fullSyncs = new AtomicLong();
+
+    /**
+     * @param role      {@code leader} or {@code follower}
+     * @param leaderUrl base URL of the leader instance, e.g. {@code http://localhost:8080}
+     * @param batchSize changes requested per delta and products stored per write during a full sync
+     */
+    @Autowired
+    public ReplicationFollower(ProductService productService, ObjectMapper objectMapper,
+                               @Value("${app.replication.role:leader}") String role,
+                               @Value("${app.replication.leader-url:}") String leaderUrl,
+                               @Value("${app.replication.poll-interval-ms:200}") long pollIntervalMillis,
+                               @Value("${app.replication.batch-size:500}") int batchSize) {
+        if (!"leader".equals(role) && !"follower".equals(role)) {
+            throw new IllegalArgumentException("app.replication.role must be leader or follower, was: " + role);
+        }
+        this.follower = "follower".equals(role);
+        if (follower && leaderUrl.isBlank()) {
+            throw new IllegalArgumentException("app.replication.leader-url must be set for a follower");
+        }
+        if (pollIntervalMillis < 1 || batchSize < 1 || batchSize > MAX_CHANGES) {
+            throw new IllegalArgumentException("Poll interval must be positive and batch size between 1 and " + MAX_CHANGES);
+        }
+        this.productService = productService;
+        this.objectMapper = objectMapper;
+        this.leaderUrl = leaderUrl.endsWith("/") ? leaderUrl.substring(0, leaderUrl.length() - 1) : leaderUrl;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.batchSize = batchSize;
+        this.client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        this.poller = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+            .name("product-replication").daemon().factory());
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!follower) {
+            return;
+        }
+        poller.scheduleWithFixedDelay(this::poll, 0, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isFollower() {
+        return follower;
+    }
+
+    public String leaderUrl() {
+        return leaderUrl;
+    }
+
+    public ReplicationStatus status() {
+        return new ReplicationStatus(leaderUrl, sequence, appliedChanges.get(), fullSyncs.get(), lastSyncAt, lastError);
+    }
+
+    /**
+     * Applies what the leader changed since the last poll, catching up from a snapshot if needed.
+     * Called on the poller thread; exposed for tests that want to sync without waiting.
+     */
+    public synchronized void sync() throws IOException, InterruptedException {
+        while (true) {
+            JsonNode changes = getJson("/product/changes?since=" + sequence + "&limit=" + batchSize);
+            long position = changes.path("sequence").asLong();
+            if (changes.path("fullSync").asBoolean()) {
+                // A leader without any change yet keeps asking for a full sync at the same position
+                if (fullSyncs.get() == 0 || position != sequence) {
+                    loadSnapshot(position);
+                }
+                return;
+            }
+            List<Product> upserts = new ArrayList<>();
+            for (JsonNode product : changes.path("upserts")) {
+                upserts.add(objectMapper.treeToValue(product, Product.class));
+            }
+            List<String> deleted = new ArrayList<>();
+            changes.path("deleted").forEach(id -> deleted.add(id.asText()));
+            if (!upserts.isEmpty() || !deleted.isEmpty()) {
+                productService.applyReplicatedChanges(upserts, deleted);
+                appliedChanges.addAndGet(upserts.size() + deleted.size());
+            }
+            sequence = position;
+            lastSyncAt = Instant.now();
+            lastError = null;
+            if (!changes.path("hasMore").asBoolean()) {
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        poller.shutdownNow();
+    }
+
+    private void poll() {
+        try {
+            sync();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Retried on the next poll from the same sequence, so nothing is skipped
+            if (!String.valueOf(e.getMessage()).equals(lastError)) {
+                logger.warn("Replication from {} failed: {}", leaderUrl, e.getMessage());
+            }
+            lastError = String.valueOf(e.getMessage());
+        }
+    }
+
+    // The leader took position before the export started, so the deltas after it cover every change the export may miss
+    private void loadSnapshot(long position) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Set<String> leaderIds = new HashSet<>();
+        try (InputStream body = get("/product/export?format=ndjson");
+             BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            List<Product> batch = new ArrayList<>(batchSize);
+            for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Product product = objectMapper.readValue(line, Product.class);
+                leaderIds.add(product.getId());
+                batch.add(product);
+                if (batch.size() == batchSize) {
+                    productService.applyReplicatedChanges(batch, List.of());
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                productService.applyReplicatedChanges(batch, List.of());
+            }
+        }
+        List<String> stale = new ArrayList<>();
+        productService.exportProducts(product -> {
+            if (!leaderIds.contains(product.getId())) {
+                stale.add(product.getId());
+            }
+        });
+        for (int from = 0; from < stale.size(); from += batchSize) {
+            productService.applyReplicatedChanges(List.of(), stale.subList(from, Math.min(stale.size(), from + batchSize)));
+        }
+        sequence = position;
+        lastSyncAt = Instant.now();
+        lastError = null;
+        fullSyncs.incrementAndGet();
+        logger.info("Loaded {} products from leader {} and removed {} in {} ms", leaderIds.size(), leaderUrl,
+            stale.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private JsonNode getJson(String path) throws IOException, InterruptedException {
+        try (InputStream body = get(path)) {
+            return objectMapper.readTree(body);
+        }
+    }
+
+    private InputStream get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(leaderUrl + path))
+            .timeout(Duration.ofSeconds(30))
+            .build();
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() != 200) {
+            response.body().close();
+            throw new DataAccessException("Leader answered " + response.statusCode() + " to GET " + path);
+        }
+        return response.body();
+    }
+}
@@ -0,0 +1,79 @@
+-- Normalized catalog schema for JdbcProductRepository (app.repository.type=sql)
+
+CREATE TABLE IF NOT EXISTS seller (
+    id                      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name                    VARCHAR(255),
+    products_count          VARCHAR(64),
+    reputation_level        VARCHAR(255),
+    reputation_description  VARCHAR(1024),
+    metrics_sales           VARCHAR(255),
+    metrics_service         VARCHAR(255),
+    metrics_delivery        VARCHAR(255),
+    purchase_price          BIGINT
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_seller_name ON seller (name);
+
+-- seller id exposed by the API; added after the first release, hence the ALTER
+ALTER TABLE seller ADD COLUMN IF NOT EXISTS external_id VARCHAR(255);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_seller_external_id ON seller (external_id);
+
+CREATE SEQUENCE IF NOT EXISTS product_position_seq;
+
+CREATE TABLE IF NOT EXISTS product (
+    id               VARCHAR(255) PRIMARY KEY,
+    title            VARCHAR(1024),
+    description      CLOB,
+    price            VARCHAR(64),
+    price_amount     DECIMAL(19, 2),
+    seller_id        BIGINT REFERENCES seller (id),
+    ratings          VARCHAR(32),
+    reviews          VARCHAR(32),
+    available_stock  VARCHAR(32),
+    version          BIGINT NOT NULL,
+    -- insertion order, so findAll returns products in the order they were created
+    position         BIGINT DEFAULT NEXT VALUE FOR product_position_seq NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_product_price ON product (price_amount);
+CREATE INDEX IF NOT EXISTS idx_product_seller ON product (seller_id);
+CREATE INDEX IF NOT EXISTS idx_product_position ON product (position);
+
+CREATE TABLE IF NOT EXISTS product_image (
+    product_id  VARCHAR(255) NOT NULL REFERENCES product (id) ON DELETE CASCADE,
+    position    INT NOT NULL,
+    url         VARCHAR(2048),
+    PRIMARY KEY (product_id, position)
+);
+
+CREATE TABLE IF NOT EXISTS product_payment_method (
+    product_id  VARCHAR(255) NOT NULL REFERENCES product (id) ON DELETE CASCADE,
+    position    INT NOT NULL,
+    method      VARCHAR(1024),
+    PRIMARY KEY (product_id, position)
+);
+
+CREATE TABLE IF NOT EXISTS catalog_migration (
+    name        VARCHAR(255) PRIMARY KEY,
+    applied_at  TIMESTAMP NOT NULL
+);
+
+-- Delta sync: sequence of each product's latest write, tombstones of deleted products and the
+-- last sequence handed out. Products imported before delta sync keep sequence 0.
+ALTER TABLE product ADD COLUMN IF NOT EXISTS change_seq BIGINT DEFAULT 0 NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_product_change_seq ON product (change_seq);
+
+CREATE TABLE IF NOT EXISTS product_tombstone (
+    id          VARCHAR(255) PRIMARY KEY,
+    change_seq  BIGINT NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_product_tombstone_seq ON product_tombstone (change_seq);
+
+CREATE TABLE IF NOT EXISTS product_change_state (
+    id             INT PRIMARY KEY,
+    last_sequence  BIGINT NOT NULL
+);
+
+INSERT INTO product_change_state (id, last_sequence)
+SELECT 1, 0 WHERE NOT EXISTS (SELECT 1 FROM product_change_state);
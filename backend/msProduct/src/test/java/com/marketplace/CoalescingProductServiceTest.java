@@ -0,0 +1,132 @@
+package com.marketplace;
+
+import com.marketplace.application.CoalescingProductService;
+import com.marketplace.application.ProductServiceImpl;
+import com.marketplace.domain.Product;
+import com.marketplace.domain.ProductFilter;
+import com.marketplace.domain.exceptions.ProductNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CoalescingProductServiceTest {
+    private ProductServiceImpl delegate;
+    private CoalescingProductService service;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(ProductServiceImpl.class);
+        service = new CoalescingProductService(delegate);
+        product = new Product();
+        product.setId("1");
+    }
+
+    @Test
+    void testConcurrentCatalogReadsShareOneRead() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Product> catalog = Collections.singletonList(product);
+        when(delegate.getAllProducts()).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return catalog;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<List<Product>> first = executor.submit(service::getAllProducts);
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<List<Product>> second = executor.submit(service::getAllProducts);
+            Future<List<Product>> third = executor.submit(service::getAllProducts);
+            waitForCoalescedReads(2);
+            release.countDown();
+
+            assertSame(catalog, first.get(5, TimeUnit.SECONDS));
+            assertSame(catalog, second.get(5, TimeUnit.SECONDS));
+            assertSame(catalog, third.get(5, TimeUnit.SECONDS));
+            verify(delegate, times(1)).getAllProducts();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testReadAfterWriteDoesNotJoinOlderFlight() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Product stale = new Product();
+        stale.setId("1");
+        when(delegate.getProductById("1"))
+            .thenAnswer(invocation -> {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return stale;
+            })
+            .thenReturn(product);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Product> inFlight = executor.submit(() -> service.getProductById("1"));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            service.updateProduct("1", product, null);
+
+            assertSame(product, service.getProductById("1"));
+            release.countDown();
+            assertSame(stale, inFlight.get(5, TimeUnit.SECONDS));
+            assertEquals(0, service.coalescedReads());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFailedWriteStillStartsNewGeneration() {
+        when(delegate.createProduct(product)).thenThrow(new IllegalArgumentException("invalid"));
+        assertThrows(IllegalArgumentException.class, () -> service.createProduct(product));
+        when(delegate.getProductById("1")).thenThrow(new ProductNotFoundException("1"));
+        assertThrows(ProductNotFoundException.class, () -> service.getProductById("1"));
+    }
+
+    @Test
+    void testOtherCallsDelegate() {
+        ProductFilter filter = new ProductFilter();
+        service.searchProducts(filter, 0, 10);
+        service.getProductsBySeller("s1", 0, 10);
+        service.patchProduct("1", product, 2L);
+        service.deleteProduct("1");
+        service.deleteProduct("1", 3L);
+        service.updateProduct("1", product);
+        service.importProducts(List.of(product));
+        java.util.function.Consumer<Product> consumer = exported -> { };
+        service.exportProducts(consumer);
+        service.getChanges(4L, 50);
+        service.applyReplicatedChanges(List.of(product), List.of("2"));
+        verify(delegate).getChanges(4L, 50);
+        verify(delegate).applyReplicatedChanges(List.of(product), List.of("2"));
+        verify(delegate).exportProducts(consumer);
+        verify(delegate).importProducts(List.of(product));
+        verify(delegate).searchProducts(filter, 0, 10);
+        verify(delegate).getProductsBySeller("s1", 0, 10);
+        verify(delegate).patchProduct("1", product, 2L);
+        verify(delegate).deleteProduct("1");
+        verify(delegate).deleteProduct("1", 3L);
+        verify(delegate).updateProduct("1", product);
+    }
+
+    private void waitForCoalescedReads(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (service.coalescedReads() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, service.coalescedReads());
+    }
+}
@@ -0,0 +1,73 @@
+package com.marketplace;
+
+import com.marketplace.infrastructure.exception.ErrorLogSampler;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ErrorLogSamplerTest {
+
+    private static Logger logger() {
+        Logger logger = mock(Logger.class);
+        when(logger.isWarnEnabled()).thenReturn(true);
+        return logger;
+    }
+
+    @Test
+    void testOnlyTheFirstSamplesOfAnIntervalAreLogged() {
+        Logger logger = logger();
+        ErrorLogSampler sampler = new ErrorLogSampler(3, 60_000);
+
+        for (int i = 0; i < 100; i++) {
+            sampler.warn(logger, "PRODUCT_NOT_FOUND", "Product not found: {}", "id-" + i);
+        }
+
+        verify(logger, times(3)).warn(eq("Product not found: {}"), any(Object.class));
+        assertEquals(97, sampler.skipped("PRODUCT_NOT_FOUND"));
+    }
+
+    @Test
+    void testKindsAreSampledSeparately() {
+        Logger logger = logger();
+        ErrorLogSampler sampler = new ErrorLogSampler(1, 60_000);
+
+        sampler.warn(logger, "PRODUCT_NOT_FOUND", "Product not found: {}", "a");
+        sampler.warn(logger, "PRODUCT_NOT_FOUND", "Product not found: {}", "b");
+        sampler.warn(logger, "VERSION_CONFLICT", "Version conflict: {}", "c");
+
+        verify(logger).warn("Product not found: {}", "a");
+        verify(logger).warn("Version conflict: {}", "c");
+        assertEquals(1, sampler.skipped("PRODUCT_NOT_FOUND"));
+        assertEquals(0, sampler.skipped("VERSION_CONFLICT"));
+    }
+
+    @Test
+    void testNextIntervalReportsWhatWasSkipped() throws InterruptedException {
+        Logger logger = logger();
+        ErrorLogSampler sampler = new ErrorLogSampler(1, 10);
+        sampler.warn(logger, "PRODUCT_NOT_FOUND", "Product not found: {}", "a");
+        sampler.warn(logger, "PRODUCT_NOT_FOUND", "Product not found: {}", "b");
+        sampler.warn(logger, "PRODUCT_NOT_FOUND", "Product not found: {}", "c");
+        Thread.sleep(20);
+
+        sampler.warn(logger, "PRODUCT_NOT_FOUND", "Product not found: {}", "d");
+
+        verify(logger).warn(eq("{}: {} more skipped in the last {} ms"), eq("PRODUCT_NOT_FOUND"), eq(2L), anyLong());
+        verify(logger).warn("Product not found: {}", "d");
+        assertEquals(0, sampler.skipped("PRODUCT_NOT_FOUND"));
+    }
+
+    @Test
+    void testNothingIsCountedWhenWarningsAreOff() {
+        Logger logger = mock(Logger.class);
+        ErrorLogSampler sampler = new ErrorLogSampler(0, 60_000);
+
+        sampler.warn(logger, "PRODUCT_NOT_FOUND", "Product not found: {}", "a");
+
+        verify(logger, never()).warn(anyString(), any(Object.class));
+        assertEquals(0, sampler.skipped("PRODUCT_NOT_FOUND"));
+    }
+}
@@ -0,0 +1,96 @@
+package com.marketplace;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.infrastructure.dto.ErrorResponse;
+import com.marketplace.infrastructure.exception.ErrorResponseConverter;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ErrorResponseConverterTest {
+    // Configured like the application's mapper
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ErrorResponseConverter converter = new ErrorResponseConverter(objectMapper);
+
+    private String write(ErrorResponse response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        converter.write(response, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private String jackson(ErrorResponse response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        objectMapper.writeValue(out, response);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testBodyMatchesJackson() throws IOException {
+        ErrorResponse response = new ErrorResponse("PRODUCT_NOT_FOUND", "Product with ID '1' not found", "/product/1", 404);
+
+        assertEquals(jackson(response), write(response));
+    }
+
+    @Test
+    void testMessageAndPathAreEscapedLikeJackson() throws IOException {
+        ErrorResponse response = new ErrorResponse("INVALID_ARGUMENT", "Bad \"id\" \\ \n\t\u0001 \u00f1 \u5546\u54c1 \ud83d\ude00",
+            "/product/a\"b", 400);
+
+        assertEquals(jackson(response), write(response));
+    }
+
+    @Test
+    void testTimestampFollowsTheResponse() throws IOException {
+        ErrorResponse first = new ErrorResponse("PRODUCT_NOT_FOUND", "a", "/product/a", 404);
+        first.setTimestamp(LocalDateTime.of(2024, 5, 1, 10, 0, 0, 1_000));
+        ErrorResponse sameSecond = new ErrorResponse("PRODUCT_NOT_FOUND", "b", "/product/b", 404);
+        sameSecond.setTimestamp(LocalDateTime.of(2024, 5, 1, 10, 0, 0, 900_000_000));
+        ErrorResponse later = new ErrorResponse("PRODUCT_NOT_FOUND", "c", "/product/c", 404);
+        later.setTimestamp(LocalDateTime.of(2024, 5, 1, 10, 0, 1));
+
+        assertTrue(write(first).contains("\"timestamp\":\"2024-05-01 10:00:00\""));
+        assertTrue(write(sameSecond).contains("\"timestamp\":\"2024-05-01 10:00:00\""));
+        assertTrue(write(later).contains("\"timestamp\":\"2024-05-01 10:00:01\""));
+    }
+
+    @Test
+    void testSameCodeWithAnotherStatusIsNotMixedUp() throws IOException {
+        ErrorResponse badRequest = new ErrorResponse("VALIDATION_ERROR", "a", "/product", 400);
+        ErrorResponse unprocessable = new ErrorResponse("VALIDATION_ERROR", "a", "/product", 422);
+
+        assertEquals(jackson(badRequest), write(badRequest));
+        assertEquals(jackson(unprocessable), write(unprocessable));
+    }
+
+    @Test
+    void testIncompleteBodiesAndValidationErrorsFallBackToJackson() throws IOException {
+        ErrorResponse withoutPath = new ErrorResponse("RATE_LIMITED", "Slow down");
+        ErrorResponse withErrors = new ErrorResponse("VALIDATION_ERROR", "Request validation failed", "/product", 400);
+        withErrors.setValidationErrors(List.of(new ErrorResponse.ValidationError("title", "must not be blank", "")));
+
+        assertEquals(jackson(withoutPath), write(withoutPath));
+        assertEquals(jackson(withErrors), write(withErrors));
+    }
+
+    @Test
+    void testWritesJsonOnlyAndNeverReads() throws IOException {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        converter.write(new ErrorResponse("PRODUCT_NOT_FOUND", "a", "/product/a", 404), null, output);
+
+        assertEquals(MediaType.APPLICATION_JSON, output.getHeaders().getContentType());
+        assertTrue(converter.canWrite(ErrorResponse.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(ErrorResponse.class, MediaType.TEXT_PLAIN));
+        assertFalse(converter.canWrite(Object.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(ErrorResponse.class, MediaType.APPLICATION_JSON));
+    }
+}
@@ -1,8 +1,10 @@
 package com.marketplace;
 
 import com.marketplace.domain.exceptions.DataAccessException;
+import com.marketplace.domain.exceptions.ImportInProgressException;
 import com.marketplace.domain.exceptions.ProductNotFoundException;
 import com.marketplace.domain.exceptions.ValidationException;
+import com.marketplace.domain.exceptions.VersionConflictException;
 import com.marketplace.infrastructure.dto.ErrorResponse;
 import com.marketplace.infrastructure.exception.GlobalExceptionHandler;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,9 +16,11 @@ import org.springframework.core.MethodParameter;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.validation.BeanPropertyBindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
@@ -35,7 +39,7 @@ class GlobalExceptionHandlerTest {
 
     @BeforeEach
     void setUp() {
-        globalExceptionHandler = new GlobalExceptionHandler();
+        globalExceptionHandler = new GlobalExceptionHandler(10, 60000);
     }
 
     @Test
@@ -60,6 +64,40 @@ class GlobalExceptionHandlerTest {
         assertNotNull(errorResponse.getTimestamp());
     }
 
+    @Test
+    void testHandleVersionConflict() {
+        // Given
+        VersionConflictException exception = new VersionConflictException("1", 2L, 3L);
+        when(webRequest.getDescription(false)).thenReturn("uri=/product/1");
+        
+        // When
+        ResponseEntity<ErrorResponse> response = globalExceptionHandler.handleVersionConflict(exception, webRequest);
+        
+        // Then
+        assertNotNull(response);
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+        
+        ErrorResponse errorResponse = response.getBody();
+        assertNotNull(errorResponse);
+        assertEquals("VERSION_CONFLICT", errorResponse.getError());
+        assertEquals("Product with ID '1' is at version 3, expected version 2", errorResponse.getMessage());
+        assertEquals("/product/1", errorResponse.getPath());
+        assertEquals(412, errorResponse.getStatus());
+    }
+
+    @Test
+    void testHandleImportInProgress() {
+        when(webRequest.getDescription(false)).thenReturn("uri=/product/import");
+
+        ResponseEntity<ErrorResponse> response = globalExceptionHandler.handleImportInProgress(
+            new ImportInProgressException(), webRequest);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("IMPORT_IN_PROGRESS", response.getBody().getError());
+        assertEquals("/product/import", response.getBody().getPath());
+        assertEquals(409, response.getBody().getStatus());
+    }
+
     @Test
     void testHandleValidationException() {
         // Given
@@ -296,4 +334,25 @@ class GlobalExceptionHandlerTest {
         assertTrue(GlobalExceptionHandler.class.getMethod("handleGeneral", Exception.class, WebRequest.class)
                 .isAnnotationPresent(org.springframework.web.bind.annotation.ExceptionHandler.class));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testPathIsTakenFromTheServletRequest() {
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/product/missing");
+
+        ResponseEntity<ErrorResponse> response = globalExceptionHandler.handleProductNotFound(
+            new ProductNotFoundException("missing"), new ServletWebRequest(servletRequest));
+
+        assertEquals("/product/missing", response.getBody().getPath());
+    }
+
+    @Test
+    void testExpectedExceptionsRecordNoStackTrace() {
+        assertEquals(0, new ProductNotFoundException("1").getStackTrace().length);
+        assertEquals(0, new VersionConflictException("1", 1L, 2L).getStackTrace().length);
+        assertEquals(0, new ValidationException("Invalid").getStackTrace().length);
+        assertEquals(0, new ImportInProgressException().getStackTrace().length);
+        assertTrue(new DataAccessException("Broken").getStackTrace().length > 0);
+        assertEquals("Product with ID '1' not found", new ProductNotFoundException("1").getMessage());
+        assertEquals("Gone", new ProductNotFoundException("1", "Gone").getMessage());
+    }
+}
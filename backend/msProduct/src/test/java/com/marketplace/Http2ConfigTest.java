@@ -0,0 +1,74 @@
+package com.marketplace;
+
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.UpgradeProtocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "server.http2.enabled=true",
+    "app.http2.max-concurrent-streams=150",
+    "app.http2.max-concurrent-stream-execution=40",
+    "cors.allowed-origins=http://localhost:3000",
+    "cors.allowed-methods=GET",
+    "cors.allowed-headers=*",
+    "cors.allow-credentials=false",
+    "cors.max-age=3600"
+})
+class Http2ConfigTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ServletWebServerApplicationContext context;
+
+    private HttpResponse<Void> get(HttpClient.Version version) throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(version).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/product/import")).build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    @Test
+    void testCleartextClientsUpgradeToHttp2() throws Exception {
+        HttpResponse<Void> response = get(HttpClient.Version.HTTP_2);
+
+        assertEquals(HttpClient.Version.HTTP_2, response.version());
+        assertEquals(204, response.statusCode());
+    }
+
+    @Test
+    void testHttp11ClientsAreStillServed() throws Exception {
+        HttpResponse<Void> response = get(HttpClient.Version.HTTP_1_1);
+
+        assertEquals(HttpClient.Version.HTTP_1_1, response.version());
+        assertEquals(204, response.statusCode());
+    }
+
+    @Test
+    void testStreamLimitsAreApplied() {
+        Connector connector = ((TomcatWebServer) context.getWebServer()).getTomcat().getConnector();
+        Http2Protocol http2 = null;
+        for (UpgradeProtocol protocol : connector.findUpgradeProtocols()) {
+            if (protocol instanceof Http2Protocol candidate) {
+                http2 = candidate;
+            }
+        }
+
+        assertNotNull(http2);
+        assertEquals(150, http2.getMaxConcurrentStreams());
+        assertEquals(40, http2.getMaxConcurrentStreamExecution());
+    }
+}
@@ -0,0 +1,342 @@
+package com.marketplace;
+
+import com.marketplace.domain.AdditionalDetails;
+import com.marketplace.domain.Metrics;
+import com.marketplace.domain.Product;
+import com.marketplace.domain.ProductChanges;
+import com.marketplace.domain.ProductPage;
+import com.marketplace.domain.PurchaseOptions;
+import com.marketplace.domain.Reputation;
+import com.marketplace.domain.SellerInformation;
+import com.marketplace.domain.exceptions.ProductNotFoundException;
+import com.marketplace.domain.exceptions.ValidationException;
+import com.marketplace.domain.exceptions.VersionConflictException;
+import com.marketplace.infrastructure.JdbcProductRepository;
+import com.marketplace.infrastructure.JdbcSellerRepository;
+import org.junit.jupiter.api.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcProductRepositoryTest {
+    private static File tempFile;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private JdbcProductRepository repository;
+
+    @BeforeAll
+    static void setUpAll() throws IOException {
+        tempFile = File.createTempFile("products-jdbc-test", ".json");
+    }
+
+    @AfterAll
+    static void tearDownAll() {
+        if (tempFile.exists()) {
+            tempFile.delete();
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.write(tempFile.toPath(), "[]".getBytes());
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:catalog-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        repository = newRepository();
+    }
+
+    private JdbcProductRepository newRepository() {
+        JdbcProductRepository created = new JdbcProductRepository(jdbcTemplate, transactionTemplate,
+            new JdbcSellerRepository(jdbcTemplate, transactionTemplate), tempFile.getAbsolutePath());
+        created.initialize();
+        return created;
+    }
+
+    private static Product product(String id, String sellerName, String price) {
+        SellerInformation seller = new SellerInformation(sellerName, "100",
+            new Reputation("MercadoLíder", "Great"), new Metrics("1000", "Good", "On time"), new PurchaseOptions(10L));
+        return new Product(id, Arrays.asList("a.webp", "b.webp"), "Title " + id, "Description", price,
+            Arrays.asList("Card", "Cash"), seller, new AdditionalDetails("4.8", "769", "4"));
+    }
+
+    @Test
+    void testFindAllEmpty() {
+        assertTrue(repository.findAll().isEmpty());
+    }
+
+    @Test
+    void testSaveAndFindByIdRoundTripsTheWholeProduct() {
+        repository.save(product("1", "Seller", "1853861"));
+
+        Product found = repository.findById("1");
+        assertEquals("Title 1", found.getTitle());
+        assertEquals("1853861", found.getPrice());
+        assertEquals(List.of("a.webp", "b.webp"), found.getImages());
+        assertEquals(List.of("Card", "Cash"), found.getPaymentMethods());
+        assertEquals("Seller", found.getSellerInformation().getName());
+        assertEquals("MercadoLíder", found.getSellerInformation().getReputation().getLevel());
+        assertEquals("On time", found.getSellerInformation().getMetrics().getDelivery());
+        assertEquals(10L, found.getSellerInformation().getPurchaseOptions().getPrice());
+        assertEquals("4", found.getAdditionalDetails().getAvailableStock());
+        assertEquals(1L, found.getVersion());
+    }
+
+    @Test
+    void testSellersAreStoredOnce() {
+        repository.save(product("1", "Shared Seller", "10"));
+        repository.save(product("2", "Shared Seller", "20"));
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM seller", Integer.class));
+        assertEquals(List.of("1", "2"), repository.findAll().stream().map(Product::getId).toList());
+    }
+
+    @Test
+    void testPriceIsIndexedNumerically() {
+        repository.save(product("1", "Seller", "$ 1.500"));
+        assertEquals(0, new BigDecimal("1.500").compareTo(
+            jdbcTemplate.queryForObject("SELECT price_amount FROM product WHERE id = '1'", BigDecimal.class)));
+    }
+
+    @Test
+    void testFindByIdMissing() {
+        assertThrows(ProductNotFoundException.class, () -> repository.findById("missing"));
+    }
+
+    @Test
+    void testDuplicateIdIsRejected() {
+        repository.save(product("1", "Seller", "10"));
+        assertThrows(ValidationException.class, () -> repository.save(product("1", "Seller", "10")));
+    }
+
+    @Test
+    void testUpdateReplacesChildrenAndIncrementsVersion() {
+        repository.save(product("1", "Seller", "10"));
+        Product replacement = product("1", "Seller", "20");
+        replacement.setImages(List.of("c.webp"));
+
+        repository.update("1", replacement);
+
+        Product found = repository.findById("1");
+        assertEquals(List.of("c.webp"), found.getImages());
+        assertEquals("20", found.getPrice());
+        assertEquals(2L, found.getVersion());
+    }
+
+    @Test
+    void testConcurrentUpdatesWithoutVersionDoNotConflict() throws Exception {
+        repository.save(product("1", "Seller", "10"));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Product>> updates = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                String price = String.valueOf(100 + i);
+                updates.add(executor.submit(() -> repository.update("1", product("1", "Seller", price))));
+            }
+            for (Future<Product> update : updates) {
+                update.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(21L, repository.findById("1").getVersion());
+    }
+
+    @Test
+    void testUpdateRenamesTheProductWithItsChildren() {
+        repository.save(product("a", "Seller", "10"));
+        long position = repository.changesSince(0, 10).getSequence();
+
+        Product renamed = repository.update("a", product("b", "Seller", "20"));
+
+        assertEquals("b", renamed.getId());
+        assertEquals(2L, renamed.getVersion());
+        assertThrows(ProductNotFoundException.class, () -> repository.findById("a"));
+        Product found = repository.findById("b");
+        assertEquals(List.of("a.webp", "b.webp"), found.getImages());
+        assertEquals(List.of("Card", "Cash"), found.getPaymentMethods());
+        assertEquals(List.of("a"), repository.changesSince(position, 10).getDeleted());
+    }
+
+    @Test
+    void testRenameOntoStoredIdIsRejected() {
+        repository.save(product("a", "Seller", "10"));
+        repository.save(product("b", "Seller", "20"));
+
+        assertThrows(ValidationException.class, () -> repository.update("a", product("b", "Seller", "30")));
+        assertEquals("10", repository.findById("a").getPrice());
+        assertEquals(List.of("a.webp", "b.webp"), repository.findById("a").getImages());
+    }
+
+    @Test
+    void testUpdateMissingReturnsNull() {
+        assertNull(repository.update("missing", product("missing", "Seller", "10")));
+    }
+
+    @Test
+    void testCompareAndSet() {
+        repository.save(product("1", "Seller", "10"));
+
+        assertThrows(VersionConflictException.class, () -> repository.compareAndSet("1", 5L, product("1", "Seller", "30")));
+        assertEquals("10", repository.findById("1").getPrice());
+
+        Product stored = repository.compareAndSet("1", 1L, product("1", "Seller", "30"));
+        assertEquals(2L, stored.getVersion());
+        assertEquals("30", repository.findById("1").getPrice());
+        assertThrows(ProductNotFoundException.class, () -> repository.compareAndSet("missing", 1L, new Product()));
+    }
+
+    @Test
+    void testDeleteAndDeleteIfVersion() {
+        repository.save(product("1", "Seller", "10"));
+        repository.save(product("2", "Seller", "10"));
+
+        repository.delete("1");
+        assertThrows(ProductNotFoundException.class, () -> repository.findById("1"));
+        assertEquals(0, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM product_image WHERE product_id = '1'", Integer.class));
+
+        assertThrows(VersionConflictException.class, () -> repository.deleteIfVersion("2", 3L));
+        repository.deleteIfVersion("2", 1L);
+        assertTrue(repository.findAll().isEmpty());
+    }
+
+    @Test
+    void testCatalogIsImportedFromJsonOnlyOnce() throws IOException {
+        Files.write(tempFile.toPath(), "[{\"id\":\"10\",\"title\":\"Imported\",\"price\":\"5\"}]".getBytes());
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:catalog-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        JdbcProductRepository first = newRepository();
+        assertEquals("Imported", first.findById("10").getTitle());
+
+        first.delete("10");
+        JdbcProductRepository restarted = newRepository();
+        assertTrue(restarted.findAll().isEmpty());
+    }
+
+    @Test
+    void testFindBySellerId() {
+        for (String id : Arrays.asList("p1", "p2", "p3")) {
+            Product product = product(id, "Shop A", "$ 1");
+            product.getSellerInformation().setId("shop-a");
+            repository.save(product);
+        }
+        repository.save(product("other", "Shop B", "$ 1"));
+
+        ProductPage page = repository.findBySellerId("shop-a", 1, 2);
+        assertEquals(3, page.getTotalItems());
+        assertEquals(1, page.getItems().size());
+        assertEquals("p3", page.getItems().get(0).getId());
+        assertEquals(Arrays.asList("a.webp", "b.webp"), page.getItems().get(0).getImages());
+        assertEquals(Arrays.asList("Card", "Cash"), page.getItems().get(0).getPaymentMethods());
+    }
+
+    @Test
+    void testSaveAllAddsNewAndReplacesExistingProducts() {
+        repository.save(product("1", "Seller", "10"));
+        Product replaced = product("1", "Seller", "20");
+        replaced.setTitle("Replaced");
+        repository.saveAll(List.of(replaced, product("2", "Other Seller", "30")));
+
+        assertEquals(2, repository.findAll().size());
+        Product found = repository.findById("1");
+        assertEquals("Replaced", found.getTitle());
+        assertEquals("20", found.getPrice());
+        assertEquals(2L, found.getVersion());
+        assertEquals(1L, repository.findById("2").getVersion());
+        assertEquals(Arrays.asList("Card", "Cash"), found.getPaymentMethods());
+    }
+
+    @Test
+    void testStreamAllReturnsProductsInCatalogOrderWithChildren() {
+        repository.save(product("b", "Seller", "10"));
+        repository.save(product("a", "Other Seller", "20"));
+
+        List<Product> streamed = new java.util.ArrayList<>();
+        repository.streamAll(streamed::add);
+
+        assertEquals(List.of("b", "a"), streamed.stream().map(Product::getId).toList());
+        assertEquals(Arrays.asList("a.webp", "b.webp"), streamed.get(0).getImages());
+        assertEquals(Arrays.asList("Card", "Cash"), streamed.get(1).getPaymentMethods());
+        assertEquals("Other Seller", streamed.get(1).getSellerInformation().getName());
+    }
+
+    @Test
+    void testChangesSinceMergesWritesAndTombstonesInSequenceOrder() {
+        repository.save(product("1", "Seller", "10"));
+        repository.save(product("2", "Seller", "20"));
+        long position = repository.changesSince(0, 10).getSequence();
+        assertTrue(repository.changesSince(0, 10).isFullSync());
+
+        repository.delete("1");
+        repository.update("2", product("2", "Seller", "25"));
+        repository.save(product("3", "Other Seller", "30"));
+        repository.delete("missing");
+
+        ProductChanges page = repository.changesSince(position, 2);
+        assertFalse(page.isFullSync());
+        assertEquals(List.of("1"), page.getDeleted());
+        assertEquals(List.of("25"), page.getUpserts().stream().map(Product::getPrice).toList());
+        assertEquals(Arrays.asList("Card", "Cash"), page.getUpserts().get(0).getPaymentMethods());
+        assertTrue(page.isHasMore());
+
+        ProductChanges rest = repository.changesSince(page.getSequence(), 10);
+        assertEquals(List.of("3"), rest.getUpserts().stream().map(Product::getId).toList());
+        assertTrue(rest.getDeleted().isEmpty());
+        assertFalse(rest.isHasMore());
+        assertTrue(repository.changesSince(rest.getSequence() + 1, 10).isFullSync());
+    }
+
+    @Test
+    void testRecreatedProductLeavesNoTombstone() {
+        repository.save(product("1", "Seller", "10"));
+        long position = repository.changesSince(0, 10).getSequence();
+        repository.delete("1");
+        repository.save(product("1", "Seller", "11"));
+
+        ProductChanges changes = repository.changesSince(position, 10);
+        assertTrue(changes.getDeleted().isEmpty());
+        assertEquals(List.of("1"), changes.getUpserts().stream().map(Product::getId).toList());
+    }
+
+    @Test
+    void testReplicateKeepsVersionsAndDeletes() {
+        repository.save(product("1", "Seller", "10"));
+        repository.save(product("2", "Seller", "20"));
+        long position = repository.changesSince(0, 10).getSequence();
+        Product replaced = product("2", "Seller", "25");
+        replaced.setVersion(5L);
+        Product added = product("3", "Other Seller", "30");
+        added.setVersion(9L);
+
+        repository.replicate(List.of(replaced, added), List.of("1"));
+
+        assertEquals(5L, repository.findById("2").getVersion());
+        assertEquals("25", repository.findById("2").getPrice());
+        assertEquals(9L, repository.findById("3").getVersion());
+        assertThrows(ProductNotFoundException.class, () -> repository.findById("1"));
+        ProductChanges changes = repository.changesSince(position, 10);
+        assertEquals(List.of("1"), changes.getDeleted());
+        assertEquals(List.of("2", "3"), changes.getUpserts().stream().map(Product::getId).toList());
+    }
+}
@@ -0,0 +1,119 @@
+package com.marketplace;
+
+import com.marketplace.domain.AdditionalDetails;
+import com.marketplace.domain.Metrics;
+import com.marketplace.domain.Product;
+import com.marketplace.domain.PurchaseOptions;
+import com.marketplace.domain.Reputation;
+import com.marketplace.domain.SellerInformation;
+import com.marketplace.domain.exceptions.ValidationException;
+import com.marketplace.infrastructure.JdbcProductRepository;
+import com.marketplace.infrastructure.JdbcSellerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcSellerRepositoryTest {
+    private File tempFile;
+    private JdbcTemplate jdbcTemplate;
+    private JdbcSellerRepository sellerRepository;
+    private JdbcProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempFile = File.createTempFile("sellers-jdbc-test", ".json");
+        Files.write(tempFile.toPath(), "[]".getBytes());
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:sellers-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        sellerRepository = new JdbcSellerRepository(jdbcTemplate, transactionTemplate);
+        productRepository = new JdbcProductRepository(jdbcTemplate, transactionTemplate, sellerRepository,
+            tempFile.getAbsolutePath());
+        productRepository.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        tempFile.delete();
+    }
+
+    private static SellerInformation seller(String id, String name, String productsCount) {
+        SellerInformation seller = new SellerInformation(name, productsCount,
+            new Reputation("Gold", "Good"), new Metrics("100", "Good", "On time"), new PurchaseOptions(5L));
+        seller.setId(id);
+        return seller;
+    }
+
+    private static Product product(String id, SellerInformation seller) {
+        return new Product(id, Arrays.asList("a.webp"), "Title", "Description", "$ 10",
+            Arrays.asList("Cash"), seller, new AdditionalDetails("4", "1", "2"));
+    }
+
+    @Test
+    void testSaveAndFindById() {
+        sellerRepository.save(seller("s1", "Seller One", "10"));
+
+        SellerInformation found = sellerRepository.findById("s1").orElseThrow();
+        assertEquals("Seller One", found.getName());
+        assertEquals("Gold", found.getReputation().getLevel());
+        assertEquals(5L, found.getPurchaseOptions().getPrice());
+        assertTrue(sellerRepository.findById("missing").isEmpty());
+    }
+
+    @Test
+    void testSaveUpdatesSingleRowSeenByAllProducts() {
+        sellerRepository.save(seller("s1", "Seller One", "10"));
+        productRepository.save(product("p1", seller("s1", null, null)));
+        productRepository.save(product("p2", seller("s1", null, null)));
+
+        sellerRepository.save(seller("s1", "Seller One", "99"));
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM seller", Integer.class));
+        assertEquals("99", productRepository.findById("p1").getSellerInformation().getProductsCount());
+        assertEquals("s1", productRepository.findById("p2").getSellerInformation().getId());
+    }
+
+    @Test
+    void testReferenceDoesNotOverwriteSeller() {
+        sellerRepository.save(seller("s1", "Seller One", "10"));
+        productRepository.save(product("p1", seller("s1", null, null)));
+
+        assertEquals("Seller One", sellerRepository.findById("s1").orElseThrow().getName());
+    }
+
+    @Test
+    void testSaveAdoptsRowImportedWithoutId() {
+        productRepository.save(product("p1", seller(null, "Legacy Shop", "3")));
+        assertTrue(sellerRepository.findAll().isEmpty());
+
+        sellerRepository.saveAll(Arrays.asList(seller("legacy-shop", "Legacy Shop", "4")));
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM seller", Integer.class));
+        assertEquals("legacy-shop", productRepository.findById("p1").getSellerInformation().getId());
+        assertEquals(1, sellerRepository.findAll().size());
+    }
+
+    @Test
+    void testDuplicateNameIsValidationError() {
+        sellerRepository.save(seller("s1", "Same Name", "1"));
+        assertThrows(ValidationException.class, () -> sellerRepository.save(seller("s2", "Same Name", "1")));
+    }
+
+    @Test
+    void testSaveRequiresId() {
+        assertThrows(IllegalArgumentException.class, () -> sellerRepository.save(new SellerInformation()));
+    }
+}
@@ -2,13 +2,23 @@ package com.marketplace;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.marketplace.domain.Product;
+import com.marketplace.domain.ProductChanges;
+import com.marketplace.domain.ProductPage;
+import com.marketplace.domain.SellerInformation;
+import com.marketplace.domain.exceptions.DataAccessException;
 import com.marketplace.domain.exceptions.ProductNotFoundException;
+import com.marketplace.domain.exceptions.VersionConflictException;
 import com.marketplace.infrastructure.JsonProductRepository;
+import com.marketplace.infrastructure.dto.StoreHealth;
+import com.marketplace.infrastructure.dto.WriteStats;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import org.junit.jupiter.api.*;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -75,6 +85,109 @@ class JsonProductRepositoryTest {
         assertThrows(ProductNotFoundException.class, () -> repository.findById("1"));
     }
 
+    @Test
+    void testSaveAssignsInitialVersionAndUpdateIncrementsIt() {
+        Product product = new Product();
+        product.setId("1");
+        repository.save(product);
+        assertEquals(1L, repository.findById("1").getVersion());
+
+        Product replacement = new Product();
+        replacement.setId("1");
+        repository.update("1", replacement);
+        assertEquals(2L, repository.findById("1").getVersion());
+    }
+
+    @Test
+    void testCompareAndSetWithMatchingVersion() {
+        Product product = new Product();
+        product.setId("1");
+        repository.save(product);
+
+        Product replacement = new Product();
+        replacement.setId("1");
+        replacement.setTitle("CAS");
+        Product stored = repository.compareAndSet("1", 1L, replacement);
+
+        assertEquals(2L, stored.getVersion());
+        assertEquals("CAS", repository.findById("1").getTitle());
+    }
+
+    @Test
+    void testCompareAndSetWithStaleVersion() {
+        Product product = new Product();
+        product.setId("1");
+        product.setTitle("Original");
+        repository.save(product);
+
+        Product replacement = new Product();
+        replacement.setId("1");
+        replacement.setTitle("Stale");
+        VersionConflictException ex = assertThrows(VersionConflictException.class,
+            () -> repository.compareAndSet("1", 7L, replacement));
+
+        assertEquals(7L, ex.getExpectedVersion());
+        assertEquals(1L, ex.getActualVersion());
+        assertEquals("Original", repository.findById("1").getTitle());
+    }
+
+    @Test
+    void testCompareAndSetOnMissingProduct() {
+        assertThrows(ProductNotFoundException.class, () -> repository.compareAndSet("missing", 1L, new Product()));
+    }
+
+    @Test
+    void testDeleteIfVersion() {
+        Product product = new Product();
+        product.setId("1");
+        repository.save(product);
+
+        assertThrows(VersionConflictException.class, () -> repository.deleteIfVersion("1", 2L));
+        assertNotNull(repository.findById("1"));
+
+        repository.deleteIfVersion("1", 1L);
+        assertThrows(ProductNotFoundException.class, () -> repository.findById("1"));
+    }
+
+    @Test
+    void testSnapshotIsReusedUntilFileChanges() throws IOException {
+        Product product = new Product();
+        product.setId("1");
+        repository.save(product);
+        assertSame(repository.findById("1"), repository.findById("1"));
+
+        Files.write(tempFile.toPath(), "[{\"id\":\"2\",\"title\":\"Edited outside\"}]".getBytes());
+        tempFile.setLastModified(tempFile.lastModified() + 2000);
+
+        assertEquals("Edited outside", repository.findById("2").getTitle());
+        assertThrows(ProductNotFoundException.class, () -> repository.findById("1"));
+    }
+
+    @Test
+    void testCatalogGenerationMovesOnOnlyWhenTheFileIsReloaded() throws IOException {
+        long loaded = repository.catalogGeneration();
+        Product product = new Product();
+        product.setId("1");
+        repository.save(product);
+        repository.delete("1");
+        assertEquals(loaded, repository.catalogGeneration());
+
+        Files.write(tempFile.toPath(), "[{\"id\":\"2\"}]".getBytes());
+        tempFile.setLastModified(tempFile.lastModified() + 2000);
+
+        assertTrue(repository.catalogGeneration() > loaded);
+    }
+
+    @Test
+    void testFindAllReturnsIndependentList() {
+        Product product = new Product();
+        product.setId("1");
+        repository.save(product);
+
+        repository.findAll().clear();
+        assertEquals(1, repository.findAll().size());
+    }
+
     @Test
     void testIOExceptionOnFindAll() {
         // Make file unreadable
@@ -84,4 +197,378 @@ class JsonProductRepositoryTest {
         // Restore permissions
         tempFile.setReadable(true);
     }
-} 
\ No newline at end of file
+
+    private static Product sellerProduct(String id, String sellerName) {
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle("Product " + id);
+        product.setSellerInformation(new SellerInformation(sellerName, "1", null, null, null));
+        return product;
+    }
+
+    @Test
+    void testFindBySellerIdPagesInCatalogOrder() {
+        repository.save(sellerProduct("1", "Shop A"));
+        repository.save(sellerProduct("2", "Shop B"));
+        repository.save(sellerProduct("3", "Shop A"));
+        repository.save(sellerProduct("4", "Shop A"));
+
+        ProductPage first = repository.findBySellerId("shop-a", 0, 2);
+        assertEquals(3, first.getTotalItems());
+        assertEquals(2, first.getTotalPages());
+        assertEquals(List.of("1", "3"), first.getItems().stream().map(Product::getId).toList());
+        ProductPage second = repository.findBySellerId("shop-a", 1, 2);
+        assertEquals(List.of("4"), second.getItems().stream().map(Product::getId).toList());
+        assertTrue(repository.findBySellerId("unknown", 0, 2).getItems().isEmpty());
+    }
+
+    @Test
+    void testFindBySellerIdFollowsUpdatesAndDeletes() {
+        repository.save(sellerProduct("1", "Shop A"));
+        repository.save(sellerProduct("2", "Shop A"));
+
+        repository.update("1", sellerProduct("1", "Shop B"));
+        repository.delete("2");
+
+        assertEquals(0, repository.findBySellerId("shop-a", 0, 10).getTotalItems());
+        assertEquals("1", repository.findBySellerId("shop-b", 0, 10).getItems().get(0).getId());
+    }
+
+    @Test
+    void testFindBySellerIdAfterReload() throws IOException {
+        Files.write(tempFile.toPath(),
+            "[{\"id\":\"9\",\"sellerInformation\":{\"id\":\"s9\"}}]".getBytes());
+        assertEquals("9", new JsonProductRepository(tempFile.getAbsolutePath())
+            .findBySellerId("s9", 0, 10).getItems().get(0).getId());
+    }
+
+    @Test
+    void testConcurrentReadersReloadOnce() throws Exception {
+        repository.save(new Product("1", null, "Title", null, null, null, null, null));
+        Files.write(tempFile.toPath(), "[{\"id\":\"2\",\"title\":\"Reloaded\"}]".getBytes());
+        tempFile.setLastModified(tempFile.lastModified() + 2000);
+
+        java.util.concurrent.ExecutorService executor = java.util.concurrent.Executors.newFixedThreadPool(8);
+        try {
+            List<java.util.concurrent.Future<List<Product>>> reads = new java.util.ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                reads.add(executor.submit(repository::findAll));
+            }
+            java.util.Set<Product> firstProducts = java.util.Collections.newSetFromMap(new java.util.IdentityHashMap<>());
+            for (java.util.concurrent.Future<List<Product>> read : reads) {
+                List<Product> products = read.get(5, java.util.concurrent.TimeUnit.SECONDS);
+                assertEquals("Reloaded", products.get(0).getTitle());
+                firstProducts.add(products.get(0));
+            }
+            assertEquals(1, firstProducts.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSaveAllAddsNewAndReplacesExistingProducts() {
+        Product existing = new Product();
+        existing.setId("1");
+        existing.setTitle("Old");
+        repository.save(existing);
+
+        Product replaced = new Product();
+        replaced.setId("1");
+        replaced.setTitle("New");
+        Product added = new Product();
+        added.setId("2");
+        repository.saveAll(List.of(replaced, added));
+
+        List<Product> products = repository.findAll();
+        assertEquals(2, products.size());
+        assertEquals("New", repository.findById("1").getTitle());
+        assertEquals(2L, repository.findById("1").getVersion());
+        assertEquals(1L, repository.findById("2").getVersion());
+        assertEquals("2", products.get(1).getId());
+    }
+
+    @Test
+    void testStreamAllReadsOneSnapshot() {
+        Product first = new Product();
+        first.setId("1");
+        repository.save(first);
+        Product second = new Product();
+        second.setId("2");
+        repository.save(second);
+
+        List<String> streamed = new ArrayList<>();
+        repository.streamAll(product -> {
+            streamed.add(product.getId());
+            if (streamed.size() == 1) {
+                Product added = new Product();
+                added.setId("3");
+                repository.save(added);
+            }
+        });
+
+        assertEquals(List.of("1", "2"), streamed);
+        assertEquals(3, repository.findAll().size());
+    }
+
+    @Test
+    void testChangesSinceReturnsWritesAndDeletesAfterThePosition() {
+        Product first = new Product();
+        first.setId("1");
+        repository.save(first);
+        long position = repository.changesSince(0, 10).getSequence();
+        assertTrue(repository.changesSince(0, 10).isFullSync());
+
+        Product second = new Product();
+        second.setId("2");
+        repository.save(second);
+        repository.delete("1");
+
+        ProductChanges changes = repository.changesSince(position, 10);
+        assertFalse(changes.isFullSync());
+        assertEquals(List.of("2"), changes.getUpserts().stream().map(Product::getId).toList());
+        assertEquals(List.of("1"), changes.getDeleted());
+        assertFalse(changes.isHasMore());
+        assertTrue(repository.changesSince(changes.getSequence(), 10).getUpserts().isEmpty());
+    }
+
+    @Test
+    void testChangesSinceAFormerLoadNeedsAFullSync() {
+        Product first = new Product();
+        first.setId("1");
+        repository.save(first);
+        long position = repository.changesSince(0, 10).getSequence();
+
+        assertTrue(new JsonProductRepository(tempFile.getAbsolutePath()).changesSince(position, 10).isFullSync());
+    }
+
+    @Test
+    void testConcurrentWritesAreAllPersisted() throws Exception {
+        java.util.concurrent.ExecutorService executor = java.util.concurrent.Executors.newFixedThreadPool(16);
+        try {
+            List<java.util.concurrent.Future<?>> writes = new ArrayList<>();
+            for (int thread = 0; thread < 16; thread++) {
+                int offset = thread * 20;
+                writes.add(executor.submit(() -> {
+                    for (int i = 0; i < 20; i++) {
+                        Product product = new Product();
+                        product.setId(String.valueOf(offset + i));
+                        repository.save(product);
+                    }
+                }));
+            }
+            for (java.util.concurrent.Future<?> write : writes) {
+                write.get(30, java.util.concurrent.TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(320, new JsonProductRepository(tempFile.getAbsolutePath()).findAll().size());
+        assertTrue(repository.commits() <= 320);
+        repository.close();
+    }
+
+    @Test
+    void testFailedWriteLeavesTheCatalogUnchanged() throws IOException {
+        File missingDirectory = new File(Files.createTempDirectory("products-missing").toFile(), "missing");
+        JsonProductRepository unwritable = new JsonProductRepository(new File(missingDirectory, "products.json").getPath());
+        int before = unwritable.findAll().size();
+        Product product = new Product();
+        product.setId("failed");
+
+        assertThrows(DataAccessException.class, () -> unwritable.save(product));
+        assertEquals(before, unwritable.findAll().size());
+        assertThrows(ProductNotFoundException.class, () -> unwritable.findById("failed"));
+        assertTrue(unwritable.changesSince(unwritable.changesSince(0, 1).getSequence(), 10).getUpserts().isEmpty());
+    }
+
+    @Test
+    void testWritesReplaceTheFileWithoutLeavingTemporaryFiles() throws IOException {
+        File directory = Files.createTempDirectory("products-atomic").toFile();
+        File dataFile = new File(directory, "products.json");
+        Files.writeString(dataFile.toPath(), "[]");
+        JsonProductRepository atomic = new JsonProductRepository(dataFile.getPath());
+
+        atomic.save(titled("1", "First"));
+        atomic.save(titled("2", "Second"));
+
+        assertArrayEquals(new String[] {"products.json"}, directory.list());
+        assertEquals(2, new ObjectMapper().readTree(dataFile).size());
+        atomic.close();
+        dataFile.delete();
+        directory.delete();
+    }
+
+    private static Product titled(String id, String title) {
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle(title);
+        return product;
+    }
+
+    private String fileContent() throws IOException {
+        return Files.readString(tempFile.toPath());
+    }
+
+    @Test
+    void testEveryWriteIsPersistedWithoutWriteBehind() {
+        repository.save(titled("1", "First"));
+        repository.update("1", titled("1", "Second"));
+
+        WriteStats stats = repository.writeStats();
+        assertEquals(0, stats.windowMillis());
+        assertEquals(2, stats.writes());
+        assertEquals(2, stats.persisted());
+        assertEquals(0, stats.coalesced());
+        assertEquals(2, stats.fileWrites());
+    }
+
+    @Test
+    void testImportBatchesAreWrittenOnceFlushed() throws IOException {
+        repository.importBatch(List.of(titled("1", "First")));
+        repository.importBatch(List.of(titled("2", "Second"), titled("1", "Replaced")));
+
+        assertEquals("Replaced", repository.findById("1").getTitle());
+        assertEquals(2L, repository.findById("1").getVersion());
+        assertEquals(0, repository.writeStats().fileWrites());
+        assertEquals(2, repository.writeStats().pending());
+
+        repository.flushImported();
+        assertEquals(1, repository.writeStats().fileWrites());
+        assertTrue(fileContent().contains("Replaced"));
+        assertTrue(fileContent().contains("Second"));
+    }
+
+    @Test
+    void testWriteWithoutWriteBehindAlsoWritesPendingImportBatches() throws IOException {
+        repository.importBatch(List.of(titled("1", "Imported")));
+        repository.save(titled("2", "Saved"));
+
+        assertTrue(fileContent().contains("Imported"));
+        assertEquals(0, repository.writeStats().pending());
+    }
+
+    @Test
+    void testWriteBehindServesWritesFromMemoryAndCoalescesThem() throws IOException {
+        JsonProductRepository writeBehind = new JsonProductRepository(tempFile.getAbsolutePath(), 64, 16, 60_000);
+        try {
+            writeBehind.save(titled("1", "v1"));
+            writeBehind.update("1", titled("1", "v2"));
+            writeBehind.update("1", titled("1", "v3"));
+            writeBehind.save(titled("2", "Other"));
+
+            assertEquals("v3", writeBehind.findById("1").getTitle());
+            assertEquals(3L, writeBehind.findById("1").getVersion());
+            assertFalse(fileContent().contains("v3"));
+            assertEquals(new WriteStats(60_000, 4, 2, 0, 2, 0), writeBehind.writeStats());
+
+            writeBehind.flush();
+
+            assertTrue(fileContent().contains("v3"));
+            assertEquals(new WriteStats(60_000, 4, 2, 2, 0, 1), writeBehind.writeStats());
+            assertEquals("v3", new JsonProductRepository(tempFile.getAbsolutePath()).findById("1").getTitle());
+        } finally {
+            writeBehind.close();
+        }
+    }
+
+    @Test
+    void testWriteBehindWritesTheFileWhenTheWindowEnds() throws Exception {
+        JsonProductRepository writeBehind = new JsonProductRepository(tempFile.getAbsolutePath(), 64, 16, 50);
+        try {
+            writeBehind.save(titled("1", "Windowed"));
+            long deadline = System.nanoTime() + java.util.concurrent.TimeUnit.SECONDS.toNanos(5);
+            while (writeBehind.writeStats().fileWrites() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(1, writeBehind.writeStats().fileWrites());
+            assertTrue(fileContent().contains("Windowed"));
+        } finally {
+            writeBehind.close();
+        }
+    }
+
+    @Test
+    void testHealthReportsTheLoadAndPendingWrites() {
+        JsonProductRepository writeBehind = new JsonProductRepository(tempFile.getAbsolutePath(), 64, 16, 60_000);
+        try {
+            StoreHealth before = writeBehind.health();
+            assertFalse(before.loaded());
+            assertNull(before.lastLoadAt());
+
+            writeBehind.save(titled("1", "Pending"));
+            StoreHealth after = writeBehind.health();
+
+            assertTrue(after.loaded());
+            assertNotNull(after.lastLoadAt());
+            assertEquals(1, after.products());
+            assertEquals(0, after.queuedWrites());
+            assertEquals(1, after.pendingWrites());
+        } finally {
+            writeBehind.close();
+        }
+    }
+
+    @Test
+    void testCloseWritesPendingWrites() throws IOException {
+        JsonProductRepository writeBehind = new JsonProductRepository(tempFile.getAbsolutePath(), 64, 16, 60_000);
+        writeBehind.save(titled("1", "Pending"));
+
+        writeBehind.close();
+
+        assertTrue(fileContent().contains("Pending"));
+        assertEquals(0, writeBehind.writeStats().pending());
+    }
+
+    @Test
+    void testReplicateKeepsVersionsAndDeletes() {
+        Product first = new Product();
+        first.setId("1");
+        repository.save(first);
+        Product second = new Product();
+        second.setId("2");
+        repository.save(second);
+        long position = repository.changesSince(0, 10).getSequence();
+        Product replaced = new Product();
+        replaced.setId("2");
+        replaced.setTitle("Replicated");
+        replaced.setVersion(4L);
+
+        repository.replicate(List.of(replaced), List.of("1", "missing"));
+        repository.replicate(List.of(replaced), List.of("1", "missing"));
+
+        assertEquals(List.of("2"), repository.findAll().stream().map(Product::getId).toList());
+        assertEquals(4L, repository.findById("2").getVersion());
+        assertEquals(4L, new JsonProductRepository(tempFile.getAbsolutePath()).findById("2").getVersion());
+        ProductChanges changes = repository.changesSince(position, 10);
+        assertEquals(List.of("2"), changes.getUpserts().stream().map(Product::getId).toList());
+        assertEquals(List.of("1"), changes.getDeleted());
+    }
+
+    @Test
+    void testFileReadsAndWritesAreObserved() throws IOException {
+        String catalog = "[{\"id\": \"1\"}]";
+        Files.writeString(tempFile.toPath(), catalog);
+        ObservationRegistry registry = ObservationRegistry.create();
+        List<Observation.Context> stopped = ObservationRecorder.record(registry);
+        JsonProductRepository observed = new JsonProductRepository(tempFile.getAbsolutePath());
+        observed.setObservationRegistry(registry);
+
+        observed.findAll();
+        Product added = new Product();
+        added.setId("2");
+        observed.save(added);
+        observed.close();
+
+        assertEquals(List.of("product.store.read", "product.store.write"), stopped.stream().map(Observation.Context::getName).toList());
+        Observation.Context read = stopped.get(0);
+        assertEquals("1", read.getHighCardinalityKeyValue("catalog.size").getValue());
+        assertEquals(String.valueOf(catalog.length()), read.getHighCardinalityKeyValue("file.bytes").getValue());
+        assertEquals("product-store", read.getLowCardinalityKeyValue("store").getValue());
+        Observation.Context write = stopped.get(1);
+        assertEquals("2", write.getHighCardinalityKeyValue("catalog.size").getValue());
+        assertEquals(String.valueOf(tempFile.length()), write.getHighCardinalityKeyValue("file.bytes").getValue());
+    }
+}
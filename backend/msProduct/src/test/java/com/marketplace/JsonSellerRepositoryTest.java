@@ -0,0 +1,98 @@
+package com.marketplace;
+
+import com.marketplace.domain.Reputation;
+import com.marketplace.domain.SellerInformation;
+import com.marketplace.domain.exceptions.DataAccessException;
+import com.marketplace.infrastructure.JsonSellerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonSellerRepositoryTest {
+    private File tempDir;
+    private File sellersFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("sellers-test").toFile();
+        sellersFile = new File(tempDir, "sellers.json");
+    }
+
+    @AfterEach
+    void tearDown() {
+        sellersFile.delete();
+        tempDir.delete();
+    }
+
+    private JsonSellerRepository repository() {
+        return new JsonSellerRepository(sellersFile.getPath(), "products.json");
+    }
+
+    private static SellerInformation seller(String id, String name) {
+        SellerInformation seller = new SellerInformation(name, "10", new Reputation("Gold", "Good"), null, null);
+        seller.setId(id);
+        return seller;
+    }
+
+    @Test
+    void testMissingFileIsEmpty() {
+        JsonSellerRepository repository = repository();
+        assertTrue(repository.findAll().isEmpty());
+        assertTrue(repository.findById("any").isEmpty());
+        assertTrue(repository.findById(null).isEmpty());
+        assertFalse(sellersFile.exists());
+    }
+
+    @Test
+    void testSaveAndFindById() {
+        JsonSellerRepository repository = repository();
+        repository.save(seller("s1", "Seller One"));
+
+        assertEquals("Seller One", repository.findById("s1").orElseThrow().getName());
+        assertTrue(sellersFile.exists());
+    }
+
+    @Test
+    void testSaveReplacesSellerAndPersists() {
+        repository().saveAll(Arrays.asList(seller("s1", "Seller One"), seller("s2", "Seller Two")));
+        JsonSellerRepository repository = repository();
+        repository.save(seller("s1", "Renamed"));
+
+        List<SellerInformation> reloaded = repository().findAll();
+        assertEquals(2, reloaded.size());
+        assertEquals("Renamed", repository().findById("s1").orElseThrow().getName());
+        assertEquals("Gold", repository().findById("s2").orElseThrow().getReputation().getLevel());
+    }
+
+    @Test
+    void testFailedWriteLeavesSellersUnchanged() throws IOException {
+        JsonSellerRepository repository = repository();
+        assertTrue(repository.findAll().isEmpty());
+        // A directory in place of the file makes the write fail
+        Files.createDirectory(sellersFile.toPath());
+
+        assertThrows(DataAccessException.class, () -> repository.save(seller("s1", "Seller One")));
+        assertTrue(repository.findById("s1").isEmpty());
+    }
+
+    @Test
+    void testSaveRequiresId() {
+        assertThrows(IllegalArgumentException.class, () -> repository().save(new SellerInformation()));
+    }
+
+    @Test
+    void testDefaultFileIsNextToProductData() throws IOException {
+        File dataFile = new File(tempDir, "products.json");
+        JsonSellerRepository repository = new JsonSellerRepository("", dataFile.getPath());
+        repository.save(seller("s1", "Seller One"));
+        assertTrue(sellersFile.exists());
+    }
+}
@@ -0,0 +1,147 @@
+package com.marketplace;
+
+import com.marketplace.application.MissingProductFilter;
+import com.marketplace.domain.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MissingProductFilterTest {
+
+    private static Consumer<Consumer<? super Product>> catalog(String... ids) {
+        List<Product> products = new ArrayList<>();
+        for (String id : ids) {
+            Product product = new Product();
+            product.setId(id);
+            products.add(product);
+        }
+        return consumer -> products.forEach(consumer);
+    }
+
+    @Test
+    void testStoredIdsAreNeverRuledOut() {
+        MissingProductFilter filter = new MissingProductFilter(true, 10_000, 0.01, 100, 30_000);
+        String[] ids = new String[10_000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = "MLA" + (1_000_000 + i);
+        }
+        Consumer<Consumer<? super Product>> catalog = catalog(ids);
+
+        for (String id : ids) {
+            assertFalse(filter.isKnownMissing(id, 0, catalog));
+        }
+    }
+
+    @Test
+    void testMostMissingIdsAreRuledOutByTheBloomFilter() {
+        MissingProductFilter filter = new MissingProductFilter(true, 10_000, 0.01, 100, 30_000);
+        String[] ids = new String[10_000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = "MLA" + (1_000_000 + i);
+        }
+        Consumer<Consumer<? super Product>> catalog = catalog(ids);
+
+        int passed = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (!filter.isKnownMissing("MLA" + (5_000_000 + i), 0, catalog)) {
+                passed++;
+            }
+        }
+
+        // 1% expected at capacity; allow for variance
+        assertTrue(passed < 300, passed + " false positives");
+        assertEquals(10_000 - passed, filter.filterRejections());
+    }
+
+    @Test
+    void testWrittenIdsPassTheFilter() {
+        MissingProductFilter filter = new MissingProductFilter(true, 1000, 0.01, 100, 30_000);
+        Consumer<Consumer<? super Product>> catalog = catalog("a");
+        assertTrue(filter.isKnownMissing("new", 0, catalog));
+
+        filter.beforeWrite("new");
+
+        assertFalse(filter.isKnownMissing("new", 0, catalog));
+    }
+
+    @Test
+    void testMissesAreCachedUntilTheIdIsWritten() {
+        MissingProductFilter filter = new MissingProductFilter(true, 1000, 0.01, 100, 30_000);
+        Consumer<Consumer<? super Product>> catalog = catalog("deleted");
+        assertFalse(filter.isKnownMissing("deleted", 0, catalog));
+
+        filter.recordMissing("deleted", filter.writeStamp());
+        assertTrue(filter.isKnownMissing("deleted", 0, catalog));
+        assertEquals(1, filter.cacheRejections());
+
+        filter.beforeWrite("deleted");
+        filter.afterWrite("deleted");
+        assertFalse(filter.isKnownMissing("deleted", 0, catalog));
+    }
+
+    @Test
+    void testMissIsNotCachedWhenAWriteFinishedDuringTheLookup() {
+        MissingProductFilter filter = new MissingProductFilter(true, 1000, 0.01, 100, 30_000);
+        Consumer<Consumer<? super Product>> catalog = catalog("a");
+        filter.beforeWrite("b");
+        long stamp = filter.writeStamp();
+
+        filter.afterWrite("b");
+        filter.recordMissing("b", stamp);
+
+        assertFalse(filter.isKnownMissing("b", 0, catalog));
+    }
+
+    @Test
+    void testCachedMissesExpire() throws InterruptedException {
+        MissingProductFilter filter = new MissingProductFilter(true, 1000, 0.01, 100, 1);
+        Consumer<Consumer<? super Product>> catalog = catalog("gone");
+        filter.recordMissing("gone", filter.writeStamp());
+        Thread.sleep(5);
+
+        assertFalse(filter.isKnownMissing("gone", 0, catalog));
+    }
+
+    @Test
+    void testNegativeCacheIsBounded() {
+        MissingProductFilter filter = new MissingProductFilter(true, 1000, 0.01, 2, 30_000);
+        Consumer<Consumer<? super Product>> catalog = catalog("x", "y", "z");
+        filter.recordMissing("x", filter.writeStamp());
+        filter.recordMissing("y", filter.writeStamp());
+        filter.recordMissing("z", filter.writeStamp());
+
+        assertFalse(filter.isKnownMissing("x", 0, catalog));
+        assertTrue(filter.isKnownMissing("y", 0, catalog));
+        assertTrue(filter.isKnownMissing("z", 0, catalog));
+    }
+
+    @Test
+    void testNewCatalogGenerationAddsItsIdsAndDropsCachedMisses() {
+        MissingProductFilter filter = new MissingProductFilter(true, 1000, 0.01, 100, 30_000);
+        assertTrue(filter.isKnownMissing("reloaded", 1, catalog("a")));
+        filter.recordMissing("a", filter.writeStamp());
+        assertTrue(filter.isKnownMissing("a", 1, catalog("a")));
+        long stamp = filter.writeStamp();
+
+        Consumer<Consumer<? super Product>> reloaded = catalog("a", "reloaded");
+
+        assertFalse(filter.isKnownMissing("reloaded", 2, reloaded));
+        assertFalse(filter.isKnownMissing("a", 2, reloaded));
+        // A lookup that started before the reload does not cache its miss
+        filter.recordMissing("a", stamp);
+        assertFalse(filter.isKnownMissing("a", 2, reloaded));
+    }
+
+    @Test
+    void testDisabledFilterRulesNothingOut() {
+        MissingProductFilter filter = new MissingProductFilter(false, 1000, 0.01, 100, 30_000);
+        filter.recordMissing("a", filter.writeStamp());
+
+        assertFalse(filter.isKnownMissing("a", 0, catalog()));
+        assertFalse(filter.isKnownMissing("b", 0, catalog()));
+    }
+}
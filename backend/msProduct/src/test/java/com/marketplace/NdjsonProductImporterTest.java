@@ -0,0 +1,158 @@
+package com.marketplace;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.application.ProductService;
+import com.marketplace.domain.Product;
+import com.marketplace.domain.exceptions.DataAccessException;
+import com.marketplace.domain.exceptions.ImportInProgressException;
+import com.marketplace.infrastructure.dto.ImportReport;
+import com.marketplace.infrastructure.importer.NdjsonProductImporter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class NdjsonProductImporterTest {
+    private ProductService productService;
+    private NdjsonProductImporter importer;
+    private final List<List<String>> batches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        productService = mock(ProductService.class);
+        when(productService.importProducts(anyList())).thenAnswer(invocation -> {
+            List<Product> batch = invocation.getArgument(0);
+            batches.add(batch.stream().map(Product::getId).toList());
+            return batch;
+        });
+        importer = new NdjsonProductImporter(productService, new ObjectMapper(), 2, 64, 2);
+    }
+
+    private static InputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testImportsInBatches() {
+        ImportReport report = importer.importProducts(body(
+            "{\"id\":\"1\",\"title\":\"One\"}\n{\"id\":\"2\"}\r\n\n{\"id\":\"3\"}"));
+
+        assertEquals(List.of(List.of("1", "2"), List.of("3")), batches);
+        assertEquals(ImportReport.Status.COMPLETED, report.getStatus());
+        assertEquals(4, report.getLinesRead());
+        assertEquals(3, report.getImported());
+        assertEquals(0, report.getFailed());
+        assertEquals(2, report.getBatches());
+        assertNotNull(report.getFinishedAt());
+        verify(productService, times(1)).finishImport();
+    }
+
+    @Test
+    void testInvalidLinesAreReportedAndSkipped() {
+        String longLine = "{\"id\":\"4\",\"title\":\"" + "x".repeat(100) + "\"}";
+        ImportReport report = importer.importProducts(body(
+            "{\"id\":\"1\"}\nnot json\n{\"title\":\"no id\"}\n" + longLine + "\n{\"id\":\"5\"}\n"));
+
+        assertEquals(List.of(List.of("1", "5")), batches);
+        assertEquals(5, report.getLinesRead());
+        assertEquals(2, report.getImported());
+        assertEquals(3, report.getFailed());
+        // Only the first two errors are kept
+        assertEquals(2, report.getErrors().size());
+        assertEquals(2, report.getErrors().get(0).line());
+        assertTrue(report.getErrors().get(0).message().startsWith("Malformed product"));
+        assertEquals(new ImportReport.LineError(3, "Product ID cannot be null or empty"), report.getErrors().get(1));
+    }
+
+    @Test
+    void testLineLongerThanLimitIsRejected() {
+        importer = new NdjsonProductImporter(productService, new ObjectMapper(), 2, 64, 10);
+        ImportReport report = importer.importProducts(body("{\"id\":\"1\",\"title\":\"" + "x".repeat(100) + "\"}\n{\"id\":\"2\"}"));
+
+        assertEquals(List.of(List.of("2")), batches);
+        assertEquals(new ImportReport.LineError(1, "Line exceeds 64 bytes"), report.getErrors().get(0));
+    }
+
+    @Test
+    void testLinesSplitAcrossReadsAreJoined() {
+        InputStream split = new SequenceInputStream(body("{\"id\":"), body("\"1\"}\n{\"id\":\"2\"}\n"));
+        ImportReport report = importer.importProducts(new InputStream() {
+            // Hands out at most three bytes per read
+            @Override
+            public int read() throws IOException {
+                return split.read();
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                return split.read(buffer, offset, Math.min(length, 3));
+            }
+        });
+
+        assertEquals(List.of(List.of("1", "2")), batches);
+        assertEquals(0, report.getFailed());
+    }
+
+    @Test
+    void testReadFailureKeepsStoredBatchesAndReportsFailure() {
+        InputStream failing = new SequenceInputStream(body("{\"id\":\"1\"}\n{\"id\":\"2\"}\n{\"id\":\"3\"}\n"), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("connection reset");
+            }
+        });
+
+        assertThrows(DataAccessException.class, () -> importer.importProducts(failing));
+        assertEquals(List.of(List.of("1", "2")), batches);
+        ImportReport latest = importer.latest().orElseThrow();
+        assertEquals(ImportReport.Status.FAILED, latest.getStatus());
+        assertEquals(2, latest.getImported());
+        verify(productService).finishImport();
+    }
+
+    @Test
+    void testSecondImportIsRejectedWhileOneRuns() throws Exception {
+        CountDownLatch storing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(productService.importProducts(anyList())).thenAnswer(invocation -> {
+            storing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ImportReport> first = executor.submit(() -> importer.importProducts(body("{\"id\":\"1\"}")));
+            assertTrue(storing.await(5, TimeUnit.SECONDS));
+
+            assertThrows(ImportInProgressException.class, () -> importer.importProducts(body("{\"id\":\"2\"}")));
+            ImportReport progress = importer.latest().orElseThrow();
+            assertEquals(ImportReport.Status.RUNNING, progress.getStatus());
+            assertEquals(1, progress.getLinesRead());
+
+            release.countDown();
+            assertEquals(1, first.get(5, TimeUnit.SECONDS).getImported());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testNoImportYet() {
+        assertTrue(importer.latest().isEmpty());
+    }
+}
@@ -0,0 +1,36 @@
+package com.marketplace;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Stands in for the tracing backend: keeps every observation once it is stopped
+final class ObservationRecorder implements ObservationHandler<Observation.Context> {
+    private final List<Observation.Context> stopped;
+
+    private ObservationRecorder(List<Observation.Context> stopped) {
+        this.stopped = stopped;
+    }
+
+    /**
+     * Returns the observations of {@code registry} in the order they stop, from now on.
+     */
+    static List<Observation.Context> record(ObservationRegistry registry) {
+        List<Observation.Context> stopped = new CopyOnWriteArrayList<>();
+        registry.observationConfig().observationHandler(new ObservationRecorder(stopped));
+        return stopped;
+    }
+
+    @Override
+    public boolean supportsContext(Observation.Context context) {
+        return true;
+    }
+
+    @Override
+    public void onStop(Observation.Context context) {
+        stopped.add(context);
+    }
+}
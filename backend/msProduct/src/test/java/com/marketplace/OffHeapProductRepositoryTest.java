@@ -0,0 +1,256 @@
+package com.marketplace;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.domain.Product;
+import com.marketplace.domain.ProductChanges;
+import com.marketplace.domain.ProductPage;
+import com.marketplace.domain.SellerInformation;
+import com.marketplace.domain.exceptions.ProductNotFoundException;
+import com.marketplace.domain.exceptions.VersionConflictException;
+import com.marketplace.infrastructure.OffHeapProductRepository;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapProductRepositoryTest {
+    private OffHeapProductRepository repository;
+    private static File tempFile;
+
+    @BeforeAll
+    static void setUpAll() throws IOException {
+        tempFile = File.createTempFile("products-offheap-test", ".json");
+    }
+
+    @AfterAll
+    static void tearDownAll() {
+        if (tempFile.exists()) {
+            tempFile.delete();
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.write(tempFile.toPath(), "[]".getBytes());
+        repository = newRepository(1);
+    }
+
+    private static OffHeapProductRepository newRepository(int slabSizeMb) {
+        OffHeapProductRepository created = new OffHeapProductRepository(tempFile.getAbsolutePath(), slabSizeMb);
+        created.load();
+        return created;
+    }
+
+    private static Product product(String id, String title) {
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle(title);
+        product.setSellerInformation(new SellerInformation("Seller", "10", null, null, null));
+        return product;
+    }
+
+    @Test
+    void testFindAllEmpty() {
+        assertTrue(repository.findAll().isEmpty());
+    }
+
+    @Test
+    void testSaveAndFindByIdDecodesACopy() {
+        repository.save(product("1", "Stored"));
+
+        Product found = repository.findById("1");
+        assertEquals("Stored", found.getTitle());
+        assertEquals("Seller", found.getSellerInformation().getName());
+        assertEquals(1L, found.getVersion());
+
+        found.setTitle("Changed locally");
+        assertEquals("Stored", repository.findById("1").getTitle());
+    }
+
+    @Test
+    void testLoadsExistingCatalogFromFile() throws IOException {
+        Files.write(tempFile.toPath(), "[{\"id\":\"1\",\"title\":\"A\"},{\"id\":\"2\",\"title\":\"B\"}]".getBytes());
+        OffHeapProductRepository loaded = newRepository(1);
+
+        assertEquals(2, loaded.size());
+        assertEquals("B", loaded.findById("2").getTitle());
+        assertEquals(0L, loaded.findById("2").getVersion());
+        assertTrue(loaded.offHeapBytes() > 0);
+    }
+
+    @Test
+    void testWritesArePersistedAndKeepCatalogOrder() throws IOException {
+        repository.save(product("1", "First"));
+        repository.save(product("2", "Second"));
+        repository.update("1", product("1", "First updated"));
+
+        List<Product> persisted = new ObjectMapper().readValue(tempFile, new TypeReference<List<Product>>() {});
+        assertEquals(List.of("1", "2"), persisted.stream().map(Product::getId).toList());
+        assertEquals("First updated", persisted.get(0).getTitle());
+        assertEquals(2L, persisted.get(0).getVersion());
+
+        OffHeapProductRepository reloaded = newRepository(1);
+        assertEquals("First updated", reloaded.findById("1").getTitle());
+    }
+
+    @Test
+    void testCompareAndSetAndDeleteIfVersion() {
+        repository.save(product("1", "Original"));
+
+        assertThrows(VersionConflictException.class, () -> repository.compareAndSet("1", 3L, product("1", "Stale")));
+        assertEquals("Original", repository.findById("1").getTitle());
+
+        assertEquals(2L, repository.compareAndSet("1", 1L, product("1", "Fresh")).getVersion());
+        assertThrows(VersionConflictException.class, () -> repository.deleteIfVersion("1", 1L));
+        assertNotNull(repository.findById("1"));
+
+        repository.deleteIfVersion("1", 2L);
+        assertThrows(ProductNotFoundException.class, () -> repository.findById("1"));
+        assertThrows(ProductNotFoundException.class, () -> repository.compareAndSet("1", 2L, product("1", "Gone")));
+    }
+
+    @Test
+    void testConflictingDeleteIfVersionKeepsCatalogOrder() {
+        repository.save(product("1", "First"));
+        repository.save(product("2", "Second"));
+
+        assertThrows(VersionConflictException.class, () -> repository.deleteIfVersion("1", 7L));
+        assertThrows(ProductNotFoundException.class, () -> repository.deleteIfVersion("3", 1L));
+
+        assertEquals(List.of("1", "2"), repository.findAll().stream().map(Product::getId).toList());
+    }
+
+    @Test
+    void testWritesReplaceTheDataFileWithoutLeavingTemporaryFiles() throws IOException {
+        repository.save(product("1", "First"));
+        repository.save(product("2", "Second"));
+        repository.delete("1");
+
+        List<Product> persisted = new ObjectMapper().readValue(tempFile, new TypeReference<List<Product>>() {});
+        assertEquals(List.of("2"), persisted.stream().map(Product::getId).toList());
+        String[] leftovers = tempFile.getParentFile().list((dir, name) -> name.startsWith(tempFile.getName() + ".") && name.endsWith(".tmp"));
+        assertEquals(0, leftovers.length);
+    }
+
+    @Test
+    void testDelete() {
+        repository.save(product("1", "Doomed"));
+        repository.delete("1");
+        assertThrows(ProductNotFoundException.class, () -> repository.findById("1"));
+    }
+
+    @Test
+    void testRepeatedUpdatesCompactDeadRecords() {
+        repository.save(product("1", "Kept"));
+        String largeTitle = "x".repeat(64 * 1024);
+        for (int i = 0; i < 64; i++) {
+            repository.update("1", product("1", largeTitle + i));
+        }
+
+        assertEquals(largeTitle + 63, repository.findById("1").getTitle());
+        // 64 updates of 64 KiB would need 4 MiB without compaction
+        assertTrue(repository.offHeapBytes() <= 3L * 1024 * 1024);
+    }
+
+    @Test
+    void testFindBySellerId() {
+        Product first = product("1", "First");
+        first.setSellerInformation(new SellerInformation("Shop A", "1", null, null, null));
+        Product second = product("2", "Second");
+        second.setSellerInformation(new SellerInformation("Shop A", "1", null, null, null));
+        repository.save(first);
+        repository.save(second);
+        repository.deleteIfVersion("1", 1L);
+
+        ProductPage page = repository.findBySellerId("shop-a", 0, 10);
+        assertEquals(1, page.getTotalItems());
+        assertEquals("Second", page.getItems().get(0).getTitle());
+        assertEquals(1, newRepository(1).findBySellerId("shop-a", 0, 10).getTotalItems());
+    }
+
+    @Test
+    void testSaveAllAddsNewAndReplacesExistingProducts() {
+        repository.save(product("1", "Old"));
+        repository.saveAll(List.of(product("1", "New"), product("2", "Added")));
+
+        assertEquals(2, repository.size());
+        assertEquals("New", repository.findById("1").getTitle());
+        assertEquals(2L, repository.findById("1").getVersion());
+        assertEquals(1L, repository.findById("2").getVersion());
+        assertEquals(2, newRepository(1).size());
+    }
+
+    @Test
+    void testImportBatchesAreWrittenOnceFlushed() {
+        repository.importBatch(List.of(product("1", "First")));
+        repository.importBatch(List.of(product("2", "Second")));
+
+        assertEquals(2, repository.size());
+        assertEquals(0, newRepository(1).size());
+
+        repository.flushImported();
+        assertEquals(2, newRepository(1).size());
+    }
+
+    @Test
+    void testStreamAllReadsOneSnapshotWhileWritesContinue() {
+        repository.save(product("1", "First"));
+        repository.save(product("2", "Second"));
+
+        List<String> streamed = new java.util.ArrayList<>();
+        repository.streamAll(product -> {
+            streamed.add(product.getTitle());
+            if (streamed.size() == 1) {
+                repository.update("2", product("2", "Changed"));
+                repository.save(product("3", "Third"));
+            }
+        });
+
+        assertEquals(List.of("First", "Second"), streamed);
+        assertEquals("Changed", repository.findById("2").getTitle());
+    }
+
+    @Test
+    void testChangesSinceReturnsWritesAndDeletesAfterThePosition() {
+        repository.save(product("1", "First"));
+        repository.save(product("2", "Second"));
+        long position = repository.changesSince(0, 10).getSequence();
+
+        repository.update("2", product("2", "Changed"));
+        repository.delete("1");
+        repository.save(product("3", "Third"));
+
+        ProductChanges page = repository.changesSince(position, 2);
+        assertEquals(List.of("Changed"), page.getUpserts().stream().map(Product::getTitle).toList());
+        assertEquals(List.of("1"), page.getDeleted());
+        assertTrue(page.isHasMore());
+
+        ProductChanges rest = repository.changesSince(page.getSequence(), 2);
+        assertEquals(List.of("Third"), rest.getUpserts().stream().map(Product::getTitle).toList());
+        assertFalse(rest.isHasMore());
+        assertTrue(newRepository(1).changesSince(rest.getSequence(), 10).isFullSync());
+    }
+
+    @Test
+    void testReplicateKeepsVersionsAndDeletes() {
+        repository.save(product("1", "First"));
+        repository.save(product("2", "Second"));
+        long position = repository.changesSince(0, 10).getSequence();
+        Product replicated = product("3", "Replicated");
+        replicated.setVersion(7L);
+
+        repository.replicate(List.of(replicated), List.of("1", "missing"));
+
+        assertEquals(7L, repository.findById("3").getVersion());
+        assertThrows(ProductNotFoundException.class, () -> repository.findById("1"));
+        assertEquals(7L, newRepository(1).findById("3").getVersion());
+        ProductChanges changes = repository.changesSince(position, 10);
+        assertEquals(List.of("3"), changes.getUpserts().stream().map(Product::getId).toList());
+        assertEquals(List.of("1"), changes.getDeleted());
+    }
+}
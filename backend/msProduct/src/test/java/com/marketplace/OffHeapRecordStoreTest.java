@@ -0,0 +1,84 @@
+package com.marketplace;
+
+import com.marketplace.infrastructure.offheap.OffHeapRecordStore;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapRecordStoreTest {
+
+    private static String readString(OffHeapRecordStore store, long address, int length) {
+        ByteBuffer buffer = store.read(address, length);
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testAppendAndRead() {
+        OffHeapRecordStore store = new OffHeapRecordStore(16);
+        long first = store.append("hello".getBytes(StandardCharsets.UTF_8));
+        long second = store.append("world".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("hello", readString(store, first, 5));
+        assertEquals("world", readString(store, second, 5));
+        assertEquals(10, store.liveBytes());
+    }
+
+    @Test
+    void testRecordsSpillIntoNewSlabs() {
+        OffHeapRecordStore store = new OffHeapRecordStore(8);
+        long first = store.append("12345".getBytes(StandardCharsets.UTF_8));
+        long second = store.append("67890".getBytes(StandardCharsets.UTF_8));
+
+        assertNotEquals(first >>> 32, second >>> 32);
+        assertEquals("67890", readString(store, second, 5));
+        assertEquals(16, store.capacityBytes());
+    }
+
+    @Test
+    void testOversizedRecordGetsItsOwnSlab() {
+        OffHeapRecordStore store = new OffHeapRecordStore(4);
+        long address = store.append("larger than a slab".getBytes(StandardCharsets.UTF_8));
+        assertEquals("larger than a slab", readString(store, address, 18));
+    }
+
+    @Test
+    void testReleaseTracksDeadBytes() {
+        OffHeapRecordStore store = new OffHeapRecordStore(16);
+        store.append("abc".getBytes(StandardCharsets.UTF_8));
+        store.release(3);
+        assertEquals(0, store.liveBytes());
+        assertEquals(3, store.deadBytes());
+    }
+
+    @Test
+    void testReadViewIsReadOnly() {
+        OffHeapRecordStore store = new OffHeapRecordStore(16);
+        long address = store.append("abc".getBytes(StandardCharsets.UTF_8));
+        assertTrue(store.read(address, 3).isReadOnly());
+    }
+
+    @Test
+    void testInvalidSlabSize() {
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapRecordStore(0));
+    }
+
+    @Test
+    void testReaderKeepsReadingAfterLaterAppends() {
+        OffHeapRecordStore store = new OffHeapRecordStore(8);
+        long first = store.append("12345".getBytes(StandardCharsets.UTF_8));
+        OffHeapRecordStore.RecordReader reader = store.reader();
+        store.append("67890".getBytes(StandardCharsets.UTF_8));
+        store.release(5);
+
+        ByteBuffer record = reader.read(first, 5);
+        byte[] bytes = new byte[5];
+        record.get(bytes);
+        assertEquals("12345", new String(bytes, StandardCharsets.UTF_8));
+        assertTrue(record.isReadOnly());
+    }
+}
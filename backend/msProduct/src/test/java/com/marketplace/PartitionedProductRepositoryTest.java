@@ -0,0 +1,316 @@
+package com.marketplace;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.domain.Product;
+import com.marketplace.domain.ProductChanges;
+import com.marketplace.domain.ProductPage;
+import com.marketplace.domain.SellerInformation;
+import com.marketplace.domain.exceptions.ProductNotFoundException;
+import com.marketplace.domain.exceptions.ValidationException;
+import com.marketplace.domain.exceptions.VersionConflictException;
+import com.marketplace.infrastructure.PartitionedProductRepository;
+import com.marketplace.infrastructure.dto.StoreHealth;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.marketplace.TestProducts.product;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedProductRepositoryTest {
+    @TempDir
+    Path directory;
+
+    private File dataFile;
+    private File partitions;
+    private final List<PartitionedProductRepository> opened = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dataFile = directory.resolve("products.json").toFile();
+        partitions = directory.resolve("partitions").toFile();
+        new ObjectMapper().writeValue(dataFile, List.of(product("a"), product("b"), product("c"), product("d")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        opened.forEach(PartitionedProductRepository::close);
+    }
+
+    private PartitionedProductRepository open(int count) {
+        PartitionedProductRepository repository = new PartitionedProductRepository(dataFile.getPath(), count,
+            partitions.getPath(), 64, 16, 0);
+        repository.load();
+        opened.add(repository);
+        return repository;
+    }
+
+    private static Product sellerProduct(String id, String sellerName) {
+        Product product = product(id);
+        product.setSellerInformation(new SellerInformation(sellerName, "1", null, null, null));
+        return product;
+    }
+
+    private Set<String> ids(List<Product> products) {
+        Set<String> ids = new HashSet<>();
+        products.forEach(product -> ids.add(product.getId()));
+        return ids;
+    }
+
+    @Test
+    void testDataFileIsSplitIntoSegmentFiles() {
+        PartitionedProductRepository repository = open(4);
+
+        assertEquals(4, partitions.list((dir, name) -> name.endsWith("-of-04.json")).length);
+        assertEquals(Set.of("a", "b", "c", "d"), ids(repository.findAll()));
+        assertEquals("Product c", repository.findById("c").getTitle());
+    }
+
+    @Test
+    void testHealthCoversEverySegment() {
+        PartitionedProductRepository repository = open(4);
+        repository.save(product("e"));
+
+        StoreHealth health = repository.health();
+
+        assertTrue(health.loaded());
+        assertNotNull(health.lastLoadAt());
+        assertEquals(5, health.products());
+        assertEquals(0, health.queuedWrites());
+    }
+
+    @Test
+    void testProductsAreStoredInTheSegmentOfTheirId() throws IOException {
+        PartitionedProductRepository repository = open(4);
+        repository.save(product("e"));
+
+        int partition = repository.partitionOf("e");
+        File segment = new File(partitions, String.format("products-%02d-of-04.json", partition));
+        assertTrue(new String(java.nio.file.Files.readAllBytes(segment.toPath())).contains("\"e\""));
+        for (int i = 0; i < 4; i++) {
+            if (i != partition) {
+                File other = new File(partitions, String.format("products-%02d-of-04.json", i));
+                assertFalse(new String(java.nio.file.Files.readAllBytes(other.toPath())).contains("\"e\""));
+            }
+        }
+    }
+
+    @Test
+    void testWritesArePersistedAcrossRestarts() {
+        PartitionedProductRepository repository = open(4);
+        repository.save(product("e"));
+        Product renamed = product("z");
+        repository.update("a", renamed);
+        repository.delete("b");
+        repository.close();
+
+        PartitionedProductRepository reopened = open(4);
+
+        assertEquals(Set.of("c", "d", "e", "z"), ids(reopened.findAll()));
+        assertThrows(ProductNotFoundException.class, () -> reopened.findById("a"));
+    }
+
+    @Test
+    void testCompareAndSetChecksTheVersion() {
+        PartitionedProductRepository repository = open(4);
+        Product updated = product("c");
+        updated.setTitle("Updated");
+
+        // Imported products carry no version yet
+        assertEquals(1L, repository.compareAndSet("c", 0L, updated).getVersion());
+        assertThrows(VersionConflictException.class, () -> repository.compareAndSet("c", 0L, product("c")));
+        assertThrows(VersionConflictException.class, () -> repository.deleteIfVersion("c", 0L));
+        repository.deleteIfVersion("c", 1L);
+        assertThrows(ProductNotFoundException.class, () -> repository.findById("c"));
+    }
+
+    @Test
+    void testConcurrentWritesToAllPartitionsArePersisted() throws Exception {
+        PartitionedProductRepository repository = open(8);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> writes = new ArrayList<>();
+            for (int thread = 0; thread < 16; thread++) {
+                int offset = thread * 25;
+                writes.add(executor.submit(() -> {
+                    for (int i = 0; i < 25; i++) {
+                        repository.save(product("p" + (offset + i)));
+                    }
+                }));
+            }
+            for (Future<?> write : writes) {
+                write.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        repository.close();
+
+        assertEquals(404, open(8).findAll().size());
+    }
+
+    @Test
+    void testSaveAllSpreadsABatchOverThePartitions() {
+        PartitionedProductRepository repository = open(4);
+        List<Product> batch = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            batch.add(product("batch-" + i));
+        }
+        batch.add(product("a"));
+
+        repository.saveAll(batch);
+
+        assertEquals(54, repository.findAll().size());
+        assertEquals(1L, repository.findById("a").getVersion());
+        assertEquals(1L, repository.findById("batch-7").getVersion());
+    }
+
+    @Test
+    void testChangingThePartitionCountRepartitionsTheSegments() {
+        PartitionedProductRepository repository = open(4);
+        repository.save(product("e"));
+        repository.close();
+
+        PartitionedProductRepository repartitioned = open(3);
+
+        assertEquals(Set.of("a", "b", "c", "d", "e"), ids(repartitioned.findAll()));
+        assertEquals("Product e", repartitioned.findById("e").getTitle());
+    }
+
+    @Test
+    void testChangingThePartitionCountBackLoadsTheLatestSegments() {
+        open(4).close();
+        PartitionedProductRepository repartitioned = open(2);
+        repartitioned.save(product("e"));
+        repartitioned.delete("a");
+        repartitioned.close();
+
+        assertEquals(0, partitions.list((dir, name) -> name.endsWith("-of-04.json")).length);
+        PartitionedProductRepository restored = open(4);
+
+        assertEquals(Set.of("b", "c", "d", "e"), ids(restored.findAll()));
+        assertEquals(0, partitions.list((dir, name) -> name.endsWith("-of-02.json")).length);
+    }
+
+    @Test
+    void testRenamingIntoAnotherPartitionKeepsTheVersionGoing() {
+        PartitionedProductRepository repository = open(4);
+        repository.compareAndSet("c", 0L, product("c"));
+        String renamedId = "c2";
+        for (int i = 3; repository.partitionOf(renamedId) == repository.partitionOf("c"); i++) {
+            renamedId = "c" + i;
+        }
+
+        Product renamed = repository.compareAndSet("c", 1L, product(renamedId));
+
+        assertEquals(2L, renamed.getVersion());
+        assertEquals(2L, repository.findById(renamedId).getVersion());
+        assertThrows(ProductNotFoundException.class, () -> repository.findById("c"));
+        assertEquals(3L, repository.update(renamedId, product("c")).getVersion());
+    }
+
+    @Test
+    void testRenamingOntoAStoredIdInAnotherPartitionIsRejected() {
+        PartitionedProductRepository repository = open(4);
+        String other = List.of("b", "c", "d").stream()
+            .filter(id -> repository.partitionOf(id) != repository.partitionOf("a"))
+            .findFirst().orElseThrow();
+        Product renamed = product(other);
+        renamed.setTitle("Renamed a");
+
+        assertThrows(ValidationException.class, () -> repository.update("a", renamed));
+        assertEquals("Product a", repository.findById("a").getTitle());
+        assertEquals("Product " + other, repository.findById(other).getTitle());
+    }
+
+    @Test
+    void testFindBySellerIdPagesAcrossPartitions() {
+        PartitionedProductRepository repository = open(4);
+        for (int i = 0; i < 7; i++) {
+            repository.save(sellerProduct("s" + i, "Shop A"));
+        }
+        repository.save(sellerProduct("other", "Shop B"));
+
+        List<Product> seen = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            ProductPage result = repository.findBySellerId("shop-a", page, 3);
+            assertEquals(7, result.getTotalItems());
+            seen.addAll(result.getItems());
+        }
+
+        assertEquals(7, seen.size());
+        assertEquals(7, ids(seen).size());
+        assertFalse(ids(seen).contains("other"));
+    }
+
+    @Test
+    void testChangesSinceOrdersWritesAcrossPartitions() {
+        PartitionedProductRepository repository = open(4);
+        long position = repository.changesSince(0, 100).getSequence();
+        repository.save(product("e"));
+        repository.save(product("f"));
+        repository.delete("a");
+
+        ProductChanges changes = repository.changesSince(position, 100);
+
+        assertFalse(changes.isFullSync());
+        assertEquals(List.of("e", "f"), changes.getUpserts().stream().map(Product::getId).toList());
+        assertEquals(List.of("a"), changes.getDeleted());
+        assertTrue(repository.changesSince(0, 100).isFullSync());
+    }
+
+    @Test
+    void testRacingUpdateAndDeleteAreLoggedInTheOrderTheyApply() throws Exception {
+        PartitionedProductRepository repository = open(4);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 50; i++) {
+                String id = "race-" + i;
+                repository.save(product(id));
+                long position = repository.changesSince(0, 100).getSequence();
+                Future<?> update = executor.submit(() -> repository.update(id, product(id)));
+                Future<?> delete = executor.submit(() -> repository.delete(id));
+                update.get(10, TimeUnit.SECONDS);
+                delete.get(10, TimeUnit.SECONDS);
+
+                ProductChanges changes = repository.changesSince(position, 100);
+                boolean stored = repository.findAll().stream().anyMatch(product -> id.equals(product.getId()));
+                assertEquals(!stored, changes.getDeleted().contains(id), id);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testReplicateKeepsVersionsAcrossPartitions() {
+        PartitionedProductRepository repository = open(4);
+        List<Product> upserts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Product product = product("r" + i);
+            product.setVersion(3L);
+            upserts.add(product);
+        }
+
+        repository.replicate(upserts, List.of("a", "b"));
+
+        assertEquals(22, repository.findAll().size());
+        assertEquals(3L, repository.findById("r11").getVersion());
+        assertThrows(ProductNotFoundException.class, () -> repository.findById("a"));
+        repository.close();
+        assertEquals(3L, open(4).findById("r11").getVersion());
+    }
+}
@@ -0,0 +1,109 @@
+package com.marketplace;
+
+import com.marketplace.application.ProductChangeFeed;
+import com.marketplace.application.ProductService;
+import com.marketplace.domain.Product;
+import com.marketplace.domain.ProductChange;
+import com.marketplace.domain.ProductChanges;
+import com.marketplace.infrastructure.ProductChangeController;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ProductChangeController.class)
+class ProductChangeControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ProductChangeFeed changeFeed;
+
+    @MockBean
+    private ProductService productService;
+
+    private ProductChangeFeed.Subscription subscription;
+
+    @BeforeEach
+    void setUp() {
+        subscription = mock(ProductChangeFeed.Subscription.class);
+        when(changeFeed.subscribe(any(), any(), any())).thenReturn(subscription);
+    }
+
+    @Test
+    void testStreamsChangesAsEvents() throws Exception {
+        MvcResult result = mockMvc.perform(get("/product/changes/stream").param("sellerId", "s1")
+                        .header("Last-Event-ID", "41"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ArgumentCaptor<ProductChangeFeed.Listener> listener = ArgumentCaptor.forClass(ProductChangeFeed.Listener.class);
+        verify(changeFeed).subscribe(eq(new ProductChangeFeed.Filter(null, "s1")), eq(41L), listener.capture());
+
+        Product product = new Product();
+        product.setId("1");
+        listener.getValue().onChange(new ProductChange(42, ProductChange.Type.UPDATED, "1", "s1", 3L,
+            Instant.parse("2026-01-01T00:00:00Z"), product));
+        listener.getValue().onReset(42);
+        listener.getValue().onDropped();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", containsString("text/event-stream")))
+                .andExpect(content().string(containsString("id:42\nevent:updated\ndata:{\"sequence\":42,\"type\":\"UPDATED\"")))
+                .andExpect(content().string(containsString("event:reset\ndata:{\"sequence\":42}")));
+        verify(subscription).cancel();
+    }
+
+    @Test
+    void testLastEventIdParameterIsAcceptedWithoutHeader() throws Exception {
+        mockMvc.perform(get("/product/changes/stream").param("lastEventId", "7").param("productId", " "))
+                .andExpect(request().asyncStarted());
+        verify(changeFeed).subscribe(eq(ProductChangeFeed.Filter.ALL), eq(7L), any());
+    }
+
+    @Test
+    void testInvalidLastEventIdIsBadRequest() throws Exception {
+        mockMvc.perform(get("/product/changes/stream").header("Last-Event-ID", "abc"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(changeFeed);
+    }
+
+    @Test
+    void testGetChangesReturnsTheDelta() throws Exception {
+        Product product = new Product();
+        product.setId("1");
+        when(productService.getChanges(12L, 500)).thenReturn(new ProductChanges(15L, false, List.of(product), List.of("2")));
+
+        mockMvc.perform(get("/product/changes").param("since", "12"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sequence").value(15))
+                .andExpect(jsonPath("$.fullSync").value(false))
+                .andExpect(jsonPath("$.hasMore").value(false))
+                .andExpect(jsonPath("$.upserts[0].id").value("1"))
+                .andExpect(jsonPath("$.deleted[0]").value("2"));
+    }
+
+    @Test
+    void testGetChangesWithoutSinceAsksForAFullSync() throws Exception {
+        when(productService.getChanges(0L, 20)).thenReturn(ProductChanges.fullSync(15L));
+
+        mockMvc.perform(get("/product/changes").param("limit", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fullSync").value(true))
+                .andExpect(jsonPath("$.sequence").value(15));
+    }
+}
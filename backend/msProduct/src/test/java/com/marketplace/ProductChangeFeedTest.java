@@ -0,0 +1,234 @@
+package com.marketplace;
+
+import com.marketplace.application.ProductChangeFeed;
+import com.marketplace.domain.Product;
+import com.marketplace.domain.ProductChange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductChangeFeedTest {
+    private ProductChangeFeed feed = new ProductChangeFeed(5, 3, 3600);
+
+    @AfterEach
+    void tearDown() {
+        feed.shutdown();
+    }
+
+    // Records deliveries: sequences of changes, "reset:<n>" for resets and "dropped"
+    private static class RecordingListener implements ProductChangeFeed.Listener {
+        final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+
+        @Override
+        public void onChange(ProductChange change) throws Exception {
+            received.add(String.valueOf(change.sequence()));
+        }
+
+        @Override
+        public void onReset(long currentSequence) {
+            received.add("reset:" + currentSequence);
+        }
+
+        @Override
+        public void onIdle() {
+            received.add("idle");
+        }
+
+        @Override
+        public void onDropped() {
+            received.add("dropped");
+        }
+
+        String next() throws InterruptedException {
+            String value = received.poll(5, TimeUnit.SECONDS);
+            assertNotNull(value, "nothing delivered");
+            return value;
+        }
+    }
+
+    private static Product product(String id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setVersion(1L);
+        return product;
+    }
+
+    @Test
+    void testPublishedChangesReachMatchingSubscribersInOrder() throws Exception {
+        RecordingListener all = new RecordingListener();
+        RecordingListener onlyTwo = new RecordingListener();
+        feed.subscribe(ProductChangeFeed.Filter.ALL, null, all);
+        feed.subscribe(new ProductChangeFeed.Filter("2", null), null, onlyTwo);
+
+        ProductChange first = feed.publish(ProductChange.Type.CREATED, product("1"));
+        feed.publish(ProductChange.Type.CREATED, product("2"));
+        feed.publish(ProductChange.Type.DELETED, "1", null, null);
+
+        assertEquals(1, first.sequence());
+        assertEquals(1L, first.version());
+        assertEquals(List.of("1", "2", "3"), List.of(all.next(), all.next(), all.next()));
+        assertEquals("2", onlyTwo.next());
+        assertEquals(3, feed.currentSequence());
+    }
+
+    @Test
+    void testConcurrentPublishersAreDeliveredInSequenceOrder() throws Exception {
+        ProductChangeFeed busy = new ProductChangeFeed(0, 1000, 3600);
+        try {
+            RecordingListener listener = new RecordingListener();
+            busy.subscribe(ProductChangeFeed.Filter.ALL, null, listener);
+            Thread[] publishers = new Thread[4];
+            for (int t = 0; t < publishers.length; t++) {
+                int offset = t * 100;
+                publishers[t] = Thread.ofPlatform().start(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        busy.publish(ProductChange.Type.CREATED, product(String.valueOf(offset + i)));
+                    }
+                });
+            }
+            for (Thread publisher : publishers) {
+                publisher.join();
+            }
+
+            for (int expected = 1; expected <= 400; expected++) {
+                assertEquals(String.valueOf(expected), listener.next());
+            }
+        } finally {
+            busy.shutdown();
+        }
+    }
+
+    @Test
+    void testSellerFilterMatchesDeletions() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        feed.subscribe(new ProductChangeFeed.Filter(null, "s1"), null, listener);
+
+        feed.publish(ProductChange.Type.DELETED, "1", "s2", null);
+        feed.publish(ProductChange.Type.DELETED, "2", "s1", null);
+
+        assertEquals("2", listener.next());
+    }
+
+    @Test
+    void testChangesOlderThanThePublishedVersionAreDropped() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        feed.subscribe(ProductChangeFeed.Filter.ALL, null, listener);
+        Product newer = product("1");
+        newer.setVersion(3L);
+        Product older = product("1");
+        older.setVersion(2L);
+
+        // Two updates that committed as 2 then 3, published in the opposite order
+        assertNotNull(feed.publish(ProductChange.Type.UPDATED, newer));
+        assertNull(feed.publish(ProductChange.Type.UPDATED, older));
+        feed.publish(ProductChange.Type.DELETED, "1", null, null);
+        // A product created again after its deletion starts over at version 1
+        ProductChange recreated = feed.publish(ProductChange.Type.CREATED, product("1"));
+
+        assertEquals(List.of("1", "2", "3"), List.of(listener.next(), listener.next(), listener.next()));
+        assertEquals(3, recreated.sequence());
+        assertNull(listener.received.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testResumeReplaysMissedChanges() throws Exception {
+        for (int i = 1; i <= 4; i++) {
+            feed.publish(ProductChange.Type.CREATED, product(String.valueOf(i)));
+        }
+        RecordingListener listener = new RecordingListener();
+        feed.subscribe(ProductChangeFeed.Filter.ALL, 2L, listener);
+        feed.publish(ProductChange.Type.CREATED, product("5"));
+
+        assertEquals(List.of("3", "4", "5"), List.of(listener.next(), listener.next(), listener.next()));
+    }
+
+    @Test
+    void testResumeBeyondHistoryGetsReset() throws Exception {
+        for (int i = 1; i <= 8; i++) {
+            feed.publish(ProductChange.Type.CREATED, product(String.valueOf(i)));
+        }
+        // History holds 4..8, so changes after 1 are partly lost
+        RecordingListener tooOld = new RecordingListener();
+        feed.subscribe(ProductChangeFeed.Filter.ALL, 1L, tooOld);
+        assertEquals("reset:8", tooOld.next());
+
+        // Sequences from before a restart are unknown as well
+        RecordingListener fromTheFuture = new RecordingListener();
+        feed.subscribe(ProductChangeFeed.Filter.ALL, 99L, fromTheFuture);
+        assertEquals("reset:8", fromTheFuture.next());
+
+        // Replaying more than the subscriber buffer holds is a reset too
+        RecordingListener tooMany = new RecordingListener();
+        feed.subscribe(ProductChangeFeed.Filter.ALL, 3L, tooMany);
+        assertEquals("reset:8", tooMany.next());
+    }
+
+    @Test
+    void testSlowSubscriberIsDropped() throws Exception {
+        CountDownLatch delivering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingListener slow = new RecordingListener() {
+            @Override
+            public void onChange(ProductChange change) throws Exception {
+                delivering.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                super.onChange(change);
+            }
+        };
+        ProductChangeFeed.Subscription subscription = feed.subscribe(ProductChangeFeed.Filter.ALL, null, slow);
+        feed.publish(ProductChange.Type.CREATED, product("1"));
+        assertTrue(delivering.await(5, TimeUnit.SECONDS));
+        // Three more fill the buffer, the fifth overflows it
+        for (int i = 2; i <= 6; i++) {
+            feed.publish(ProductChange.Type.CREATED, product(String.valueOf(i)));
+        }
+        release.countDown();
+
+        assertEquals("1", slow.next());
+        assertEquals("dropped", slow.next());
+        assertTrue(subscription.isCancelled());
+        assertEquals(0, feed.subscriberCount());
+    }
+
+    @Test
+    void testFailedDeliveryDropsTheSubscriber() throws Exception {
+        RecordingListener failing = new RecordingListener() {
+            @Override
+            public void onChange(ProductChange change) throws Exception {
+                throw new java.io.IOException("broken pipe");
+            }
+        };
+        feed.subscribe(ProductChangeFeed.Filter.ALL, null, failing);
+        feed.publish(ProductChange.Type.CREATED, product("1"));
+
+        assertEquals("dropped", failing.next());
+        assertEquals(0, feed.subscriberCount());
+    }
+
+    @Test
+    void testCancelledSubscriptionReceivesNothing() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        feed.subscribe(ProductChangeFeed.Filter.ALL, null, listener).cancel();
+        feed.publish(ProductChange.Type.CREATED, product("1"));
+
+        assertNull(listener.received.poll(100, TimeUnit.MILLISECONDS));
+        assertEquals(0, feed.subscriberCount());
+    }
+
+    @Test
+    void testIdleSubscribersGetHeartbeats() throws Exception {
+        feed.shutdown();
+        feed = new ProductChangeFeed(5, 3, 1);
+        RecordingListener listener = new RecordingListener();
+        feed.subscribe(ProductChangeFeed.Filter.ALL, null, listener);
+
+        assertEquals("idle", listener.next());
+    }
+}
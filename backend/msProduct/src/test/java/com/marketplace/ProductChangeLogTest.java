@@ -0,0 +1,79 @@
+package com.marketplace;
+
+import com.marketplace.infrastructure.index.ProductChangeLog;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductChangeLogTest {
+    private final AtomicLong clock = new AtomicLong(1_000);
+    private final ProductChangeLog log = new ProductChangeLog(2, clock::get);
+
+    @Test
+    void testSequencesStartAtTheClockAndKeepGrowing() {
+        long start = log.lastSequence();
+        assertEquals(1_000_000, start);
+        assertEquals(start + 1, log.recordUpsert("1"));
+        clock.set(2_000);
+        assertEquals(2_000_000, log.recordUpsert("2"));
+        clock.set(1_500);
+        assertEquals(2_000_001, log.recordDelete("1"));
+    }
+
+    @Test
+    void testDeltaKeepsOnlyTheLatestChangePerProduct() {
+        long start = log.lastSequence();
+        log.recordUpsert("1");
+        log.recordUpsert("2");
+        log.recordUpsert("1");
+        log.recordDelete("2");
+
+        ProductChangeLog.Delta delta = log.since(start, 10);
+
+        assertEquals(List.of("1"), delta.upserted());
+        assertEquals(List.of("2"), delta.deleted());
+        assertEquals(log.lastSequence(), delta.sequence());
+        assertFalse(delta.hasMore());
+        assertTrue(log.since(log.lastSequence(), 10).upserted().isEmpty());
+    }
+
+    @Test
+    void testDeltaPagesByLimit() {
+        long start = log.lastSequence();
+        long first = log.recordUpsert("1");
+        log.recordUpsert("2");
+        log.recordUpsert("3");
+
+        ProductChangeLog.Delta page = log.since(start, 1);
+        assertEquals(List.of("1"), page.upserted());
+        assertEquals(first, page.sequence());
+        assertTrue(page.hasMore());
+
+        ProductChangeLog.Delta rest = log.since(page.sequence(), 5);
+        assertEquals(List.of("2", "3"), rest.upserted());
+        assertFalse(rest.hasMore());
+    }
+
+    @Test
+    void testPositionsOutsideTheLogNeedAFullSync() {
+        long start = log.lastSequence();
+        log.recordUpsert("1");
+
+        assertNull(log.since(start - 1, 10));
+        assertNull(log.since(log.lastSequence() + 1, 10));
+    }
+
+    @Test
+    void testEvictedTombstonesRaiseTheHorizon() {
+        long start = log.lastSequence();
+        long firstDelete = log.recordDelete("1");
+        log.recordDelete("2");
+        log.recordDelete("3");
+
+        assertNull(log.since(start, 10));
+        assertEquals(List.of("2", "3"), log.since(firstDelete, 10).deleted());
+    }
+}
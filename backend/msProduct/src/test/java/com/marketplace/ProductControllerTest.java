@@ -3,16 +3,26 @@ package com.marketplace;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.marketplace.application.ProductService;
 import com.marketplace.domain.Product;
+import com.marketplace.domain.ProductFilter;
+import com.marketplace.domain.ProductPage;
+import com.marketplace.domain.exceptions.VersionConflictException;
 import com.marketplace.infrastructure.ProductController;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -25,6 +35,22 @@ class ProductControllerTest {
     @MockBean
     private ProductService productService;
 
+    @Autowired
+    private List<Observation.Context> observations;
+
+    @TestConfiguration
+    static class Observations {
+        @Bean
+        ObservationRegistry observationRegistry() {
+            return ObservationRegistry.create();
+        }
+
+        @Bean
+        List<Observation.Context> observations(ObservationRegistry observationRegistry) {
+            return ObservationRecorder.record(observationRegistry);
+        }
+    }
+
     private Product product;
     private ObjectMapper objectMapper = new ObjectMapper();
 
@@ -51,10 +77,97 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.id").value("1"));
     }
 
+    @Test
+    void testGetProductByIdReturnsVersionAsETag() throws Exception {
+        product.setVersion(3L);
+        when(productService.getProductById("1")).thenReturn(product);
+        mockMvc.perform(get("/product/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
+    }
+
+    @Test
+    void testUpdateProductWithIfMatch() throws Exception {
+        product.setVersion(4L);
+        when(productService.updateProduct(eq("1"), any(Product.class), eq(3L))).thenReturn(product);
+        mockMvc.perform(put("/product/1")
+                        .header("If-Match", "\"3\"")
+                        .contentType("application/json")
+                        .content("{\"id\":\"1\",\"title\":\"Test Product\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+    }
+
+    @Test
+    void testUpdateProductWithStaleIfMatchReturnsPreconditionFailed() throws Exception {
+        when(productService.updateProduct(eq("1"), any(Product.class), eq(3L)))
+                .thenThrow(new VersionConflictException("1", 3L, 4L));
+        mockMvc.perform(put("/product/1")
+                        .header("If-Match", "W/\"3\"")
+                        .contentType("application/json")
+                        .content("{\"id\":\"1\",\"title\":\"Test Product\"}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.error").value("VERSION_CONFLICT"));
+    }
+
+    @Test
+    void testPatchProductWithoutIfMatch() throws Exception {
+        when(productService.patchProduct(eq("1"), any(Product.class), isNull())).thenReturn(product);
+        mockMvc.perform(patch("/product/1")
+                        .contentType("application/json")
+                        .content("{\"title\":\"Patched\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testDeleteProductWithStaleIfMatchReturnsPreconditionFailed() throws Exception {
+        doThrow(new VersionConflictException("1", 1L, 2L)).when(productService).deleteProduct("1", 1L);
+        mockMvc.perform(delete("/product/1").header("If-Match", "\"1\""))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void testInvalidIfMatchReturnsBadRequest() throws Exception {
+        mockMvc.perform(delete("/product/1").header("If-Match", "\"abc\""))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testDeleteProduct() throws Exception {
-        doNothing().when(productService).deleteProduct("1");
+        doNothing().when(productService).deleteProduct("1", null);
         mockMvc.perform(delete("/product/1"))
                 .andExpect(status().isOk());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testSearchProductsReturnsFacets() throws Exception {
+        ProductPage page = new ProductPage(Collections.singletonList(product), 0, 20, 1,
+            Map.of("paymentMethod", Map.of("Cash", 1)));
+        when(productService.searchProducts(argThat((ProductFilter filter) ->
+            "Cash".equals(filter.getPaymentMethod()) && "inStock".equals(filter.getStock())
+                && filter.getPriceBucket() == null), eq(0), eq(20))).thenReturn(page);
+
+        mockMvc.perform(get("/product/search").param("paymentMethod", "Cash").param("stock", "inStock"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value("1"))
+                .andExpect(jsonPath("$.totalItems").value(1))
+                .andExpect(jsonPath("$.facets.paymentMethod.Cash").value(1));
+    }
+
+    @Test
+    void testHandlersAndJsonBodiesAreObserved() throws Exception {
+        when(productService.getProductById("1")).thenReturn(product);
+        observations.clear();
+
+        mockMvc.perform(get("/product/1")).andExpect(status().isOk());
+
+        Observation.Context handler = observations.stream()
+            .filter(context -> context.getName().equals("product.controller")).findFirst().orElseThrow();
+        assertEquals("ProductController.getProductById", handler.getContextualName());
+        Observation.Context body = observations.stream()
+            .filter(context -> context.getName().equals("product.json.write")).findFirst().orElseThrow();
+        assertEquals("Product", body.getLowCardinalityKeyValue("type").getValue());
+        // The body is written after the handler returned, so its time is not counted in the handler span
+        assertTrue(observations.indexOf(handler) < observations.indexOf(body));
+    }
+}
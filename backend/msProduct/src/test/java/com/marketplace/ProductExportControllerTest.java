@@ -0,0 +1,83 @@
+package com.marketplace;
+
+import com.marketplace.infrastructure.ProductExportController;
+import com.marketplace.infrastructure.exporter.ProductExporter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ProductExportController.class)
+class ProductExportControllerTest {
+    private static final String BODY = "{\"id\":\"1\"}\n";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ProductExporter exporter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write(BODY.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(exporter).export(any(), any());
+    }
+
+    @Test
+    void testExportNdjsonByDefault() throws Exception {
+        mockMvc.perform(get("/product/export"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"products.ndjson\""))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string(BODY));
+        verify(exporter).export(eq(ProductExporter.Format.NDJSON), any());
+    }
+
+    @Test
+    void testExportCsvGzipped() throws Exception {
+        MvcResult result = mockMvc.perform(get("/product/export").param("format", "csv")
+                        .header("Accept-Encoding", "br, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andReturn();
+        verify(exporter).export(eq(ProductExporter.Format.CSV), any());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            assertEquals(BODY, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testGzipRefusedWithZeroQuality() throws Exception {
+        mockMvc.perform(get("/product/export").header("Accept-Encoding", "gzip;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"));
+    }
+
+    @Test
+    void testUnknownFormatIsBadRequest() throws Exception {
+        mockMvc.perform(get("/product/export").param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("INVALID_ARGUMENT"));
+        verifyNoInteractions(exporter);
+    }
+}
@@ -0,0 +1,105 @@
+package com.marketplace;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.application.ProductService;
+import com.marketplace.domain.AdditionalDetails;
+import com.marketplace.domain.Product;
+import com.marketplace.domain.Reputation;
+import com.marketplace.domain.SellerInformation;
+import com.marketplace.infrastructure.exporter.ProductExporter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProductExporterTest {
+    private ProductService productService;
+    private ProductExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        productService = mock(ProductService.class);
+        exporter = new ProductExporter(productService, new ObjectMapper());
+        SellerInformation seller = new SellerInformation("Seller, Inc.", "10", new Reputation("MercadoLíder", null), null, null);
+        seller.setId("seller-inc");
+        Product first = new Product("1", Arrays.asList("a.webp", "b.webp"), "Phone", "Says \"hi\"\nand more", "$ 100",
+            Arrays.asList("Card", "Cash"), seller, new AdditionalDetails("4.8", "769", "4"));
+        first.setVersion(2L);
+        Product second = new Product();
+        second.setId("2");
+        doAnswer(invocation -> {
+            Consumer<Product> consumer = invocation.getArgument(0);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).when(productService).exportProducts(any());
+    }
+
+    private String export(ProductExporter.Format format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testNdjsonWritesOneProductPerLine() throws IOException {
+        String[] lines = export(ProductExporter.Format.NDJSON).split("\n", -1);
+
+        assertEquals(3, lines.length);
+        assertEquals("", lines[2]);
+        ObjectMapper mapper = new ObjectMapper();
+        Product first = mapper.readValue(lines[0], Product.class);
+        assertEquals("Phone", first.getTitle());
+        assertEquals("Seller, Inc.", first.getSellerInformation().getName());
+        assertEquals("2", mapper.readValue(lines[1], Product.class).getId());
+    }
+
+    @Test
+    void testCsvQuotesFieldsThatNeedIt() throws IOException {
+        String[] rows = export(ProductExporter.Format.CSV).split("\r\n", -1);
+
+        assertEquals("id,title,description,price,paymentMethods,images,sellerId,sellerName,reputationLevel,"
+            + "ratings,reviews,availableStock,version", rows[0]);
+        assertEquals("1,Phone,\"Says \"\"hi\"\"\nand more\",$ 100,Card|Cash,a.webp|b.webp,seller-inc,\"Seller, Inc.\","
+            + "MercadoLíder,4.8,769,4,2", rows[1]);
+        assertEquals("2,,,,,,,,,,,,", rows[2]);
+        assertEquals("", rows[3]);
+    }
+
+    @Test
+    void testOutputIsLeftOpen() throws IOException {
+        OutputStream out = spy(new ByteArrayOutputStream());
+        exporter.export(ProductExporter.Format.NDJSON, out);
+        exporter.export(ProductExporter.Format.CSV, out);
+        verify(out, never()).close();
+    }
+
+    @Test
+    void testWriteFailureSurfacesAsIOException() {
+        OutputStream failing = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("client went away");
+            }
+        };
+        assertThrows(IOException.class, () -> exporter.export(ProductExporter.Format.NDJSON, failing));
+    }
+
+    @Test
+    void testFormatOf() {
+        assertEquals(ProductExporter.Format.CSV, ProductExporter.Format.of("CSV"));
+        assertEquals(ProductExporter.Format.NDJSON, ProductExporter.Format.of("ndjson"));
+        assertThrows(IllegalArgumentException.class, () -> ProductExporter.Format.of("xml"));
+        assertEquals(List.of(ProductExporter.Format.NDJSON, ProductExporter.Format.CSV), List.of(ProductExporter.Format.values()));
+    }
+}
@@ -0,0 +1,152 @@
+package com.marketplace;
+
+import com.marketplace.application.ProductFacetIndex;
+import com.marketplace.domain.AdditionalDetails;
+import com.marketplace.domain.Product;
+import com.marketplace.domain.Reputation;
+import com.marketplace.domain.SellerInformation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static com.marketplace.application.ProductFacetIndex.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductFacetIndexTest {
+    private ProductFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductFacetIndex("100000, 1000000");
+    }
+
+    private static Product product(String id, String price, String stock, String sellerName, String... paymentMethods) {
+        Product product = new Product();
+        product.setId(id);
+        product.setPrice(price);
+        product.setPaymentMethods(Arrays.asList(paymentMethods));
+        product.setAdditionalDetails(new AdditionalDetails("4.5", "10", stock));
+        if (sellerName != null) {
+            product.setSellerInformation(new SellerInformation(sellerName, "1", null, null, null));
+        }
+        product.setVersion(1L);
+        return product;
+    }
+
+    private ProductFacetIndex.Result search(Map<String, String> filters) {
+        return index.search(filters, Map.of(), 0, 100);
+    }
+
+    @Test
+    void testPriceBucketLabels() {
+        assertEquals(List.of("0-100000", "100000-1000000", "1000000+"), index.priceBuckets());
+    }
+
+    @Test
+    void testUnfilteredCountsComeFromCounters() {
+        index.put(product("1", "50000", "3", "Shop A", "Cash", "Card"));
+        index.put(product("2", "$ 150000", "0", "Shop A", "Cash"));
+        index.put(product("3", "1853861", null, "Shop B", "Card", "Card"));
+
+        ProductFacetIndex.Result result = search(Map.of());
+
+        assertEquals(3, result.total());
+        assertEquals(List.of("1", "2", "3"), result.productIds());
+        assertEquals(Map.of("Cash", 2, "Card", 2), result.facets().get(PAYMENT_METHOD));
+        assertEquals(List.of("0-100000", "100000-1000000", "1000000+"),
+            List.copyOf(result.facets().get(PRICE_BUCKET).keySet()));
+        assertEquals(Map.of(IN_STOCK, 1, OUT_OF_STOCK, 1), result.facets().get(STOCK));
+    }
+
+    @Test
+    void testFiltersIntersect() {
+        index.put(product("1", "50000", "3", "Shop A", "Cash", "Card"));
+        index.put(product("2", "150000", "0", "Shop A", "Cash"));
+        index.put(product("3", "60000", "5", "Shop B", "Card"));
+
+        ProductFacetIndex.Result result = search(Map.of(PAYMENT_METHOD, "Card", PRICE_BUCKET, "0-100000"));
+
+        assertEquals(List.of("1", "3"), result.productIds());
+        assertEquals(Map.of("Card", 2, "Cash", 1), result.facets().get(PAYMENT_METHOD));
+        assertEquals(Map.of(IN_STOCK, 2), result.facets().get(STOCK));
+        assertEquals(0, search(Map.of(PAYMENT_METHOD, "Bitcoin")).total());
+        assertEquals(List.of("3"), search(Map.of(SELLER_ID, "shop-b")).productIds());
+    }
+
+    @Test
+    void testReputationUsesCurrentSellerLevels() {
+        Product embedded = product("1", "50000", "1", "Shop A", "Cash");
+        embedded.getSellerInformation().setReputation(new Reputation("Silver", null));
+        index.put(embedded);
+        index.put(product("2", "50000", "1", "Shop B", "Cash"));
+
+        ProductFacetIndex.Result result = index.search(Map.of(REPUTATION_LEVEL, "Gold"), Map.of("shop-b", "Gold"), 0, 10);
+        assertEquals(List.of("2"), result.productIds());
+        assertEquals(Map.of("Gold", 1), result.facets().get(REPUTATION_LEVEL));
+
+        Map<String, Integer> levels = index.search(Map.of(), Map.of("shop-b", "Gold"), 0, 10).facets().get(REPUTATION_LEVEL);
+        assertEquals(Map.of("Silver", 1, "Gold", 1), levels);
+        levels = index.search(Map.of(), Map.of("shop-a", "Gold", "shop-b", "Gold"), 0, 10).facets().get(REPUTATION_LEVEL);
+        assertEquals(Map.of("Gold", 2), levels);
+    }
+
+    @Test
+    void testUpdateKeepsPositionAndIgnoresOlderVersions() {
+        index.put(product("1", "50000", "1", "Shop A", "Cash"));
+        index.put(product("2", "50000", "1", "Shop A", "Cash"));
+        Product newer = product("1", "50000", "1", "Shop A", "Card");
+        newer.setVersion(3L);
+        index.put(newer);
+        Product older = product("1", "50000", "1", "Shop A", "Cash");
+        older.setVersion(2L);
+        index.put(older);
+
+        ProductFacetIndex.Result result = search(Map.of());
+        assertEquals(List.of("1", "2"), result.productIds());
+        assertEquals(Map.of("Card", 1, "Cash", 1), result.facets().get(PAYMENT_METHOD));
+    }
+
+    @Test
+    void testRemoveAndCompaction() {
+        for (int i = 0; i < 3000; i++) {
+            index.put(product("p" + i, "50000", "1", null, "Cash"));
+        }
+        for (int i = 0; i < 2000; i++) {
+            index.remove("p" + i);
+        }
+        index.remove("unknown");
+
+        ProductFacetIndex.Result result = index.search(Map.of(PAYMENT_METHOD, "Cash"), Map.of(), 10, 2);
+        assertEquals(1000, result.total());
+        assertEquals(List.of("p2010", "p2011"), result.productIds());
+        assertEquals(Map.of("Cash", 1000), search(Map.of()).facets().get(PAYMENT_METHOD));
+        assertEquals(1000, index.size());
+    }
+
+    @Test
+    void testBuildIfNeededRunsOnce() {
+        index.buildIfNeeded(1, () -> List.of(product("1", "1", "1", null, "Cash")));
+        index.buildIfNeeded(1, () -> { throw new AssertionError("catalog read twice"); });
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void testNewCatalogGenerationRebuildsFromScratch() {
+        index.buildIfNeeded(1, () -> List.of(product("1", "1", "1", null, "Cash"), product("2", "1", "1", null, "Cash")));
+        index.put(product("3", "1", "1", null, "Card"));
+
+        index.buildIfNeeded(2, () -> List.of(product("2", "1", "1", null, "Card")));
+
+        assertEquals(1, index.size());
+        assertEquals(Map.of("Card", 1), search(Map.of()).facets().get(PAYMENT_METHOD));
+        assertEquals(List.of("2"), search(Map.of()).productIds());
+    }
+
+    @Test
+    void testUnknownFacetRejected() {
+        assertThrows(IllegalArgumentException.class, () -> search(Map.of("color", "red")));
+    }
+}
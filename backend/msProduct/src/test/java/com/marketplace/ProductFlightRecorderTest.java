@@ -0,0 +1,137 @@
+package com.marketplace;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.infrastructure.JsonProductRepository;
+import com.marketplace.infrastructure.jfr.ProductFlightRecorder;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.marketplace.TestProducts.product;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductFlightRecorderTest {
+    @TempDir
+    Path directory;
+
+    private final ProductFlightRecorder recorder = new ProductFlightRecorder("default", 60, 16);
+
+    @AfterEach
+    void tearDown() {
+        recorder.close();
+    }
+
+    private List<RecordedEvent> dump(String eventName) throws IOException {
+        Path dump = recorder.dump();
+        try {
+            return RecordingFile.readAllEvents(dump).stream()
+                .filter(event -> event.getEventType().getName().equals(eventName))
+                .sorted(Comparator.comparing(RecordedEvent::getStartTime))
+                .toList();
+        } finally {
+            Files.delete(dump);
+        }
+    }
+
+    @Test
+    void testStoreOperationsAndFileIoAreRecorded() throws IOException {
+        File dataFile = directory.resolve("products.json").toFile();
+        new ObjectMapper().writeValue(dataFile, List.of(product("a"), product("b")));
+        JsonProductRepository repository = new JsonProductRepository(dataFile.getPath());
+        assertTrue(recorder.start(null));
+
+        repository.findById("a");
+        repository.save(product("c"));
+        repository.close();
+
+        List<RecordedEvent> events = dump("com.marketplace.ProductStore");
+        RecordedEvent read = events.stream().filter(event -> event.getString("operation").equals("file.read"))
+            .findFirst().orElseThrow();
+        assertEquals(2, read.getInt("catalogSize"));
+        assertTrue(read.getLong("bytes") > 0);
+        RecordedEvent findById = events.stream().filter(event -> event.getString("operation").equals("findById"))
+            .findFirst().orElseThrow();
+        assertEquals("a", findById.getString("productId"));
+        assertEquals("product-store", findById.getString("store"));
+        RecordedEvent write = events.stream().filter(event -> event.getString("operation").equals("file.write"))
+            .findFirst().orElseThrow();
+        assertEquals(dataFile.length(), write.getLong("bytes"));
+        assertEquals(3, write.getInt("catalogSize"));
+        RecordedEvent save = events.stream().filter(event -> event.getString("operation").equals("save"))
+            .findFirst().orElseThrow();
+        assertEquals("c", save.getString("productId"));
+        // The save waits for its file write, so its event spans it
+        assertFalse(save.getDuration().compareTo(write.getDuration()) < 0);
+    }
+
+    @Test
+    void testSnapshotHitsAndMissesAreRecorded() throws IOException {
+        File dataFile = directory.resolve("products.json").toFile();
+        new ObjectMapper().writeValue(dataFile, List.of(product("a")));
+        JsonProductRepository repository = new JsonProductRepository(dataFile.getPath());
+        assertTrue(recorder.start(null));
+
+        repository.findAll();
+        repository.findAll();
+        repository.close();
+
+        List<RecordedEvent> events = dump("com.marketplace.ProductCache");
+        assertEquals(List.of(false, true), events.stream().map(event -> event.getBoolean("hit")).toList());
+        assertEquals(dataFile.getPath(), events.get(0).getString("key"));
+    }
+
+    @Test
+    void testEnvironmentAndSystemPropertiesAreNotRecorded() throws IOException {
+        ProductFlightRecorder profiling = new ProductFlightRecorder("profile", 60, 16);
+        try {
+            assertTrue(profiling.start(null));
+            Path dump = profiling.dump();
+            List<String> recorded;
+            try {
+                recorded = RecordingFile.readAllEvents(dump).stream().map(event -> event.getEventType().getName()).toList();
+            } finally {
+                Files.delete(dump);
+            }
+
+            assertFalse(recorded.isEmpty());
+            assertFalse(recorded.contains("jdk.InitialEnvironmentVariable"));
+            assertFalse(recorded.contains("jdk.InitialSystemProperty"));
+            assertFalse(recorded.contains("jdk.JVMInformation"));
+            assertFalse(recorded.contains("jdk.SystemProcess"));
+        } finally {
+            profiling.close();
+        }
+    }
+
+    @Test
+    void testOneRecordingAtATime() throws IOException {
+        assertNull(recorder.status());
+        assertNull(recorder.dump());
+
+        assertTrue(recorder.start(Duration.ofMinutes(5)));
+        assertFalse(recorder.start(null));
+
+        assertEquals("RUNNING", recorder.status().state());
+        assertEquals(Duration.ofMinutes(5), recorder.status().duration());
+        assertEquals("default", recorder.status().settings());
+        assertTrue(recorder.stop());
+        assertNull(recorder.status());
+        assertFalse(recorder.stop());
+    }
+
+    @Test
+    void testUnknownSettingsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ProductFlightRecorder("verbose", 60, 16));
+        assertThrows(IllegalArgumentException.class, () -> new ProductFlightRecorder("default", 0, 16));
+    }
+}
@@ -0,0 +1,68 @@
+package com.marketplace;
+
+import com.marketplace.domain.exceptions.ImportInProgressException;
+import com.marketplace.infrastructure.ProductImportController;
+import com.marketplace.infrastructure.dto.ImportReport;
+import com.marketplace.infrastructure.importer.NdjsonProductImporter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ProductImportController.class)
+class ProductImportControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private NdjsonProductImporter importer;
+
+    private final ImportReport report = new ImportReport(ImportReport.Status.COMPLETED, 3, 2, 1, 1,
+        LocalDateTime.now(), LocalDateTime.now(), List.of(new ImportReport.LineError(2, "Product ID cannot be null or empty")));
+
+    @Test
+    void testImportProducts() throws Exception {
+        when(importer.importProducts(any(InputStream.class))).thenReturn(report);
+        mockMvc.perform(post("/product/import")
+                .contentType("application/x-ndjson")
+                .content("{\"id\":\"1\"}\n{}\n{\"id\":\"3\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.errors[0].line").value(2));
+    }
+
+    @Test
+    void testImportWhileAnotherRunsIsConflict() throws Exception {
+        when(importer.importProducts(any(InputStream.class))).thenThrow(new ImportInProgressException());
+        mockMvc.perform(post("/product/import").content("{\"id\":\"1\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("IMPORT_IN_PROGRESS"));
+    }
+
+    @Test
+    void testLatestImport() throws Exception {
+        when(importer.latest()).thenReturn(Optional.of(report));
+        mockMvc.perform(get("/product/import"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.linesRead").value(3));
+    }
+
+    @Test
+    void testNoImportYet() throws Exception {
+        when(importer.latest()).thenReturn(Optional.empty());
+        mockMvc.perform(get("/product/import"))
+                .andExpect(status().isNoContent());
+    }
+}
@@ -0,0 +1,120 @@
+package com.marketplace;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.domain.Product;
+import com.marketplace.infrastructure.interning.PrefixCompressedStringList;
+import com.marketplace.infrastructure.interning.ProductInterner;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductInternerTest {
+    private static final int CATALOG_SIZE = 2_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Parses the bundled catalog repeatedly so every product has its own String instances,
+    // as it would after loading a large catalog file.
+    private List<Product> loadCatalog(int size) throws IOException {
+        File source = new File("src/main/resources/products.json");
+        List<Product> catalog = new ArrayList<>(size);
+        while (catalog.size() < size) {
+            for (Product product : objectMapper.readValue(source, new TypeReference<List<Product>>() {})) {
+                product.setId(String.valueOf(catalog.size()));
+                catalog.add(product);
+                if (catalog.size() == size) {
+                    break;
+                }
+            }
+        }
+        return catalog;
+    }
+
+    @Test
+    void testInterningCutsRetainedCatalogFootprint() throws IOException {
+        List<Product> catalog = loadCatalog(CATALOG_SIZE);
+        long before = GraphLayout.parseInstance(catalog).totalSize();
+
+        ProductInterner interner = new ProductInterner();
+        interner.internAll(catalog);
+        long after = GraphLayout.parseInstance(catalog, interner).totalSize();
+
+        assertTrue(after < before * 0.75, () -> String.format(
+            "Interning should cut the retained catalog by at least a quarter, but %d bytes became %d", before, after));
+    }
+
+    @Test
+    void testRepeatedValuesShareOneInstance() throws IOException {
+        List<Product> catalog = loadCatalog(2);
+        ProductInterner interner = new ProductInterner();
+        interner.internAll(catalog);
+
+        Product first = catalog.get(0);
+        Product second = catalog.get(1);
+        assertSame(first.getSellerInformation().getName(), second.getSellerInformation().getName());
+        assertSame(first.getSellerInformation().getReputation().getLevel(),
+            second.getSellerInformation().getReputation().getLevel());
+        assertSame(first.getPaymentMethods(), second.getPaymentMethods());
+    }
+
+    @Test
+    void testPerProductValuesDoNotGrowTheDictionary() throws IOException {
+        List<Product> catalog = loadCatalog(100);
+        for (Product product : catalog) {
+            product.getAdditionalDetails().setAvailableStock("stock-" + product.getId());
+            product.getSellerInformation().getMetrics().setSales("sales-" + product.getId());
+            product.setImages(List.of("https://http2.mlstatic.com/D_" + product.getId() + ".webp"));
+        }
+        ProductInterner interner = new ProductInterner();
+        interner.intern(catalog.get(0));
+        int distinct = interner.distinctValues();
+
+        interner.internAll(catalog);
+
+        assertTrue(interner.distinctValues() < distinct + 10,
+            () -> "Per-product values were added to the dictionary: " + interner.distinctValues());
+    }
+
+    @Test
+    void testImagesArePrefixCompressedWithoutChangingValues() {
+        Product product = new Product();
+        List<String> images = Arrays.asList(
+            "https://http2.mlstatic.com/D_NQ_NP_2X_800035-F.webp", "no-slash.png", null, "https://cdn.example.com/a/b.jpg");
+        product.setImages(new ArrayList<>(images));
+
+        new ProductInterner().intern(product);
+
+        assertInstanceOf(PrefixCompressedStringList.class, product.getImages());
+        assertEquals(images, product.getImages());
+    }
+
+    @Test
+    void testInterningKeepsFreeTextAndHandlesMissingParts() {
+        Product product = new Product();
+        product.setId("1");
+        product.setTitle("Title");
+
+        Product interned = new ProductInterner().intern(product);
+
+        assertSame(product, interned);
+        assertEquals("Title", interned.getTitle());
+        assertNull(interned.getSellerInformation());
+        assertNull(new ProductInterner().intern(null));
+    }
+
+    @Test
+    void testInternedListsAreReadOnly() throws IOException {
+        Product product = loadCatalog(1).get(0);
+        new ProductInterner().intern(product);
+        assertThrows(UnsupportedOperationException.class, () -> product.getPaymentMethods().add("Barter"));
+        assertThrows(UnsupportedOperationException.class, () -> product.getImages().add("x"));
+    }
+}
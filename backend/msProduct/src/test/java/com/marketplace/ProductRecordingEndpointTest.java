@@ -0,0 +1,83 @@
+package com.marketplace;
+
+import com.marketplace.infrastructure.dto.RecordingStatus;
+import com.marketplace.infrastructure.jfr.ProductFlightRecorder;
+import com.marketplace.infrastructure.jfr.ProductRecordingEndpoint;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductRecordingEndpointTest {
+    @TempDir
+    Path directory;
+
+    private final ProductFlightRecorder recorder = mock(ProductFlightRecorder.class);
+    private final ProductRecordingEndpoint endpoint = new ProductRecordingEndpoint(recorder);
+
+    private static RecordingStatus running(Duration duration) {
+        return new RecordingStatus(1, "RUNNING", "profile", Instant.parse("2024-05-01T10:00:00Z"), duration,
+            Duration.ofMinutes(15), 4096);
+    }
+
+    @Test
+    void testStartRecording() {
+        when(recorder.start(Duration.ofSeconds(60))).thenReturn(true);
+        when(recorder.status()).thenReturn(running(Duration.ofSeconds(60)));
+
+        WebEndpointResponse<RecordingStatus> response = endpoint.startRecording(60L);
+
+        assertEquals(201, response.getStatus());
+        assertEquals("RUNNING", response.getBody().state());
+        assertEquals(4096, response.getBody().sizeBytes());
+    }
+
+    @Test
+    void testStartWhileRunningConflicts() {
+        when(recorder.start(null)).thenReturn(false);
+        when(recorder.status()).thenReturn(running(null));
+
+        WebEndpointResponse<RecordingStatus> response = endpoint.startRecording(null);
+
+        assertEquals(409, response.getStatus());
+        assertEquals(1, response.getBody().id());
+    }
+
+    @Test
+    void testInvalidDurationIsRejected() {
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.startRecording(0L));
+        verify(recorder, never()).start(any());
+    }
+
+    @Test
+    void testDumpStreamsTheRecordingAndDeletesTheFile() throws Exception {
+        Path dump = Files.write(directory.resolve("dump.jfr"), new byte[] {'F', 'L', 'R', 0});
+        when(recorder.dump()).thenReturn(dump);
+
+        WebEndpointResponse<Resource> response = endpoint.dumpRecording("dump");
+
+        assertEquals(200, response.getStatus());
+        try (InputStream content = response.getBody().getInputStream()) {
+            assertArrayEquals(new byte[] {'F', 'L', 'R', 0}, content.readAllBytes());
+        }
+        assertFalse(Files.exists(dump));
+    }
+
+    @Test
+    void testNothingToDumpOrStopWithoutRecording() throws Exception {
+        assertEquals(204, endpoint.recordingStatus().getStatus());
+        assertEquals(204, endpoint.dumpRecording("dump").getStatus());
+        assertEquals(404, endpoint.dumpRecording("other").getStatus());
+        assertEquals(404, endpoint.stopRecording().getStatus());
+    }
+}
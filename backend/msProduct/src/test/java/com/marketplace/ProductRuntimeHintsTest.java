@@ -0,0 +1,55 @@
+package com.marketplace;
+
+import com.marketplace.domain.AdditionalDetails;
+import com.marketplace.domain.Metrics;
+import com.marketplace.domain.Product;
+import com.marketplace.domain.PurchaseOptions;
+import com.marketplace.domain.Reputation;
+import com.marketplace.domain.SellerInformation;
+import com.marketplace.infrastructure.config.ProductRuntimeHints;
+import com.marketplace.infrastructure.dto.ErrorResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductRuntimeHintsTest {
+    private RuntimeHints hints;
+
+    @BeforeEach
+    void setUp() {
+        hints = new RuntimeHints();
+        new ProductRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void testDomainTypesAreRegisteredForBinding() {
+        for (Class<?> type : new Class<?>[] {
+                Product.class, SellerInformation.class, Reputation.class, Metrics.class,
+                PurchaseOptions.class, AdditionalDetails.class }) {
+            assertTrue(RuntimeHintsPredicates.reflection().onType(type).test(hints),
+                    type.getSimpleName() + " should be registered for reflection");
+        }
+    }
+
+    @Test
+    void testAccessorsAreRegistered() throws NoSuchMethodException {
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(Product.class.getMethod("setSellerInformation", SellerInformation.class)).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(Reputation.class.getMethod("getLevel")).test(hints));
+    }
+
+    @Test
+    void testErrorResponseIsRegistered() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(ErrorResponse.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(ErrorResponse.ValidationError.class).test(hints));
+    }
+
+    @Test
+    void testCatalogResourceIsRegistered() {
+        assertTrue(RuntimeHintsPredicates.resource().forResource("products.json").test(hints));
+    }
+}
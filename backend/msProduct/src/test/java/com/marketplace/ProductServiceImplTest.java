@@ -1,16 +1,35 @@
 package com.marketplace;
 
+import com.marketplace.application.ProductChangeFeed;
+import com.marketplace.application.MissingProductFilter;
+import com.marketplace.application.ProductFacetIndex;
 import com.marketplace.application.ProductServiceImpl;
+import com.marketplace.application.SellerReputationCache;
 import com.marketplace.domain.Product;
+import com.marketplace.domain.ProductChange;
+import com.marketplace.domain.ProductChanges;
+import com.marketplace.domain.ProductFilter;
+import com.marketplace.domain.ProductPage;
 import com.marketplace.domain.ProductRepository;
+import com.marketplace.domain.Reputation;
+import com.marketplace.domain.SellerInformation;
+import com.marketplace.domain.SellerRepository;
+import com.marketplace.domain.exceptions.DataAccessException;
+import com.marketplace.domain.exceptions.ProductNotFoundException;
+import com.marketplace.domain.exceptions.VersionConflictException;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -19,7 +38,21 @@ class ProductServiceImplTest {
     @Mock
     private ProductRepository productRepository;
 
-    @InjectMocks
+    @Mock
+    private SellerRepository sellerRepository;
+
+    @Mock
+    private ProductChangeFeed changeFeed;
+
+    @Spy
+    private ProductFacetIndex facetIndex = new ProductFacetIndex("100000,1000000");
+
+    // Disabled here, so lookups reach the mocked repository; see the missing-product tests below
+    @Spy
+    private MissingProductFilter missingProducts = new MissingProductFilter(false, 1000, 0.01, 100, 30000);
+
+    private SellerReputationCache sellerLevels;
+
     private ProductServiceImpl productService;
 
     private Product product;
@@ -27,6 +60,9 @@ class ProductServiceImplTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        sellerLevels = new SellerReputationCache(sellerRepository, 60_000);
+        productService = new ProductServiceImpl(productRepository, sellerRepository, facetIndex, changeFeed,
+            missingProducts, sellerLevels);
         product = new Product();
         product.setId("1");
         product.setTitle("Test Product");
@@ -70,4 +106,598 @@ class ProductServiceImplTest {
         assertDoesNotThrow(() -> productService.deleteProduct("1"));
         verify(productRepository, times(1)).delete("1");
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testUpdateProductWithExpectedVersionUsesCompareAndSet() {
+        when(productRepository.compareAndSet("1", 3L, product)).thenReturn(product);
+        Product updated = productService.updateProduct("1", product, 3L);
+        assertSame(product, updated);
+        verify(productRepository, never()).update(any(), any());
+    }
+
+    @Test
+    void testUpdateProductWithoutExpectedVersionUsesUpdate() {
+        when(productRepository.update("1", product)).thenReturn(product);
+        assertSame(product, productService.updateProduct("1", product, null));
+        verify(productRepository, never()).compareAndSet(any(), anyLong(), any());
+    }
+
+    @Test
+    void testPatchProductMergesNonNullFields() {
+        product.setVersion(2L);
+        product.setDescription("Original description");
+        Product patch = new Product();
+        patch.setTitle("Patched");
+        when(productRepository.findById("1")).thenReturn(product);
+        when(productRepository.compareAndSet(eq("1"), eq(2L), any(Product.class))).thenAnswer(inv -> inv.getArgument(2));
+
+        Product patched = productService.patchProduct("1", patch, 2L);
+
+        assertEquals("1", patched.getId());
+        assertEquals("Patched", patched.getTitle());
+        assertEquals("Original description", patched.getDescription());
+    }
+
+    @Test
+    void testPatchProductWithStaleVersionFailsWithoutWriting() {
+        product.setVersion(4L);
+        when(productRepository.findById("1")).thenReturn(product);
+
+        assertThrows(VersionConflictException.class, () -> productService.patchProduct("1", new Product(), 3L));
+        verify(productRepository, never()).compareAndSet(any(), anyLong(), any());
+    }
+
+    @Test
+    void testUnconditionalPatchRetriesAfterConcurrentWrite() {
+        Product newer = new Product();
+        newer.setId("1");
+        newer.setVersion(2L);
+        product.setVersion(1L);
+        when(productRepository.findById("1")).thenReturn(product, newer);
+        when(productRepository.compareAndSet(eq("1"), eq(1L), any(Product.class)))
+            .thenThrow(new VersionConflictException("1", 1L, 2L));
+        when(productRepository.compareAndSet(eq("1"), eq(2L), any(Product.class))).thenAnswer(inv -> inv.getArgument(2));
+
+        assertNotNull(productService.patchProduct("1", new Product(), null));
+        verify(productRepository, times(2)).findById("1");
+    }
+
+    @Test
+    void testDeleteProductWithExpectedVersion() {
+        productService.deleteProduct("1", 5L);
+        verify(productRepository).deleteIfVersion("1", 5L);
+        verify(productRepository, never()).delete(any());
+    }
+
+    @Test
+    void testCreateProductStoresSellerOnceAndKeepsReference() {
+        SellerInformation seller = new SellerInformation("Tienda Oficial de Samsung", "100",
+            new Reputation("MercadoLíder", "Great"), null, null);
+        product.setSellerInformation(seller);
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(sellerRepository.findById("tienda-oficial-de-samsung")).thenReturn(Optional.empty(), Optional.of(seller));
+
+        Product created = productService.createProduct(product);
+
+        verify(sellerRepository).saveAll(List.of(seller));
+        verify(productRepository).save(argThat(stored ->
+            "tienda-oficial-de-samsung".equals(stored.getSellerInformation().getId())
+                && stored.getSellerInformation().getName() == null));
+        assertSame(seller, created.getSellerInformation());
+    }
+
+    @Test
+    void testUpdateProductKeepsTheStoredSeller() {
+        product.setSellerInformation(new SellerInformation("Seller One", "10", null, null, null));
+        SellerInformation stored = new SellerInformation("Seller One", "11", null, null, null);
+        stored.setId("seller-one");
+        when(sellerRepository.findById("seller-one")).thenReturn(Optional.of(stored));
+        when(productRepository.update(eq("1"), any(Product.class))).thenAnswer(invocation -> invocation.getArgument(1));
+
+        Product updated = productService.updateProduct("1", product);
+
+        verify(sellerRepository, never()).saveAll(any());
+        assertSame(stored, updated.getSellerInformation());
+    }
+
+    @Test
+    void testGetProductByIdJoinsStoredSeller() {
+        SellerInformation reference = new SellerInformation();
+        reference.setId("s1");
+        product.setSellerInformation(reference);
+        product.setVersion(3L);
+        SellerInformation stored = new SellerInformation("Seller One", "10", null, null, null);
+        stored.setId("s1");
+        when(productRepository.findById("1")).thenReturn(product);
+        when(sellerRepository.findById("s1")).thenReturn(Optional.of(stored));
+
+        Product found = productService.getProductById("1");
+
+        assertSame(stored, found.getSellerInformation());
+        assertEquals(3L, found.getVersion());
+        assertSame(reference, product.getSellerInformation());
+    }
+
+    @Test
+    void testGetAllProductsJoinsUpdatedSellerIntoEmbeddedSellers() {
+        product.setSellerInformation(new SellerInformation("Séller Ñandú", "5", null, null, null));
+        SellerInformation updated = new SellerInformation("Séller Ñandú", "6", null, null, null);
+        updated.setId("seller-nandu");
+        when(productRepository.findAll()).thenReturn(Arrays.asList(product));
+        when(sellerRepository.findById("seller-nandu")).thenReturn(Optional.of(updated));
+
+        List<Product> products = productService.getAllProducts();
+
+        assertEquals("6", products.get(0).getSellerInformation().getProductsCount());
+    }
+
+    @Test
+    void testGetProductByIdKeepsSellerMissingFromStore() {
+        SellerInformation seller = new SellerInformation("Unknown", "1", null, null, null);
+        product.setSellerInformation(seller);
+        when(productRepository.findById("1")).thenReturn(product);
+
+        assertSame(product, productService.getProductById("1"));
+    }
+
+    @Test
+    void testPatchProductKeepsSellerReference() {
+        SellerInformation reference = new SellerInformation();
+        reference.setId("s1");
+        product.setSellerInformation(reference);
+        product.setVersion(1L);
+        Product patch = new Product();
+        patch.setTitle("Patched");
+        when(productRepository.findById("1")).thenReturn(product);
+        when(productRepository.compareAndSet(eq("1"), eq(1L), any(Product.class)))
+            .thenAnswer(invocation -> invocation.getArgument(2));
+
+        Product patched = productService.patchProduct("1", patch, null);
+
+        assertEquals("Patched", patched.getTitle());
+        assertEquals("s1", patched.getSellerInformation().getId());
+        verify(sellerRepository, never()).save(any());
+    }
+
+    @Test
+    void testGetProductsBySellerJoinsSeller() {
+        SellerInformation reference = new SellerInformation();
+        reference.setId("s1");
+        product.setSellerInformation(reference);
+        SellerInformation stored = new SellerInformation("Seller One", "10", null, null, null);
+        stored.setId("s1");
+        when(productRepository.findBySellerId("s1", 1, 5)).thenReturn(new ProductPage(Arrays.asList(product), 1, 5, 6));
+        when(sellerRepository.findById("s1")).thenReturn(Optional.of(stored));
+
+        ProductPage page = productService.getProductsBySeller("s1", 1, 5);
+
+        assertEquals(6, page.getTotalItems());
+        assertEquals(2, page.getTotalPages());
+        assertSame(stored, page.getItems().get(0).getSellerInformation());
+    }
+
+    @Test
+    void testGetProductsBySellerValidatesPaging() {
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductsBySeller(" ", 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductsBySeller("s1", -1, 10));
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductsBySeller("s1", 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductsBySeller("s1", 0, 101));
+        assertThrows(IllegalArgumentException.class,
+            () -> productService.getProductsBySeller("s1", Integer.MAX_VALUE, 100));
+        verify(productRepository, never()).findBySellerId(anyString(), anyInt(), anyInt());
+    }
+
+    private static Product facetProduct(String id, String price, String sellerId) {
+        Product facetProduct = new Product();
+        facetProduct.setId(id);
+        facetProduct.setPrice(price);
+        facetProduct.setPaymentMethods(Arrays.asList("Cash"));
+        facetProduct.setSellerInformation(new SellerInformation());
+        facetProduct.getSellerInformation().setId(sellerId);
+        facetProduct.setVersion(1L);
+        return facetProduct;
+    }
+
+    @Test
+    void testSearchProductsBuildsIndexOnceAndJoinsSellerLevels() {
+        Product cheap = facetProduct("1", "50000", "s1");
+        Product expensive = facetProduct("2", "2000000", "s2");
+        when(productRepository.findAll()).thenReturn(Arrays.asList(cheap, expensive));
+        when(productRepository.findById("2")).thenReturn(expensive);
+        SellerInformation gold = new SellerInformation("Gold Seller", null, new Reputation("Gold", null), null, null);
+        gold.setId("s2");
+        when(sellerRepository.findAll()).thenReturn(Arrays.asList(gold));
+
+        ProductPage page = productService.searchProducts(new ProductFilter(null, null, "Gold", null, null), 0, 10);
+        productService.searchProducts(new ProductFilter(), 0, 10);
+
+        assertEquals(1, page.getTotalItems());
+        assertEquals("2", page.getItems().get(0).getId());
+        assertEquals(1, page.getFacets().get(ProductFacetIndex.PRICE_BUCKET).get("1000000+"));
+        assertEquals(1, page.getFacets().get(ProductFacetIndex.REPUTATION_LEVEL).get("Gold"));
+        verify(productRepository, times(1)).findAll();
+        verify(sellerRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testSellerLevelsAreReadAgainOnceASellerIsWritten() {
+        when(productRepository.findAll()).thenReturn(List.of());
+        productService.searchProducts(new ProductFilter(), 0, 10);
+        productService.searchProducts(new ProductFilter(), 0, 10);
+        verify(sellerRepository, times(1)).findAll();
+
+        product.setSellerInformation(new SellerInformation("Seller One", "10", new Reputation("Gold", null), null, null));
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        productService.createProduct(product);
+        productService.searchProducts(new ProductFilter(), 0, 10);
+
+        verify(sellerRepository, times(2)).findAll();
+    }
+
+    @Test
+    void testFacetIndexIsRebuiltWhenTheCatalogIsReloaded() {
+        Product cheap = facetProduct("1", "50000", "s1");
+        Product expensive = facetProduct("2", "2000000", "s2");
+        when(productRepository.catalogGeneration()).thenReturn(1L);
+        when(productRepository.findAll()).thenReturn(List.of(cheap));
+        assertEquals(1, productService.searchProducts(new ProductFilter(), 0, 10).getTotalItems());
+        assertEquals(1, productService.searchProducts(new ProductFilter(), 0, 10).getTotalItems());
+
+        // The data file was replaced on disk, so the catalog changed without a service write
+        when(productRepository.catalogGeneration()).thenReturn(2L);
+        when(productRepository.findAll()).thenReturn(List.of(expensive));
+        ProductPage page = productService.searchProducts(new ProductFilter(), 0, 10);
+
+        assertEquals(1, page.getTotalItems());
+        assertEquals(Map.of("1000000+", 1), page.getFacets().get(ProductFacetIndex.PRICE_BUCKET));
+        verify(productRepository, times(2)).findAll();
+    }
+
+    @Test
+    void testWritesUpdateFacetCounts() {
+        when(productRepository.findAll()).thenReturn(Arrays.asList());
+        Product created = facetProduct("1", "50000", "s1");
+        when(productRepository.save(any(Product.class))).thenReturn(created);
+        productService.createProduct(created);
+
+        ProductPage page = productService.searchProducts(new ProductFilter("Cash", null, null, null, null), 0, 10);
+        assertEquals(1, page.getTotalItems());
+
+        productService.deleteProduct("1");
+        page = productService.searchProducts(new ProductFilter("Cash", null, null, null, null), 0, 10);
+        assertEquals(0, page.getTotalItems());
+        assertTrue(page.getFacets().get(ProductFacetIndex.PAYMENT_METHOD).isEmpty());
+    }
+
+    @Test
+    void testSearchProductsSkipsProductsDeletedMeanwhile() {
+        when(productRepository.findAll()).thenReturn(Arrays.asList(facetProduct("1", "50000", "s1")));
+        when(productRepository.findById("1")).thenThrow(new ProductNotFoundException("1"));
+
+        ProductPage page = productService.searchProducts(new ProductFilter(), 0, 10);
+
+        assertTrue(page.getItems().isEmpty());
+        assertEquals(1, page.getTotalItems());
+    }
+
+    @Test
+    void testImportProductsStoresSellersAndIndexesTheBatch() {
+        SellerInformation seller = new SellerInformation("Seller One", "10", null, null, null);
+        product.setSellerInformation(seller);
+        Product second = new Product();
+        second.setId("2");
+        when(productRepository.importBatch(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<Product> stored = productService.importProducts(List.of(product, second));
+
+        assertEquals(2, stored.size());
+        verify(sellerRepository).saveAll(List.of(seller));
+        verify(productRepository).importBatch(argThat(batch ->
+            batch.size() == 2 && "seller-one".equals(batch.get(0).getSellerInformation().getId())
+                && batch.get(0).getSellerInformation().getName() == null));
+        assertEquals(2, facetIndex.size());
+    }
+
+    @Test
+    void testFinishImportFlushesImportedBatches() {
+        productService.finishImport();
+        verify(productRepository).flushImported();
+    }
+
+    @Test
+    void testImportProductsWritesChangedSellersOnce() {
+        product.setSellerInformation(new SellerInformation("Seller One", "10", null, null, null));
+        Product second = new Product();
+        second.setId("2");
+        second.setSellerInformation(new SellerInformation("Seller One", "11", null, null, null));
+        Product third = new Product();
+        third.setId("3");
+        third.setSellerInformation(new SellerInformation("Seller Two", "5", null, null, null));
+        SellerInformation unchanged = new SellerInformation("Seller Two", "5", null, null, null);
+        unchanged.setId("seller-two");
+        SellerInformation outdated = new SellerInformation("Seller One", "9", null, null, null);
+        outdated.setId("seller-one");
+        when(sellerRepository.findById("seller-one")).thenReturn(Optional.of(outdated));
+        when(sellerRepository.findById("seller-two")).thenReturn(Optional.of(unchanged));
+        when(productRepository.importBatch(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        productService.importProducts(List.of(product, second, third));
+
+        verify(sellerRepository, times(1)).saveAll(argThat(sellers -> sellers.size() == 1
+            && "11".equals(sellers.iterator().next().getProductsCount())));
+        verify(sellerRepository, never()).save(any());
+    }
+
+    @Test
+    void testExportProductsJoinsEachSellerWithOneLookup() {
+        SellerInformation reference = new SellerInformation();
+        reference.setId("s1");
+        product.setSellerInformation(reference);
+        Product second = new Product();
+        second.setId("2");
+        second.setSellerInformation(reference);
+        SellerInformation stored = new SellerInformation("Seller One", "10", null, null, null);
+        stored.setId("s1");
+        when(sellerRepository.findById("s1")).thenReturn(Optional.of(stored));
+        doAnswer(invocation -> {
+            java.util.function.Consumer<Product> consumer = invocation.getArgument(0);
+            consumer.accept(product);
+            consumer.accept(second);
+            return null;
+        }).when(productRepository).streamAll(any());
+
+        List<Product> exported = new java.util.ArrayList<>();
+        productService.exportProducts(exported::add);
+
+        assertEquals(2, exported.size());
+        assertSame(stored, exported.get(0).getSellerInformation());
+        assertSame(stored, exported.get(1).getSellerInformation());
+        verify(sellerRepository, times(1)).findById("s1");
+        verify(productRepository, never()).findAll();
+    }
+
+    @Test
+    void testWritesArePublishedToTheChangeFeed() {
+        when(productRepository.save(product)).thenReturn(product);
+        productService.createProduct(product);
+        verify(changeFeed).publish(ProductChange.Type.CREATED, product);
+
+        when(productRepository.update("1", product)).thenReturn(product);
+        productService.updateProduct("1", product);
+        verify(changeFeed).publish(ProductChange.Type.UPDATED, product);
+    }
+
+    @Test
+    void testDeletionIsPublishedWithTheDeletedProductsSeller() {
+        SellerInformation reference = new SellerInformation();
+        reference.setId("s1");
+        product.setSellerInformation(reference);
+        when(productRepository.findById("1")).thenReturn(product);
+
+        productService.deleteProduct("1");
+
+        verify(changeFeed).publish(ProductChange.Type.DELETED, "1", "s1", null);
+    }
+
+    @Test
+    void testDeletingAMissingProductPublishesNothing() {
+        when(productRepository.findById("missing")).thenThrow(new ProductNotFoundException("missing"));
+        productService.deleteProduct("missing");
+        verifyNoInteractions(changeFeed);
+    }
+
+    @Test
+    void testUpdateThatChangesTheIdPublishesTheOldIdAsDeleted() {
+        Product renamed = new Product();
+        renamed.setId("2");
+        when(productRepository.update("1", renamed)).thenReturn(renamed);
+
+        productService.updateProduct("1", renamed);
+
+        verify(changeFeed).publish(ProductChange.Type.DELETED, "1", null, null);
+        verify(changeFeed).publish(ProductChange.Type.UPDATED, renamed);
+    }
+
+    @Test
+    void testGetChangesJoinsSellersOfUpserts() {
+        SellerInformation reference = new SellerInformation();
+        reference.setId("s1");
+        product.setSellerInformation(reference);
+        SellerInformation stored = new SellerInformation("Seller One", "10", null, null, null);
+        stored.setId("s1");
+        when(sellerRepository.findById("s1")).thenReturn(Optional.of(stored));
+        when(productRepository.changesSince(5L, 100))
+            .thenReturn(new ProductChanges(9L, true, List.of(product), List.of("2")));
+
+        ProductChanges changes = productService.getChanges(5L, 100);
+
+        assertEquals(9L, changes.getSequence());
+        assertTrue(changes.isHasMore());
+        assertSame(stored, changes.getUpserts().get(0).getSellerInformation());
+        assertEquals(List.of("2"), changes.getDeleted());
+    }
+
+    @Test
+    void testGetChangesPassesFullSyncThrough() {
+        ProductChanges fullSync = ProductChanges.fullSync(7L);
+        when(productRepository.changesSince(0L, 10)).thenReturn(fullSync);
+
+        assertSame(fullSync, productService.getChanges(0L, 10));
+        verifyNoInteractions(sellerRepository);
+    }
+
+    @Test
+    void testGetChangesRejectsLimitOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> productService.getChanges(1L, 0));
+        assertThrows(IllegalArgumentException.class, () -> productService.getChanges(1L, 1001));
+        verify(productRepository, never()).changesSince(anyLong(), anyInt());
+    }
+
+    @Test
+    void testApplyReplicatedChangesKeepsVersionsAndPublishesThem() {
+        SellerInformation seller = new SellerInformation("Seller One", "10", null, null, null);
+        product.setSellerInformation(seller);
+        product.setVersion(6L);
+        Product existing = new Product();
+        existing.setId("2");
+        when(productRepository.findById("1")).thenThrow(new ProductNotFoundException("1"));
+        when(productRepository.findById("2")).thenReturn(existing);
+
+        productService.applyReplicatedChanges(List.of(product), List.of("2"));
+
+        verify(sellerRepository).saveAll(List.of(seller));
+        verify(productRepository).replicate(argThat(upserts -> upserts.size() == 1
+            && upserts.get(0).getVersion() == 6L
+            && "seller-one".equals(upserts.get(0).getSellerInformation().getId())), eq(List.of("2")));
+        verify(changeFeed).publish(eq(ProductChange.Type.CREATED), any(Product.class));
+        verify(changeFeed).publish(ProductChange.Type.DELETED, "2", null, null);
+        assertEquals(1, facetIndex.size());
+    }
+
+    @Test
+    void testLookupsOfMissingProductsStopBeforeTheRepository() {
+        MissingProductFilter filter = new MissingProductFilter(true, 1000, 0.01, 100, 30000);
+        ProductServiceImpl service = new ProductServiceImpl(productRepository, sellerRepository, facetIndex, changeFeed, filter,
+            sellerLevels);
+        doAnswer(invocation -> {
+            java.util.function.Consumer<Product> consumer = invocation.getArgument(0);
+            consumer.accept(product);
+            return null;
+        }).when(productRepository).streamAll(any());
+        when(productRepository.findById("1")).thenReturn(product);
+
+        assertSame(product, service.getProductById("1"));
+        for (int i = 0; i < 100; i++) {
+            String id = "missing-" + i;
+            assertThrows(ProductNotFoundException.class, () -> service.getProductById(id));
+        }
+
+        verify(productRepository, times(1)).streamAll(any());
+        verify(productRepository, atMost(5)).findById(startsWith("missing-"));
+        assertTrue(filter.filterRejections() >= 95);
+    }
+
+    @Test
+    void testProductsOfAReloadedCatalogPassTheMissingProductFilter() {
+        MissingProductFilter filter = new MissingProductFilter(true, 1000, 0.01, 100, 30000);
+        ProductServiceImpl service = new ProductServiceImpl(productRepository, sellerRepository, facetIndex, changeFeed, filter,
+            sellerLevels);
+        Product reloaded = new Product();
+        reloaded.setId("reloaded");
+        List<Product> catalog = new ArrayList<>(List.of(product));
+        doAnswer(invocation -> {
+            java.util.function.Consumer<Product> consumer = invocation.getArgument(0);
+            catalog.forEach(consumer);
+            return null;
+        }).when(productRepository).streamAll(any());
+        when(productRepository.catalogGeneration()).thenReturn(1L);
+        assertThrows(ProductNotFoundException.class, () -> service.getProductById("reloaded"));
+
+        catalog.add(reloaded);
+        when(productRepository.catalogGeneration()).thenReturn(2L);
+        when(productRepository.findById("reloaded")).thenReturn(reloaded);
+
+        assertSame(reloaded, service.getProductById("reloaded"));
+        verify(productRepository, times(2)).streamAll(any());
+    }
+
+    @Test
+    void testCreatedProductIsFoundAfterItsIdWasLookedUpAsMissing() {
+        MissingProductFilter filter = new MissingProductFilter(true, 1000, 0.01, 100, 30000);
+        ProductServiceImpl service = new ProductServiceImpl(productRepository, sellerRepository, facetIndex, changeFeed, filter,
+            sellerLevels);
+        when(productRepository.findById("1")).thenThrow(new ProductNotFoundException("1"));
+        filter.beforeWrite("1");
+        filter.afterWrite("1");
+        assertThrows(ProductNotFoundException.class, () -> service.getProductById("1"));
+        assertThrows(ProductNotFoundException.class, () -> service.getProductById("1"));
+        verify(productRepository, times(1)).findById("1");
+
+        when(productRepository.save(product)).thenReturn(product);
+        service.createProduct(product);
+        reset(productRepository);
+        when(productRepository.findById("1")).thenReturn(product);
+
+        assertSame(product, service.getProductById("1"));
+    }
+
+    @Test
+    void testWarmUpBuildsTheIndexesAheadOfTheFirstRequest() {
+        MissingProductFilter filter = new MissingProductFilter(true, 1000, 0.01, 100, 30000);
+        ProductServiceImpl service = new ProductServiceImpl(productRepository, sellerRepository, facetIndex, changeFeed, filter,
+            sellerLevels);
+        when(productRepository.findAll()).thenReturn(List.of(product));
+        doAnswer(invocation -> {
+            java.util.function.Consumer<Product> consumer = invocation.getArgument(0);
+            consumer.accept(product);
+            return null;
+        }).when(productRepository).streamAll(any());
+        assertFalse(service.isWarmedUp());
+
+        service.warmUp();
+
+        assertTrue(service.isWarmedUp());
+        assertEquals(1, facetIndex.size());
+        assertThrows(ProductNotFoundException.class, () -> service.getProductById("missing"));
+        verify(productRepository, times(1)).streamAll(any());
+        verify(productRepository, never()).findById(any());
+    }
+
+    @Test
+    void testFailedWarmUpLeavesTheServiceNotWarmedUp() {
+        when(productRepository.findAll()).thenThrow(new DataAccessException("Failed to read products from file: products.json"));
+
+        productService.warmUp();
+
+        assertFalse(productService.isWarmedUp());
+    }
+
+    @Test
+    void testFailedWarmUpIsRetriedOnceAskedAgain() throws InterruptedException {
+        productService.setWarmUpRetryMillis(0);
+        when(productRepository.findAll()).thenThrow(new DataAccessException("Failed to read products from file: products.json"))
+            .thenReturn(List.of(product));
+        productService.warmUp();
+
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!productService.isWarmedUp()) {
+            assertTrue(System.nanoTime() < deadline, "warm-up was not retried");
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, facetIndex.size());
+    }
+
+    @Test
+    void testServiceCallsAreObserved() {
+        ObservationRegistry registry = ObservationRegistry.create();
+        List<Observation.Context> stopped = ObservationRecorder.record(registry);
+        productService.setObservationRegistry(registry);
+        when(productRepository.findById("1")).thenReturn(product);
+        when(productRepository.findById("2")).thenThrow(new ProductNotFoundException("2"));
+
+        productService.getProductById("1");
+        assertThrows(ProductNotFoundException.class, () -> productService.getProductById("2"));
+
+        assertEquals(2, stopped.size());
+        Observation.Context found = stopped.get(0);
+        assertEquals("product.service", found.getName());
+        assertEquals("ProductService.getProductById", found.getContextualName());
+        assertEquals("getProductById", found.getLowCardinalityKeyValue("method").getValue());
+        assertEquals("1", found.getHighCardinalityKeyValue("product.id").getValue());
+        assertNull(found.getError());
+        assertInstanceOf(ProductNotFoundException.class, stopped.get(1).getError());
+    }
+
+    @Test
+    void testResultSizesAreRecorded() {
+        ObservationRegistry registry = ObservationRegistry.create();
+        List<Observation.Context> stopped = ObservationRecorder.record(registry);
+        productService.setObservationRegistry(registry);
+        when(productRepository.findAll()).thenReturn(List.of(product, product));
+
+        productService.getAllProducts();
+
+        assertEquals("2", stopped.get(0).getHighCardinalityKeyValue("product.count").getValue());
+    }
+}
@@ -0,0 +1,68 @@
+package com.marketplace;
+
+import com.marketplace.application.CatalogReadiness;
+import com.marketplace.infrastructure.JsonProductRepository;
+import com.marketplace.infrastructure.PartitionedProductRepository;
+import com.marketplace.infrastructure.ProductStoreHealthIndicator;
+import com.marketplace.infrastructure.dto.StoreHealth;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductStoreHealthIndicatorTest {
+    private final CatalogReadiness catalog = mock(CatalogReadiness.class);
+    private final JsonProductRepository repository = mock(JsonProductRepository.class);
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<JsonProductRepository> jsonRepository = mock(ObjectProvider.class);
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<PartitionedProductRepository> noPartitions = mock(ObjectProvider.class);
+    private final ProductStoreHealthIndicator indicator = new ProductStoreHealthIndicator(catalog, jsonRepository, noPartitions);
+
+    @BeforeEach
+    void setUp() {
+        when(jsonRepository.getIfAvailable()).thenReturn(repository);
+        when(catalog.isWarmedUp()).thenReturn(true);
+        when(repository.health()).thenReturn(new StoreHealth(true, Instant.parse("2024-05-01T10:00:00Z"), 42, 3, 1));
+    }
+
+    @Test
+    void testUpReportsTheStoreWithoutReadingIt() {
+        Health health = indicator.health();
+
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(true, health.getDetails().get("warmedUp"));
+        assertEquals(42, health.getDetails().get("products"));
+        assertEquals(3L, health.getDetails().get("queuedWrites"));
+        assertEquals(1L, health.getDetails().get("pendingWrites"));
+        verify(repository, never()).findAll();
+        verify(repository, never()).streamAll(any());
+    }
+
+    @Test
+    void testOutOfServiceUntilWarmedUpAndLoaded() {
+        when(catalog.isWarmedUp()).thenReturn(false);
+        assertEquals(Status.OUT_OF_SERVICE, indicator.health().getStatus());
+
+        when(catalog.isWarmedUp()).thenReturn(true);
+        when(repository.health()).thenReturn(new StoreHealth(false, null, 0, 0, 0));
+        assertEquals(Status.OUT_OF_SERVICE, indicator.health().getStatus());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStoresWithoutSnapshotOnlyReportTheWarmUp() {
+        ObjectProvider<JsonProductRepository> none = mock(ObjectProvider.class);
+
+        Health health = new ProductStoreHealthIndicator(catalog, none, noPartitions).health();
+
+        assertEquals(Status.UP, health.getStatus());
+        assertFalse(health.getDetails().containsKey("products"));
+    }
+}
@@ -0,0 +1,60 @@
+package com.marketplace;
+
+import com.marketplace.infrastructure.JsonProductRepository;
+import com.marketplace.infrastructure.PartitionedProductRepository;
+import com.marketplace.infrastructure.ProductWriteStatsController;
+import com.marketplace.infrastructure.dto.WriteStats;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ProductWriteStatsController.class)
+class ProductWriteStatsControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private JsonProductRepository repository;
+
+    @Test
+    void testWriteStats() throws Exception {
+        when(repository.writeStats()).thenReturn(new WriteStats(200, 10, 7, 2, 1, 1));
+        mockMvc.perform(get("/product/writes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.windowMillis").value(200))
+                .andExpect(jsonPath("$.writes").value(10))
+                .andExpect(jsonPath("$.coalesced").value(7))
+                .andExpect(jsonPath("$.persisted").value(2))
+                .andExpect(jsonPath("$.pending").value(1))
+                .andExpect(jsonPath("$.fileWrites").value(1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testNoContentWithoutJsonStore() {
+        ObjectProvider<JsonProductRepository> none = mock(ObjectProvider.class);
+        ObjectProvider<PartitionedProductRepository> noPartitions = mock(ObjectProvider.class);
+
+        assertEquals(204, new ProductWriteStatsController(none, noPartitions).writeStats().getStatusCode().value());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testWriteStatsOfPartitionedStore() {
+        ObjectProvider<JsonProductRepository> none = mock(ObjectProvider.class);
+        ObjectProvider<PartitionedProductRepository> partitions = mock(ObjectProvider.class);
+        PartitionedProductRepository partitioned = mock(PartitionedProductRepository.class);
+        when(partitions.getIfAvailable()).thenReturn(partitioned);
+        when(partitioned.writeStats()).thenReturn(new WriteStats(0, 4, 0, 4, 0, 3));
+
+        assertEquals(3, new ProductWriteStatsController(none, partitions).writeStats().getBody().fileWrites());
+    }
+}
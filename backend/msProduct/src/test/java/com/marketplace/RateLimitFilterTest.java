@@ -0,0 +1,118 @@
+package com.marketplace;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.infrastructure.ratelimit.RateLimitFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private RateLimitFilter filter(boolean enabled, boolean trustForwardedFor) {
+        return new RateLimitFilter(enabled, 2, 0.01, 1, 0.01, 600, 100, "X-API-Key", "partner, other-partner",
+            trustForwardedFor, objectMapper);
+    }
+
+    private static MockHttpServletRequest request(String method, String address) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/product");
+        request.setRemoteAddr(address);
+        return request;
+    }
+
+    private static MockHttpServletResponse perform(RateLimitFilter filter, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    void testReadsBeyondBudgetGet429WithRetryAfter() throws Exception {
+        RateLimitFilter filter = filter(true, false);
+
+        MockHttpServletResponse first = perform(filter, request("GET", "10.0.0.1"));
+        assertEquals(200, first.getStatus());
+        assertEquals("1", first.getHeader(RateLimitFilter.REMAINING_HEADER));
+        assertEquals(200, perform(filter, request("GET", "10.0.0.1")).getStatus());
+
+        MockHttpServletResponse limited = perform(filter, request("GET", "10.0.0.1"));
+        assertEquals(429, limited.getStatus());
+        assertEquals("100", limited.getHeader("Retry-After"));
+        assertTrue(limited.getContentAsString().contains("\"error\":\"RATE_LIMITED\""));
+
+        assertEquals(200, perform(filter, request("GET", "10.0.0.2")).getStatus());
+    }
+
+    @Test
+    void testWritesHaveTheirOwnBudget() throws Exception {
+        RateLimitFilter filter = filter(true, false);
+        perform(filter, request("GET", "10.0.0.1"));
+        perform(filter, request("GET", "10.0.0.1"));
+
+        assertEquals(200, perform(filter, request("PUT", "10.0.0.1")).getStatus());
+        assertEquals(429, perform(filter, request("DELETE", "10.0.0.1")).getStatus());
+    }
+
+    @Test
+    void testApiKeyIdentifiesClient() throws Exception {
+        RateLimitFilter filter = filter(true, false);
+        MockHttpServletRequest keyed = request("POST", "10.0.0.1");
+        keyed.addHeader("X-API-Key", "partner");
+        assertEquals(200, perform(filter, keyed).getStatus());
+        assertEquals(200, perform(filter, request("POST", "10.0.0.1")).getStatus());
+        assertEquals(429, perform(filter, keyed).getStatus());
+    }
+
+    @Test
+    void testUnknownApiKeysShareTheBudgetOfTheirAddress() throws Exception {
+        RateLimitFilter filter = filter(true, false);
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest request = request("POST", "10.0.0.1");
+            request.addHeader("X-API-Key", "made-up-" + i);
+            assertEquals(i == 0 ? 200 : 429, perform(filter, request).getStatus());
+        }
+    }
+
+    @Test
+    void testForwardedForOnlyWhenTrusted() throws Exception {
+        RateLimitFilter trusting = filter(true, true);
+        MockHttpServletRequest first = request("POST", "10.0.0.9");
+        first.addHeader("X-Forwarded-For", "203.0.113.5, 10.0.0.9");
+        MockHttpServletRequest second = request("POST", "10.0.0.9");
+        second.addHeader("X-Forwarded-For", "203.0.113.6");
+        assertEquals(200, perform(trusting, first).getStatus());
+        assertEquals(200, perform(trusting, second).getStatus());
+
+        RateLimitFilter untrusting = filter(true, false);
+        assertEquals(200, perform(untrusting, first).getStatus());
+        assertEquals(429, perform(untrusting, second).getStatus());
+    }
+
+    @Test
+    void testHealthProbesAreNotLimited() throws Exception {
+        RateLimitFilter filter = filter(true, false);
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest probe = request("GET", "10.0.0.1");
+            probe.setRequestURI("/actuator/health/readiness");
+            assertEquals(200, perform(filter, probe).getStatus());
+        }
+        assertEquals(200, perform(filter, request("GET", "10.0.0.1")).getStatus());
+    }
+
+    @Test
+    void testPreflightAndDisabledAreNotLimited() throws Exception {
+        RateLimitFilter filter = filter(true, false);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, perform(filter, request("OPTIONS", "10.0.0.1")).getStatus());
+        }
+        RateLimitFilter disabled = filter(false, false);
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletResponse response = perform(disabled, request("POST", "10.0.0.1"));
+            assertEquals(200, response.getStatus());
+            assertNull(response.getHeader(RateLimitFilter.REMAINING_HEADER));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.marketplace;
+
+import com.marketplace.infrastructure.ratelimit.RateLimiter;
+import com.marketplace.infrastructure.ratelimit.TokenBucket;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testBucketAllowsBurstThenRefills() {
+        TokenBucket bucket = new TokenBucket(3, 2, 0);
+
+        assertEquals(2, bucket.tryAcquire(0).remaining());
+        assertTrue(bucket.tryAcquire(0).allowed());
+        assertTrue(bucket.tryAcquire(0).allowed());
+        TokenBucket.Decision refused = bucket.tryAcquire(0);
+        assertFalse(refused.allowed());
+        assertEquals(SECOND / 2, refused.retryAfterNanos());
+
+        assertTrue(bucket.tryAcquire(SECOND / 2).allowed());
+        assertFalse(bucket.tryAcquire(SECOND / 2).allowed());
+        // Never refills beyond capacity
+        assertEquals(2, bucket.tryAcquire(100 * SECOND).remaining());
+    }
+
+    @Test
+    void testBucketRejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0, 0));
+    }
+
+    @Test
+    void testClientsHaveSeparateBuckets() {
+        AtomicLong clock = new AtomicLong();
+        RateLimiter limiter = new RateLimiter(1, 1, 60, clock::get);
+
+        assertTrue(limiter.tryAcquire("a").allowed());
+        assertFalse(limiter.tryAcquire("a").allowed());
+        assertTrue(limiter.tryAcquire("b").allowed());
+        assertEquals(2, limiter.trackedClients());
+    }
+
+    @Test
+    void testIdleBucketsExpire() {
+        AtomicLong clock = new AtomicLong();
+        RateLimiter limiter = new RateLimiter(10, 1, 60, clock::get);
+        limiter.tryAcquire("idle");
+        clock.set(30 * SECOND);
+        limiter.tryAcquire("active");
+        assertEquals(2, limiter.trackedClients());
+
+        clock.set(61 * SECOND);
+        limiter.tryAcquire("active");
+        assertEquals(1, limiter.trackedClients());
+    }
+
+    @Test
+    void testNewClientsBeyondTheCapShareOneBucket() {
+        AtomicLong clock = new AtomicLong();
+        RateLimiter limiter = new RateLimiter(1, 1, 60, 2, clock::get);
+        assertTrue(limiter.tryAcquire("a").allowed());
+        assertTrue(limiter.tryAcquire("b").allowed());
+
+        assertTrue(limiter.tryAcquire("c").allowed());
+        assertFalse(limiter.tryAcquire("d").allowed());
+        assertEquals(2, limiter.trackedClients());
+
+        // Until a full refill has passed since the last sweep, new clients keep sharing the overflow bucket
+        clock.set(SECOND / 2);
+        assertFalse(limiter.tryAcquire("e").allowed());
+        assertEquals(2, limiter.trackedClients());
+
+        // Refilled buckets are dropped to make room, as a new bucket would be just as full
+        clock.set(2 * SECOND);
+        assertTrue(limiter.tryAcquire("e").allowed());
+        assertFalse(limiter.tryAcquire("e").allowed());
+        assertEquals(1, limiter.trackedClients());
+    }
+
+    @Test
+    void testExpiryIsAtLeastAFullRefill() {
+        AtomicLong clock = new AtomicLong();
+        RateLimiter limiter = new RateLimiter(100, 1, 60, clock::get);
+        limiter.tryAcquire("slow-refill");
+
+        clock.set(61 * SECOND);
+        limiter.tryAcquire("other");
+        assertEquals(2, limiter.trackedClients());
+
+        clock.set(202 * SECOND);
+        limiter.tryAcquire("other");
+        assertEquals(1, limiter.trackedClients());
+    }
+
+    @Test
+    void testConcurrentAcquisitionsNeverExceedCapacity() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(1000, 0.001, 60, () -> 0L);
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(8);
+        for (int thread = 0; thread < 8; thread++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 500; i++) {
+                    if (limiter.tryAcquire("shared").allowed()) {
+                        allowed.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals(1000, allowed.get());
+    }
+}
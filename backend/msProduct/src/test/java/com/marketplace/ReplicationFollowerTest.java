@@ -0,0 +1,143 @@
+package com.marketplace;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.application.ProductService;
+import com.marketplace.domain.Product;
+import com.marketplace.domain.ProductRepository;
+import com.marketplace.domain.exceptions.ProductNotFoundException;
+import com.marketplace.infrastructure.replication.ReplicationFollower;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static com.marketplace.TestProducts.product;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs a leader and a follower on one host, each with its own data file and port
+class ReplicationFollowerTest {
+    @TempDir
+    Path directory;
+
+    private ConfigurableApplicationContext leader;
+    private ConfigurableApplicationContext follower;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        leader = start("leader", List.of(product("a"), product("b")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (follower != null) {
+            follower.close();
+        }
+        leader.close();
+    }
+
+    private ConfigurableApplicationContext start(String name, List<Product> catalog, String... properties) throws IOException {
+        File dataDirectory = directory.resolve(name).toFile();
+        assertTrue(dataDirectory.mkdirs());
+        File dataFile = new File(dataDirectory, "products.json");
+        new ObjectMapper().writeValue(dataFile, catalog);
+        return new SpringApplicationBuilder(MsProductApplication.class)
+            .properties("server.port=0", "app.data.file=" + dataFile.getAbsolutePath(),
+                "cors.allowed-origins=http://localhost:3000", "cors.allowed-methods=GET", "cors.allowed-headers=*",
+                "cors.allow-credentials=false", "cors.max-age=3600")
+            .properties(properties)
+            .run();
+    }
+
+    private ConfigurableApplicationContext startFollower(List<Product> catalog) throws IOException {
+        return start("follower", catalog, "app.replication.role=follower",
+            "app.replication.leader-url=" + url(leader), "app.replication.poll-interval-ms=20");
+    }
+
+    private static String url(ConfigurableApplicationContext context) {
+        return "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    private static Set<String> ids(ConfigurableApplicationContext context) {
+        return context.getBean(ProductRepository.class).findAll().stream().map(Product::getId).collect(Collectors.toSet());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "replication did not catch up");
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void testNewFollowerCatchesUpFromASnapshot() throws Exception {
+        follower = startFollower(List.of(product("stale")));
+
+        ReplicationFollower replication = follower.getBean(ReplicationFollower.class);
+        // The status is updated once the snapshot is applied
+        await(() -> ids(follower).equals(Set.of("a", "b")) && replication.status().fullSyncs() > 0);
+
+        assertEquals(1, replication.status().fullSyncs());
+    }
+
+    @Test
+    void testLeaderWritesReachTheFollowerWithTheirVersions() throws Exception {
+        follower = startFollower(List.of());
+        await(() -> ids(follower).equals(Set.of("a", "b")));
+        ProductService leaderService = leader.getBean(ProductService.class);
+
+        leaderService.createProduct(product("c"));
+        Product updated = product("a");
+        updated.setTitle("Updated");
+        leaderService.updateProduct("a", updated);
+        leaderService.deleteProduct("b");
+
+        ReplicationFollower replication = follower.getBean(ReplicationFollower.class);
+        await(() -> ids(follower).equals(Set.of("a", "c")) && replication.status().appliedChanges() >= 3);
+        ProductRepository replica = follower.getBean(ProductRepository.class);
+        assertEquals("Updated", replica.findById("a").getTitle());
+        assertEquals(leader.getBean(ProductRepository.class).findById("a").getVersion(), replica.findById("a").getVersion());
+        assertThrows(ProductNotFoundException.class, () -> replica.findById("b"));
+        assertEquals(1, replication.status().fullSyncs());
+    }
+
+    @Test
+    void testFollowerRedirectsWritesToTheLeader() throws Exception {
+        follower = startFollower(List.of());
+        HttpClient client = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NEVER).build();
+
+        HttpResponse<String> write = client.send(HttpRequest.newBuilder(URI.create(url(follower) + "/product/a"))
+            .DELETE().build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> status = client.send(HttpRequest.newBuilder(URI.create(url(follower) + "/product/replication"))
+            .build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> leaderStatus = client.send(HttpRequest.newBuilder(URI.create(url(leader) + "/product/replication"))
+            .build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> leaderWrite = client.send(HttpRequest.newBuilder(URI.create(url(leader) + "/product/b"))
+            .DELETE().build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(307, write.statusCode());
+        assertEquals(url(leader) + "/product/a", write.headers().firstValue("Location").orElseThrow());
+        assertTrue(write.body().contains("READ_ONLY_REPLICA"));
+        assertEquals(200, status.statusCode());
+        assertTrue(status.body().contains(url(leader)));
+        assertEquals(204, leaderStatus.statusCode());
+        assertEquals(200, leaderWrite.statusCode());
+        assertEquals(Set.of("a"), ids(leader));
+    }
+}
@@ -0,0 +1,101 @@
+package com.marketplace;
+
+import com.marketplace.application.ProductService;
+import com.marketplace.application.SellerService;
+import com.marketplace.domain.Product;
+import com.marketplace.domain.ProductPage;
+import com.marketplace.domain.SellerInformation;
+import com.marketplace.domain.exceptions.SellerNotFoundException;
+import com.marketplace.infrastructure.SellerController;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(SellerController.class)
+class SellerControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SellerService sellerService;
+
+    @MockBean
+    private ProductService productService;
+
+    @Test
+    void testGetSellerById() throws Exception {
+        SellerInformation seller = new SellerInformation("Seller One", "10", null, null, null);
+        seller.setId("s1");
+        when(sellerService.getSellerById("s1")).thenReturn(seller);
+        mockMvc.perform(get("/seller/s1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("s1"))
+                .andExpect(jsonPath("$.name").value("Seller One"));
+    }
+
+    @Test
+    void testGetSellerByIdNotFound() throws Exception {
+        when(sellerService.getSellerById("missing")).thenThrow(new SellerNotFoundException("missing"));
+        mockMvc.perform(get("/seller/missing"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("SELLER_NOT_FOUND"));
+    }
+
+    @Test
+    void testUpdateSeller() throws Exception {
+        when(sellerService.updateSeller(eq("s1"), any(SellerInformation.class)))
+            .thenAnswer(invocation -> {
+                SellerInformation seller = invocation.getArgument(1);
+                seller.setId("s1");
+                return seller;
+            });
+        mockMvc.perform(put("/seller/s1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Renamed\",\"productsCount\":\"12\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("s1"))
+                .andExpect(jsonPath("$.name").value("Renamed"));
+    }
+
+    @Test
+    void testGetSellerProducts() throws Exception {
+        Product product = new Product();
+        product.setId("p1");
+        when(productService.getProductsBySeller("s1", 2, 5))
+            .thenReturn(new ProductPage(Collections.singletonList(product), 2, 5, 11));
+        mockMvc.perform(get("/seller/s1/products").param("page", "2").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value("p1"))
+                .andExpect(jsonPath("$.page").value(2))
+                .andExpect(jsonPath("$.totalItems").value(11))
+                .andExpect(jsonPath("$.totalPages").value(3));
+    }
+
+    @Test
+    void testGetSellerProductsDefaults() throws Exception {
+        when(productService.getProductsBySeller("s1", 0, 20))
+            .thenReturn(new ProductPage(Collections.emptyList(), 0, 20, 0));
+        mockMvc.perform(get("/seller/s1/products"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isEmpty());
+    }
+
+    @Test
+    void testGetSellerProductsInvalidPaging() throws Exception {
+        when(productService.getProductsBySeller("s1", 0, 500))
+            .thenThrow(new IllegalArgumentException("Page size must be between 1 and 100"));
+        mockMvc.perform(get("/seller/s1/products").param("size", "500"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,85 @@
+package com.marketplace;
+
+import com.marketplace.domain.Product;
+import com.marketplace.domain.SellerInformation;
+import com.marketplace.domain.SellerReferences;
+import com.marketplace.infrastructure.index.SellerProductIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SellerProductIndexTest {
+    private final SellerProductIndex index = new SellerProductIndex();
+
+    private static Product product(String id, SellerInformation seller) {
+        Product product = new Product();
+        product.setId(id);
+        product.setSellerInformation(seller);
+        return product;
+    }
+
+    private static SellerInformation named(String name) {
+        return new SellerInformation(name, null, null, null, null);
+    }
+
+    @Test
+    void testSliceKeepsInsertionOrder() {
+        index.putAll(Arrays.asList(
+            product("1", SellerReferences.reference("s1")),
+            product("2", SellerReferences.reference("s2")),
+            product("3", SellerReferences.reference("s1")),
+            product("4", SellerReferences.reference("s1"))));
+
+        assertEquals(List.of("1", "3"), index.slice("s1", 0, 2).productIds());
+        assertEquals(List.of("4"), index.slice("s1", 2, 2).productIds());
+        assertEquals(3, index.slice("s1", 2, 2).total());
+        assertTrue(index.slice("s1", 5, 2).productIds().isEmpty());
+        assertEquals(0, index.slice("missing", 0, 2).total());
+        assertEquals(2, index.sellerCount());
+    }
+
+    @Test
+    void testEmbeddedSellersUseDerivedId() {
+        index.put(product("1", named("Tienda Oficial")));
+        assertEquals(List.of("1"), index.slice("tienda-oficial", 0, 10).productIds());
+    }
+
+    @Test
+    void testUpdateWithSameSellerKeepsPosition() {
+        index.put(product("1", SellerReferences.reference("s1")));
+        index.put(product("2", SellerReferences.reference("s1")));
+        index.put(product("1", named("S1 renamed")));
+        index.put(product("1", SellerReferences.reference("s1")));
+
+        assertEquals(List.of("2", "1"), index.slice("s1", 0, 10).productIds());
+        index.put(product("2", SellerReferences.reference("s1")));
+        assertEquals(List.of("2", "1"), index.slice("s1", 0, 10).productIds());
+    }
+
+    @Test
+    void testMoveAndRemove() {
+        index.put(product("1", SellerReferences.reference("s1")));
+        index.put(product("1", SellerReferences.reference("s2")));
+        assertEquals(0, index.slice("s1", 0, 10).total());
+        assertEquals(1, index.slice("s2", 0, 10).total());
+
+        index.remove("1");
+        index.remove("unknown");
+        assertEquals(0, index.sellerCount());
+    }
+
+    @Test
+    void testProductsWithoutSellerOrIdAreSkipped() {
+        index.put(product("1", null));
+        index.put(product(null, SellerReferences.reference("s1")));
+        assertEquals(0, index.sellerCount());
+
+        index.put("1", product(null, SellerReferences.reference("s1")));
+        assertEquals(List.of("1"), index.slice("s1", 0, 10).productIds());
+        index.clear();
+        assertEquals(0, index.sellerCount());
+    }
+}
@@ -0,0 +1,55 @@
+package com.marketplace;
+
+import com.marketplace.application.SellerReputationCache;
+import com.marketplace.domain.Reputation;
+import com.marketplace.domain.SellerInformation;
+import com.marketplace.domain.SellerRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SellerReputationCacheTest {
+    private final SellerRepository sellerRepository = mock(SellerRepository.class);
+
+    private static SellerInformation seller(String id, String level) {
+        SellerInformation seller = new SellerInformation(id, null, level == null ? null : new Reputation(level, null), null, null);
+        seller.setId(id);
+        return seller;
+    }
+
+    @Test
+    void testLevelsAreReadOnceUntilInvalidated() {
+        when(sellerRepository.findAll()).thenReturn(List.of(seller("s1", "Gold"), seller("s2", null)));
+        SellerReputationCache cache = new SellerReputationCache(sellerRepository, 60_000);
+
+        assertEquals(Map.of("s1", "Gold"), cache.levels());
+        assertEquals(Map.of("s1", "Gold"), cache.levels());
+        verify(sellerRepository, times(1)).findAll();
+
+        when(sellerRepository.findAll()).thenReturn(List.of(seller("s1", "Silver")));
+        cache.invalidate();
+
+        assertEquals(Map.of("s1", "Silver"), cache.levels());
+        verify(sellerRepository, times(2)).findAll();
+    }
+
+    @Test
+    void testLevelsExpire() {
+        when(sellerRepository.findAll()).thenReturn(List.of(seller("s1", "Gold")));
+        SellerReputationCache cache = new SellerReputationCache(sellerRepository, 0);
+
+        cache.levels();
+        cache.levels();
+
+        verify(sellerRepository, times(2)).findAll();
+    }
+
+    @Test
+    void testNegativeTtlRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new SellerReputationCache(sellerRepository, -1));
+    }
+}
@@ -0,0 +1,127 @@
+package com.marketplace;
+
+import com.marketplace.application.SellerReputationCache;
+import com.marketplace.application.SellerServiceImpl;
+import com.marketplace.domain.Product;
+import com.marketplace.domain.ProductRepository;
+import com.marketplace.domain.SellerInformation;
+import com.marketplace.domain.SellerReferences;
+import com.marketplace.domain.SellerRepository;
+import com.marketplace.domain.exceptions.SellerNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SellerServiceImplTest {
+    @Mock
+    private SellerRepository sellerRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private SellerReputationCache sellerLevels;
+
+    private SellerServiceImpl sellerService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        sellerService = new SellerServiceImpl(sellerRepository, productRepository, sellerLevels, false);
+    }
+
+    @Test
+    void testGetSellerById() {
+        SellerInformation seller = new SellerInformation("Seller", "1", null, null, null);
+        when(sellerRepository.findById("seller")).thenReturn(Optional.of(seller));
+        assertSame(seller, sellerService.getSellerById("seller"));
+    }
+
+    @Test
+    void testGetSellerByIdNotFound() {
+        SellerNotFoundException exception = assertThrows(SellerNotFoundException.class,
+            () -> sellerService.getSellerById("missing"));
+        assertEquals("missing", exception.getSellerId());
+        assertEquals("Seller with ID 'missing' not found", exception.getMessage());
+    }
+
+    @Test
+    void testUpdateSellerUsesPathId() {
+        SellerInformation seller = new SellerInformation("Seller", "2", null, null, null);
+        seller.setId("other");
+        when(sellerRepository.save(seller)).thenReturn(seller);
+
+        SellerInformation updated = sellerService.updateSeller("seller", seller);
+
+        assertEquals("seller", updated.getId());
+        verify(sellerRepository).save(seller);
+        verify(sellerLevels).invalidate();
+    }
+
+    @Test
+    void testUpdateSellerRejectsBlankId() {
+        assertThrows(IllegalArgumentException.class,
+            () -> sellerService.updateSeller(" ", new SellerInformation()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSeedFromProductsCopiesEachEmbeddedSellerOnce() {
+        Product first = new Product();
+        first.setSellerInformation(new SellerInformation("Shop A", "1", null, null, null));
+        Product second = new Product();
+        second.setSellerInformation(new SellerInformation("Shop A", "1", null, null, null));
+        Product third = new Product();
+        third.setSellerInformation(SellerReferences.reference("shop-b"));
+        Product fourth = new Product();
+        when(productRepository.findAll()).thenReturn(Arrays.asList(first, second, third, fourth));
+
+        assertEquals(1, sellerService.seedFromProducts());
+
+        ArgumentCaptor<Collection<SellerInformation>> saved = ArgumentCaptor.forClass(Collection.class);
+        verify(sellerRepository).saveAll(saved.capture());
+        assertEquals(1, saved.getValue().size());
+        assertEquals("shop-a", saved.getValue().iterator().next().getId());
+        assertNull(first.getSellerInformation().getId());
+    }
+
+    @Test
+    void testSeedFromProductsSkipsKnownSellers() {
+        Product product = new Product();
+        product.setSellerInformation(new SellerInformation("Shop A", "1", null, null, null));
+        when(productRepository.findAll()).thenReturn(Arrays.asList(product));
+        when(sellerRepository.findById("shop-a")).thenReturn(Optional.of(new SellerInformation()));
+
+        assertEquals(0, sellerService.seedFromProducts());
+        verify(sellerRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void testSeedOnStartupDisabledByDefault() {
+        sellerService.seedOnStartup();
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void testSellerReferenceIds() {
+        assertNull(SellerReferences.idOf(null));
+        assertNull(SellerReferences.idOf(new SellerInformation()));
+        assertEquals("tienda-oficial-de-samsung",
+            SellerReferences.idOf(new SellerInformation("  Tienda Oficial de Samsung! ", null, null, null, null)));
+        assertEquals("cafe-y-pan", SellerReferences.idOf(new SellerInformation("Café y Pan", null, null, null, null)));
+        SellerInformation withId = new SellerInformation("Any", null, null, null, null);
+        withId.setId("explicit");
+        assertEquals("explicit", SellerReferences.idOf(withId));
+        assertTrue(SellerReferences.isReference(SellerReferences.reference("x")));
+        assertFalse(SellerReferences.isReference(withId));
+    }
+}
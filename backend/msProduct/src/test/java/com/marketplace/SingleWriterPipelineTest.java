@@ -0,0 +1,201 @@
+package com.marketplace;
+
+import com.marketplace.infrastructure.pipeline.SingleWriterPipeline;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleWriterPipelineTest {
+    private final List<List<Integer>> commits = new ArrayList<>();
+    private final CountDownLatch firstCommitStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseFirstCommit = new CountDownLatch(1);
+    private volatile boolean failCommits;
+    private SingleWriterPipeline<List<Integer>> pipeline;
+
+    // Records each committed batch; the first commit blocks until released, so writes queue up behind it
+    private SingleWriterPipeline<List<Integer>> pipeline(int ringSize, int maxBatch) {
+        pipeline = new SingleWriterPipeline<>("test", new SingleWriterPipeline.Journal<>() {
+            @Override
+            public List<Integer> begin() {
+                return new ArrayList<>();
+            }
+
+            @Override
+            public void commit(List<Integer> batch) {
+                if (firstCommitStarted.getCount() > 0) {
+                    firstCommitStarted.countDown();
+                    await(releaseFirstCommit);
+                }
+                if (failCommits) {
+                    throw new IllegalStateException("disk full");
+                }
+                synchronized (commits) {
+                    commits.add(batch);
+                }
+            }
+        }, ringSize, maxBatch);
+        return pipeline;
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseFirstCommit.countDown();
+        if (pipeline != null) {
+            pipeline.close();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static SingleWriterPipeline.Mutation<List<Integer>, Integer> add(int value) {
+        return batch -> {
+            batch.add(value);
+            return value;
+        };
+    }
+
+    @Test
+    void testWritesQueuedDuringACommitAreCommittedTogetherInOrder() {
+        pipeline(16, 100);
+        CompletableFuture<Integer> first = pipeline.submit(add(0));
+        await(firstCommitStarted);
+        List<CompletableFuture<Integer>> queued = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            queued.add(pipeline.submit(add(i)));
+        }
+        assertFalse(queued.get(0).isDone());
+        assertEquals(5, pipeline.queued());
+
+        releaseFirstCommit.countDown();
+
+        assertEquals(0, first.join());
+        for (int i = 0; i < queued.size(); i++) {
+            assertEquals(i + 1, queued.get(i).join());
+        }
+        assertEquals(List.of(List.of(0), List.of(1, 2, 3, 4, 5)), commits);
+        assertEquals(2, pipeline.batches());
+        assertEquals(6, pipeline.committed());
+        assertEquals(0, pipeline.queued());
+    }
+
+    @Test
+    void testBatchesAreCappedAtMaxBatch() {
+        pipeline(16, 2);
+        pipeline.submit(add(0));
+        await(firstCommitStarted);
+        List<CompletableFuture<Integer>> queued = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            queued.add(pipeline.submit(add(i)));
+        }
+        releaseFirstCommit.countDown();
+        queued.forEach(CompletableFuture::join);
+
+        assertEquals(List.of(List.of(0), List.of(1, 2), List.of(3, 4), List.of(5)), commits);
+    }
+
+    @Test
+    void testFailedMutationFailsAloneAndIsRethrown() {
+        pipeline(16, 100);
+        releaseFirstCommit.countDown();
+
+        assertThrows(IllegalArgumentException.class, () -> pipeline.execute(batch -> {
+            throw new IllegalArgumentException("bad write");
+        }));
+        assertEquals(7, pipeline.execute(add(7)));
+        assertEquals(1, pipeline.committed());
+    }
+
+    @Test
+    void testFailedCommitFailsEveryWriteOfTheBatch() {
+        pipeline(16, 100);
+        failCommits = true;
+        pipeline.submit(add(0));
+        await(firstCommitStarted);
+        CompletableFuture<Integer> second = pipeline.submit(add(1));
+        CompletableFuture<Integer> third = pipeline.submit(add(2));
+        releaseFirstCommit.countDown();
+
+        assertThrows(IllegalStateException.class, () -> pipeline.execute(add(3)));
+        assertTrue(second.isCompletedExceptionally());
+        assertTrue(third.isCompletedExceptionally());
+        assertTrue(commits.isEmpty());
+        assertEquals(0, pipeline.committed());
+    }
+
+    @Test
+    void testFullRingHoldsCallersBackUntilTheWriterCatchesUp() throws Exception {
+        pipeline(2, 100);
+        assertEquals(2, pipeline.capacity());
+        pipeline.submit(add(0));
+        await(firstCommitStarted);
+        pipeline.submit(add(1));
+        pipeline.submit(add(2));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<Integer> blocked = CompletableFuture.supplyAsync(() -> pipeline.execute(add(3)), executor);
+            Thread.sleep(100);
+            assertFalse(blocked.isDone());
+
+            releaseFirstCommit.countDown();
+
+            assertEquals(3, blocked.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testConcurrentWritersAreAllCommitted() throws Exception {
+        pipeline(64, 32);
+        releaseFirstCommit.countDown();
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<Void>> writers = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                writers.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        pipeline.execute(add(next.getAndIncrement()));
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(writers.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(4000, commits.stream().mapToInt(List::size).sum());
+        assertEquals(4000, commits.stream().flatMap(List::stream).distinct().count());
+        assertEquals(4000, pipeline.committed());
+    }
+
+    @Test
+    void testCloseCommitsQueuedWritesAndRejectsNewOnes() {
+        pipeline(16, 100);
+        pipeline.submit(add(0));
+        await(firstCommitStarted);
+        CompletableFuture<Integer> queued = pipeline.submit(add(1));
+        releaseFirstCommit.countDown();
+
+        pipeline.close();
+
+        assertEquals(1, queued.join());
+        assertThrows(IllegalStateException.class, () -> pipeline.execute(add(2)));
+    }
+}
@@ -0,0 +1,73 @@
+package com.marketplace;
+
+import com.marketplace.infrastructure.interning.StringDictionary;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StringDictionaryTest {
+
+    @Test
+    void testCanonicalReturnsFirstInstance() {
+        StringDictionary dictionary = new StringDictionary();
+        String first = new String("MercadoLíder");
+        String second = new String("MercadoLíder");
+
+        assertSame(first, dictionary.canonical(first));
+        assertSame(first, dictionary.canonical(second));
+        assertNull(dictionary.canonical(null));
+        assertEquals(1, dictionary.size());
+    }
+
+    @Test
+    void testCodesAreStableAndGrowPastInitialCapacity() {
+        StringDictionary dictionary = new StringDictionary();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, dictionary.code("value-" + i));
+        }
+        assertEquals(42, dictionary.code("value-42"));
+        assertEquals("value-99", dictionary.value(99));
+    }
+
+    @Test
+    void testCanonicalListKeepsNulls() {
+        StringDictionary dictionary = new StringDictionary();
+        List<String> canonical = dictionary.canonicalList(Arrays.asList("Card", null, "Cash"));
+        assertEquals(Arrays.asList("Card", null, "Cash"), canonical);
+        assertNull(dictionary.canonicalList(null));
+    }
+
+    @Test
+    void testConcurrentCodesAreConsistent() throws Exception {
+        StringDictionary dictionary = new StringDictionary();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<int[]>> results = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            results.add(executor.submit(() -> {
+                int[] codes = new int[500];
+                for (int i = 0; i < codes.length; i++) {
+                    codes[i] = dictionary.code("v" + i);
+                }
+                return codes;
+            }));
+        }
+        int[] expected = results.get(0).get();
+        for (Future<int[]> result : results) {
+            assertArrayEquals(expected, result.get());
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(500, dictionary.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals("v" + i, dictionary.value(expected[i]));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.marketplace;
+
+import com.marketplace.domain.Product;
+
+// Products for tests that only need something with an id to store
+final class TestProducts {
+    private TestProducts() {
+    }
+
+    /**
+     * Returns a new product with {@code id}, titled after it.
+     */
+    static Product product(String id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle("Product " + id);
+        return product;
+    }
+}